@@ -0,0 +1,76 @@
+package com.avfallskompassen.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH result file with the checked in baseline and exits with status 1 if any benchmark
+ * got slower than the tolerance allows. Benchmarks are matched on name and parameters.
+ * Usage: {@code BaselineCheck <baseline.json> <result.json> [tolerancePercent]}
+ */
+public final class BaselineCheck {
+
+    private static final double DEFAULT_TOLERANCE_PERCENT = 15.0;
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck <baseline.json> <result.json> [tolerancePercent]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE_PERCENT;
+
+        Map<String, Double> baseline = read(Path.of(args[0]));
+        Map<String, Double> results = read(Path.of(args[1]));
+        if (baseline.isEmpty()) {
+            System.out.println("Baseline is empty, record one as described in src/jmh/README.md");
+            return;
+        }
+
+        int regressions = 0;
+        for (Map.Entry<String, Double> entry : new TreeMap<>(results).entrySet()) {
+            Double expected = baseline.get(entry.getKey());
+            if (expected == null || expected == 0) {
+                System.out.printf("%-90s %12.3f  (no baseline)%n", entry.getKey(), entry.getValue());
+                continue;
+            }
+            double change = (entry.getValue() - expected) / expected * 100;
+            boolean regressed = change > tolerance;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %12.3f  %+7.1f%%%s%n", entry.getKey(), entry.getValue(), change,
+                    regressed ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) slower than the baseline by more than %.1f%%%n", regressions, tolerance);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the average score per benchmark and parameter combination from a JMH JSON result file.
+     */
+    private static Map<String, Double> read(Path file) throws IOException {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        JsonNode root = new ObjectMapper().readTree(Files.readString(file));
+        for (JsonNode run : root) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            Map<String, String> params = new TreeMap<>();
+            run.path("params").fields().forEachRemaining(field -> params.put(field.getKey(), field.getValue().asText()));
+            params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+            scores.put(key.toString(), run.path("primaryMetric").path("score").asDouble());
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,214 @@
+package com.avfallskompassen.benchmark;
+
+import com.avfallskompassen.dto.PeerGroupStatisticsDTO;
+import com.avfallskompassen.dto.PeerServiceStatisticsDTO;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.Door;
+import com.avfallskompassen.model.LockType;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.MunicipalityService;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.PropertyType;
+import com.avfallskompassen.model.ServiceType;
+import com.avfallskompassen.model.User;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.services.PropertyWasteProfile;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible synthetic data for the benchmarks. Every generator takes its own seeded
+ * {@link Random}, so the same parameters always give the same properties, rooms and peer groups.
+ */
+final class BenchmarkData {
+
+    static final long SEED = 20260101L;
+
+    static final String[] SERVICE_TYPES = {"Restavfall", "Matavfall", "Pappersförpackningar", "Plastförpackningar", "Glas", "Metall"};
+    private static final int[] CONTAINER_SIZES = {140, 190, 240, 370, 660};
+    private static final int[] FREQUENCIES = {13, 26, 52};
+
+    private BenchmarkData() {
+    }
+
+    static Random random() {
+        return new Random(SEED);
+    }
+
+    static Municipality municipality() {
+        Municipality municipality = new Municipality();
+        municipality.setId(1L);
+        municipality.setName("Benchmarkkommun");
+        return municipality;
+    }
+
+    /**
+     * One plan per service type and container size, as a municipality typically offers.
+     */
+    static List<ContainerPlan> containerPlans(Random random, Municipality municipality) {
+        List<ContainerPlan> plans = new ArrayList<>();
+        long id = 1;
+        for (int s = 0; s < SERVICE_TYPES.length; s++) {
+            ServiceType serviceType = new ServiceType(SERVICE_TYPES[s]);
+            serviceType.setId(s + 1L);
+            MunicipalityService service = new MunicipalityService(municipality, serviceType);
+            service.setId(s + 1L);
+
+            for (int size : CONTAINER_SIZES) {
+                ContainerType type = new ContainerType(size + "L Kärl", size, 500 + size, 600 + size, 1000);
+                type.setId(id);
+                int frequency = FREQUENCIES[random.nextInt(FREQUENCIES.length)];
+                BigDecimal cost = BigDecimal.valueOf(200 + random.nextInt(2000)).setScale(2);
+
+                ContainerPlan plan = new ContainerPlan(service, type, frequency, cost,
+                        "/images/containers/topview.png", "/images/containers/frontview.png");
+                plan.setId(id++);
+                plans.add(plan);
+            }
+        }
+        return plans;
+    }
+
+    static Property property(long id, int apartments, Municipality municipality) {
+        LockType lockType = new LockType();
+        lockType.setId(1L);
+        lockType.setName("Standard");
+        lockType.setCost(new BigDecimal("450.00"));
+
+        Property property = new Property("Benchmarkgatan " + id, apartments, lockType,
+                PropertyType.FLERBOSTADSHUS, 10.0, new User("benchmark", "secret"));
+        property.setId(id);
+        property.setMunicipality(municipality);
+        return property;
+    }
+
+    /**
+     * Active waste rooms with containers drawn from the given plans, plus a door and an object per room.
+     */
+    static List<WasteRoom> wasteRooms(Random random, Property property, int rooms, int containersPerRoom,
+                                      List<ContainerPlan> plans) {
+        List<WasteRoom> result = new ArrayList<>();
+        long positionId = 1;
+        for (int r = 0; r < rooms; r++) {
+            WasteRoom room = new WasteRoom();
+            room.setId(property.getId() * 1000 + r);
+            room.setName("Rum " + r);
+            room.setProperty(property);
+            room.setWidth(4 + random.nextInt(6));
+            room.setLength(3 + random.nextInt(6));
+            room.setIsActive(true);
+            room.setVersionNumber(1);
+
+            List<ContainerPosition> containers = new ArrayList<>();
+            double frequencySum = 0;
+            for (int c = 0; c < containersPerRoom; c++) {
+                ContainerPlan plan = plans.get(random.nextInt(plans.size()));
+                ContainerPosition position = new ContainerPosition();
+                position.setId(positionId++);
+                position.setContainerPlan(plan);
+                position.setX(random.nextInt(400));
+                position.setY(random.nextInt(400));
+                position.setAngle(random.nextBoolean() ? 0 : 90);
+                position.setHasLockILock(random.nextInt(4) == 0);
+                position.setWasteRoom(room);
+                containers.add(position);
+                frequencySum += plan.getEmptyingFrequencyPerYear();
+            }
+            room.setContainers(containers);
+            room.setAverageCollectionFrequency(containersPerRoom > 0 ? frequencySum / containersPerRoom : 0.0);
+
+            Door door = new Door();
+            door.setId((long) r);
+            door.setWidth(1.0);
+            door.setWall("top");
+            door.setSwingDirection("outward");
+            door.setWasteRoom(room);
+            room.setDoors(new ArrayList<>(List.of(door)));
+
+            OtherObject object = new OtherObject();
+            object.setId((long) r);
+            object.setName("Skåp");
+            object.setWidth(30);
+            object.setDepth(30);
+            object.setWasteRoom(room);
+            room.setOtherObjects(new ArrayList<>(List.of(object)));
+
+            result.add(room);
+        }
+        return result;
+    }
+
+    /**
+     * Waste profiles and costs for a peer group of the given size, each peer with one or two rooms.
+     */
+    static List<Peer> peers(Random random, int size, Municipality municipality, List<ContainerPlan> plans) {
+        List<Peer> peers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Property property = property(10_000L + i, 10 + random.nextInt(10), municipality);
+            List<WasteRoom> rooms = wasteRooms(random, property, 1 + random.nextInt(2), 4 + random.nextInt(8), plans);
+            BigDecimal cost = BigDecimal.valueOf(5_000 + random.nextInt(40_000)).setScale(2);
+            peers.add(new Peer(rooms, cost));
+        }
+        return peers;
+    }
+
+    /**
+     * Aggregates the peers the way the peer statistics queries do in the database.
+     */
+    static PeerGroupStatisticsDTO aggregate(List<PropertyWasteProfile> profiles, List<BigDecimal> costs) {
+        PeerGroupStatisticsDTO statistics = new PeerGroupStatisticsDTO();
+        BigDecimal costSum = BigDecimal.ZERO;
+        BigDecimal minCost = null;
+        BigDecimal maxCost = null;
+        long volumeSum = 0;
+        double frequencySum = 0;
+        long frequencyCount = 0;
+
+        for (int i = 0; i < profiles.size(); i++) {
+            PropertyWasteProfile profile = profiles.get(i);
+            BigDecimal cost = costs.get(i);
+            costSum = costSum.add(cost);
+            minCost = minCost == null || cost.compareTo(minCost) < 0 ? cost : minCost;
+            maxCost = maxCost == null || cost.compareTo(maxCost) > 0 ? cost : maxCost;
+            volumeSum += profile.getTotalVolume();
+            if (profile.getAverageRoomFrequency() > 0) {
+                frequencySum += profile.getAverageRoomFrequency();
+                frequencyCount++;
+            }
+
+            profile.getWasteAmountByService().forEach((service, amount) -> {
+                double frequency = profile.getAverageFrequencyByService().getOrDefault(service, 0.0);
+                PeerServiceStatisticsDTO entry = statistics.getServiceStatistics().get(service);
+                if (entry == null) {
+                    statistics.getServiceStatistics().put(service,
+                            new PeerServiceStatisticsDTO(service, 1, amount, amount, amount, frequency));
+                } else {
+                    entry.setPeerCount(entry.getPeerCount() + 1);
+                    entry.setWasteAmountSum(entry.getWasteAmountSum() + amount);
+                    entry.setMinWasteAmount(Math.min(entry.getMinWasteAmount(), amount));
+                    entry.setMaxWasteAmount(Math.max(entry.getMaxWasteAmount(), amount));
+                    entry.setFrequencySum(entry.getFrequencySum() + frequency);
+                }
+            });
+        }
+
+        statistics.setPeerCount(profiles.size());
+        statistics.setCostCount(costs.size());
+        statistics.setCostSum(costSum);
+        statistics.setMinCost(minCost);
+        statistics.setMaxCost(maxCost);
+        statistics.setVolumeSum(volumeSum);
+        statistics.setFrequencySum(frequencySum);
+        statistics.setFrequencyCount(frequencyCount);
+        return statistics;
+    }
+
+    record Peer(List<WasteRoom> wasteRooms, BigDecimal annualCost) {
+    }
+}
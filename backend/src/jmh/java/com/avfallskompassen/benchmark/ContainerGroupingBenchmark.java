@@ -0,0 +1,70 @@
+package com.avfallskompassen.benchmark;
+
+import com.avfallskompassen.dto.PropertyContainerDTO;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.ContainerPositionRepository;
+import com.avfallskompassen.services.ContainerCatalogService;
+import com.avfallskompassen.services.impl.AnnualCostModel;
+import com.avfallskompassen.services.impl.ContainerServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grouping of the active containers of a property per plan in
+ * {@link ContainerServiceImpl#getContainersByPropertyId(Long)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContainerGroupingBenchmark {
+
+    @Param({"40", "400", "4000"})
+    public int containers;
+
+    private ContainerServiceImpl containerService;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkData.random();
+        Municipality municipality = BenchmarkData.municipality();
+        List<ContainerPlan> plans = BenchmarkData.containerPlans(random, municipality);
+        Property property = BenchmarkData.property(1L, 40, municipality);
+
+        List<ContainerPosition> positions = BenchmarkData.wasteRooms(random, property, 4, containers / 4, plans).stream()
+                .map(WasteRoom::getContainers)
+                .flatMap(List::stream)
+                .toList();
+
+        ContainerPositionRepository positionRepository = Stubs.of(ContainerPositionRepository.class)
+                .returning("findByPropertyIdAndIsActive", positions)
+                .build();
+        containerService = new ContainerServiceImpl(positionRepository, Stubs.of(ContainerCatalogService.class).build(),
+                new AnnualCostModel(new BigDecimal("100")));
+    }
+
+    @Benchmark
+    public List<PropertyContainerDTO> groupByPlan() {
+        return containerService.getContainersByPropertyId(1L);
+    }
+}
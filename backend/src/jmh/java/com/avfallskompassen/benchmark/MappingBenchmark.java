@@ -0,0 +1,64 @@
+package com.avfallskompassen.benchmark;
+
+import com.avfallskompassen.dto.PropertyDTO;
+import com.avfallskompassen.dto.WasteRoomDTO;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.WasteRoom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of waste rooms and properties with their rooms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int rooms;
+
+    @Param({"20"})
+    public int containersPerRoom;
+
+    private Property property;
+    private List<WasteRoom> wasteRooms;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkData.random();
+        Municipality municipality = BenchmarkData.municipality();
+        List<ContainerPlan> plans = BenchmarkData.containerPlans(random, municipality);
+        property = BenchmarkData.property(1L, 30, municipality);
+        wasteRooms = BenchmarkData.wasteRooms(random, property, rooms, containersPerRoom, plans);
+        property.setWasteRooms(wasteRooms);
+    }
+
+    @Benchmark
+    public List<WasteRoomDTO> wasteRoomDtos() {
+        return wasteRooms.stream().map(WasteRoomDTO::fromEntity).toList();
+    }
+
+    @Benchmark
+    public PropertyDTO propertyDto() {
+        return new PropertyDTO(property);
+    }
+}
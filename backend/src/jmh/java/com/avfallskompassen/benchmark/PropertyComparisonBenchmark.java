@@ -0,0 +1,110 @@
+package com.avfallskompassen.benchmark;
+
+import com.avfallskompassen.dto.CollectionFeeDTO;
+import com.avfallskompassen.dto.PeerGroupStatisticsDTO;
+import com.avfallskompassen.dto.PropertyComparisonDTO;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.PropertyRepository;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.CollectionFeeService;
+import com.avfallskompassen.services.PeerStatisticsService;
+import com.avfallskompassen.services.PropertyComparisonService;
+import com.avfallskompassen.services.PropertyService;
+import com.avfallskompassen.services.PropertyWasteProfile;
+import com.avfallskompassen.services.impl.AnnualCostModel;
+import com.avfallskompassen.services.impl.PropertyCostServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Property comparison over synthetic peer groups. {@code compare} is the request path, where the
+ * peer group has already been aggregated; {@code aggregatePeerGroup} is the work that grows with the
+ * size of the peer group (profiling every peer and summing them up).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyComparisonBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int peerGroupSize;
+
+    private PropertyComparisonService comparisonService;
+    private List<BenchmarkData.Peer> peers;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkData.random();
+        Municipality municipality = BenchmarkData.municipality();
+        List<ContainerPlan> plans = BenchmarkData.containerPlans(random, municipality);
+
+        Property property = BenchmarkData.property(1L, 15, municipality);
+        List<WasteRoom> rooms = BenchmarkData.wasteRooms(random, property, 2, 12, plans);
+        peers = BenchmarkData.peers(random, peerGroupSize, municipality, plans);
+        PeerGroupStatisticsDTO peerGroup = aggregate(peers);
+
+        PropertyRepository propertyRepository = Stubs.of(PropertyRepository.class)
+                .returning("findById", Optional.of(property))
+                .build();
+        WasteRoomRepository wasteRoomRepository = Stubs.of(WasteRoomRepository.class)
+                .returning("findByPropertyId", rooms)
+                .build();
+        PropertyService propertyService = Stubs.of(PropertyService.class)
+                .returning("findById", Optional.of(property))
+                .build();
+        CollectionFeeService collectionFeeService = Stubs.of(CollectionFeeService.class)
+                .returning("findCollectionFeeByPropertyId", new CollectionFeeDTO(1L, new BigDecimal("1200.00")))
+                .build();
+        PeerStatisticsService peerStatisticsService = Stubs.of(PeerStatisticsService.class)
+                .returning("getPeerGroupStatistics", peerGroup)
+                .build();
+
+        PropertyCostServiceImpl costService = new PropertyCostServiceImpl(
+                propertyService, wasteRoomRepository, collectionFeeService, propertyRepository,
+                new AnnualCostModel(new BigDecimal("100")));
+        comparisonService = new PropertyComparisonService(
+                propertyRepository, costService, wasteRoomRepository, peerStatisticsService);
+    }
+
+    @Benchmark
+    public PropertyComparisonDTO compare() {
+        return comparisonService.getPropertyComparison(1L);
+    }
+
+    @Benchmark
+    public PeerGroupStatisticsDTO aggregatePeerGroup() {
+        return aggregate(peers);
+    }
+
+    private static PeerGroupStatisticsDTO aggregate(List<BenchmarkData.Peer> peers) {
+        List<PropertyWasteProfile> profiles = new ArrayList<>(peers.size());
+        List<BigDecimal> costs = new ArrayList<>(peers.size());
+        for (BenchmarkData.Peer peer : peers) {
+            profiles.add(PropertyWasteProfile.fromWasteRooms(peer.wasteRooms()));
+            costs.add(peer.annualCost());
+        }
+        return BenchmarkData.aggregate(profiles, costs);
+    }
+}
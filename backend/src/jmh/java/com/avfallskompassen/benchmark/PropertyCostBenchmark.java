@@ -0,0 +1,78 @@
+package com.avfallskompassen.benchmark;
+
+import com.avfallskompassen.dto.CollectionFeeDTO;
+import com.avfallskompassen.dto.GeneralPropertyCostDTO;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.PropertyRepository;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.CollectionFeeService;
+import com.avfallskompassen.services.PropertyService;
+import com.avfallskompassen.services.impl.AnnualCostModel;
+import com.avfallskompassen.services.impl.PropertyCostServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost math of {@link PropertyCostServiceImpl#calculateAnnualCost(Long)} with the data already in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyCostBenchmark {
+
+    @Param({"1", "5"})
+    public int rooms;
+
+    @Param({"10", "100"})
+    public int containersPerRoom;
+
+    private PropertyCostServiceImpl costService;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkData.random();
+        Municipality municipality = BenchmarkData.municipality();
+        List<ContainerPlan> plans = BenchmarkData.containerPlans(random, municipality);
+        Property property = BenchmarkData.property(1L, 24, municipality);
+        List<WasteRoom> wasteRooms = BenchmarkData.wasteRooms(random, property, rooms, containersPerRoom, plans);
+
+        PropertyService propertyService = Stubs.of(PropertyService.class)
+                .returning("findById", Optional.of(property))
+                .build();
+        WasteRoomRepository wasteRoomRepository = Stubs.of(WasteRoomRepository.class)
+                .returning("findByPropertyId", wasteRooms)
+                .build();
+        CollectionFeeService collectionFeeService = Stubs.of(CollectionFeeService.class)
+                .returning("findCollectionFeeByPropertyId", new CollectionFeeDTO(1L, new BigDecimal("1200.00")))
+                .build();
+
+        costService = new PropertyCostServiceImpl(propertyService, wasteRoomRepository, collectionFeeService,
+                Stubs.of(PropertyRepository.class).build(), new AnnualCostModel(new BigDecimal("100")));
+    }
+
+    @Benchmark
+    public GeneralPropertyCostDTO calculateAnnualCost() {
+        return costService.calculateAnnualCost(1L);
+    }
+}
@@ -0,0 +1,56 @@
+package com.avfallskompassen.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Minimal in-memory stand-ins for repositories and services, so the benchmarks measure the
+ * service code and not a mocking framework. Only the methods given to the builder answer,
+ * any other call fails loudly.
+ */
+final class Stubs<T> {
+
+    private final Class<T> type;
+    private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+    private Stubs(Class<T> type) {
+        this.type = type;
+    }
+
+    static <T> Stubs<T> of(Class<T> type) {
+        return new Stubs<>(type);
+    }
+
+    /**
+     * Answers every call of the named method, whatever the arguments.
+     */
+    Stubs<T> answer(String methodName, Function<Object[], Object> answer) {
+        answers.put(methodName, answer);
+        return this;
+    }
+
+    Stubs<T> returning(String methodName, Object value) {
+        return answer(methodName, args -> value);
+    }
+
+    T build() {
+        Map<String, Function<Object[], Object>> methods = Map.copyOf(answers);
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Function<Object[], Object> answer = methods.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args != null ? args : new Object[0]);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+        });
+        return type.cast(proxy);
+    }
+}
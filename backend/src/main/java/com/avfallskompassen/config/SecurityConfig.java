@@ -78,6 +78,9 @@ public class SecurityConfig {
                     .requestMatchers("/api/admin/**").hasRole("ADMIN")
                     // other API endpoints require authentication
                     .requestMatchers("/api/**").authenticated()
+                    // health is public for load balancers, metrics are for admins only
+                    .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                    .requestMatchers("/actuator/**").hasRole("ADMIN")
                     .requestMatchers(
                             "/swagger-ui/**",
                             "/v3/api-docs/**"
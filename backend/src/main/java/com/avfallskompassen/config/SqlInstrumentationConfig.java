@@ -0,0 +1,53 @@
+package com.avfallskompassen.config;
+
+import com.avfallskompassen.instrumentation.DataSourceInstrumentationPostProcessor;
+import com.avfallskompassen.instrumentation.QueryInstrumentationFilter;
+import com.avfallskompassen.instrumentation.ServiceQueryMetricsPostProcessor;
+import com.avfallskompassen.instrumentation.SlowQueryLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Wires up the SQL instrumentation: statement counting on the data source, per request and per
+ * service method metrics, the slow statement log and the optional response headers.
+ * Turned off completely with {@code instrumentation.sql.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "instrumentation.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfig {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(@Value("${instrumentation.sql.slow-threshold-ms:200}") long thresholdMs,
+                                     MeterRegistry meterRegistry) {
+        return new SlowQueryLog(thresholdMs, meterRegistry);
+    }
+
+    @Bean
+    public static DataSourceInstrumentationPostProcessor dataSourceInstrumentationPostProcessor(
+            ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new DataSourceInstrumentationPostProcessor(slowQueryLog);
+    }
+
+    @Bean
+    public static ServiceQueryMetricsPostProcessor serviceQueryMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ServiceQueryMetricsPostProcessor(meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryInstrumentationFilter> queryInstrumentationFilter(
+            MeterRegistry meterRegistry,
+            @Value("${instrumentation.sql.response-headers:false}") boolean responseHeaders,
+            @Value("${instrumentation.sql.repeated-threshold:10}") int repeatedThreshold) {
+        FilterRegistrationBean<QueryInstrumentationFilter> registration = new FilterRegistrationBean<>(
+                new QueryInstrumentationFilter(meterRegistry, responseHeaders, repeatedThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
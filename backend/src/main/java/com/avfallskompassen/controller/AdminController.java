@@ -14,9 +14,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.avfallskompassen.dto.LayoutRevalidationReportDTO;
 import com.avfallskompassen.dto.UserDTO;
 import com.avfallskompassen.dto.WasteRoomDTO;
 import com.avfallskompassen.dto.request.WasteRoomRequest;
+import com.avfallskompassen.services.LayoutValidationService;
 import com.avfallskompassen.services.UserService;
 import com.avfallskompassen.services.WasteRoomService;
 
@@ -32,10 +34,13 @@ public class AdminController {
 
     private final UserService userService;
     private final WasteRoomService wasteRoomService;
+    private final LayoutValidationService layoutValidationService;
 
-    public AdminController(UserService userService, WasteRoomService wasteRoomService) {
+    public AdminController(UserService userService, WasteRoomService wasteRoomService,
+                           LayoutValidationService layoutValidationService) {
         this.userService = userService;
         this.wasteRoomService = wasteRoomService;
+        this.layoutValidationService = layoutValidationService;
     }
 
     @GetMapping("/users")
@@ -86,4 +91,17 @@ public class AdminController {
         List<WasteRoomDTO> versions = wasteRoomService.getAllVersionsByPropertyAndName(propertyId, roomName);
         return ResponseEntity.ok(versions);
     }
+
+    /**
+     * Handles requests for validating the layout of every stored waste room, for example before
+     * turning on rejection of invalid layouts
+     * @param maxResults The maximum number of invalid rooms to list, at most 1000
+     * @return A report with the number of checked and invalid rooms and the invalid rooms found
+     */
+    @PostMapping("/wasterooms/validate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LayoutRevalidationReportDTO> revalidateLayouts(
+            @RequestParam(defaultValue = "100") int maxResults) {
+        return ResponseEntity.ok(layoutValidationService.revalidateAll(maxResults));
+    }
 }
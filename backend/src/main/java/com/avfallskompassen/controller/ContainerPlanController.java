@@ -1,10 +1,14 @@
 package com.avfallskompassen.controller;
 
 import com.avfallskompassen.dto.CollectionFeeDTO;
+import com.avfallskompassen.dto.ContainerMixDTO;
 import com.avfallskompassen.dto.PropertyContainerDTO;
+import com.avfallskompassen.dto.request.ContainerMixRequest;
 import com.avfallskompassen.services.CollectionFeeService;
+import com.avfallskompassen.services.ContainerMixService;
 import com.avfallskompassen.services.ContainerService;
 import com.avfallskompassen.services.PropertyContainerService;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,11 +29,13 @@ public class ContainerPlanController {
     private final CollectionFeeService collectionFeeService;
     private final PropertyContainerService propertyContainerService;
     private final ContainerService containerService;
+    private final ContainerMixService containerMixService;
 
-    private ContainerPlanController(CollectionFeeService collectionFeeService, PropertyContainerService propertyContainerService, ContainerService containerService) {
+    private ContainerPlanController(CollectionFeeService collectionFeeService, PropertyContainerService propertyContainerService, ContainerService containerService, ContainerMixService containerMixService) {
         this.collectionFeeService = collectionFeeService;
         this.propertyContainerService = propertyContainerService;
         this.containerService = containerService;
+        this.containerMixService = containerMixService;
     }
 
     /**
@@ -94,4 +100,18 @@ public class ContainerPlanController {
         }
         return ResponseEntity.ok(dtos);
     }
+
+    /**
+     * Recommends the cheapest containers for a property, per service type, that hold the wanted volume
+     * and fit in the property's active waste room.
+     *
+     * @param propertyId ID of the property
+     * @param request The service types and the volume wanted for each, in liters per apartment and week
+     * @return A {@link ResponseEntity} containing the recommended {@link ContainerMixDTO}
+     */
+    @PostMapping("/{propertyId}/recommendation")
+    public ResponseEntity<ContainerMixDTO> recommendContainerMix(@PathVariable Long propertyId,
+                                                                 @Valid @RequestBody ContainerMixRequest request) {
+        return ResponseEntity.ok(containerMixService.recommendContainerMix(propertyId, request));
+    }
 }
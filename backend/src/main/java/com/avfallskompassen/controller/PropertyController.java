@@ -1,15 +1,20 @@
 package com.avfallskompassen.controller;
 
 import com.avfallskompassen.dto.LockTypeDto;
+import com.avfallskompassen.dto.PropertyPageDTO;
 import com.avfallskompassen.dto.PropertySimpleDTO;
 import com.avfallskompassen.dto.PropertySummaryDTO;
 import com.avfallskompassen.dto.UserStatsDTO;
+import com.avfallskompassen.dto.UserStatsPageDTO;
 import com.avfallskompassen.dto.request.PropertyRequest;
+import com.avfallskompassen.dto.request.PropertySearchCriteria;
 import com.avfallskompassen.dto.response.PropertyResponse;
 import com.avfallskompassen.dto.PropertyDTO;
 import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.PropertyType;
 import com.avfallskompassen.services.LockTypeService;
 import com.avfallskompassen.services.PropertyService;
+import com.avfallskompassen.services.UserStatisticsService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import com.avfallskompassen.exception.ExceptionResponseUtil;
@@ -35,10 +40,13 @@ public class PropertyController {
 
     private PropertyService propertyService;
     private LockTypeService lockTypeService;
+    private UserStatisticsService userStatisticsService;
 
-    public PropertyController(PropertyService propertyService, LockTypeService lockTypeService) {
+    public PropertyController(PropertyService propertyService, LockTypeService lockTypeService,
+                              UserStatisticsService userStatisticsService) {
         this.propertyService = propertyService;
         this.lockTypeService = lockTypeService;
+        this.userStatisticsService = userStatisticsService;
     }
     
     /**
@@ -121,6 +129,35 @@ public class PropertyController {
 
         return ResponseEntity.ok(dto);
     }
+
+    /**
+     * Collects the same info as {@link #getUserStats()} one page at a time.
+     * @param page The zero based page number
+     * @param size The number of users per page
+     * @param sort One of username, role, createdAt, propertiesCount and wasteRoomsCount
+     * @param direction asc or desc
+     * @return A page of DTO:s containing information about users
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/admin/user-stats")
+    public ResponseEntity<UserStatsPageDTO> getUserStatsPage(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
+
+        return ResponseEntity.ok(userStatisticsService.getUserStats(page, size, sort, direction));
+    }
+
+    /**
+     * Recounts the stored property and waste room counters of every user.
+     * @return The number of users that were recounted
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/admin/user-stats/recount")
+    public ResponseEntity<Integer> recountUserStats() {
+        return ResponseEntity.ok(userStatisticsService.recountAll());
+    }
     
     /**
      * Get all properties created by the current user - Returns DTOs to avoid proxy issues.
@@ -206,6 +243,52 @@ public class PropertyController {
         return ResponseEntity.ok(dto);
     }
 
+    /**
+     * Searches all properties, one page at a time. Pass the returned nextCursor as {@code after}
+     * to get the next page.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/admin/search")
+    public ResponseEntity<PropertyPageDTO> searchProperties(
+            @RequestParam(required = false) Long municipalityId,
+            @RequestParam(required = false) PropertyType propertyType,
+            @RequestParam(required = false) Integer minApartments,
+            @RequestParam(required = false) Integer maxApartments,
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(required = false) String createdBy,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+
+        PropertySearchCriteria criteria = new PropertySearchCriteria(
+                municipalityId, propertyType, minApartments, maxApartments, query, createdBy);
+
+        return ResponseEntity.ok(propertyService.searchProperties(criteria, after, limit));
+    }
+
+    /**
+     * Searches the properties created by the current user, one page at a time.
+     */
+    @GetMapping("/my-properties/search")
+    public ResponseEntity<PropertyPageDTO> searchMyProperties(
+            @RequestHeader(value = "X-Username", required = false) String username,
+            @RequestParam(required = false) Long municipalityId,
+            @RequestParam(required = false) PropertyType propertyType,
+            @RequestParam(required = false) Integer minApartments,
+            @RequestParam(required = false) Integer maxApartments,
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+
+        if (username == null || username.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        PropertySearchCriteria criteria = new PropertySearchCriteria(
+                municipalityId, propertyType, minApartments, maxApartments, query, username);
+
+        return ResponseEntity.ok(propertyService.searchProperties(criteria, after, limit));
+    }
+
 
     /**
      * Gets all properties created by current user - Returns a simplified version of the property DTO.
@@ -1,12 +1,18 @@
 package com.avfallskompassen.controller;
 
+import com.avfallskompassen.dto.CostBreakdownDTO;
 import com.avfallskompassen.dto.GeneralPropertyCostDTO;
+import com.avfallskompassen.dto.request.CostSimulationRequest;
+import com.avfallskompassen.services.CostSimulationService;
 import com.avfallskompassen.services.PropertyCostService;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -23,9 +29,11 @@ import java.util.Map;
 public class PropertyCostController {
 
     private final PropertyCostService propertyCostService;
+    private final CostSimulationService costSimulationService;
 
-    public PropertyCostController(PropertyCostService propertyCostService) {
+    public PropertyCostController(PropertyCostService propertyCostService, CostSimulationService costSimulationService) {
         this.propertyCostService = propertyCostService;
+        this.costSimulationService = costSimulationService;
     }
 
     /**
@@ -77,4 +85,16 @@ public class PropertyCostController {
                     .body(Map.of("error","An unexpected error occured"));
         }
     }
+
+    /**
+     * Handles requests for calculating the annual cost a property would have with an unsaved waste room.
+     * Nothing is read from the database, so the planner can call it whenever the room changes.
+     *
+     * @param request The waste room and the property values the cost depends on
+     * @return A {@link CostBreakdownDTO} with the annual cost split into its parts
+     */
+    @PostMapping("/simulate")
+    public ResponseEntity<CostBreakdownDTO> simulateAnnualCost(@Valid @RequestBody CostSimulationRequest request) {
+        return ResponseEntity.ok(costSimulationService.simulateAnnualCost(request));
+    }
 }
@@ -1,6 +1,7 @@
 package com.avfallskompassen.controller;
 
 import com.avfallskompassen.dto.ActivityDTO;
+import com.avfallskompassen.dto.ActivityPageDTO;
 import com.avfallskompassen.dto.request.ChangePasswordRequest;
 import com.avfallskompassen.exception.ResourceNotFoundException;
 import com.avfallskompassen.model.User;
@@ -114,4 +115,22 @@ public class UserController {
         }
         return ResponseEntity.ok(usersActivities);
     }
+
+    /**
+     * Endpoint for paging through a users activities, newest first
+     * @param username The username of the user whose activities are to be collected
+     * @param after The nextCursor of the previous page. Leave out to get the newest activities
+     * @param limit The number of activities per page
+     * @return A page of {@link ActivityDTO} and the cursor of the next page
+     */
+    @GetMapping("/activities/feed")
+    public ResponseEntity<ActivityPageDTO> getUsersActivityFeed(
+            @RequestHeader(value = "X-Username") String username,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        User user = userService.findByUsername(username).orElseThrow(() -> new ResourceNotFoundException("Username " + username + " not found"));
+
+        return ResponseEntity.ok(activityService.getActivityFeed(user, after, limit));
+    }
 }
@@ -1,14 +1,25 @@
 package com.avfallskompassen.controller;
 
+import com.avfallskompassen.dto.ContainerPlacementDTO;
 import com.avfallskompassen.dto.WasteRoomDTO;
 import com.avfallskompassen.dto.WasteRoomImgDTO;
 import com.avfallskompassen.dto.request.ActiveRoomRequest;
+import com.avfallskompassen.dto.request.ContainerPlacementRequest;
 import com.avfallskompassen.dto.request.WasteRoomRequest;
+import com.avfallskompassen.services.ContainerPlacementService;
+import com.avfallskompassen.services.RenderedThumbnail;
+import com.avfallskompassen.services.ThumbnailRenderService;
+import com.avfallskompassen.services.ThumbnailSize;
 import com.avfallskompassen.services.WasteRoomService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -21,9 +32,14 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class WasteRoomController {
     private final WasteRoomService wasteRoomService;
+    private final ThumbnailRenderService thumbnailRenderService;
+    private final ContainerPlacementService containerPlacementService;
 
-    public WasteRoomController(WasteRoomService wasteRoomService) {
+    public WasteRoomController(WasteRoomService wasteRoomService, ThumbnailRenderService thumbnailRenderService,
+                               ContainerPlacementService containerPlacementService) {
         this.wasteRoomService = wasteRoomService;
+        this.thumbnailRenderService = thumbnailRenderService;
+        this.containerPlacementService = containerPlacementService;
     }
 
     /**
@@ -50,6 +66,18 @@ public class WasteRoomController {
         return ResponseEntity.ok(updated);
     }
 
+    /**
+     * Handles requests for a suggested container layout. Nothing is saved, the suggested containers
+     * can be sent as they are when the waste room is created or updated
+     * @param request Request containing the room, its doors and other objects and the containers to place
+     * @return A status code with either an error message or a DTO containing the suggested layout
+     */
+    @PostMapping("/wasterooms/placement")
+    public ResponseEntity<ContainerPlacementDTO> placeContainers(@Valid @RequestBody ContainerPlacementRequest request) {
+        ContainerPlacementDTO placement = containerPlacementService.placeContainers(request);
+        return ResponseEntity.ok(placement);
+    }
+
     /**
      * Handles a request for deleting a waste room
      * @param id Id to the waste room
@@ -97,6 +125,67 @@ public class WasteRoomController {
         return ResponseEntity.ok(room);
     }
 
+    /**
+     * Handles a request for uploading the thumbnail of a waste room as a raw PNG body.
+     * The body is streamed to storage as it is read instead of being buffered.
+     * @param id Id to the waste room
+     * @param request The request whose body is the PNG image
+     * @return A status code with either an error message or a DTO containing the new thumbnail url
+     * @throws IOException If the request body could not be read
+     */
+    @PutMapping(value = "/wasterooms/{id}/thumbnail", consumes = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<WasteRoomImgDTO> uploadThumbnail(@PathVariable Long id, HttpServletRequest request) throws IOException {
+        WasteRoomImgDTO thumbnail = wasteRoomService.uploadThumbnail(
+                id, request.getInputStream(), request.getContentLengthLong(), request.getContentType());
+        return ResponseEntity.ok(thumbnail);
+    }
+
+    /**
+     * Handles a request for uploading the thumbnail of a waste room as a multipart file.
+     * @param id Id to the waste room
+     * @param file The PNG image
+     * @return A status code with either an error message or a DTO containing the new thumbnail url
+     * @throws IOException If the uploaded file could not be read
+     */
+    @PutMapping(value = "/wasterooms/{id}/thumbnail", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<WasteRoomImgDTO> uploadThumbnailFile(@PathVariable Long id, @RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            WasteRoomImgDTO thumbnail = wasteRoomService.uploadThumbnail(id, content, file.getSize(), file.getContentType());
+            return ResponseEntity.ok(thumbnail);
+        }
+    }
+
+    /**
+     * Handles requests for a thumbnail of a waste room rendered on the server.
+     * The response has a strong ETag, a request with a matching If-None-Match header gets 304 Not Modified.
+     * @param id Id to the waste room
+     * @param size The size variant: icon, card or full
+     * @param webRequest The current request, used for the ETag check
+     * @return A status code with either an error message or the PNG image
+     */
+    @GetMapping("/wasterooms/{id}/thumbnail")
+    public ResponseEntity<byte[]> getRenderedThumbnail(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "card") String size,
+            WebRequest webRequest
+    ) {
+        RenderedThumbnail thumbnail = thumbnailRenderService.renderThumbnail(id, ThumbnailSize.fromValue(size));
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+
+        if (webRequest.checkNotModified(thumbnail.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(thumbnail.getETag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(thumbnail.getETag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.IMAGE_PNG)
+                .body(thumbnail.getPng());
+    }
+
     @PatchMapping("/wasterooms/{id}/active")
     public ResponseEntity<Void> setWasteRoomActive(
             @PathVariable Long id,
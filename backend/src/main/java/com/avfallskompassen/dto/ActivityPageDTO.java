@@ -0,0 +1,47 @@
+package com.avfallskompassen.dto;
+
+import java.util.List;
+
+/**
+ * One page of a user's activity feed, newest first. {@code nextCursor} is passed back to get the
+ * following page and is null on the last page.
+ */
+public class ActivityPageDTO {
+
+    private List<ActivityDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public ActivityPageDTO() {
+    }
+
+    public ActivityPageDTO(List<ActivityDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    public List<ActivityDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ActivityDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
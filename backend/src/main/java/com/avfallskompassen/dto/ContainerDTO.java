@@ -2,6 +2,7 @@ package com.avfallskompassen.dto;
 
 import com.avfallskompassen.model.ContainerPlan;
 import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.MunicipalityService;
 
 import java.math.BigDecimal;
 
@@ -133,10 +134,11 @@ public class ContainerDTO {
         }
 
         ContainerType type = plan.getContainerType();
+        MunicipalityService service = plan.getMunicipalityService();
 
         return new ContainerDTO(
                 plan.getId(),
-                type != null ? plan.getMunicipalityService().getServiceType().getName() : null,
+                service != null && service.getServiceType() != null ? service.getServiceType().getName() : null,
                 type != null ? type.getSize() : 0,
                 type != null ? type.getWidth() : 0,
                 type != null ? type.getDepth() : 0,
@@ -0,0 +1,90 @@
+package com.avfallskompassen.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The cheapest container mix found for a property. {@code availableFloorArea} is the floor area of the
+ * active waste room that containers may take up, null when the property has no active room. When no
+ * mix fits that area, the cheapest mixes are returned anyway and {@code fitsFloorArea} is false.
+ */
+public class ContainerMixDTO {
+
+    private Long propertyId;
+    private int numberOfApartments;
+    private Double availableFloorArea;
+    private double floorArea;
+    private boolean fitsFloorArea;
+    private BigDecimal annualCost;
+    private List<ServiceTypeMixDTO> services;
+
+    public ContainerMixDTO() {
+    }
+
+    public ContainerMixDTO(Long propertyId, int numberOfApartments, Double availableFloorArea, double floorArea,
+                           boolean fitsFloorArea, BigDecimal annualCost, List<ServiceTypeMixDTO> services) {
+        this.propertyId = propertyId;
+        this.numberOfApartments = numberOfApartments;
+        this.availableFloorArea = availableFloorArea;
+        this.floorArea = floorArea;
+        this.fitsFloorArea = fitsFloorArea;
+        this.annualCost = annualCost;
+        this.services = services;
+    }
+
+    public Long getPropertyId() {
+        return propertyId;
+    }
+
+    public void setPropertyId(Long propertyId) {
+        this.propertyId = propertyId;
+    }
+
+    public int getNumberOfApartments() {
+        return numberOfApartments;
+    }
+
+    public void setNumberOfApartments(int numberOfApartments) {
+        this.numberOfApartments = numberOfApartments;
+    }
+
+    public Double getAvailableFloorArea() {
+        return availableFloorArea;
+    }
+
+    public void setAvailableFloorArea(Double availableFloorArea) {
+        this.availableFloorArea = availableFloorArea;
+    }
+
+    public double getFloorArea() {
+        return floorArea;
+    }
+
+    public void setFloorArea(double floorArea) {
+        this.floorArea = floorArea;
+    }
+
+    public boolean isFitsFloorArea() {
+        return fitsFloorArea;
+    }
+
+    public void setFitsFloorArea(boolean fitsFloorArea) {
+        this.fitsFloorArea = fitsFloorArea;
+    }
+
+    public BigDecimal getAnnualCost() {
+        return annualCost;
+    }
+
+    public void setAnnualCost(BigDecimal annualCost) {
+        this.annualCost = annualCost;
+    }
+
+    public List<ServiceTypeMixDTO> getServices() {
+        return services;
+    }
+
+    public void setServices(List<ServiceTypeMixDTO> services) {
+        this.services = services;
+    }
+}
@@ -0,0 +1,77 @@
+package com.avfallskompassen.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A number of containers of one container plan in a recommended container mix
+ */
+public class ContainerMixItemDTO {
+
+    private Long containerPlanId;
+    private String containerName;
+    private int size;
+    private int emptyingFrequencyPerYear;
+    private int count;
+    private BigDecimal annualCost;
+
+    public ContainerMixItemDTO() {
+    }
+
+    public ContainerMixItemDTO(Long containerPlanId, String containerName, int size, int emptyingFrequencyPerYear,
+                               int count, BigDecimal annualCost) {
+        this.containerPlanId = containerPlanId;
+        this.containerName = containerName;
+        this.size = size;
+        this.emptyingFrequencyPerYear = emptyingFrequencyPerYear;
+        this.count = count;
+        this.annualCost = annualCost;
+    }
+
+    public Long getContainerPlanId() {
+        return containerPlanId;
+    }
+
+    public void setContainerPlanId(Long containerPlanId) {
+        this.containerPlanId = containerPlanId;
+    }
+
+    public String getContainerName() {
+        return containerName;
+    }
+
+    public void setContainerName(String containerName) {
+        this.containerName = containerName;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getEmptyingFrequencyPerYear() {
+        return emptyingFrequencyPerYear;
+    }
+
+    public void setEmptyingFrequencyPerYear(int emptyingFrequencyPerYear) {
+        this.emptyingFrequencyPerYear = emptyingFrequencyPerYear;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public BigDecimal getAnnualCost() {
+        return annualCost;
+    }
+
+    public void setAnnualCost(BigDecimal annualCost) {
+        this.annualCost = annualCost;
+    }
+}
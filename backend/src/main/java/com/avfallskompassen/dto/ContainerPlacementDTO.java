@@ -0,0 +1,91 @@
+package com.avfallskompassen.dto;
+
+import com.avfallskompassen.dto.request.ContainerPositionRequest;
+
+import java.util.List;
+
+/**
+ * A container layout suggested for a waste room. {@code containers} can be sent as they are in a
+ * {@link com.avfallskompassen.dto.request.WasteRoomRequest}. Containers that did not fit are listed by
+ * container plan id in {@code unplacedContainerPlanIds}, once per container.
+ */
+public class ContainerPlacementDTO {
+
+    private List<ContainerPositionRequest> containers;
+    private List<Long> unplacedContainerPlanIds;
+    private int requestedCount;
+    private int placedCount;
+    private boolean complete;
+    private int restarts;
+    private long durationMs;
+
+    public ContainerPlacementDTO() {
+    }
+
+    public ContainerPlacementDTO(List<ContainerPositionRequest> containers, List<Long> unplacedContainerPlanIds,
+                                 int restarts, long durationMs) {
+        this.containers = containers;
+        this.unplacedContainerPlanIds = unplacedContainerPlanIds;
+        this.requestedCount = containers.size() + unplacedContainerPlanIds.size();
+        this.placedCount = containers.size();
+        this.complete = unplacedContainerPlanIds.isEmpty();
+        this.restarts = restarts;
+        this.durationMs = durationMs;
+    }
+
+    public List<ContainerPositionRequest> getContainers() {
+        return containers;
+    }
+
+    public void setContainers(List<ContainerPositionRequest> containers) {
+        this.containers = containers;
+    }
+
+    public List<Long> getUnplacedContainerPlanIds() {
+        return unplacedContainerPlanIds;
+    }
+
+    public void setUnplacedContainerPlanIds(List<Long> unplacedContainerPlanIds) {
+        this.unplacedContainerPlanIds = unplacedContainerPlanIds;
+    }
+
+    public int getRequestedCount() {
+        return requestedCount;
+    }
+
+    public void setRequestedCount(int requestedCount) {
+        this.requestedCount = requestedCount;
+    }
+
+    public int getPlacedCount() {
+        return placedCount;
+    }
+
+    public void setPlacedCount(int placedCount) {
+        this.placedCount = placedCount;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public int getRestarts() {
+        return restarts;
+    }
+
+    public void setRestarts(int restarts) {
+        this.restarts = restarts;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+}
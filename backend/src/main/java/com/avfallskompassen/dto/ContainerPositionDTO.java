@@ -71,6 +71,7 @@ public class ContainerPositionDTO {
         dto.setY(entity.getY());
         dto.setAngle(entity.getAngle());
         dto.setHasLockILock(entity.getHasLockILock());
+        dto.setContainerPlanId(entity.getContainerPlan() != null ? entity.getContainerPlan().getId() : null);
         dto.setContainerDTO(ContainerDTO.fromEntity(entity.getContainerPlan()));
         dto.setWasteRoomId(entity.getWasteRoom() != null ? entity.getWasteRoom().getId() : null);
         return dto;
@@ -0,0 +1,99 @@
+package com.avfallskompassen.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * The annual cost of a property split into its parts: the collection fee for the drag distance,
+ * the lock, the containers and the Lock-i-Lock add-ons on them
+ */
+public class CostBreakdownDTO {
+
+    private BigDecimal collectionFee;
+    private BigDecimal lockCost;
+    private BigDecimal containerCost;
+    private BigDecimal lockILockCost;
+    private BigDecimal totalCost;
+    private BigDecimal costPerApartment;
+    private int containerCount;
+    private int lockILockCount;
+
+    public CostBreakdownDTO() {
+    }
+
+    public CostBreakdownDTO(BigDecimal collectionFee, BigDecimal lockCost, BigDecimal containerCost,
+                            BigDecimal lockILockCost, BigDecimal totalCost, BigDecimal costPerApartment,
+                            int containerCount, int lockILockCount) {
+        this.collectionFee = collectionFee;
+        this.lockCost = lockCost;
+        this.containerCost = containerCost;
+        this.lockILockCost = lockILockCost;
+        this.totalCost = totalCost;
+        this.costPerApartment = costPerApartment;
+        this.containerCount = containerCount;
+        this.lockILockCount = lockILockCount;
+    }
+
+    public BigDecimal getCollectionFee() {
+        return collectionFee;
+    }
+
+    public void setCollectionFee(BigDecimal collectionFee) {
+        this.collectionFee = collectionFee;
+    }
+
+    public BigDecimal getLockCost() {
+        return lockCost;
+    }
+
+    public void setLockCost(BigDecimal lockCost) {
+        this.lockCost = lockCost;
+    }
+
+    public BigDecimal getContainerCost() {
+        return containerCost;
+    }
+
+    public void setContainerCost(BigDecimal containerCost) {
+        this.containerCost = containerCost;
+    }
+
+    public BigDecimal getLockILockCost() {
+        return lockILockCost;
+    }
+
+    public void setLockILockCost(BigDecimal lockILockCost) {
+        this.lockILockCost = lockILockCost;
+    }
+
+    public BigDecimal getTotalCost() {
+        return totalCost;
+    }
+
+    public void setTotalCost(BigDecimal totalCost) {
+        this.totalCost = totalCost;
+    }
+
+    public BigDecimal getCostPerApartment() {
+        return costPerApartment;
+    }
+
+    public void setCostPerApartment(BigDecimal costPerApartment) {
+        this.costPerApartment = costPerApartment;
+    }
+
+    public int getContainerCount() {
+        return containerCount;
+    }
+
+    public void setContainerCount(int containerCount) {
+        this.containerCount = containerCount;
+    }
+
+    public int getLockILockCount() {
+        return lockILockCount;
+    }
+
+    public void setLockILockCount(int lockILockCount) {
+        this.lockILockCount = lockILockCount;
+    }
+}
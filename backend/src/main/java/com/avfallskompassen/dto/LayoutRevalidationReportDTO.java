@@ -0,0 +1,58 @@
+package com.avfallskompassen.dto;
+
+import java.util.List;
+
+/**
+ * Summary of validating every stored waste room layout. {@code results} holds the invalid rooms,
+ * at most the number asked for, {@code invalidRooms} counts all of them.
+ */
+public class LayoutRevalidationReportDTO {
+
+    private long checkedRooms;
+    private long invalidRooms;
+    private long durationMs;
+    private List<LayoutValidationResultDTO> results;
+
+    public LayoutRevalidationReportDTO() {
+    }
+
+    public LayoutRevalidationReportDTO(long checkedRooms, long invalidRooms, long durationMs,
+                                       List<LayoutValidationResultDTO> results) {
+        this.checkedRooms = checkedRooms;
+        this.invalidRooms = invalidRooms;
+        this.durationMs = durationMs;
+        this.results = results;
+    }
+
+    public long getCheckedRooms() {
+        return checkedRooms;
+    }
+
+    public void setCheckedRooms(long checkedRooms) {
+        this.checkedRooms = checkedRooms;
+    }
+
+    public long getInvalidRooms() {
+        return invalidRooms;
+    }
+
+    public void setInvalidRooms(long invalidRooms) {
+        this.invalidRooms = invalidRooms;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<LayoutValidationResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<LayoutValidationResultDTO> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,77 @@
+package com.avfallskompassen.dto;
+
+import java.util.List;
+
+/**
+ * The result of validating the layout of one waste room.
+ */
+public class LayoutValidationResultDTO {
+
+    private Long wasteRoomId;
+    private Long propertyId;
+    private String name;
+    private Integer versionNumber;
+    private boolean valid;
+    private List<LayoutViolationDTO> violations;
+
+    public LayoutValidationResultDTO() {
+    }
+
+    public LayoutValidationResultDTO(Long wasteRoomId, Long propertyId, String name, Integer versionNumber,
+                                     List<LayoutViolationDTO> violations) {
+        this.wasteRoomId = wasteRoomId;
+        this.propertyId = propertyId;
+        this.name = name;
+        this.versionNumber = versionNumber;
+        this.violations = violations;
+        this.valid = violations.isEmpty();
+    }
+
+    public Long getWasteRoomId() {
+        return wasteRoomId;
+    }
+
+    public void setWasteRoomId(Long wasteRoomId) {
+        this.wasteRoomId = wasteRoomId;
+    }
+
+    public Long getPropertyId() {
+        return propertyId;
+    }
+
+    public void setPropertyId(Long propertyId) {
+        this.propertyId = propertyId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getVersionNumber() {
+        return versionNumber;
+    }
+
+    public void setVersionNumber(Integer versionNumber) {
+        this.versionNumber = versionNumber;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public List<LayoutViolationDTO> getViolations() {
+        return violations;
+    }
+
+    public void setViolations(List<LayoutViolationDTO> violations) {
+        this.violations = violations;
+    }
+}
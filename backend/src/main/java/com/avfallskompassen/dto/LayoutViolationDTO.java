@@ -0,0 +1,94 @@
+package com.avfallskompassen.dto;
+
+/**
+ * A problem found when validating the layout of a waste room. The items are referred to by kind and by
+ * their index in the containers, doors or other objects of the room, {@code secondKind} and
+ * {@code secondIndex} are only set for violations between two items.
+ */
+public class LayoutViolationDTO {
+
+    public enum Type {
+        /** A container or other object is not fully inside the walls */
+        OUT_OF_BOUNDS,
+        /** Two containers or other objects overlap */
+        OVERLAP,
+        /** A container or other object is inside the swing arc of an inward door */
+        DOOR_SWING_BLOCKED,
+        /** A door is not placed on the wall it belongs to */
+        DOOR_OFF_WALL
+    }
+
+    public enum ItemKind {
+        CONTAINER,
+        DOOR,
+        OTHER_OBJECT
+    }
+
+    private Type type;
+    private ItemKind firstKind;
+    private int firstIndex;
+    private ItemKind secondKind;
+    private Integer secondIndex;
+    private String message;
+
+    public LayoutViolationDTO() {
+    }
+
+    public LayoutViolationDTO(Type type, ItemKind firstKind, int firstIndex,
+                              ItemKind secondKind, Integer secondIndex, String message) {
+        this.type = type;
+        this.firstKind = firstKind;
+        this.firstIndex = firstIndex;
+        this.secondKind = secondKind;
+        this.secondIndex = secondIndex;
+        this.message = message;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public ItemKind getFirstKind() {
+        return firstKind;
+    }
+
+    public void setFirstKind(ItemKind firstKind) {
+        this.firstKind = firstKind;
+    }
+
+    public int getFirstIndex() {
+        return firstIndex;
+    }
+
+    public void setFirstIndex(int firstIndex) {
+        this.firstIndex = firstIndex;
+    }
+
+    public ItemKind getSecondKind() {
+        return secondKind;
+    }
+
+    public void setSecondKind(ItemKind secondKind) {
+        this.secondKind = secondKind;
+    }
+
+    public Integer getSecondIndex() {
+        return secondIndex;
+    }
+
+    public void setSecondIndex(Integer secondIndex) {
+        this.secondIndex = secondIndex;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
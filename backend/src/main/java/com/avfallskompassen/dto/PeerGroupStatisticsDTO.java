@@ -0,0 +1,51 @@
+package com.avfallskompassen.dto;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregated figures for the properties that a property is compared with.
+ * Only sums, counts and extremes are kept, the comparison service derives averages from them.
+ */
+public class PeerGroupStatisticsDTO {
+
+    private long peerCount;
+    private long costCount;
+    private BigDecimal costSum = BigDecimal.ZERO;
+    private BigDecimal minCost;
+    private BigDecimal maxCost;
+    private long volumeSum;
+    private double frequencySum;
+    private long frequencyCount;
+    private Map<String, PeerServiceStatisticsDTO> serviceStatistics = new HashMap<>();
+
+    public PeerGroupStatisticsDTO() {}
+
+    public long getPeerCount() { return peerCount; }
+    public void setPeerCount(long peerCount) { this.peerCount = peerCount; }
+
+    public long getCostCount() { return costCount; }
+    public void setCostCount(long costCount) { this.costCount = costCount; }
+
+    public BigDecimal getCostSum() { return costSum; }
+    public void setCostSum(BigDecimal costSum) { this.costSum = costSum; }
+
+    public BigDecimal getMinCost() { return minCost; }
+    public void setMinCost(BigDecimal minCost) { this.minCost = minCost; }
+
+    public BigDecimal getMaxCost() { return maxCost; }
+    public void setMaxCost(BigDecimal maxCost) { this.maxCost = maxCost; }
+
+    public long getVolumeSum() { return volumeSum; }
+    public void setVolumeSum(long volumeSum) { this.volumeSum = volumeSum; }
+
+    public double getFrequencySum() { return frequencySum; }
+    public void setFrequencySum(double frequencySum) { this.frequencySum = frequencySum; }
+
+    public long getFrequencyCount() { return frequencyCount; }
+    public void setFrequencyCount(long frequencyCount) { this.frequencyCount = frequencyCount; }
+
+    public Map<String, PeerServiceStatisticsDTO> getServiceStatistics() { return serviceStatistics; }
+    public void setServiceStatistics(Map<String, PeerServiceStatisticsDTO> serviceStatistics) { this.serviceStatistics = serviceStatistics; }
+}
@@ -0,0 +1,44 @@
+package com.avfallskompassen.dto;
+
+/**
+ * Aggregated waste amounts and collection frequencies for one service type within a peer group.
+ */
+public class PeerServiceStatisticsDTO {
+
+    private String serviceTypeName;
+    private long peerCount;
+    private double wasteAmountSum;
+    private double minWasteAmount;
+    private double maxWasteAmount;
+    private double frequencySum;
+
+    public PeerServiceStatisticsDTO() {}
+
+    public PeerServiceStatisticsDTO(String serviceTypeName, long peerCount, double wasteAmountSum,
+                                    double minWasteAmount, double maxWasteAmount, double frequencySum) {
+        this.serviceTypeName = serviceTypeName;
+        this.peerCount = peerCount;
+        this.wasteAmountSum = wasteAmountSum;
+        this.minWasteAmount = minWasteAmount;
+        this.maxWasteAmount = maxWasteAmount;
+        this.frequencySum = frequencySum;
+    }
+
+    public String getServiceTypeName() { return serviceTypeName; }
+    public void setServiceTypeName(String serviceTypeName) { this.serviceTypeName = serviceTypeName; }
+
+    public long getPeerCount() { return peerCount; }
+    public void setPeerCount(long peerCount) { this.peerCount = peerCount; }
+
+    public double getWasteAmountSum() { return wasteAmountSum; }
+    public void setWasteAmountSum(double wasteAmountSum) { this.wasteAmountSum = wasteAmountSum; }
+
+    public double getMinWasteAmount() { return minWasteAmount; }
+    public void setMinWasteAmount(double minWasteAmount) { this.minWasteAmount = minWasteAmount; }
+
+    public double getMaxWasteAmount() { return maxWasteAmount; }
+    public void setMaxWasteAmount(double maxWasteAmount) { this.maxWasteAmount = maxWasteAmount; }
+
+    public double getFrequencySum() { return frequencySum; }
+    public void setFrequencySum(double frequencySum) { this.frequencySum = frequencySum; }
+}
@@ -4,6 +4,7 @@ import com.avfallskompassen.model.Property;
 import com.avfallskompassen.model.WasteRoom;
 
 import java.util.List;
+import java.util.function.Function;
 // timestamps are exposed as ISO strings for frontend compatibility
 
 /**
@@ -28,6 +29,14 @@ public class PropertyDTO {
     public PropertyDTO() {}
     
     public PropertyDTO(Property property) {
+        this(property, WasteRoomDTO::fromEntity);
+    }
+
+    /**
+     * @param property The property to map
+     * @param wasteRoomMapper Maps each waste room of the property
+     */
+    public PropertyDTO(Property property, Function<WasteRoom, WasteRoomDTO> wasteRoomMapper) {
         this.id = property.getId();
         this.address = property.getAddress();
         this.numberOfApartments = property.getNumberOfApartments();
@@ -43,7 +52,7 @@ public class PropertyDTO {
 
         if (property.getWasteRooms() != null) {
             this.wasteRooms = property.getWasteRooms().stream()
-                    .map(WasteRoomDTO::fromEntity)
+                    .map(wasteRoomMapper)
                     .toList();
         }
     }
@@ -0,0 +1,78 @@
+package com.avfallskompassen.dto;
+
+import com.avfallskompassen.model.PropertyType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a paginated property listing. Built directly from a projection query, so listing
+ * properties never loads the entities, their lock types or their waste rooms.
+ */
+public class PropertyListItemDTO {
+    private Long id;
+    private String address;
+    private Integer numberOfApartments;
+    private String propertyType;
+    private Double accessPathLength;
+    private String createdAt;
+    private String updatedAt;
+    private Long municipalityId;
+    private String municipalityName;
+    private String lockName;
+    private String createdByUsername;
+
+    public PropertyListItemDTO() {}
+
+    /**
+     * Used by the listing query's constructor projection.
+     */
+    public PropertyListItemDTO(Long id, String address, Integer numberOfApartments, PropertyType propertyType,
+                               Double accessPathLength, LocalDateTime createdAt, LocalDateTime updatedAt,
+                               Long municipalityId, String municipalityName, String lockName,
+                               String createdByUsername) {
+        this.id = id;
+        this.address = address;
+        this.numberOfApartments = numberOfApartments;
+        this.propertyType = propertyType != null ? propertyType.getDisplayName() : null;
+        this.accessPathLength = accessPathLength;
+        this.createdAt = createdAt != null ? createdAt.toString() : null;
+        this.updatedAt = updatedAt != null ? updatedAt.toString() : null;
+        this.municipalityId = municipalityId;
+        this.municipalityName = municipalityName;
+        this.lockName = lockName;
+        this.createdByUsername = createdByUsername;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getAddress() { return address; }
+    public void setAddress(String address) { this.address = address; }
+
+    public Integer getNumberOfApartments() { return numberOfApartments; }
+    public void setNumberOfApartments(Integer numberOfApartments) { this.numberOfApartments = numberOfApartments; }
+
+    public String getPropertyType() { return propertyType; }
+    public void setPropertyType(String propertyType) { this.propertyType = propertyType; }
+
+    public Double getAccessPathLength() { return accessPathLength; }
+    public void setAccessPathLength(Double accessPathLength) { this.accessPathLength = accessPathLength; }
+
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+
+    public String getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getMunicipalityId() { return municipalityId; }
+    public void setMunicipalityId(Long municipalityId) { this.municipalityId = municipalityId; }
+
+    public String getMunicipalityName() { return municipalityName; }
+    public void setMunicipalityName(String municipalityName) { this.municipalityName = municipalityName; }
+
+    public String getLockName() { return lockName; }
+    public void setLockName(String lockName) { this.lockName = lockName; }
+
+    public String getCreatedByUsername() { return createdByUsername; }
+    public void setCreatedByUsername(String createdByUsername) { this.createdByUsername = createdByUsername; }
+}
@@ -0,0 +1,30 @@
+package com.avfallskompassen.dto;
+
+import java.util.List;
+
+/**
+ * One page of a property listing. Pass {@code nextCursor} as {@code after} to get the next page;
+ * it is null on the last page.
+ */
+public class PropertyPageDTO {
+    private List<PropertyListItemDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public PropertyPageDTO() {}
+
+    public PropertyPageDTO(List<PropertyListItemDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    public List<PropertyListItemDTO> getItems() { return items; }
+    public void setItems(List<PropertyListItemDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
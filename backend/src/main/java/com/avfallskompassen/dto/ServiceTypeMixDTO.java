@@ -0,0 +1,90 @@
+package com.avfallskompassen.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The containers recommended for one service type, with the volume they give and the volume asked for
+ * in liters per week, their floor area in square meters and their annual cost
+ */
+public class ServiceTypeMixDTO {
+
+    private Long serviceTypeId;
+    private String serviceTypeName;
+    private double requiredLitersPerWeek;
+    private double litersPerWeek;
+    private double floorArea;
+    private BigDecimal annualCost;
+    private List<ContainerMixItemDTO> containers;
+
+    public ServiceTypeMixDTO() {
+    }
+
+    public ServiceTypeMixDTO(Long serviceTypeId, String serviceTypeName, double requiredLitersPerWeek,
+                             double litersPerWeek, double floorArea, BigDecimal annualCost,
+                             List<ContainerMixItemDTO> containers) {
+        this.serviceTypeId = serviceTypeId;
+        this.serviceTypeName = serviceTypeName;
+        this.requiredLitersPerWeek = requiredLitersPerWeek;
+        this.litersPerWeek = litersPerWeek;
+        this.floorArea = floorArea;
+        this.annualCost = annualCost;
+        this.containers = containers;
+    }
+
+    public Long getServiceTypeId() {
+        return serviceTypeId;
+    }
+
+    public void setServiceTypeId(Long serviceTypeId) {
+        this.serviceTypeId = serviceTypeId;
+    }
+
+    public String getServiceTypeName() {
+        return serviceTypeName;
+    }
+
+    public void setServiceTypeName(String serviceTypeName) {
+        this.serviceTypeName = serviceTypeName;
+    }
+
+    public double getRequiredLitersPerWeek() {
+        return requiredLitersPerWeek;
+    }
+
+    public void setRequiredLitersPerWeek(double requiredLitersPerWeek) {
+        this.requiredLitersPerWeek = requiredLitersPerWeek;
+    }
+
+    public double getLitersPerWeek() {
+        return litersPerWeek;
+    }
+
+    public void setLitersPerWeek(double litersPerWeek) {
+        this.litersPerWeek = litersPerWeek;
+    }
+
+    public double getFloorArea() {
+        return floorArea;
+    }
+
+    public void setFloorArea(double floorArea) {
+        this.floorArea = floorArea;
+    }
+
+    public BigDecimal getAnnualCost() {
+        return annualCost;
+    }
+
+    public void setAnnualCost(BigDecimal annualCost) {
+        this.annualCost = annualCost;
+    }
+
+    public List<ContainerMixItemDTO> getContainers() {
+        return containers;
+    }
+
+    public void setContainers(List<ContainerMixItemDTO> containers) {
+        this.containers = containers;
+    }
+}
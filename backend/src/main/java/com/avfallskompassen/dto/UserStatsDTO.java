@@ -1,6 +1,8 @@
 package com.avfallskompassen.dto;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 /**
  * DTO containing data relevant to admin about users
@@ -30,6 +32,22 @@ public class UserStatsDTO {
         this.wasteRoomsCount = wasteRoomsCount;
     }
 
+    /**
+     * Used by the paginated stats query, which selects the stored counters of each user.
+     */
+    public UserStatsDTO(
+            Integer userId,
+            String username,
+            String role,
+            Instant createdAt,
+            Long propertiesCount,
+            Long wasteRoomsCount
+    ) {
+        this(userId.longValue(), username, role,
+                createdAt != null ? LocalDateTime.ofInstant(createdAt, ZoneId.systemDefault()) : null,
+                propertiesCount, wasteRoomsCount);
+    }
+
     public UserStatsDTO() {}
     public Long getUserId() { return userId; }
     public String getUsername() { return username; }
@@ -0,0 +1,53 @@
+package com.avfallskompassen.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Class containing a number of containers of one container plan to place in a waste room
+ */
+public class ContainerCountRequest {
+
+    @NotNull
+    private Long containerPlanId;
+
+    @Min(1)
+    @Max(100)
+    private int count;
+
+    private boolean hasLockILock;
+
+    public ContainerCountRequest() {
+    }
+
+    public ContainerCountRequest(Long containerPlanId, int count, boolean hasLockILock) {
+        this.containerPlanId = containerPlanId;
+        this.count = count;
+        this.hasLockILock = hasLockILock;
+    }
+
+    public Long getContainerPlanId() {
+        return containerPlanId;
+    }
+
+    public void setContainerPlanId(Long containerPlanId) {
+        this.containerPlanId = containerPlanId;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public boolean getHasLockILock() {
+        return hasLockILock;
+    }
+
+    public void setHasLockILock(boolean hasLockILock) {
+        this.hasLockILock = hasLockILock;
+    }
+}
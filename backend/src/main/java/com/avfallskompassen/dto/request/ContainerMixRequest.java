@@ -0,0 +1,31 @@
+package com.avfallskompassen.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Class containing the service types to recommend containers for and the volume wanted for each
+ */
+public class ContainerMixRequest {
+
+    @NotEmpty
+    @Valid
+    private List<ServiceTypeTargetRequest> targets;
+
+    public ContainerMixRequest() {
+    }
+
+    public ContainerMixRequest(List<ServiceTypeTargetRequest> targets) {
+        this.targets = targets;
+    }
+
+    public List<ServiceTypeTargetRequest> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(List<ServiceTypeTargetRequest> targets) {
+        this.targets = targets;
+    }
+}
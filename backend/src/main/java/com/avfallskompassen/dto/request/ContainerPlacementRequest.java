@@ -0,0 +1,110 @@
+package com.avfallskompassen.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Class containing a waste room outline, its doors and other objects and the containers to place in it.
+ * Uses the same units as {@link WasteRoomRequest}
+ */
+public class ContainerPlacementRequest {
+    @NotNull
+    @DecimalMin("2.5")
+    @Max(9)
+    private double length;
+
+    @NotNull
+    @DecimalMin("2.5")
+    @Max(12)
+    private double width;
+
+    @NotNull
+    private double x;
+
+    @NotNull
+    private double y;
+
+    @NotNull
+    private List<DoorRequest> doors;
+
+    private List<OtherObjectRequest> otherObjects;
+
+    @NotEmpty
+    @Valid
+    private List<ContainerCountRequest> containers;
+
+    public ContainerPlacementRequest() {
+    }
+
+    public ContainerPlacementRequest(double length, double width, double x, double y, List<DoorRequest> doors,
+                                     List<OtherObjectRequest> otherObjects, List<ContainerCountRequest> containers) {
+        this.length = length;
+        this.width = width;
+        this.x = x;
+        this.y = y;
+        this.doors = doors;
+        this.otherObjects = otherObjects;
+        this.containers = containers;
+    }
+
+    public double getLength() {
+        return length;
+    }
+
+    public void setLength(double length) {
+        this.length = length;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public void setWidth(double width) {
+        this.width = width;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public void setX(double x) {
+        this.x = x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public void setY(double y) {
+        this.y = y;
+    }
+
+    public List<DoorRequest> getDoors() {
+        return doors;
+    }
+
+    public void setDoors(List<DoorRequest> doors) {
+        this.doors = doors;
+    }
+
+    public List<OtherObjectRequest> getOtherObjects() {
+        return otherObjects;
+    }
+
+    public void setOtherObjects(List<OtherObjectRequest> otherObjects) {
+        this.otherObjects = otherObjects;
+    }
+
+    public List<ContainerCountRequest> getContainers() {
+        return containers;
+    }
+
+    public void setContainers(List<ContainerCountRequest> containers) {
+        this.containers = containers;
+    }
+}
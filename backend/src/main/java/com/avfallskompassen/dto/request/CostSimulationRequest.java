@@ -0,0 +1,81 @@
+package com.avfallskompassen.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Class containing an unsaved waste room and the property values its annual cost depends on
+ */
+public class CostSimulationRequest {
+
+    @NotNull
+    private Long municipalityId;
+
+    @NotNull
+    private Long lockTypeId;
+
+    @NotNull
+    @PositiveOrZero
+    private Double accessPathLength;
+
+    @Min(0)
+    private Integer numberOfApartments;
+
+    @NotNull
+    @Valid
+    private WasteRoomRequest wasteRoom;
+
+    public CostSimulationRequest() {
+    }
+
+    public CostSimulationRequest(Long municipalityId, Long lockTypeId, Double accessPathLength,
+                                 Integer numberOfApartments, WasteRoomRequest wasteRoom) {
+        this.municipalityId = municipalityId;
+        this.lockTypeId = lockTypeId;
+        this.accessPathLength = accessPathLength;
+        this.numberOfApartments = numberOfApartments;
+        this.wasteRoom = wasteRoom;
+    }
+
+    public Long getMunicipalityId() {
+        return municipalityId;
+    }
+
+    public void setMunicipalityId(Long municipalityId) {
+        this.municipalityId = municipalityId;
+    }
+
+    public Long getLockTypeId() {
+        return lockTypeId;
+    }
+
+    public void setLockTypeId(Long lockTypeId) {
+        this.lockTypeId = lockTypeId;
+    }
+
+    public Double getAccessPathLength() {
+        return accessPathLength;
+    }
+
+    public void setAccessPathLength(Double accessPathLength) {
+        this.accessPathLength = accessPathLength;
+    }
+
+    public Integer getNumberOfApartments() {
+        return numberOfApartments;
+    }
+
+    public void setNumberOfApartments(Integer numberOfApartments) {
+        this.numberOfApartments = numberOfApartments;
+    }
+
+    public WasteRoomRequest getWasteRoom() {
+        return wasteRoom;
+    }
+
+    public void setWasteRoom(WasteRoomRequest wasteRoom) {
+        this.wasteRoom = wasteRoom;
+    }
+}
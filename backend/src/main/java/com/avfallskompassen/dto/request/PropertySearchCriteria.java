@@ -0,0 +1,28 @@
+package com.avfallskompassen.dto.request;
+
+import com.avfallskompassen.model.PropertyType;
+
+/**
+ * Filters for the paginated property listing. Every filter is optional, null means no restriction.
+ *
+ * @param municipalityId    only properties in this municipality
+ * @param propertyType      only properties of this type
+ * @param minApartments     at least this many apartments
+ * @param maxApartments     at most this many apartments
+ * @param query             text the address contains, case insensitive
+ * @param createdByUsername only properties created by this user
+ */
+public record PropertySearchCriteria(Long municipalityId,
+                                     PropertyType propertyType,
+                                     Integer minApartments,
+                                     Integer maxApartments,
+                                     String query,
+                                     String createdByUsername) {
+
+    /**
+     * The same filters restricted to one user's properties.
+     */
+    public PropertySearchCriteria forUser(String username) {
+        return new PropertySearchCriteria(municipalityId, propertyType, minApartments, maxApartments, query, username);
+    }
+}
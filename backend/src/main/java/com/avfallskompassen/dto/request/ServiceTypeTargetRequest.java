@@ -0,0 +1,42 @@
+package com.avfallskompassen.dto.request;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Class containing the container volume wanted for one service type, in liters per apartment and week
+ */
+public class ServiceTypeTargetRequest {
+
+    @NotNull
+    private Long serviceTypeId;
+
+    @DecimalMin("0.1")
+    @Max(500)
+    private double litersPerWeekPerApartment;
+
+    public ServiceTypeTargetRequest() {
+    }
+
+    public ServiceTypeTargetRequest(Long serviceTypeId, double litersPerWeekPerApartment) {
+        this.serviceTypeId = serviceTypeId;
+        this.litersPerWeekPerApartment = litersPerWeekPerApartment;
+    }
+
+    public Long getServiceTypeId() {
+        return serviceTypeId;
+    }
+
+    public void setServiceTypeId(Long serviceTypeId) {
+        this.serviceTypeId = serviceTypeId;
+    }
+
+    public double getLitersPerWeekPerApartment() {
+        return litersPerWeekPerApartment;
+    }
+
+    public void setLitersPerWeekPerApartment(double litersPerWeekPerApartment) {
+        this.litersPerWeekPerApartment = litersPerWeekPerApartment;
+    }
+}
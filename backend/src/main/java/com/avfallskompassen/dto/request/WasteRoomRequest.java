@@ -155,6 +155,10 @@ public class WasteRoomRequest {
         this.versionToReplace = versionToReplace;
     }
 
+    /**
+     * Thumbnail as a base64 data url. Kept for older clients, the thumbnail should be sent as PNG to
+     * {@code PUT /api/wasterooms/{id}/thumbnail} instead.
+     */
     public String getThumbnailBase64() {
         return thumbnailBase64;
     }
@@ -0,0 +1,19 @@
+package com.avfallskompassen.events;
+
+/**
+ * Application event published when container plans have changed, e.g. when an admin
+ * updates the price of a plan. The in-memory container catalog is rebuilt once the
+ * change has been committed.
+ */
+public class ContainerCatalogChangedEvent {
+
+    private final Long containerPlanId;
+
+    public ContainerCatalogChangedEvent(Long containerPlanId) {
+        this.containerPlanId = containerPlanId;
+    }
+
+    public Long getContainerPlanId() {
+        return containerPlanId;
+    }
+}
@@ -0,0 +1,25 @@
+package com.avfallskompassen.events;
+
+/**
+ * Application event published when a collection fee or the cost of a lock type has changed.
+ * The rates kept in memory by the cost simulation are loaded again once the change has been
+ * committed.
+ */
+public class CostRatesChangedEvent {
+
+    private final String rate;
+    private final Long id;
+
+    public CostRatesChangedEvent(String rate, Long id) {
+        this.rate = rate;
+        this.id = id;
+    }
+
+    public String getRate() {
+        return rate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,32 @@
+package com.avfallskompassen.events;
+
+/**
+ * Application event published when data that feeds the property comparison has changed,
+ * e.g. a waste room was saved or a property got a new number of apartments.
+ * A missing property id means that every property is affected, which is the case when
+ * an admin changes a price.
+ */
+public class PropertyStatisticsChangedEvent {
+
+    private final Long propertyId;
+
+    private PropertyStatisticsChangedEvent(Long propertyId) {
+        this.propertyId = propertyId;
+    }
+
+    public static PropertyStatisticsChangedEvent forProperty(Long propertyId) {
+        return new PropertyStatisticsChangedEvent(propertyId);
+    }
+
+    public static PropertyStatisticsChangedEvent forAllProperties() {
+        return new PropertyStatisticsChangedEvent(null);
+    }
+
+    public Long getPropertyId() {
+        return propertyId;
+    }
+
+    public boolean affectsAllProperties() {
+        return propertyId == null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.avfallskompassen.health;
+
+import com.avfallskompassen.services.ThumbnailStorage;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Health of the thumbnail storage backend, shown as {@code thumbnailStorage} under {@code /actuator/health}.
+ * A check against Supabase is a network round trip, so the result is reused for
+ * {@code management.health.thumbnail-storage.cache-ms}.
+ */
+@Component
+public class ThumbnailStorageHealthIndicator extends AbstractHealthIndicator {
+
+    private final ThumbnailStorage thumbnailStorage;
+    private final long cacheMs;
+    private Clock clock = Clock.systemUTC();
+
+    private volatile Health cached;
+    private volatile Instant cachedUntil = Instant.MIN;
+
+    public ThumbnailStorageHealthIndicator(ThumbnailStorage thumbnailStorage,
+                                           @Value("${management.health.thumbnail-storage.cache-ms:30000}") long cacheMs) {
+        super("Thumbnail storage health check failed");
+        this.thumbnailStorage = thumbnailStorage;
+        this.cacheMs = cacheMs;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) throws Exception {
+        Instant now = clock.instant();
+        Health health = cached;
+        if (health == null || !now.isBefore(cachedUntil)) {
+            health = check();
+            cached = health;
+            cachedUntil = now.plusMillis(cacheMs);
+        }
+        builder.status(health.getStatus()).withDetails(health.getDetails());
+    }
+
+    private Health check() {
+        String storage = AopUtils.getTargetClass(thumbnailStorage).getSimpleName();
+        try {
+            thumbnailStorage.checkAvailable();
+            return Health.up().withDetail("storage", storage).build();
+        } catch (Exception ex) {
+            return Health.down().withDetail("storage", storage).withDetail("error", ex.getMessage()).build();
+        }
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+}
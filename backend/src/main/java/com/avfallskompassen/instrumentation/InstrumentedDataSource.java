@@ -0,0 +1,108 @@
+package com.avfallskompassen.instrumentation;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Wraps the application's {@link DataSource} so every statement executed through it is counted
+ * and timed in {@link QueryStats}, rows read from its result sets are counted and slow statements
+ * are reported to the {@link SlowQueryLog}. Connections, statements and result sets are JDK proxies
+ * around the pool's own objects; everything else is passed straight through.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final SlowQueryLog slowQueryLog;
+
+    public InstrumentedDataSource(DataSource target, SlowQueryLog slowQueryLog) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(Connection.class, target, (method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return statement(method.getReturnType(), statement, sql);
+            }
+            return result;
+        });
+    }
+
+    private Object statement(Class<?> type, Statement target, String preparedSql) {
+        return proxy(type, target, (method, args) -> {
+            if (!EXECUTE_METHODS.contains(method.getName())) {
+                Object result = invoke(target, method, args);
+                return result instanceof ResultSet resultSet && method.getName().equals("getResultSet")
+                        ? resultSet(resultSet) : result;
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String given ? given : preparedSql;
+            long start = System.nanoTime();
+            try {
+                Object result = invoke(target, method, args);
+                return result instanceof ResultSet resultSet ? resultSet(resultSet) : result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                QueryStats.current().recordStatement(sql, elapsed);
+                slowQueryLog.check(sql, elapsed);
+            }
+        });
+    }
+
+    private ResultSet resultSet(ResultSet target) {
+        return proxy(ResultSet.class, target, (method, args) -> {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                QueryStats.current().recordRow();
+            }
+            return result;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        Object proxy = Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (self, method, args) -> switch (method.getName()) {
+                    case "equals" -> method.getParameterCount() == 1 ? self == args[0] : handler.handle(method, args);
+                    case "hashCode" -> method.getParameterCount() == 0 ? System.identityHashCode(self) : handler.handle(method, args);
+                    case "toString" -> method.getParameterCount() == 0 ? "Instrumented " + target : handler.handle(method, args);
+                    default -> handler.handle(method, args);
+                });
+        return type.cast(proxy);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+}
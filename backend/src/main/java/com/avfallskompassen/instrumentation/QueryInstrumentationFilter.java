@@ -0,0 +1,102 @@
+package com.avfallskompassen.instrumentation;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the statements, database time and rows read of every HTTP request as metrics, tagged with
+ * the method and the matched URI pattern. Statements that run {@code repeatedThreshold} times or more
+ * within one request are logged by fingerprint, which is what an N+1 pattern looks like.
+ * When enabled, the numbers are also returned in the {@value #STATEMENTS_HEADER}, {@value #TIME_HEADER}
+ * and {@value #ROWS_HEADER} response headers, meant for the dev profile.
+ */
+public class QueryInstrumentationFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryInstrumentationFilter.class);
+
+    public static final String STATEMENTS_HEADER = "X-Query-Count";
+    public static final String TIME_HEADER = "X-Query-Time-Ms";
+    public static final String ROWS_HEADER = "X-Query-Rows";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean responseHeaders;
+    private final int repeatedThreshold;
+
+    public QueryInstrumentationFilter(MeterRegistry meterRegistry, boolean responseHeaders, int repeatedThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.responseHeaders = responseHeaders;
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.current();
+        QueryStats.Snapshot start = stats.snapshot();
+        if (repeatedThreshold > 0) {
+            stats.startFingerprinting();
+        }
+
+        // Headers can only be set before the body is committed, so the body is buffered when they are wanted
+        ContentCachingResponseWrapper buffered = responseHeaders ? new ContentCachingResponseWrapper(response) : null;
+        QueryStats.Snapshot used;
+        Map<String, Integer> fingerprints;
+        try {
+            chain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            used = stats.since(start);
+            fingerprints = stats.stopFingerprinting();
+            record(request, used, fingerprints);
+        }
+
+        if (buffered != null) {
+            buffered.setHeader(STATEMENTS_HEADER, Long.toString(used.statements()));
+            buffered.setHeader(TIME_HEADER, String.format("%.1f", used.millis()));
+            buffered.setHeader(ROWS_HEADER, Long.toString(used.rows()));
+            buffered.copyBodyToResponse();
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStats.Snapshot used, Map<String, Integer> fingerprints) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("http.server.requests.db.statements")
+                .description("JDBC statements executed per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(used.statements());
+        Timer.builder("http.server.requests.db.time")
+                .description("Time spent executing JDBC statements per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(used.nanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("http.server.requests.db.rows")
+                .description("Rows read from result sets per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(used.rows());
+
+        fingerprints.forEach((fingerprint, count) -> {
+            if (count >= repeatedThreshold) {
+                meterRegistry.counter("db.statements.repeated", "method", method, "uri", uri).increment();
+                log.warn("Statement ran {} times in {} {}: {}", count, method, uri, fingerprint);
+            }
+        });
+    }
+}
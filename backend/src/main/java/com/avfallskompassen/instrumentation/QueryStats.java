@@ -0,0 +1,76 @@
+package com.avfallskompassen.instrumentation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running totals of the JDBC work done on the current thread: statements executed, time spent
+ * executing them and rows read. A scope such as an HTTP request or a service call takes a
+ * {@link #snapshot()} when it starts and asks for the difference {@link #since(Snapshot)} when it ends,
+ * so nested scopes need no bookkeeping of their own.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = ThreadLocal.withInitial(QueryStats::new);
+
+    private long statements;
+    private long nanos;
+    private long rows;
+    private Map<String, Integer> fingerprints;
+
+    private QueryStats() {
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(String sql, long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+        if (fingerprints != null && sql != null) {
+            fingerprints.merge(SqlFingerprint.of(sql), 1, Integer::sum);
+        }
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(statements, nanos, rows);
+    }
+
+    public Snapshot since(Snapshot start) {
+        return new Snapshot(statements - start.statements(), nanos - start.nanos(), rows - start.rows());
+    }
+
+    /**
+     * Starts counting statements per fingerprint on this thread, used to spot the same statement
+     * running over and over within one request.
+     */
+    void startFingerprinting() {
+        fingerprints = new HashMap<>();
+    }
+
+    /**
+     * Stops counting per fingerprint.
+     *
+     * @return how many times each fingerprint ran since {@link #startFingerprinting()}
+     */
+    Map<String, Integer> stopFingerprinting() {
+        Map<String, Integer> result = fingerprints != null ? fingerprints : Map.of();
+        fingerprints = null;
+        return result;
+    }
+
+    /**
+     * Statements, execution time in nanoseconds and rows read.
+     */
+    public record Snapshot(long statements, long nanos, long rows) {
+
+        public double millis() {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
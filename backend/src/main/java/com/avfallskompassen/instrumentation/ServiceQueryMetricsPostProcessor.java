@@ -0,0 +1,62 @@
+package com.avfallskompassen.instrumentation;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds an interceptor to every {@link Service} bean that records the statements, database time and
+ * rows read by each service method, as {@code service.db.*} metrics tagged with class and method.
+ * Numbers include nested service calls. Methods that do not touch the database are not recorded.
+ * The interceptor is placed in front of the transaction interceptor, so statements flushed on
+ * commit count towards the method that committed.
+ */
+public class ServiceQueryMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    public ServiceQueryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        MethodInterceptor interceptor = invocation -> {
+            QueryStats stats = QueryStats.current();
+            QueryStats.Snapshot start = stats.snapshot();
+            try {
+                return invocation.proceed();
+            } finally {
+                QueryStats.Snapshot used = stats.since(start);
+                if (used.statements() > 0) {
+                    String className = ClassUtils.getUserClass(invocation.getThis().getClass()).getSimpleName();
+                    record(meterRegistry.getObject(), className, invocation.getMethod().getName(), used);
+                }
+            }
+        };
+
+        this.advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Service.class, true), interceptor);
+        this.beforeExistingAdvisors = true;
+        setProxyTargetClass(true);
+    }
+
+    private static void record(MeterRegistry registry, String className, String method, QueryStats.Snapshot used) {
+        DistributionSummary.builder("service.db.statements")
+                .description("JDBC statements executed per service method call")
+                .tags("class", className, "method", method)
+                .register(registry)
+                .record(used.statements());
+        Timer.builder("service.db.time")
+                .description("Time spent executing JDBC statements per service method call")
+                .tags("class", className, "method", method)
+                .register(registry)
+                .record(used.nanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("service.db.rows")
+                .description("Rows read from result sets per service method call")
+                .tags("class", className, "method", method)
+                .register(registry)
+                .record(used.rows());
+    }
+}
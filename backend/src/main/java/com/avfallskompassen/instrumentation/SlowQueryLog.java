@@ -0,0 +1,34 @@
+package com.avfallskompassen.instrumentation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs statements that take longer than the configured threshold, by fingerprint so no
+ * parameter values end up in the log.
+ */
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private final long thresholdNanos;
+    private final Counter slowStatements;
+
+    public SlowQueryLog(long thresholdMs, MeterRegistry meterRegistry) {
+        this.thresholdNanos = thresholdMs * 1_000_000L;
+        this.slowStatements = Counter.builder("db.statements.slow")
+                .description("Statements slower than instrumentation.sql.slow-threshold-ms")
+                .register(meterRegistry);
+    }
+
+    void check(String sql, long elapsedNanos) {
+        if (thresholdNanos <= 0 || elapsedNanos < thresholdNanos) {
+            return;
+        }
+        slowStatements.increment();
+        log.warn("Slow statement ({} ms): {}", elapsedNanos / 1_000_000,
+                sql != null ? SqlFingerprint.of(sql) : "<batch>");
+    }
+}
@@ -0,0 +1,44 @@
+package com.avfallskompassen.instrumentation;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a SQL statement to its shape, without literals or bind parameters, so statements that
+ * differ only in their values are grouped together. IN lists of any length become {@code in (?...)}.
+ */
+public final class SqlFingerprint {
+
+    private static final int CACHE_SIZE = 2048;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("in \\(\\?(?: ?, ?\\?)*\\)");
+
+    /** Hibernate reuses the same SQL strings, so most fingerprints are only computed once */
+    private static final Map<String, String> CACHE = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    });
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        String cached = CACHE.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String fingerprint = WHITESPACE.matcher(sql.trim()).replaceAll(" ").toLowerCase();
+        fingerprint = STRING_LITERAL.matcher(fingerprint).replaceAll("?");
+        fingerprint = NUMBER_LITERAL.matcher(fingerprint).replaceAll("?");
+        fingerprint = IN_LIST.matcher(fingerprint).replaceAll("in (?...)");
+        CACHE.put(sql, fingerprint);
+        return fingerprint;
+    }
+}
@@ -0,0 +1,83 @@
+package com.avfallskompassen.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An {@link Activity} moved out of the activities table by the retention job. Keeps the same id and
+ * fields, but only the user id instead of a relation so archived rows never hold back a user.
+ */
+@Entity
+@Table(name = "activities_archive")
+public class ArchivedActivity {
+    @Id
+    private Long id;
+
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ActivityType action;
+
+    @Column(nullable = false)
+    private String details;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public ArchivedActivity() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public ActivityType getAction() {
+        return action;
+    }
+
+    public void setAction(ActivityType action) {
+        this.action = action;
+    }
+
+    public String getDetails() {
+        return details;
+    }
+
+    public void setDetails(String details) {
+        this.details = details;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
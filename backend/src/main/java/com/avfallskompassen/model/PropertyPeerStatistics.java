@@ -0,0 +1,98 @@
+package com.avfallskompassen.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed comparison figures for one property. The rows are indexed on property type,
+ * municipality and number of apartments so a whole peer group can be aggregated with a single query.
+ * Kept up to date by {@link com.avfallskompassen.services.impl.PeerStatisticsServiceImpl}.
+ */
+@Entity
+@Table(
+        name = "property_peer_statistics",
+        indexes = @Index(
+                name = "idx_peer_statistics_group",
+                columnList = "property_type, municipality_id, number_of_apartments"
+        )
+)
+public class PropertyPeerStatistics {
+
+    @Id
+    @Column(name = "property_id")
+    private Long propertyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "property_type", nullable = false)
+    private PropertyType propertyType;
+
+    @Column(name = "municipality_id")
+    private Long municipalityId;
+
+    @Column(name = "number_of_apartments", nullable = false)
+    private Integer numberOfApartments;
+
+    @Column(name = "annual_cost", precision = 12, scale = 2)
+    private BigDecimal annualCost;
+
+    @Column(name = "cost_model", length = 64)
+    private String costModel;
+
+    @Column(name = "total_volume", nullable = false)
+    private int totalVolume;
+
+    @Column(name = "average_frequency", nullable = false)
+    private double averageFrequency;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @OneToMany(mappedBy = "peerStatistics", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<PropertyServiceStatistics> serviceStatistics = new ArrayList<>();
+
+    public PropertyPeerStatistics() {
+    }
+
+    public PropertyPeerStatistics(Long propertyId) {
+        this.propertyId = propertyId;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public Long getPropertyId() { return propertyId; }
+    public void setPropertyId(Long propertyId) { this.propertyId = propertyId; }
+
+    public PropertyType getPropertyType() { return propertyType; }
+    public void setPropertyType(PropertyType propertyType) { this.propertyType = propertyType; }
+
+    public Long getMunicipalityId() { return municipalityId; }
+    public void setMunicipalityId(Long municipalityId) { this.municipalityId = municipalityId; }
+
+    public Integer getNumberOfApartments() { return numberOfApartments; }
+    public void setNumberOfApartments(Integer numberOfApartments) { this.numberOfApartments = numberOfApartments; }
+
+    public BigDecimal getAnnualCost() { return annualCost; }
+    public void setAnnualCost(BigDecimal annualCost) { this.annualCost = annualCost; }
+
+    public String getCostModel() { return costModel; }
+    public void setCostModel(String costModel) { this.costModel = costModel; }
+
+    public int getTotalVolume() { return totalVolume; }
+    public void setTotalVolume(int totalVolume) { this.totalVolume = totalVolume; }
+
+    public double getAverageFrequency() { return averageFrequency; }
+    public void setAverageFrequency(double averageFrequency) { this.averageFrequency = averageFrequency; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    public List<PropertyServiceStatistics> getServiceStatistics() { return serviceStatistics; }
+    public void setServiceStatistics(List<PropertyServiceStatistics> serviceStatistics) { this.serviceStatistics = serviceStatistics; }
+}
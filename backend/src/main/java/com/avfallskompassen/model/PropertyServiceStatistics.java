@@ -0,0 +1,55 @@
+package com.avfallskompassen.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Precomputed waste amount and collection frequency for one service type of a property.
+ * Belongs to a {@link PropertyPeerStatistics} row.
+ */
+@Entity
+@Table(name = "property_service_statistics")
+public class PropertyServiceStatistics {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "property_id", nullable = false)
+    private PropertyPeerStatistics peerStatistics;
+
+    @Column(name = "service_type_name", nullable = false)
+    private String serviceTypeName;
+
+    @Column(name = "waste_amount", nullable = false)
+    private double wasteAmount;
+
+    @Column(name = "average_frequency", nullable = false)
+    private double averageFrequency;
+
+    public PropertyServiceStatistics() {
+    }
+
+    public PropertyServiceStatistics(PropertyPeerStatistics peerStatistics, String serviceTypeName,
+                                     double wasteAmount, double averageFrequency) {
+        this.peerStatistics = peerStatistics;
+        this.serviceTypeName = serviceTypeName;
+        this.wasteAmount = wasteAmount;
+        this.averageFrequency = averageFrequency;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public PropertyPeerStatistics getPeerStatistics() { return peerStatistics; }
+    public void setPeerStatistics(PropertyPeerStatistics peerStatistics) { this.peerStatistics = peerStatistics; }
+
+    public String getServiceTypeName() { return serviceTypeName; }
+    public void setServiceTypeName(String serviceTypeName) { this.serviceTypeName = serviceTypeName; }
+
+    public double getWasteAmount() { return wasteAmount; }
+    public void setWasteAmount(double wasteAmount) { this.wasteAmount = wasteAmount; }
+
+    public double getAverageFrequency() { return averageFrequency; }
+    public void setAverageFrequency(double averageFrequency) { this.averageFrequency = averageFrequency; }
+}
@@ -1,6 +1,7 @@
 package com.avfallskompassen.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.Instant;
 
 /**
@@ -36,6 +37,21 @@ public class User {
      */
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
+
+    /**
+     * Number of properties the user has created. Maintained by UserStatisticsService with
+     * atomic updates, never written through the entity.
+     */
+    @ColumnDefault("0")
+    @Column(name = "property_count", nullable = false, insertable = false, updatable = false)
+    private long propertyCount;
+
+    /**
+     * Number of waste room versions on the user's properties. Maintained like {@link #propertyCount}.
+     */
+    @ColumnDefault("0")
+    @Column(name = "waste_room_count", nullable = false, insertable = false, updatable = false)
+    private long wasteRoomCount;
     
     /**
      * Default constructor for JPA.
@@ -89,6 +105,9 @@ public class User {
 
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public long getPropertyCount() { return propertyCount; }
+    public long getWasteRoomCount() { return wasteRoomCount; }
+
     public boolean getHasSeenPlanningToolManual() { return hasSeenPlanningToolManual; }
     public void setHasSeenPlanningToolManual(boolean hasSeenPlanningToolManual) {
         this.hasSeenPlanningToolManual = hasSeenPlanningToolManual;
@@ -2,6 +2,8 @@ package com.avfallskompassen.model;
 
 import jakarta.persistence.*;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -75,6 +77,16 @@ public class WasteRoom {
     @Column(name = "average_collection_frequency")
     private Double averageCollectionFrequency;
 
+    // Set when the layout of this version is stored as a delta against a newer version instead of as rows,
+    // see WasteRoomVersionStore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "layout_base_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
+    private WasteRoom layoutBase;
+
+    @Column(name = "layout_delta", columnDefinition = "TEXT")
+    private String layoutDelta;
+
     @PrePersist
     public void onCreate() {
         createdAt = LocalDateTime.now();
@@ -146,4 +158,16 @@ public class WasteRoom {
     public String getThumbnailUrl() {return thumbnailUrl;}
 
     public void setThumbnailUrl(String thumbnailUrl) {this.thumbnailUrl = thumbnailUrl;}
+
+    public WasteRoom getLayoutBase() { return layoutBase; }
+    public void setLayoutBase(WasteRoom layoutBase) { this.layoutBase = layoutBase; }
+
+    public String getLayoutDelta() { return layoutDelta; }
+    public void setLayoutDelta(String layoutDelta) { this.layoutDelta = layoutDelta; }
+
+    /**
+     * True when the containers, doors and other objects of this version are not stored as rows but as
+     * a delta against {@link #getLayoutBase()}.
+     */
+    public boolean hasLayoutDelta() { return layoutDelta != null; }
 }
\ No newline at end of file
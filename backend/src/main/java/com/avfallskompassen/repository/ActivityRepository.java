@@ -4,8 +4,12 @@ import com.avfallskompassen.model.Activity;
 import com.avfallskompassen.model.User;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -17,4 +21,38 @@ public interface ActivityRepository extends JpaRepository<Activity, Long> {
     List<Activity> findByUserOrderByTimestampDesc(User user);
 
     List<Activity> findByUser(User user, Pageable pageable);
+
+    /**
+     * First page of a user's activity feed, newest first with the id as tie breaker.
+     */
+    @Query("""
+        SELECT a FROM Activity a
+        WHERE a.user = :user
+        ORDER BY a.timestamp DESC, a.id DESC
+    """)
+    List<Activity> findFeed(@Param("user") User user, Pageable pageable);
+
+    /**
+     * The page of a user's activity feed that follows the activity with the given timestamp and id.
+     */
+    @Query("""
+        SELECT a FROM Activity a
+        WHERE a.user = :user
+          AND (a.timestamp < :timestamp OR (a.timestamp = :timestamp AND a.id < :id))
+        ORDER BY a.timestamp DESC, a.id DESC
+    """)
+    List<Activity> findFeedAfter(@Param("user") User user,
+                                 @Param("timestamp") LocalDateTime timestamp,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
+
+    /**
+     * Ids of activities older than the cutoff, lowest id first.
+     */
+    @Query("SELECT a.id FROM Activity a WHERE a.timestamp < :cutoff ORDER BY a.id")
+    List<Long> findIdsOlderThan(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Activity a WHERE a.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 }
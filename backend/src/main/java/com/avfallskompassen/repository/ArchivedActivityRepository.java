@@ -0,0 +1,34 @@
+package com.avfallskompassen.repository;
+
+import com.avfallskompassen.model.ArchivedActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for handling {@link ArchivedActivity} entities
+ */
+@Repository
+public interface ArchivedActivityRepository extends JpaRepository<ArchivedActivity, Long> {
+
+    /**
+     * Copies the given activities into the archive with one insert-select.
+     * @param ids The ids of the activities to copy
+     * @param archivedAt When the activities were archived
+     * @return The number of copied activities
+     */
+    @Modifying
+    @Query("""
+        INSERT INTO ArchivedActivity (id, userId, action, details, timestamp, archivedAt)
+        SELECT a.id, u.id, a.action, a.details, a.timestamp, :archivedAt
+        FROM Activity a
+        LEFT JOIN a.user u
+        WHERE a.id IN :ids
+    """)
+    int copyFromActivities(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -1,10 +1,12 @@
 package com.avfallskompassen.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.avfallskompassen.model.CollectionFee;
@@ -18,6 +20,15 @@ import com.avfallskompassen.model.CollectionFee;
 public interface CollectionFeeRepository extends JpaRepository<CollectionFee, Long> {
     Optional<CollectionFee> findByMunicipalityId(Long id);
 
+    /**
+     * Find the collection fees of several municipalities, with the municipality loaded so the
+     * fees can be matched to their municipality by id.
+     * @param municipalityIds Ids of the municipalities
+     * @return List of CollectionFee with municipality loaded
+     */
+    @Query("SELECT cf FROM CollectionFee cf JOIN FETCH cf.municipality m WHERE m.id IN :municipalityIds")
+    List<CollectionFee> findAllByMunicipalityIdIn(@Param("municipalityIds") Collection<Long> municipalityIds);
+
     /**
      * Find all collection fees with eagerly loaded municipality relationship.
      * @return List of CollectionFee with municipality loaded
@@ -1,9 +1,11 @@
 package com.avfallskompassen.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.avfallskompassen.model.ContainerPlan;
@@ -35,4 +37,17 @@ public interface ContainerPlanRepository extends JpaRepository<ContainerPlan, Lo
            "LEFT JOIN FETCH ms.serviceType " +
            "LEFT JOIN FETCH cp.containerType")
     List<ContainerPlan> findAllWithRelations();
+
+    /**
+     * Find container plans by id with eagerly loaded relationships.
+     * @param ids Ids of the container plans
+     * @return List of ContainerPlan with all relationships loaded
+     */
+    @Query("SELECT cp FROM ContainerPlan cp " +
+           "LEFT JOIN FETCH cp.municipalityService ms " +
+           "LEFT JOIN FETCH ms.municipality " +
+           "LEFT JOIN FETCH ms.serviceType " +
+           "LEFT JOIN FETCH cp.containerType " +
+           "WHERE cp.id IN :ids")
+    List<ContainerPlan> findAllWithRelationsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,22 @@
+package com.avfallskompassen.repository;
+
+import com.avfallskompassen.dto.PropertyListItemDTO;
+import com.avfallskompassen.dto.request.PropertySearchCriteria;
+
+import java.util.List;
+
+/**
+ * Keyset paginated property listing, mixed into {@link PropertyRepository}.
+ */
+public interface PropertyListingRepository {
+
+    /**
+     * Finds the next properties matching the criteria, ordered by id.
+     *
+     * @param criteria the filters, null fields are ignored
+     * @param afterId  only properties with a greater id, null for the first page
+     * @param limit    the maximum number of rows
+     * @return the matching properties as listing rows, in ascending id order
+     */
+    List<PropertyListItemDTO> findListing(PropertySearchCriteria criteria, Long afterId, int limit);
+}
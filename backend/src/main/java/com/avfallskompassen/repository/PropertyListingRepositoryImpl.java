@@ -0,0 +1,92 @@
+package com.avfallskompassen.repository;
+
+import com.avfallskompassen.dto.PropertyListItemDTO;
+import com.avfallskompassen.dto.request.PropertySearchCriteria;
+import com.avfallskompassen.model.LockType;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the listing query from only the filters that are set, so the database gets a plain
+ * predicate per filter instead of {@code (:param IS NULL OR ...)} for every possible one.
+ * The rows are selected straight into {@link PropertyListItemDTO}.
+ */
+public class PropertyListingRepositoryImpl implements PropertyListingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PropertyListItemDTO> findListing(PropertySearchCriteria criteria, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PropertyListItemDTO> query = cb.createQuery(PropertyListItemDTO.class);
+        Root<Property> property = query.from(Property.class);
+        Join<Property, Municipality> municipality = property.join("municipality", JoinType.LEFT);
+        Join<Property, LockType> lockType = property.join("lockType", JoinType.LEFT);
+        Join<Property, User> createdBy = property.join("createdBy", JoinType.LEFT);
+
+        query.select(cb.construct(PropertyListItemDTO.class,
+                property.get("id"),
+                property.get("address"),
+                property.get("numberOfApartments"),
+                property.get("propertyType"),
+                property.get("accessPathLength"),
+                property.get("createdAt"),
+                property.get("updatedAt"),
+                municipality.get("id"),
+                municipality.get("name"),
+                lockType.get("name"),
+                createdBy.get("username")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(property.get("id"), afterId));
+        }
+        if (criteria.municipalityId() != null) {
+            predicates.add(cb.equal(municipality.get("id"), criteria.municipalityId()));
+        }
+        if (criteria.propertyType() != null) {
+            predicates.add(cb.equal(property.get("propertyType"), criteria.propertyType()));
+        }
+        if (criteria.minApartments() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(property.get("numberOfApartments"), criteria.minApartments()));
+        }
+        if (criteria.maxApartments() != null) {
+            predicates.add(cb.lessThanOrEqualTo(property.get("numberOfApartments"), criteria.maxApartments()));
+        }
+        if (criteria.query() != null && !criteria.query().isBlank()) {
+            predicates.add(cb.like(cb.lower(property.get("address")), containsPattern(criteria.query()), '\\'));
+        }
+        if (criteria.createdByUsername() != null) {
+            predicates.add(cb.equal(createdBy.get("username"), criteria.createdByUsername()));
+        }
+
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(property.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static String containsPattern(String text) {
+        String escaped = text.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
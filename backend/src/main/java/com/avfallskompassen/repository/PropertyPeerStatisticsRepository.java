@@ -0,0 +1,87 @@
+package com.avfallskompassen.repository;
+
+import com.avfallskompassen.model.PropertyPeerStatistics;
+import com.avfallskompassen.model.PropertyType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for the precomputed {@link PropertyPeerStatistics} used by the property comparison.
+ */
+@Repository
+public interface PropertyPeerStatisticsRepository extends JpaRepository<PropertyPeerStatistics, Long> {
+
+    /**
+     * The ids of all properties that have stored statistics, without loading the rows.
+     */
+    @Query("SELECT s.propertyId FROM PropertyPeerStatistics s")
+    List<Long> findAllPropertyIds();
+
+    /**
+     * Counts the rows whose annual cost was calculated with another cost model than the given one,
+     * including rows stored before the cost model was recorded.
+     */
+    @Query("SELECT COUNT(s) FROM PropertyPeerStatistics s WHERE s.costModel IS NULL OR s.costModel <> :costModel")
+    long countByOtherCostModel(@Param("costModel") String costModel);
+
+    /**
+     * Aggregates the figures of a peer group in one row:
+     * peer count, cost count, cost sum, min cost, max cost, volume sum,
+     * sum of positive room frequencies and number of positive room frequencies.
+     */
+    @Query("""
+        SELECT
+            COUNT(s),
+            COUNT(s.annualCost),
+            SUM(s.annualCost),
+            MIN(s.annualCost),
+            MAX(s.annualCost),
+            SUM(s.totalVolume),
+            SUM(CASE WHEN s.averageFrequency > 0 THEN s.averageFrequency ELSE 0 END),
+            SUM(CASE WHEN s.averageFrequency > 0 THEN 1 ELSE 0 END)
+        FROM PropertyPeerStatistics s
+        WHERE s.propertyType = :propertyType
+            AND s.municipalityId = :municipalityId
+            AND s.numberOfApartments BETWEEN :minApartments AND :maxApartments
+            AND s.propertyId <> :excludePropertyId
+    """)
+    List<Object[]> aggregatePeerGroup(
+            @Param("propertyType") PropertyType propertyType,
+            @Param("municipalityId") Long municipalityId,
+            @Param("minApartments") Integer minApartments,
+            @Param("maxApartments") Integer maxApartments,
+            @Param("excludePropertyId") Long excludePropertyId
+    );
+
+    /**
+     * Aggregates the per service type figures of a peer group, one row per service type:
+     * service type name, peer count, waste amount sum, min waste amount, max waste amount and frequency sum.
+     */
+    @Query("""
+        SELECT
+            ss.serviceTypeName,
+            COUNT(ss),
+            SUM(ss.wasteAmount),
+            MIN(ss.wasteAmount),
+            MAX(ss.wasteAmount),
+            SUM(ss.averageFrequency)
+        FROM PropertyServiceStatistics ss
+        JOIN ss.peerStatistics s
+        WHERE s.propertyType = :propertyType
+            AND s.municipalityId = :municipalityId
+            AND s.numberOfApartments BETWEEN :minApartments AND :maxApartments
+            AND s.propertyId <> :excludePropertyId
+        GROUP BY ss.serviceTypeName
+    """)
+    List<Object[]> aggregatePeerGroupByService(
+            @Param("propertyType") PropertyType propertyType,
+            @Param("municipalityId") Long municipalityId,
+            @Param("minApartments") Integer minApartments,
+            @Param("maxApartments") Integer maxApartments,
+            @Param("excludePropertyId") Long excludePropertyId
+    );
+}
@@ -4,6 +4,7 @@ import com.avfallskompassen.model.Municipality;
 import com.avfallskompassen.model.Property;
 import com.avfallskompassen.model.PropertyType;
 import com.avfallskompassen.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -23,7 +24,7 @@ import java.util.Optional;
  */
 
 @Repository
-public interface PropertyRepository extends JpaRepository<Property, Long> {
+public interface PropertyRepository extends JpaRepository<Property, Long>, PropertyListingRepository {
 
     /**
      * Find property by address.
@@ -84,20 +85,18 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
     """)
     List<Property> findAllByUserWithRooms(String username);
 
+    /**
+     * Returns the id of the user who created a property and the number of waste room versions
+     * the property has, as one row, or no row if there is no such property.
+     */
     @Query("""
-    SELECT 
-        u.id,
-        u.username,
-        u.role,
-        u.createdAt,
-        COUNT(DISTINCT p.id),
-        COUNT(wr.id)
-    FROM User u
-    LEFT JOIN Property p ON p.createdBy.id = u.id
-    LEFT JOIN p.wasteRooms wr
-    GROUP BY u.id, u.username, u.role, u.createdAt
-""")
-    List<Object[]> getUserPropertyAndWasteRoomStats();
+        SELECT p.createdBy.id, COUNT(wr.id)
+        FROM Property p
+        LEFT JOIN p.wasteRooms wr
+        WHERE p.id = :propertyId
+        GROUP BY p.createdBy.id
+    """)
+    List<Object[]> getOwnerAndWasteRoomCount(@Param("propertyId") Long propertyId);
 
     /**
      * Returns total number of waste room versions per property for a given user.
@@ -138,6 +137,18 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
         @Param("excludePropertyId") Long excludePropertyId
     );
 
+    /**
+     * Find several properties with the relations needed for cost calculations loaded in the same query.
+     * @param ids the property ids
+     * @return the properties that exist, in no particular order
+     */
+    @Query("SELECT p FROM Property p " +
+           "LEFT JOIN FETCH p.lockType " +
+           "LEFT JOIN FETCH p.municipality " +
+           "LEFT JOIN FETCH p.createdBy " +
+           "WHERE p.id IN :ids")
+    List<Property> findAllWithCostRelationsByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
     /**
      * Update lastNotifiedAt for a property without loading the full entity.
      * Uses a new transaction to avoid rolling back other updates if one fails.
@@ -150,4 +161,53 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
     @Query("UPDATE Property p SET p.lastNotifiedAt = :now WHERE p.id = :id")
     int updateLastNotifiedAt(@Param("id") Long id, @Param("now") java.time.LocalDateTime now);
 
+    /**
+     * Find the ids of all properties without loading the properties themselves.
+     * @return ids of all properties, in ascending order
+     */
+    @Query("SELECT p.id FROM Property p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    /**
+     * Find the ids of properties whose last change (updatedAt, or createdAt if never updated) is older than
+     * the threshold and that have not been notified since that change.
+     * @param threshold properties changed before this are due
+     * @return ids of the due properties, in ascending order
+     */
+    @Query("SELECT p.id FROM Property p " +
+           "WHERE COALESCE(p.updatedAt, p.createdAt) < :threshold " +
+           "AND (p.lastNotifiedAt IS NULL OR p.lastNotifiedAt < COALESCE(p.updatedAt, p.createdAt)) " +
+           "ORDER BY p.id")
+    List<Long> findIdsDueForNotification(@Param("threshold") java.time.LocalDateTime threshold);
+
+    /**
+     * Keyset paginated variant of {@link #findIdsDueForNotification}, returns the next page of due ids
+     * after the given id so large tables can be walked without offsets.
+     * @param threshold properties changed before this are due
+     * @param afterId only ids greater than this are returned
+     * @param pageable the page size, the page number should always be 0
+     * @return ids of the due properties, in ascending order
+     */
+    @Query("SELECT p.id FROM Property p " +
+           "WHERE p.id > :afterId " +
+           "AND COALESCE(p.updatedAt, p.createdAt) < :threshold " +
+           "AND (p.lastNotifiedAt IS NULL OR p.lastNotifiedAt < COALESCE(p.updatedAt, p.createdAt)) " +
+           "ORDER BY p.id")
+    List<Long> findIdsDueForNotificationAfter(@Param("threshold") java.time.LocalDateTime threshold,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    /**
+     * Set lastNotifiedAt for several properties in one statement. Properties that were notified since
+     * their last change in the meantime are left unchanged, so a chunk can safely be marked twice.
+     * @param ids property ids
+     * @param now timestamp to set
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE Property p SET p.lastNotifiedAt = :now " +
+           "WHERE p.id IN :ids " +
+           "AND (p.lastNotifiedAt IS NULL OR p.lastNotifiedAt < COALESCE(p.updatedAt, p.createdAt))")
+    int markNotified(@Param("ids") java.util.Collection<Long> ids, @Param("now") java.time.LocalDateTime now);
+
 }
\ No newline at end of file
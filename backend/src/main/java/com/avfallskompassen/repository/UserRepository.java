@@ -1,7 +1,13 @@
 package com.avfallskompassen.repository;
 
+import com.avfallskompassen.dto.UserStatsDTO;
 import com.avfallskompassen.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -30,4 +36,46 @@ public interface UserRepository extends JpaRepository<User, Integer> {
      * @return true if user exists, false otherwise
      */
     boolean existsByUsername(String username);
-}
\ No newline at end of file
+
+    /**
+     * Adds to the stored property and waste room counters of a user in one atomic update.
+     *
+     * @param userId the user
+     * @param properties the change in number of properties, may be negative
+     * @param wasteRooms the change in number of waste room versions, may be negative
+     * @return the number of updated rows, 0 if there is no such user
+     */
+    @Modifying
+    @Query("""
+        UPDATE User u
+        SET u.propertyCount = u.propertyCount + :properties,
+            u.wasteRoomCount = u.wasteRoomCount + :wasteRooms
+        WHERE u.id = :userId
+    """)
+    int adjustCounts(@Param("userId") Integer userId,
+                     @Param("properties") long properties,
+                     @Param("wasteRooms") long wasteRooms);
+
+    /**
+     * Recounts the stored counters of every user from the properties and waste rooms tables.
+     *
+     * @return the number of updated users
+     */
+    @Modifying
+    @Query("""
+        UPDATE User u
+        SET u.propertyCount = (SELECT COUNT(p) FROM Property p WHERE p.createdBy = u),
+            u.wasteRoomCount = (SELECT COUNT(wr) FROM WasteRoom wr WHERE wr.property.createdBy = u)
+    """)
+    int recountAll();
+
+    /**
+     * One page of users with their stored counters, sorted by the pageable.
+     */
+    @Query(value = """
+        SELECT new com.avfallskompassen.dto.UserStatsDTO(
+            u.id, u.username, u.role, u.createdAt, u.propertyCount, u.wasteRoomCount)
+        FROM User u
+    """, countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserStatsDTO> findStats(Pageable pageable);
+}
@@ -1,8 +1,13 @@
 package com.avfallskompassen.repository;
 
 import com.avfallskompassen.model.WasteRoom;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.*;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,4 +29,135 @@ public interface WasteRoomRepository extends JpaRepository<WasteRoom, Long> {
     Optional<WasteRoom> findByPropertyIdAndIsActiveTrue(Long propertyId);
 
     List<WasteRoom> findByPropertyIdIn(java.util.Collection<Long> propertyIds);
+
+    /**
+     * Collects the versions whose layout is stored as a delta against the given waste room.
+     *
+     * @param layoutBaseId The id of the waste room the deltas are based on
+     * @return The dependent versions
+     */
+    List<WasteRoom> findByLayoutBaseId(Long layoutBaseId);
+
+    /**
+     * Sums the containers placed in the active waste rooms of the given properties.
+     * Properties without any containers are not part of the result.
+     *
+     * @param propertyIds The ids of the properties
+     * @return One row per property: property id, total container cost, number of containers and
+     * number of containers with Lock-i-Lock
+     */
+    @Query("""
+        SELECT wr.property.id, SUM(cp.cost), COUNT(pos),
+            SUM(CASE WHEN pos.hasLockILock = true THEN 1 ELSE 0 END)
+        FROM WasteRoom wr
+        JOIN wr.containers pos
+        JOIN pos.containerPlan cp
+        WHERE wr.property.id IN :propertyIds
+            AND wr.isActive = true
+        GROUP BY wr.property.id
+    """)
+    List<Object[]> sumActiveContainerCostByPropertyIds(@Param("propertyIds") java.util.Collection<Long> propertyIds);
+
+    /**
+     * Collects all waste rooms of a property together with their containers and everything needed to
+     * map the containers (plan, container type and service type) in one query.
+     * Doors and other objects are loaded lazily in batches.
+     *
+     * @param propertyId The id of the property
+     * @return The waste rooms of the property
+     */
+    @Query("""
+        SELECT DISTINCT wr
+        FROM WasteRoom wr
+        JOIN FETCH wr.property
+        LEFT JOIN FETCH wr.containers pos
+        LEFT JOIN FETCH pos.containerPlan cp
+        LEFT JOIN FETCH cp.containerType
+        LEFT JOIN FETCH cp.municipalityService ms
+        LEFT JOIN FETCH ms.serviceType
+        WHERE wr.property.id = :propertyId
+    """)
+    List<WasteRoom> findWithContainerGraphByPropertyId(@Param("propertyId") Long propertyId);
+
+    /**
+     * Collects all versions of a waste room with the same graph as {@link #findWithContainerGraphByPropertyId},
+     * ordered by version number.
+     *
+     * @param propertyId The id of the property
+     * @param name The name of the waste room
+     * @return The versions of the waste room, oldest first
+     */
+    @Query("""
+        SELECT DISTINCT wr
+        FROM WasteRoom wr
+        JOIN FETCH wr.property
+        LEFT JOIN FETCH wr.containers pos
+        LEFT JOIN FETCH pos.containerPlan cp
+        LEFT JOIN FETCH cp.containerType
+        LEFT JOIN FETCH cp.municipalityService ms
+        LEFT JOIN FETCH ms.serviceType
+        WHERE wr.property.id = :propertyId
+            AND wr.name = :name
+        ORDER BY wr.versionNumber ASC
+    """)
+    List<WasteRoom> findVersionsWithContainerGraph(@Param("propertyId") Long propertyId, @Param("name") String name);
+
+    /**
+     * Collects a waste room together with its containers, their plans and container types.
+     * Doors and other objects are loaded lazily in batches.
+     *
+     * @param id The id of the waste room
+     * @return The waste room, or empty if it does not exist
+     */
+    @Query("""
+        SELECT DISTINCT wr
+        FROM WasteRoom wr
+        LEFT JOIN FETCH wr.containers pos
+        LEFT JOIN FETCH pos.containerPlan cp
+        LEFT JOIN FETCH cp.containerType
+        WHERE wr.id = :id
+    """)
+    Optional<WasteRoom> findWithContainersById(@Param("id") Long id);
+
+    /**
+     * One page of waste room ids in id order, starting after the given id.
+     *
+     * @param afterId The last id of the previous page, 0 for the first page
+     * @param pageable The page size, the page number should be 0
+     * @return The ids of the page
+     */
+    @Query("SELECT wr.id FROM WasteRoom wr WHERE wr.id > :afterId ORDER BY wr.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Collects waste rooms with their property, containers, plans and container types, ordered by id.
+     * Doors and other objects are loaded lazily in batches.
+     *
+     * @param ids The ids of the waste rooms
+     * @return The waste rooms
+     */
+    @Query("""
+        SELECT DISTINCT wr
+        FROM WasteRoom wr
+        JOIN FETCH wr.property
+        LEFT JOIN FETCH wr.containers pos
+        LEFT JOIN FETCH pos.containerPlan cp
+        LEFT JOIN FETCH cp.containerType
+        WHERE wr.id IN :ids
+        ORDER BY wr.id
+    """)
+    List<WasteRoom> findWithContainersByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
+    /**
+     * Sets the thumbnail url of a waste room without loading the full entity.
+     * Used when a thumbnail upload finishes in the background.
+     *
+     * @param id The id of the waste room
+     * @param thumbnailUrl The url of the uploaded thumbnail
+     * @return Number of rows updated, 0 if the waste room no longer exists
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE WasteRoom wr SET wr.thumbnailUrl = :thumbnailUrl WHERE wr.id = :id")
+    int updateThumbnailUrl(@Param("id") Long id, @Param("thumbnailUrl") String thumbnailUrl);
 }
@@ -0,0 +1,124 @@
+package com.avfallskompassen.scheduling;
+
+import com.avfallskompassen.repository.ActivityRepository;
+import com.avfallskompassen.repository.ArchivedActivityRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Scheduled job that moves activities older than {@code activity.retention.days} from the activities
+ * table to the activities_archive table, so the table the feed reads from stays bounded.
+ * <p>
+ * The activities are moved in chunks of {@code activity.retention.chunk-size}, oldest id first. Each chunk
+ * is copied and deleted in a transaction of its own, so an activity is always in exactly one of the tables
+ * and a long run never holds locks on more than one chunk. A failing chunk stops the run, the next run
+ * starts over from the oldest activity.
+ */
+@Component
+public class ActivityRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityRetentionJob.class);
+
+    private final ActivityRepository activityRepository;
+    private final ArchivedActivityRepository archivedActivityRepository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate chunkTransaction;
+    private final MeterRegistry meterRegistry;
+    private final Counter archivedCounter;
+
+    // activities older than this are archived, 0 or less turns the job off
+    @Value("${activity.retention.days:365}")
+    private int retentionDays = 365;
+
+    // number of activities moved per transaction
+    @Value("${activity.retention.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    public ActivityRetentionJob(ActivityRepository activityRepository,
+                                ArchivedActivityRepository archivedActivityRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.activityRepository = activityRepository;
+        this.archivedActivityRepository = archivedActivityRepository;
+        this.meterRegistry = meterRegistry;
+
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.archivedCounter = Counter.builder("activity.retention.archived")
+                .description("Activities moved to the archive table").register(meterRegistry);
+    }
+
+    /**
+     * Runs once a day, by default at 03:30 AM server time.
+     */
+    @Scheduled(cron = "${activity.retention.cron:0 30 3 * * *}")
+    public void archiveOldActivities() {
+        if (retentionDays <= 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusDays(retentionDays);
+        int size = Math.max(1, chunkSize);
+
+        long archived = 0;
+        String outcome = "success";
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            while (true) {
+                List<Long> ids = readTransaction.execute(status ->
+                        activityRepository.findIdsOlderThan(cutoff, PageRequest.of(0, size)));
+                if (ids == null || ids.isEmpty()) {
+                    break;
+                }
+
+                Integer moved = chunkTransaction.execute(status -> moveChunk(ids, now));
+                archived += moved != null ? moved : 0;
+
+                if (ids.size() < size) {
+                    break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            outcome = "failure";
+            log.error("Activity retention run failed after {} activities. Reason: {}", archived, ex.getMessage(), ex);
+        } finally {
+            long nanos = sample.stop(Timer.builder("activity.retention.run")
+                    .description("Duration of the activity retention run")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            archivedCounter.increment(archived);
+
+            log.info("Activity retention run completed in {} ms. {} activities older than {} archived.",
+                    nanos / 1_000_000, archived, cutoff);
+        }
+    }
+
+    private int moveChunk(List<Long> ids, LocalDateTime archivedAt) {
+        int copied = archivedActivityRepository.copyFromActivities(ids, archivedAt);
+        int deleted = activityRepository.deleteByIdIn(ids);
+        if (copied != deleted) {
+            // Rolls the chunk back, nothing may be deleted without its copy
+            throw new IllegalStateException("Copied " + copied + " activities to the archive but deleted " + deleted);
+        }
+        log.debug("Archived {} activities (id {}..{}).", deleted, ids.get(0), ids.get(ids.size() - 1));
+        return deleted;
+    }
+}
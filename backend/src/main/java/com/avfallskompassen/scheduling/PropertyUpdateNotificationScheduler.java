@@ -1,13 +1,19 @@
 package com.avfallskompassen.scheduling;
 
-import com.avfallskompassen.model.Property;
 import com.avfallskompassen.repository.PropertyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,21 +21,60 @@ import java.util.List;
 /**
  * Scheduled job that checks properties and marks them as notified when
  * one year has passed since creation or last update.
+ * <p>
+ * The due properties are selected in the database and marked with bulk updates of
+ * {@code notification.chunk-size} ids, each chunk in a transaction of its own so a failing
+ * chunk does not undo the others. In the default {@code set} mode all due ids are read with one
+ * query; the {@code keyset} mode reads them page by page on the id instead, for tables where even
+ * the list of ids is too large to hold in memory.
  */
 @Component
 public class PropertyUpdateNotificationScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(PropertyUpdateNotificationScheduler.class);
 
+    static final String MODE_SET = "set";
+    static final String MODE_KEYSET = "keyset";
+
     private final PropertyRepository propertyRepository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate chunkTransaction;
+    private final MeterRegistry meterRegistry;
+    private final Counter markedCounter;
+    private final Counter failedCounter;
+    private final Counter dueCounter;
 
     // configurable threshold (seconds) - default to one year (approx)
     @Value("${notification.threshold.seconds:31536000}")
     private long thresholdSeconds;
 
+    // "set" or "keyset"
+    @Value("${notification.mode:set}")
+    private String mode = MODE_SET;
+
+    // number of properties marked per update statement (and page size in keyset mode)
+    @Value("${notification.chunk-size:500}")
+    private int chunkSize = 500;
+
     @Autowired
-    public PropertyUpdateNotificationScheduler(PropertyRepository propertyRepository) {
+    public PropertyUpdateNotificationScheduler(PropertyRepository propertyRepository,
+                                               PlatformTransactionManager transactionManager,
+                                               MeterRegistry meterRegistry) {
         this.propertyRepository = propertyRepository;
+        this.meterRegistry = meterRegistry;
+
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.markedCounter = Counter.builder("notification.properties.marked")
+                .description("Properties marked as notified for the yearly update reminder").register(meterRegistry);
+        this.failedCounter = Counter.builder("notification.properties.failed")
+                .description("Due properties that could not be marked because their chunk failed").register(meterRegistry);
+        this.dueCounter = Counter.builder("notification.properties.due")
+                .description("Properties found due for the yearly update reminder").register(meterRegistry);
     }
 
     /**
@@ -42,37 +87,85 @@ public class PropertyUpdateNotificationScheduler {
     public void runDailyNotificationCheck() {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime threshold = now.minusSeconds(thresholdSeconds);
+        String runMode = MODE_KEYSET.equalsIgnoreCase(mode) ? MODE_KEYSET : MODE_SET;
+
+        RunResult result = new RunResult();
+        String outcome = "success";
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            if (MODE_KEYSET.equals(runMode)) {
+                runKeyset(threshold, now, result);
+            } else {
+                runSetBased(threshold, now, result);
+            }
+        } catch (RuntimeException ex) {
+            // Selecting the due properties failed, the next run will pick them up
+            outcome = "failure";
+            log.error("Property update notification run failed after {} properties. Reason: {}",
+                    result.marked, ex.getMessage(), ex);
+        } finally {
+            long nanos = sample.stop(Timer.builder("notification.run")
+                    .description("Duration of the property update notification run")
+                    .tag("mode", runMode)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            dueCounter.increment(result.due);
+            markedCounter.increment(result.marked);
+            failedCounter.increment(result.failed);
 
-        List<Property> all = propertyRepository.findAll();
-        int notified = 0;
+            log.info("Property update notification run completed in {} ms ({} mode). {} of {} due properties marked as notified, {} failed.",
+                    nanos / 1_000_000, runMode, result.marked, result.due, result.failed);
+        }
+    }
 
-        for (Property p : all) {
-            LocalDateTime lastChange = p.getUpdatedAt() != null ? p.getUpdatedAt() : p.getCreatedAt();
-            if (lastChange == null) {
-                // shouldn't happen but guard
-                continue;
+    private void runSetBased(LocalDateTime threshold, LocalDateTime now, RunResult result) {
+        List<Long> dueIds = readTransaction.execute(status -> propertyRepository.findIdsDueForNotification(threshold));
+        result.due = dueIds.size();
+
+        int size = Math.max(1, chunkSize);
+        for (int from = 0; from < dueIds.size(); from += size) {
+            markChunk(dueIds.subList(from, Math.min(from + size, dueIds.size())), now, result);
+        }
+    }
+
+    private void runKeyset(LocalDateTime threshold, LocalDateTime now, RunResult result) {
+        int size = Math.max(1, chunkSize);
+        long afterId = 0L;
+        while (true) {
+            long lastId = afterId;
+            List<Long> page = readTransaction.execute(status -> propertyRepository
+                    .findIdsDueForNotificationAfter(threshold, lastId, PageRequest.of(0, size)));
+            if (page.isEmpty()) {
+                return;
             }
 
-            boolean needsNotification = lastChange.isBefore(threshold) &&
-                    (p.getLastNotifiedAt() == null || p.getLastNotifiedAt().isBefore(lastChange));
-
-            if (needsNotification) {
-                
-                try {
-                    int updated = propertyRepository.updateLastNotifiedAt(p.getId(), now);
-                    if (updated > 0) {
-                        notified++;
-                        log.info("Marked property(id={}) as notified for yearly update reminder. lastChange={}", p.getId(), lastChange);
-                    } else {
-                        log.warn("Failed to mark property(id={}) as notified — update returned 0 rows.", p.getId());
-                    }
-                } catch (Exception ex) {
-                    // Log and continue with other properties — don't let one bad row stop the job
-                    log.error("Failed to update lastNotifiedAt for property(id={}), skipping. Reason: {}", p.getId(), ex.getMessage(), ex);
-                }
+            result.due += page.size();
+            markChunk(page, now, result);
+
+            if (page.size() < size) {
+                return;
             }
+            afterId = page.get(page.size() - 1);
         }
+    }
+
+    private void markChunk(List<Long> ids, LocalDateTime now, RunResult result) {
+        try {
+            Integer updated = chunkTransaction.execute(status -> propertyRepository.markNotified(ids, now));
+            result.marked += updated != null ? updated : 0;
+            log.debug("Marked {} properties (id {}..{}) as notified for yearly update reminder.",
+                    updated, ids.get(0), ids.get(ids.size() - 1));
+        } catch (RuntimeException ex) {
+            // Log and continue with the next chunk — don't let one bad chunk stop the job
+            result.failed += ids.size();
+            log.error("Failed to update lastNotifiedAt for properties (id {}..{}), skipping. Reason: {}",
+                    ids.get(0), ids.get(ids.size() - 1), ex.getMessage(), ex);
+        }
+    }
 
-        log.info("Property update notification run completed. {} properties marked as notified.", notified);
+    private static final class RunResult {
+        private int due;
+        private int marked;
+        private int failed;
     }
 }
@@ -2,6 +2,7 @@ package com.avfallskompassen.security;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -23,6 +24,8 @@ import jakarta.servlet.http.HttpServletResponse;
  * Filter that extracts JWT from Authorization header, validates it, and sets
  * the Spring Security context with an authenticated principal containing the
  * user's role.
+ * The role is the one stored for the user, not the role claim of the token, so a role change
+ * applies to the next request once the {@link UserRoleCache} entry is dropped.
  */
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
@@ -33,6 +36,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired(required = false)
     private UserService userService;
 
+    @Autowired(required = false)
+    private UserRoleCache userRoleCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -43,24 +49,36 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             token = header.substring(7);
         }
 
-        if (token != null && jwtUtil != null && userService != null && jwtUtil.validateToken(token) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            String username = jwtUtil.getUsernameFromToken(token);
-            String role = jwtUtil.getRoleFromToken(token);
+        if (token != null && jwtUtil != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Optional<JwtPrincipal> principal = jwtUtil.verifyToken(token);
+            if (principal.isPresent()) {
+                String username = principal.get().getUsername();
 
-            // load user to validate existence
-            User user = userService.findByUsername(username).orElse(null);
-            if (user != null) {
-                // Normalize role to uppercase to ensure consistency
-                String normalizedRole = (role != null ? role.toUpperCase() : user.getRole().toUpperCase());
-                SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + normalizedRole);
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        username, null, List.of(authority)
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                // validate that the user still exists and read its current role, cached briefly so hot paths skip the database
+                Optional<String> storedRole = findStoredRole(username);
+                if (storedRole.isPresent()) {
+                    // Normalize role to uppercase to ensure consistency
+                    String normalizedRole = storedRole.get().toUpperCase();
+                    SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + normalizedRole);
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            username, null, List.of(authority)
+                    );
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
             }
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private Optional<String> findStoredRole(String username) {
+        if (userRoleCache != null) {
+            return userRoleCache.findRole(username);
+        }
+        if (userService != null) {
+            return userService.findByUsername(username).map(User::getRole);
+        }
+        return Optional.empty();
+    }
 }
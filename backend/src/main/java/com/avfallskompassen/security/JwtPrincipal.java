@@ -0,0 +1,41 @@
+package com.avfallskompassen.security;
+
+import java.time.Instant;
+
+/**
+ * The claims of a verified JWT that are needed to authenticate a request.
+ */
+public final class JwtPrincipal {
+
+    private final String username;
+    private final String role;
+    private final Instant expiresAt;
+
+    public JwtPrincipal(String username, String role, Instant expiresAt) {
+        this.username = username;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return The role claim of the token, or null if the token has none
+     */
+    public String getRole() {
+        return role;
+    }
+
+    /**
+     * @return When the token expires, or null if it never does
+     */
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
@@ -1,17 +1,29 @@
 package com.avfallskompassen.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Utility for generating and validating JWT tokens used for authentication.
+ * <p>
+ * The signing key and parser are built once. Verified tokens are kept in a bounded cache until
+ * they expire, so a client sending the same token on every request only pays for the signature
+ * check the first time.
  */
 @Component
 public class JwtUtil {
@@ -22,13 +34,32 @@ public class JwtUtil {
     @Value("${jwt.expiration-ms:86400000}") // 1 day default
     private long expirationMs;
 
-    private Key getSigningKey() {
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheSize = 10000;
+
+    private Clock clock = Clock.systemUTC();
+
+    private Key signingKey;
+    private JwtParser parser;
+    private Map<String, JwtPrincipal> verifiedTokens;
+
+    @PostConstruct
+    void init() {
         // use the secret bytes to build the key; in production use a secure secret
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+        int maxSize = cacheSize;
+        this.verifiedTokens = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JwtPrincipal> eldest) {
+                return size() > maxSize;
+            }
+        });
     }
 
     public String generateToken(String username, String role) {
-        Date now = new Date();
+        Date now = Date.from(clock.instant());
         Date expiry = new Date(now.getTime() + expirationMs);
 
         return Jwts.builder()
@@ -36,27 +67,69 @@ public class JwtUtil {
                 .claim("role", role)
                 .setIssuedAt(now)
                 .setExpiration(expiry)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Verifies a token and returns its claims, parsing it at most once while it is valid.
+     *
+     * @param token The compact JWS from the Authorization header
+     * @return The principal of the token, or empty if the token is invalid or expired
+     */
+    public Optional<JwtPrincipal> verifyToken(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        Instant now = clock.instant();
+        JwtPrincipal cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.remove(token);
+            return Optional.empty();
+        }
+
+        Optional<JwtPrincipal> principal = parseToken(token);
+        principal.ifPresent(p -> verifiedTokens.put(token, p));
+        return principal;
+    }
+
+    /**
+     * Parses and verifies a token without using the cache.
+     *
+     * @param token The compact JWS
+     * @return The principal of the token, or empty if the signature is wrong, the token is malformed or expired
+     */
+    public Optional<JwtPrincipal> parseToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Object role = claims.get("role");
+            Date expiration = claims.getExpiration();
+            return Optional.of(new JwtPrincipal(
+                    claims.getSubject(),
+                    role != null ? role.toString() : null,
+                    expiration != null ? expiration.toInstant() : null));
         } catch (Exception ex) {
-            return false;
+            return Optional.empty();
         }
     }
 
+    public boolean validateToken(String token) {
+        return verifyToken(token).isPresent();
+    }
+
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
-        return claims.getSubject();
+        return verifyToken(token).map(JwtPrincipal::getUsername).orElse(null);
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
-        Object r = claims.get("role");
-        return r != null ? r.toString() : null;
+        return verifyToken(token).map(JwtPrincipal::getRole).orElse(null);
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
     }
 }
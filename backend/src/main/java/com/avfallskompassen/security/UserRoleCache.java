@@ -0,0 +1,81 @@
+package com.avfallskompassen.security;
+
+import com.avfallskompassen.model.User;
+import com.avfallskompassen.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Short lived cache of which users exist and their roles, used by {@link JwtAuthFilter} so an
+ * authenticated request does not have to look up its user in the database.
+ * Missing users are cached as well. Entries expire after {@code jwt.user-cache.ttl-ms} and are
+ * dropped right away when a user's role changes.
+ */
+@Component
+public class UserRoleCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMs;
+    private final Map<String, CachedUser> users;
+    private Clock clock = Clock.systemUTC();
+
+    public UserRoleCache(UserRepository userRepository,
+                         @Value("${jwt.user-cache.ttl-ms:30000}") long ttlMs,
+                         @Value("${jwt.user-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlMs = ttlMs;
+        this.users = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * Finds the role of a user.
+     *
+     * @param username The username
+     * @return The role stored for the user, or empty if there is no such user
+     */
+    public Optional<String> findRole(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+
+        Instant now = clock.instant();
+        CachedUser cached = users.get(username);
+        if (cached != null && now.isBefore(cached.expiresAt)) {
+            return Optional.ofNullable(cached.role);
+        }
+
+        String role = userRepository.findByUsername(username).map(User::getRole).orElse(null);
+        users.put(username, new CachedUser(role, now.plusMillis(ttlMs)));
+        return Optional.ofNullable(role);
+    }
+
+    /**
+     * Drops the cached entry of a user, e.g. after the user's role has changed.
+     *
+     * @param username The username
+     */
+    public void invalidate(String username) {
+        if (username != null) {
+            users.remove(username);
+        }
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private record CachedUser(String role, Instant expiresAt) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.avfallskompassen.services;
 
 import com.avfallskompassen.dto.ActivityDTO;
+import com.avfallskompassen.dto.ActivityPageDTO;
 import com.avfallskompassen.model.ActivityType;
 import com.avfallskompassen.model.User;
 
@@ -15,5 +16,7 @@ public interface ActivityService {
 
     List<ActivityDTO> getUserActivities(User user);
 
+    ActivityPageDTO getActivityFeed(User user, String after, Integer limit);
+
     void saveActivity(User user, ActivityType activityType, String details);
 }
@@ -1,6 +1,10 @@
 package com.avfallskompassen.services;
 
 import com.avfallskompassen.dto.CollectionFeeDTO;
+import com.avfallskompassen.model.Property;
+
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * Interface for the service class CollectionFeeImpl
@@ -12,6 +16,8 @@ public interface CollectionFeeService {
     CollectionFeeDTO findCollectionFeeByMunicipalityId(Long id, double distance);
 
     CollectionFeeDTO findCollectionFeeByPropertyId(Long propertyId);
+
+    Map<Long, CollectionFeeDTO> findCollectionFeesByProperties(Collection<Property> properties);
     
     CollectionFeeDTO updateCollectionFeeCost(Long id, java.math.BigDecimal cost);
     
@@ -0,0 +1,48 @@
+package com.avfallskompassen.services;
+
+import com.avfallskompassen.model.ContainerPlan;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-only catalog of all container plans, kept in memory since plans, container types and
+ * services only change when an admin updates them.
+ * <p>
+ * The returned plans are shared between all callers and must not be modified. Their container
+ * type, municipality service, municipality and service type are always loaded.
+ */
+public interface ContainerCatalogService {
+
+    /**
+     * Finds a container plan by id.
+     *
+     * @param id Id of the container plan
+     * @return The plan, or empty if no plan has the id
+     */
+    Optional<ContainerPlan> findContainerPlan(Long id);
+
+    /**
+     * Finds several container plans at once. Plans missing from the catalog are loaded with one query.
+     *
+     * @param ids Ids of the container plans
+     * @return The plans found, by id. Unknown ids are left out
+     */
+    Map<Long, ContainerPlan> findContainerPlansByIds(Set<Long> ids);
+
+    /**
+     * Finds the container plans offered for a service type in a municipality.
+     *
+     * @param municipalityId Id of the municipality
+     * @param serviceTypeId Id of the service type
+     * @return The plans, or an empty list if the municipality does not offer the service
+     */
+    List<ContainerPlan> findContainerPlans(long municipalityId, long serviceTypeId);
+
+    /**
+     * Loads all container plans again and replaces the catalog in one step.
+     */
+    void reload();
+}
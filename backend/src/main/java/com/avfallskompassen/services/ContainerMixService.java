@@ -0,0 +1,19 @@
+package com.avfallskompassen.services;
+
+import com.avfallskompassen.dto.ContainerMixDTO;
+import com.avfallskompassen.dto.request.ContainerMixRequest;
+
+/**
+ * Interface for {@link com.avfallskompassen.services.impl.ContainerMixServiceImpl}
+ */
+public interface ContainerMixService {
+
+    /**
+     * Recommends the cheapest containers per service type for a property.
+     *
+     * @param propertyId Id of the property
+     * @param request The service types and the volume wanted for each
+     * @return The recommended containers with their cost and floor area
+     */
+    ContainerMixDTO recommendContainerMix(Long propertyId, ContainerMixRequest request);
+}
@@ -0,0 +1,18 @@
+package com.avfallskompassen.services;
+
+import com.avfallskompassen.dto.ContainerPlacementDTO;
+import com.avfallskompassen.dto.request.ContainerPlacementRequest;
+
+/**
+ * Interface for {@link com.avfallskompassen.services.impl.ContainerPlacementServiceImpl}
+ */
+public interface ContainerPlacementService {
+
+    /**
+     * Suggests where to place containers in a waste room.
+     *
+     * @param request The room, its doors and other objects and the containers to place
+     * @return The best layout found within the time budget
+     */
+    ContainerPlacementDTO placeContainers(ContainerPlacementRequest request);
+}
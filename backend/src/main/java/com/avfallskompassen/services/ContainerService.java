@@ -6,6 +6,8 @@ import com.avfallskompassen.dto.PropertyContainerDTO;
 import com.avfallskompassen.model.ContainerPlan;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Interface for the ContainerServiceImpl class.
@@ -18,6 +20,8 @@ public interface ContainerService {
 
     ContainerPlan getContainerPlanById(Long id);
 
+    Map<Long, ContainerPlan> getContainerPlansByIds(Set<Long> ids);
+
     List<PropertyContainerDTO> getContainersByPropertyId(Long wasteRoomId);
 
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.avfallskompassen.services;
+
+import com.avfallskompassen.dto.CostBreakdownDTO;
+import com.avfallskompassen.dto.request.CostSimulationRequest;
+
+/**
+ * Interface for {@link com.avfallskompassen.services.impl.CostSimulationServiceImpl}
+ */
+public interface CostSimulationService {
+
+    /**
+     * Calculates the annual cost a property would have with an unsaved waste room, without reading
+     * the database.
+     *
+     * @param request The waste room and the property values the cost depends on
+     * @return The annual cost split into its parts
+     */
+    CostBreakdownDTO simulateAnnualCost(CostSimulationRequest request);
+
+    /**
+     * Loads the collection fees and lock type costs again.
+     */
+    void reloadRates();
+}
@@ -0,0 +1,18 @@
+package com.avfallskompassen.services;
+
+import com.avfallskompassen.dto.LayoutRevalidationReportDTO;
+import com.avfallskompassen.dto.LayoutValidationResultDTO;
+import com.avfallskompassen.model.WasteRoom;
+
+/**
+ * Interface for the service class LayoutValidationServiceImpl.
+ * Validates the geometry of waste room layouts when they are saved and re-validates all stored layouts.
+ */
+public interface LayoutValidationService {
+
+    LayoutValidationResultDTO validate(WasteRoom room);
+
+    void enforce(WasteRoom room);
+
+    LayoutRevalidationReportDTO revalidateAll(int maxResults);
+}
@@ -0,0 +1,18 @@
+package com.avfallskompassen.services;
+
+import com.avfallskompassen.dto.PeerGroupStatisticsDTO;
+import com.avfallskompassen.model.Property;
+
+/**
+ * Interface for the service class PeerStatisticsServiceImpl.
+ * Keeps precomputed comparison figures per property so a peer group can be
+ * aggregated without loading the waste rooms and costs of every peer.
+ */
+public interface PeerStatisticsService {
+
+    PeerGroupStatisticsDTO getPeerGroupStatistics(Property property);
+
+    void refreshProperty(Long propertyId);
+
+    void rebuildAll();
+}
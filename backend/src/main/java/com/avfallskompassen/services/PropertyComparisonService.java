@@ -3,15 +3,14 @@ package com.avfallskompassen.services;
 import com.avfallskompassen.dto.CollectionFrequencyComparisonDTO;
 import com.avfallskompassen.dto.ContainerSizeComparisonDTO;
 import com.avfallskompassen.dto.CostComparisonDTO;
+import com.avfallskompassen.dto.PeerGroupStatisticsDTO;
+import com.avfallskompassen.dto.PeerServiceStatisticsDTO;
 import com.avfallskompassen.dto.PropertyComparisonDTO;
 import com.avfallskompassen.dto.WasteAmountComparisonDTO;
 import com.avfallskompassen.model.Property;
-import com.avfallskompassen.model.PropertyContainer;
-import com.avfallskompassen.model.ContainerPlan;
-import com.avfallskompassen.model.ContainerPosition;
-import com.avfallskompassen.model.WasteRoom;
 import com.avfallskompassen.repository.PropertyRepository;
 import com.avfallskompassen.repository.WasteRoomRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -21,43 +20,44 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
 
 /**
  * Service implementation for comparing properties with similar properties.
  * Implements comparison functionality for costs, container sizes, waste
  * amounts, and collection frequencies.
+ * The figures of the property itself are calculated live, the figures of the
+ * similar properties are read from the precomputed {@link PeerStatisticsService}.
  */
 @Service
 @Transactional(readOnly = true)
 public class PropertyComparisonService implements IPropertyComparisonService {
 
-    private static final int APARTMENT_RANGE = 5;
-
     private final PropertyRepository propertyRepository;
     private final PropertyCostService propertyCostService;
     private final WasteRoomRepository wasteRoomRepository;
+    private final PeerStatisticsService peerStatisticsService;
 
     @Autowired
     public PropertyComparisonService(PropertyRepository propertyRepository,
             PropertyCostService propertyCostService,
-            WasteRoomRepository wasteRoomRepository) {
+            WasteRoomRepository wasteRoomRepository,
+            PeerStatisticsService peerStatisticsService) {
         this.propertyRepository = propertyRepository;
         this.propertyCostService = propertyCostService;
         this.wasteRoomRepository = wasteRoomRepository;
+        this.peerStatisticsService = peerStatisticsService;
     }
 
+    @Timed(value = "property.comparison", description = "Time to compare a property with its peers", histogram = true)
     @Override
     public PropertyComparisonDTO getPropertyComparison(Long propertyId) {
         Property property = loadProperty(propertyId);
-        List<Property> similarProperties = findSimilarProperties(property);
-        Map<Long, List<PropertyContainer>> containersByProperty = loadContainers(property, similarProperties);
+        PeerGroupStatisticsDTO peers = peerStatisticsService.getPeerGroupStatistics(property);
+        PropertyWasteProfile profile = loadProfile(property);
 
         PropertyComparisonDTO comparison = new PropertyComparisonDTO();
         comparison.setPropertyId(property.getId());
@@ -65,13 +65,10 @@ public class PropertyComparisonService implements IPropertyComparisonService {
         comparison.setNumberOfApartments(property.getNumberOfApartments());
         comparison.setPropertyType(property.getPropertyType().getDisplayName());
 
-        comparison.setCostComparison(calculateCostComparison(property, similarProperties));
-        comparison.setContainerSizeComparison(
-                calculateContainerSizeComparison(property, similarProperties, containersByProperty));
-        comparison.setWasteAmountComparisons(
-                calculateWasteAmountComparisons(property, similarProperties, containersByProperty));
-        comparison.setFrequencyComparisons(
-                calculateFrequencyComparisons(property, similarProperties, containersByProperty));
+        comparison.setCostComparison(calculateCostComparison(property, peers));
+        comparison.setContainerSizeComparison(calculateContainerSizeComparison(profile, peers));
+        comparison.setWasteAmountComparisons(calculateWasteAmountComparisons(profile, peers));
+        comparison.setFrequencyComparisons(calculateFrequencyComparisons(profile, peers));
 
         return comparison;
     }
@@ -79,32 +76,28 @@ public class PropertyComparisonService implements IPropertyComparisonService {
     @Override
     public CostComparisonDTO getCostComparison(Long propertyId) {
         Property property = loadProperty(propertyId);
-        List<Property> similarProperties = findSimilarProperties(property);
-        return calculateCostComparison(property, similarProperties);
+        return calculateCostComparison(property, peerStatisticsService.getPeerGroupStatistics(property));
     }
 
     @Override
     public ContainerSizeComparisonDTO getContainerSizeComparison(Long propertyId) {
         Property property = loadProperty(propertyId);
-        List<Property> similarProperties = findSimilarProperties(property);
-        Map<Long, List<PropertyContainer>> containersByProperty = loadContainers(property, similarProperties);
-        return calculateContainerSizeComparison(property, similarProperties, containersByProperty);
+        return calculateContainerSizeComparison(loadProfile(property),
+                peerStatisticsService.getPeerGroupStatistics(property));
     }
 
     @Override
     public List<WasteAmountComparisonDTO> getWasteAmountComparisons(Long propertyId) {
         Property property = loadProperty(propertyId);
-        List<Property> similarProperties = findSimilarProperties(property);
-        Map<Long, List<PropertyContainer>> containersByProperty = loadContainers(property, similarProperties);
-        return calculateWasteAmountComparisons(property, similarProperties, containersByProperty);
+        return calculateWasteAmountComparisons(loadProfile(property),
+                peerStatisticsService.getPeerGroupStatistics(property));
     }
 
     @Override
     public List<CollectionFrequencyComparisonDTO> getFrequencyComparisons(Long propertyId) {
         Property property = loadProperty(propertyId);
-        List<Property> similarProperties = findSimilarProperties(property);
-        Map<Long, List<PropertyContainer>> containersByProperty = loadContainers(property, similarProperties);
-        return calculateFrequencyComparisons(property, similarProperties, containersByProperty);
+        return calculateFrequencyComparisons(loadProfile(property),
+                peerStatisticsService.getPeerGroupStatistics(property));
     }
 
     private Property loadProperty(Long propertyId) {
@@ -112,89 +105,24 @@ public class PropertyComparisonService implements IPropertyComparisonService {
                 .orElseThrow(() -> new EntityNotFoundException("Property not found with ID: " + propertyId));
     }
 
-    private List<Property> findSimilarProperties(Property property) {
-        int minApartments = Math.max(1, property.getNumberOfApartments() - APARTMENT_RANGE);
-        int maxApartments = property.getNumberOfApartments() + APARTMENT_RANGE;
-
-        return propertyRepository.findSimilarProperties(
-                property.getPropertyType(),
-                property.getMunicipality(),
-                minApartments,
-                maxApartments,
-                property.getId());
-    }
-
-    private Map<Long, List<PropertyContainer>> loadContainers(Property property, List<Property> similarProperties) {
-        Map<Long, List<PropertyContainer>> containersByProperty = new HashMap<>();
-        containersByProperty.put(property.getId(), fetchContainersFromWasteRooms(property.getId()));
-
-        Set<Long> similarIds = similarProperties.stream()
-                .map(Property::getId)
-                .collect(Collectors.toCollection(HashSet::new));
-
-        if (!similarIds.isEmpty()) {
-            List<WasteRoom> allWasteRooms = wasteRoomRepository.findByPropertyIdIn(similarIds);
-
-            Map<Long, List<PropertyContainer>> grouped = allWasteRooms.stream()
-                    .filter(wr -> Boolean.TRUE.equals(wr.getIsActive()))
-                    .collect(Collectors.groupingBy(
-                            wr -> wr.getProperty().getId(),
-                            Collectors.collectingAndThen(
-                                    Collectors.toList(),
-                                    this::convertWasteRoomsToPropertyContainers)));
-
-            containersByProperty.putAll(grouped);
-            similarIds.forEach(id -> containersByProperty.computeIfAbsent(id, ignored -> Collections.emptyList()));
-        }
-
-        return containersByProperty;
-    }
-
-    private List<PropertyContainer> fetchContainersFromWasteRooms(Long propertyId) {
-        List<WasteRoom> rooms = wasteRoomRepository.findByPropertyId(propertyId);
-        return convertWasteRoomsToPropertyContainers(
-                rooms.stream()
-                        .filter(r -> Boolean.TRUE.equals(r.getIsActive()))
-                        .collect(Collectors.toList()));
+    private PropertyWasteProfile loadProfile(Property property) {
+        return PropertyWasteProfile.fromWasteRooms(wasteRoomRepository.findByPropertyId(property.getId()));
     }
 
-    private List<PropertyContainer> convertWasteRoomsToPropertyContainers(List<WasteRoom> rooms) {
-        Map<ContainerPlan, Long> planCounts = rooms.stream()
-                .flatMap(r -> r.getContainers().stream())
-                .map(ContainerPosition::getContainerPlan)
-                .collect(Collectors.groupingBy(java.util.function.Function.identity(), Collectors.counting()));
-
-        return planCounts.entrySet().stream().map(entry -> {
-            PropertyContainer pc = new PropertyContainer();
-            pc.setContainerPlan(entry.getKey());
-            pc.setContainerCount(entry.getValue().intValue());
-            return pc;
-        }).collect(Collectors.toList());
-    }
-
-    private CostComparisonDTO calculateCostComparison(Property property, List<Property> similarProperties) {
+    private CostComparisonDTO calculateCostComparison(Property property, PeerGroupStatisticsDTO peers) {
         BigDecimal propertyCost = propertyCostService.calculateAnnualCost(property.getId()).getTotalCost()
                 .setScale(2, RoundingMode.HALF_UP);
 
-        List<BigDecimal> allCosts = new ArrayList<>();
-
-        if (!similarProperties.isEmpty()) {
-            List<BigDecimal> similarCosts = similarProperties.stream()
-                    .map(similar -> propertyCostService.calculateAnnualCost(similar.getId()).getTotalCost().setScale(2,
-                            RoundingMode.HALF_UP))
-                    .collect(Collectors.toList());
-            allCosts.addAll(similarCosts);
-        }
+        long costCount = peers.getCostCount();
 
-        BigDecimal minCost = allCosts.stream().min(BigDecimal::compareTo).orElse(propertyCost);
-        BigDecimal maxCost = allCosts.stream().max(BigDecimal::compareTo).orElse(propertyCost);
+        BigDecimal minCost = costCount > 0 ? peers.getMinCost() : propertyCost;
+        BigDecimal maxCost = costCount > 0 ? peers.getMaxCost() : propertyCost;
 
-        BigDecimal totalCost = allCosts.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
         BigDecimal averageCost;
-        if (allCosts.isEmpty()) {
+        if (costCount == 0) {
             averageCost = BigDecimal.ZERO;
         } else {
-            averageCost = totalCost.divide(BigDecimal.valueOf(allCosts.size()), 2, RoundingMode.HALF_UP);
+            averageCost = peers.getCostSum().divide(BigDecimal.valueOf(costCount), 2, RoundingMode.HALF_UP);
         }
 
         double percentageDifference = 0.0;
@@ -211,35 +139,20 @@ public class PropertyComparisonService implements IPropertyComparisonService {
                 minCost,
                 maxCost,
                 roundDouble(percentageDifference),
-                allCosts.size() // Return total size including self
+                (int) costCount
         );
     }
 
-    private ContainerSizeComparisonDTO calculateContainerSizeComparison(Property property,
-            List<Property> similarProperties,
-            Map<Long, List<PropertyContainer>> containersByProperty) {
-        int propertyVolume = calculateTotalContainerVolume(containersByProperty.get(property.getId()));
-        double propertyFrequency = getAverageFrequencyForProperty(property.getId());
-
-        List<Integer> allVolumes = new ArrayList<>();
-
-        List<Double> allFrequencies = new ArrayList<>();
+    private ContainerSizeComparisonDTO calculateContainerSizeComparison(PropertyWasteProfile profile,
+            PeerGroupStatisticsDTO peers) {
+        int propertyVolume = profile.getTotalVolume();
 
-        if (!similarProperties.isEmpty()) {
-            List<Integer> similarVolumes = similarProperties.stream()
-                    .map(similar -> calculateTotalContainerVolume(containersByProperty.get(similar.getId())))
-                    .collect(Collectors.toList());
-            allVolumes.addAll(similarVolumes);
-
-            List<Double> similarFrequencies = similarProperties.stream()
-                    .map(similar -> getAverageFrequencyForProperty(similar.getId()))
-                    .filter(freq -> freq > 0)
-                    .collect(Collectors.toList());
-            allFrequencies.addAll(similarFrequencies);
-        }
-
-        double averageVolume = allVolumes.stream().mapToInt(Integer::intValue).average().orElse(0.0);
-        double averageFrequency = allFrequencies.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        double averageVolume = peers.getPeerCount() > 0
+                ? (double) peers.getVolumeSum() / peers.getPeerCount()
+                : 0.0;
+        double averageFrequency = peers.getFrequencyCount() > 0
+                ? peers.getFrequencySum() / peers.getFrequencyCount()
+                : 0.0;
 
         double tolerance = 0.1;
         String comparison;
@@ -255,41 +168,16 @@ public class PropertyComparisonService implements IPropertyComparisonService {
                 propertyVolume,
                 roundDouble(averageVolume),
                 comparison,
-                allVolumes.size(),
+                (int) peers.getPeerCount(),
                 roundDouble(averageFrequency));
     }
 
-    private double getAverageFrequencyForProperty(Long propertyId) {
-        List<WasteRoom> rooms = wasteRoomRepository.findByPropertyId(propertyId);
-        return rooms.stream()
-                .filter(r -> Boolean.TRUE.equals(r.getIsActive()) && r.getAverageCollectionFrequency() != null)
-                .mapToDouble(WasteRoom::getAverageCollectionFrequency)
-                .average()
-                .orElse(0.0);
-    }
-
-    private int calculateTotalContainerVolume(List<PropertyContainer> containers) {
-        if (containers == null || containers.isEmpty()) {
-            return 0;
-        }
-
-        return containers.stream()
-                .filter(this::hasRequiredContainerRelations)
-                .mapToInt(container -> container.getContainerPlan().getContainerType().getSize()
-                        * container.getContainerCount())
-                .sum();
-    }
-
-    private List<WasteAmountComparisonDTO> calculateWasteAmountComparisons(Property property,
-            List<Property> similarProperties,
-            Map<Long, List<PropertyContainer>> containersByProperty) {
-        Map<String, Double> propertyWaste = calculateWasteAmountByService(containersByProperty.get(property.getId()));
-        List<Map<String, Double>> similarWaste = similarProperties.stream()
-                .map(similar -> calculateWasteAmountByService(containersByProperty.get(similar.getId())))
-                .collect(Collectors.toList());
+    private List<WasteAmountComparisonDTO> calculateWasteAmountComparisons(PropertyWasteProfile profile,
+            PeerGroupStatisticsDTO peers) {
+        Map<String, Double> propertyWaste = profile.getWasteAmountByService();
 
         Set<String> wasteTypes = new TreeSet<>(propertyWaste.keySet());
-        similarWaste.forEach(map -> wasteTypes.addAll(map.keySet()));
+        wasteTypes.addAll(peers.getServiceStatistics().keySet());
 
         if (wasteTypes.isEmpty()) {
             return Collections.emptyList();
@@ -298,15 +186,12 @@ public class PropertyComparisonService implements IPropertyComparisonService {
         List<WasteAmountComparisonDTO> comparisons = new ArrayList<>();
         for (String wasteType : wasteTypes) {
             double propertyAmount = propertyWaste.getOrDefault(wasteType, 0.0d);
+            PeerServiceStatisticsDTO service = peers.getServiceStatistics().get(wasteType);
+            long groupSize = service != null ? service.getPeerCount() : 0;
 
-            List<Double> similarAmounts = similarWaste.stream()
-                    .filter(map -> map.containsKey(wasteType))
-                    .map(map -> map.get(wasteType))
-                    .collect(Collectors.toList());
-
-            double average = similarAmounts.stream().mapToDouble(Double::doubleValue).average().orElse(propertyAmount);
-            double min = similarAmounts.stream().min(Double::compare).orElse(propertyAmount);
-            double max = similarAmounts.stream().max(Double::compare).orElse(propertyAmount);
+            double average = groupSize > 0 ? service.getWasteAmountSum() / groupSize : propertyAmount;
+            double min = groupSize > 0 ? service.getMinWasteAmount() : propertyAmount;
+            double max = groupSize > 0 ? service.getMaxWasteAmount() : propertyAmount;
             double percentageDifference = average > 0 ? ((propertyAmount - average) / average) * 100 : 0.0;
 
             comparisons.add(new WasteAmountComparisonDTO(
@@ -315,38 +200,19 @@ public class PropertyComparisonService implements IPropertyComparisonService {
                     roundDouble(min),
                     roundDouble(max),
                     roundDouble(percentageDifference),
-                    similarAmounts.size(),
+                    (int) groupSize,
                     wasteType));
         }
 
         return comparisons;
     }
 
-    private Map<String, Double> calculateWasteAmountByService(List<PropertyContainer> containers) {
-        if (containers == null || containers.isEmpty()) {
-            return Collections.emptyMap();
-        }
-
-        return containers.stream()
-                .filter(this::hasRequiredContainerRelations)
-                .collect(Collectors.groupingBy(
-                        container -> container.getContainerPlan().getMunicipalityService().getServiceType().getName(),
-                        Collectors.summingDouble(container -> container.getContainerPlan().getContainerType().getSize()
-                                * container.getContainerPlan().getEmptyingFrequencyPerYear()
-                                * container.getContainerCount())));
-    }
-
-    private List<CollectionFrequencyComparisonDTO> calculateFrequencyComparisons(Property property,
-            List<Property> similarProperties,
-            Map<Long, List<PropertyContainer>> containersByProperty) {
-        Map<String, Double> propertyFrequencies = calculateAverageFrequencyByService(
-                containersByProperty.get(property.getId()));
-        List<Map<String, Double>> similarFrequencies = similarProperties.stream()
-                .map(similar -> calculateAverageFrequencyByService(containersByProperty.get(similar.getId())))
-                .collect(Collectors.toList());
+    private List<CollectionFrequencyComparisonDTO> calculateFrequencyComparisons(PropertyWasteProfile profile,
+            PeerGroupStatisticsDTO peers) {
+        Map<String, Double> propertyFrequencies = profile.getAverageFrequencyByService();
 
         Set<String> serviceTypes = new TreeSet<>(propertyFrequencies.keySet());
-        similarFrequencies.forEach(map -> serviceTypes.addAll(map.keySet()));
+        serviceTypes.addAll(peers.getServiceStatistics().keySet());
 
         if (serviceTypes.isEmpty()) {
             return Collections.emptyList();
@@ -355,62 +221,23 @@ public class PropertyComparisonService implements IPropertyComparisonService {
         List<CollectionFrequencyComparisonDTO> comparisons = new ArrayList<>();
         for (String serviceType : serviceTypes) {
             double propertyFrequency = propertyFrequencies.getOrDefault(serviceType, 0.0d);
+            PeerServiceStatisticsDTO service = peers.getServiceStatistics().get(serviceType);
+            long groupSize = service != null ? service.getPeerCount() : 0;
 
-            List<Double> similarValues = similarFrequencies.stream()
-                    .filter(map -> map.containsKey(serviceType))
-                    .map(map -> map.get(serviceType))
-                    .collect(Collectors.toList());
-
-            double average = similarValues.stream().mapToDouble(Double::doubleValue).average()
-                    .orElse(propertyFrequency);
+            double average = groupSize > 0 ? service.getFrequencySum() / groupSize : propertyFrequency;
             double percentageDifference = average > 0 ? ((propertyFrequency - average) / average) * 100 : 0.0;
 
             comparisons.add(new CollectionFrequencyComparisonDTO(
                     roundToInt(propertyFrequency),
                     roundDouble(average),
                     roundDouble(percentageDifference),
-                    similarValues.size(),
+                    (int) groupSize,
                     serviceType));
         }
 
         return comparisons;
     }
 
-    private Map<String, Double> calculateAverageFrequencyByService(List<PropertyContainer> containers) {
-        if (containers == null || containers.isEmpty()) {
-            return Collections.emptyMap();
-        }
-
-        Map<String, FrequencyAccumulator> accumulators = new HashMap<>();
-
-        for (PropertyContainer container : containers) {
-            if (!hasRequiredContainerRelations(container)) {
-                continue;
-            }
-
-            String serviceName = container.getContainerPlan().getMunicipalityService().getServiceType().getName();
-            FrequencyAccumulator accumulator = accumulators.computeIfAbsent(serviceName,
-                    ignored -> new FrequencyAccumulator());
-            accumulator.add(container.getContainerPlan().getEmptyingFrequencyPerYear(), container.getContainerCount());
-        }
-
-        Map<String, Double> result = new HashMap<>();
-        accumulators.forEach((serviceName, accumulator) -> {
-            if (accumulator.totalUnits > 0) {
-                result.put(serviceName, accumulator.totalFrequency / accumulator.totalUnits);
-            }
-        });
-
-        return result;
-    }
-
-    private boolean hasRequiredContainerRelations(PropertyContainer container) {
-        return container.getContainerPlan() != null
-                && container.getContainerPlan().getContainerType() != null
-                && container.getContainerPlan().getMunicipalityService() != null
-                && container.getContainerPlan().getMunicipalityService().getServiceType() != null;
-    }
-
     private double roundDouble(double value) {
         return Math.round(value * 100.0d) / 100.0d;
     }
@@ -418,14 +245,4 @@ public class PropertyComparisonService implements IPropertyComparisonService {
     private int roundToInt(double value) {
         return (int) Math.round(value);
     }
-
-    private static final class FrequencyAccumulator {
-        private double totalFrequency;
-        private int totalUnits;
-
-        private void add(int frequencyPerYear, int units) {
-            this.totalFrequency += (double) frequencyPerYear * units;
-            this.totalUnits += units;
-        }
-    }
 }
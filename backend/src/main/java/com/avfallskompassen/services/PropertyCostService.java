@@ -2,7 +2,9 @@ package com.avfallskompassen.services;
 
 import com.avfallskompassen.dto.GeneralPropertyCostDTO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface for the service class PropertyCostServiceImpl
@@ -12,5 +14,6 @@ import java.util.List;
 public interface PropertyCostService {
 
     GeneralPropertyCostDTO calculateAnnualCost(Long propertyId);
+    Map<Long, GeneralPropertyCostDTO> calculateAnnualCosts(Collection<Long> propertyIds);
     List<GeneralPropertyCostDTO> calculateAllCostsForUser(String username);
 }
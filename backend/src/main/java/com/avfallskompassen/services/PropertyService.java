@@ -2,10 +2,12 @@ package com.avfallskompassen.services;
 
 import com.avfallskompassen.dto.LockTypeDto;
 import com.avfallskompassen.dto.PropertyDTO;
+import com.avfallskompassen.dto.PropertyPageDTO;
 import com.avfallskompassen.dto.PropertySimpleDTO;
 import com.avfallskompassen.dto.PropertySummaryDTO;
 import com.avfallskompassen.dto.UserStatsDTO;
 import com.avfallskompassen.dto.request.PropertyRequest;
+import com.avfallskompassen.dto.request.PropertySearchCriteria;
 import com.avfallskompassen.model.Property;
 
 import java.util.List;
@@ -37,6 +39,15 @@ public interface PropertyService {
 
     List<Property> getAllProperties();
 
+    /**
+     * One page of properties matching the criteria, ordered by id.
+     *
+     * @param criteria the filters, null fields are ignored
+     * @param after    the cursor returned with the previous page, null for the first page
+     * @param limit    the page size, null for the default
+     */
+    PropertyPageDTO searchProperties(PropertySearchCriteria criteria, String after, Integer limit);
+
     List<UserStatsDTO> getUsersInfoCount();
 
     List<Property> findByLockType(LockTypeDto lockType);
@@ -0,0 +1,113 @@
+package com.avfallskompassen.services;
+
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.WasteRoom;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Container figures for one property, derived from the containers placed in its active waste rooms.
+ * Used both for the property being compared and when the peer statistics are stored,
+ * so the two sides of a comparison are always calculated the same way.
+ */
+public final class PropertyWasteProfile {
+
+    private final int totalVolume;
+    private final double averageRoomFrequency;
+    private final Map<String, Double> wasteAmountByService;
+    private final Map<String, Double> averageFrequencyByService;
+
+    private PropertyWasteProfile(int totalVolume,
+                                 double averageRoomFrequency,
+                                 Map<String, Double> wasteAmountByService,
+                                 Map<String, Double> averageFrequencyByService) {
+        this.totalVolume = totalVolume;
+        this.averageRoomFrequency = averageRoomFrequency;
+        this.wasteAmountByService = wasteAmountByService;
+        this.averageFrequencyByService = averageFrequencyByService;
+    }
+
+    /**
+     * Builds the profile from all waste rooms of a property. Inactive versions are ignored.
+     *
+     * @param wasteRooms the waste rooms of the property
+     * @return the calculated profile
+     */
+    public static PropertyWasteProfile fromWasteRooms(List<WasteRoom> wasteRooms) {
+        int totalVolume = 0;
+        double frequencySum = 0.0;
+        int frequencyCount = 0;
+        Map<String, Double> wasteAmounts = new HashMap<>();
+        Map<String, double[]> frequencies = new HashMap<>();
+
+        for (WasteRoom room : wasteRooms) {
+            if (!Boolean.TRUE.equals(room.getIsActive())) {
+                continue;
+            }
+
+            if (room.getAverageCollectionFrequency() != null) {
+                frequencySum += room.getAverageCollectionFrequency();
+                frequencyCount++;
+            }
+
+            if (room.getContainers() == null) {
+                continue;
+            }
+
+            for (ContainerPosition position : room.getContainers()) {
+                ContainerPlan plan = position.getContainerPlan();
+                if (!hasRequiredRelations(plan)) {
+                    continue;
+                }
+
+                String serviceName = plan.getMunicipalityService().getServiceType().getName();
+                int size = plan.getContainerType().getSize();
+                int frequency = plan.getEmptyingFrequencyPerYear();
+
+                totalVolume += size;
+                wasteAmounts.merge(serviceName, (double) size * frequency, Double::sum);
+
+                double[] accumulator = frequencies.computeIfAbsent(serviceName, ignored -> new double[2]);
+                accumulator[0] += frequency;
+                accumulator[1]++;
+            }
+        }
+
+        Map<String, Double> averageFrequencies = new HashMap<>();
+        frequencies.forEach((serviceName, accumulator) ->
+                averageFrequencies.put(serviceName, accumulator[0] / accumulator[1]));
+
+        return new PropertyWasteProfile(
+                totalVolume,
+                frequencyCount > 0 ? frequencySum / frequencyCount : 0.0,
+                Collections.unmodifiableMap(wasteAmounts),
+                Collections.unmodifiableMap(averageFrequencies));
+    }
+
+    private static boolean hasRequiredRelations(ContainerPlan plan) {
+        return plan != null
+                && plan.getContainerType() != null
+                && plan.getMunicipalityService() != null
+                && plan.getMunicipalityService().getServiceType() != null;
+    }
+
+    public int getTotalVolume() {
+        return totalVolume;
+    }
+
+    public double getAverageRoomFrequency() {
+        return averageRoomFrequency;
+    }
+
+    public Map<String, Double> getWasteAmountByService() {
+        return wasteAmountByService;
+    }
+
+    public Map<String, Double> getAverageFrequencyByService() {
+        return averageFrequencyByService;
+    }
+}
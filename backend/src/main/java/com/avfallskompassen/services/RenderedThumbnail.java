@@ -0,0 +1,25 @@
+package com.avfallskompassen.services;
+
+/**
+ * A waste room thumbnail rendered on the server, together with its strong ETag.
+ * The ETag is derived from everything that affects the image, so two thumbnails with the same ETag
+ * are byte for byte identical.
+ */
+public final class RenderedThumbnail {
+
+    private final String eTag;
+    private final byte[] png;
+
+    public RenderedThumbnail(String eTag, byte[] png) {
+        this.eTag = eTag;
+        this.png = png;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public byte[] getPng() {
+        return png;
+    }
+}
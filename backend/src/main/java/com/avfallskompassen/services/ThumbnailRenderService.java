@@ -0,0 +1,17 @@
+package com.avfallskompassen.services;
+
+/**
+ * Interface for rendering waste room thumbnails on the server
+ */
+public interface ThumbnailRenderService {
+
+    /**
+     * Renders the layout of a waste room as a PNG. Renders are cached, a waste room is only drawn again
+     * when its layout has changed.
+     *
+     * @param wasteRoomId The id of the waste room
+     * @param size The size variant to render
+     * @return The PNG together with its ETag
+     */
+    RenderedThumbnail renderThumbnail(Long wasteRoomId, ThumbnailSize size);
+}
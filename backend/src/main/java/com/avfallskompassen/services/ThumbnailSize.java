@@ -0,0 +1,46 @@
+package com.avfallskompassen.services;
+
+import com.avfallskompassen.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Size variants of the server rendered waste room thumbnails.
+ * The rendered image keeps the aspect ratio of the room and fits inside the given box.
+ */
+public enum ThumbnailSize {
+    ICON(96, 72),
+    CARD(320, 240),
+    FULL(900, 750);
+
+    private final int maxWidth;
+    private final int maxHeight;
+
+    ThumbnailSize(int maxWidth, int maxHeight) {
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+    }
+
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * Parses a size from a request parameter such as {@code icon}, {@code card} or {@code full}.
+     *
+     * @param value The name of the size, case insensitive
+     * @return The matching size
+     * @throws BadRequestException If there is no size with that name
+     */
+    public static ThumbnailSize fromValue(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new BadRequestException("Okänd storlek på miniatyrbild: " + value);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.avfallskompassen.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Storage backend for waste room thumbnails.
+ * Implementations are selected with the property {@code thumbnail.storage}.
+ */
+public interface ThumbnailStorage {
+
+    /**
+     * Stores a thumbnail, replacing any earlier thumbnail with the same file name.
+     *
+     * @param fileName    The file name of the thumbnail, e.g. {@code 12.png}
+     * @param content     The image bytes
+     * @param contentType The content type of the image
+     * @return The URL the stored thumbnail can be fetched from
+     * @throws IOException If the thumbnail could not be stored
+     */
+    String store(String fileName, byte[] content, String contentType) throws IOException;
+
+    /**
+     * Stores a thumbnail read from a stream, replacing any earlier thumbnail with the same file name.
+     * The default implementation reads the whole stream into memory, implementations should override
+     * it to pass the stream on to the backend as it is read.
+     *
+     * @param fileName      The file name of the thumbnail, e.g. {@code 12.png}
+     * @param content       The image bytes, the stream is not closed
+     * @param contentLength The number of bytes in the stream, or -1 if unknown
+     * @param contentType   The content type of the image
+     * @return The URL the stored thumbnail can be fetched from
+     * @throws IOException If the stream could not be read or the thumbnail could not be stored
+     */
+    default String store(String fileName, InputStream content, long contentLength, String contentType)
+            throws IOException {
+        return store(fileName, content.readAllBytes(), contentType);
+    }
+
+    /**
+     * Checks that the backend can be reached and written to, used by the health endpoint.
+     * The default implementation assumes it can.
+     *
+     * @throws IOException If the backend is not available
+     */
+    default void checkAvailable() throws IOException {
+    }
+}
@@ -0,0 +1,31 @@
+package com.avfallskompassen.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Interface for uploading waste room thumbnails in the background
+ */
+public interface ThumbnailUploadService {
+
+    /**
+     * Queues a thumbnail for upload. If a transaction is active the upload is queued once it has
+     * been committed, so the waste room exists when its thumbnail url is set.
+     *
+     * @param wasteRoomId The id of the waste room the thumbnail belongs to
+     * @param imageBytes  The PNG image
+     */
+    void scheduleUpload(Long wasteRoomId, byte[] imageBytes);
+
+    /**
+     * Streams a thumbnail straight to storage on the calling thread and sets the thumbnail url
+     * of the waste room. The image is never held in memory as a whole.
+     *
+     * @param wasteRoomId   The id of the waste room the thumbnail belongs to
+     * @param content       The PNG image
+     * @param contentLength The size of the image in bytes, or -1 if unknown
+     * @return The URL of the stored thumbnail
+     * @throws IOException If the image could not be read or stored
+     */
+    String upload(Long wasteRoomId, InputStream content, long contentLength) throws IOException;
+}
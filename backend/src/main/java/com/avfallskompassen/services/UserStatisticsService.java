@@ -0,0 +1,22 @@
+package com.avfallskompassen.services;
+
+import com.avfallskompassen.dto.UserStatsDTO;
+import com.avfallskompassen.dto.UserStatsPageDTO;
+
+import java.util.List;
+
+/**
+ * Interface for the service class UserStatisticsServiceImpl.
+ * Keeps a property and a waste room version counter per user, updated when properties and
+ * waste rooms are created or deleted, so the admin user view never aggregates all rooms.
+ */
+public interface UserStatisticsService {
+
+    void adjustCounts(Integer userId, long properties, long wasteRooms);
+
+    UserStatsPageDTO getUserStats(int page, int size, String sort, String direction);
+
+    List<UserStatsDTO> getAllUserStats();
+
+    int recountAll();
+}
@@ -4,6 +4,7 @@ import com.avfallskompassen.dto.WasteRoomDTO;
 import com.avfallskompassen.dto.WasteRoomImgDTO;
 import com.avfallskompassen.dto.request.WasteRoomRequest;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -27,4 +28,6 @@ public interface WasteRoomService {
     List<WasteRoomDTO> getAllVersionsByPropertyAndName(Long propertyId, String roomName);
 
     void setWasteRoomActive(Long wasteRoomId, boolean isActive);
+
+    WasteRoomImgDTO uploadThumbnail(Long wasteRoomId, InputStream content, long contentLength, String contentType);
 }
@@ -0,0 +1,233 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.model.ActivityType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes activities on a background thread in JDBC batches, so logging an activity never adds an insert
+ * to the user's own transaction.
+ * <p>
+ * An activity is queued when the transaction that produced it commits (right away when there is none),
+ * so rolled back changes leave no activity behind. The queue is bounded by {@code activity.log.queue-capacity}.
+ * When it is full the activity is dropped and counted, the caller never waits. The worker writes up to
+ * {@code activity.log.batch-size} activities per batch and waits at most {@code activity.log.flush-interval-ms}
+ * for more before writing what it has. On shutdown the queue is written out before the data source closes.
+ * <p>
+ * As a {@link MeterBinder} it publishes the queue size, the written, dropped and failed activities and the
+ * time per batch once a meter registry is available. Disabled with {@code activity.log.async=false}, in which
+ * case {@link ActivityServiceImpl} saves each activity in the caller's transaction.
+ */
+@Component
+@ConditionalOnProperty(name = "activity.log.async", havingValue = "true", matchIfMissing = true)
+public class ActivityLogWriter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityLogWriter.class);
+
+    static final String INSERT_SQL = "INSERT INTO activities (user_id, action, details, timestamp) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<PendingActivity> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long shutdownTimeoutMs;
+    private final Thread worker;
+    private final AtomicLong writtenActivities = new AtomicLong();
+    private final AtomicLong droppedActivities = new AtomicLong();
+    private final AtomicLong failedActivities = new AtomicLong();
+    private volatile boolean running = true;
+    private volatile Timer flushTimer;
+
+    public ActivityLogWriter(
+            JdbcTemplate jdbcTemplate,
+            @Value("${activity.log.queue-capacity:10000}") int queueCapacity,
+            @Value("${activity.log.batch-size:200}") int batchSize,
+            @Value("${activity.log.flush-interval-ms:500}") long flushIntervalMs,
+            @Value("${activity.log.shutdown-timeout-ms:10000}") long shutdownTimeoutMs
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = flushIntervalMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.worker = new Thread(this::run, "activity-log-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues an activity to be written once the current transaction commits.
+     *
+     * @param userId The id of the user who did the activity
+     * @param action The type of activity
+     * @param details The details of the activity
+     * @param timestamp When the activity happened
+     */
+    public void submit(Integer userId, ActivityType action, String details, LocalDateTime timestamp) {
+        PendingActivity activity = new PendingActivity(userId, action, details, timestamp);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(activity);
+                }
+            });
+        } else {
+            enqueue(activity);
+        }
+    }
+
+    /**
+     * Number of activities waiting to be written.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getWrittenActivities() {
+        return writtenActivities.get();
+    }
+
+    /**
+     * Number of activities dropped because the queue was full.
+     */
+    public long getDroppedActivities() {
+        return droppedActivities.get();
+    }
+
+    /**
+     * Number of activities lost because their batch could not be written.
+     */
+    public long getFailedActivities() {
+        return failedActivities.get();
+    }
+
+    private void enqueue(PendingActivity activity) {
+        if (!running) {
+            // The worker is gone, write on the calling thread rather than lose the activity
+            write(List.of(activity));
+            return;
+        }
+        if (!queue.offer(activity)) {
+            long dropped = droppedActivities.incrementAndGet();
+            // Logged for the first drop and then every thousandth, a full queue drops a lot at once
+            if (dropped == 1 || dropped % 1000 == 0) {
+                log.warn("Activity log queue is full, {} activities dropped so far.", dropped);
+            }
+        }
+    }
+
+    private void run() {
+        List<PendingActivity> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingActivity first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // Interrupted by shutdown, the loop drains what is left
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes one batch with a single JDBC batch insert.
+     */
+    void write(List<PendingActivity> batch) {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, activity) -> {
+                statement.setObject(1, activity.userId());
+                statement.setString(2, activity.action().name());
+                statement.setString(3, activity.details());
+                statement.setTimestamp(4, Timestamp.valueOf(activity.timestamp()));
+            });
+            writtenActivities.addAndGet(batch.size());
+        } catch (RuntimeException ex) {
+            failedActivities.addAndGet(batch.size());
+            log.error("Failed to write {} activities. Reason: {}", batch.size(), ex.getMessage(), ex);
+        } finally {
+            Timer timer = flushTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("activity.log.queue.size", this, ActivityLogWriter::getQueueSize)
+                .description("Activities waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("activity.log.written", this, ActivityLogWriter::getWrittenActivities)
+                .description("Activities written to the database")
+                .register(registry);
+        FunctionCounter.builder("activity.log.dropped", this, ActivityLogWriter::getDroppedActivities)
+                .description("Activities dropped because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("activity.log.failed", this, ActivityLogWriter::getFailedActivities)
+                .description("Activities lost because their batch could not be written")
+                .register(registry);
+        this.flushTimer = Timer.builder("activity.log.flush")
+                .description("Time to write one batch of activities")
+                .register(registry);
+    }
+
+    /**
+     * Writes the queued activities before the application stops. Whatever the worker has not written
+     * within {@code activity.log.shutdown-timeout-ms} is written on the stopping thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            worker.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            worker.interrupt();
+        }
+
+        List<PendingActivity> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.warn("Activity log writer did not finish in time, writing {} activities on shutdown.", remaining.size());
+            for (int i = 0; i < remaining.size(); i += batchSize) {
+                write(remaining.subList(i, Math.min(i + batchSize, remaining.size())));
+            }
+        }
+    }
+
+    record PendingActivity(Integer userId, ActivityType action, String details, LocalDateTime timestamp) {
+    }
+}
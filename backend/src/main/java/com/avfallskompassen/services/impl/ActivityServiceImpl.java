@@ -1,6 +1,8 @@
 package com.avfallskompassen.services.impl;
 
 import com.avfallskompassen.dto.ActivityDTO;
+import com.avfallskompassen.dto.ActivityPageDTO;
+import com.avfallskompassen.exception.BadRequestException;
 import com.avfallskompassen.exception.InternalServerException;
 import com.avfallskompassen.model.Activity;
 import com.avfallskompassen.model.ActivityType;
@@ -10,8 +12,14 @@ import com.avfallskompassen.services.ActivityService;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 /**
@@ -21,10 +29,16 @@ import java.util.List;
  */
 @Service
 public class ActivityServiceImpl implements ActivityService {
+    public static final int DEFAULT_FEED_SIZE = 20;
+    public static final int MAX_FEED_SIZE = 100;
+    private static final String CURSOR_SEPARATOR = "|";
+
     private ActivityRepository activityRepository;
+    private ActivityLogWriter activityLogWriter;
 
-    public ActivityServiceImpl(ActivityRepository activityRepository) {
+    public ActivityServiceImpl(ActivityRepository activityRepository, @Nullable ActivityLogWriter activityLogWriter) {
         this.activityRepository = activityRepository;
+        this.activityLogWriter = activityLogWriter;
     }
 
     /**
@@ -54,7 +68,41 @@ public class ActivityServiceImpl implements ActivityService {
     }
 
     /**
-     * Saves an activity
+     * Gets one page of a users activities, newest first. The pages are cut on the timestamp and id of
+     * the last activity (keyset pagination), so every page is one index range scan however old it is.
+     * @param user The user whose activities are to be collected
+     * @param after The cursor returned with the previous page, null for the newest activities
+     * @param limit The number of activities per page, null for {@link #DEFAULT_FEED_SIZE}
+     * @return A page of activities and the cursor of the next page, if there is one
+     * @throws BadRequestException if the cursor or limit is invalid
+     */
+    @Override
+    public ActivityPageDTO getActivityFeed(User user, String after, Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_FEED_SIZE;
+        if (pageSize < 1 || pageSize > MAX_FEED_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_FEED_SIZE);
+        }
+
+        // One extra row tells whether there is a next page
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<Activity> rows;
+        if (after == null || after.isBlank()) {
+            rows = activityRepository.findFeed(user, pageable);
+        } else {
+            FeedCursor cursor = decodeCursor(after);
+            rows = activityRepository.findFeedAfter(user, cursor.timestamp(), cursor.id(), pageable);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new ActivityPageDTO(ActivityDTO.fromEntity(rows), null);
+        }
+        List<Activity> page = new ArrayList<>(rows.subList(0, pageSize));
+        return new ActivityPageDTO(ActivityDTO.fromEntity(page), encodeCursor(page.get(pageSize - 1)));
+    }
+
+    /**
+     * Saves an activity. With the {@link ActivityLogWriter} enabled the activity is written in the background
+     * after the current transaction commits, otherwise it is saved right away in the current transaction.
      * @param user The user who did the activity
      * @param activityType The type of activity
      * @param details The details of the activity
@@ -64,7 +112,33 @@ public class ActivityServiceImpl implements ActivityService {
         if (user == null || activityType == null || details == null) {
             throw new InternalServerException("Something went wrong in the server while trying to save an activity");
         }
+        if (activityLogWriter != null) {
+            activityLogWriter.submit(user.getId(), activityType, details, LocalDateTime.now());
+            return;
+        }
         Activity activityToSave = new Activity(user, activityType, details);
         activityRepository.save(activityToSave);
     }
-}
\ No newline at end of file
+
+    static String encodeCursor(Activity activity) {
+        String value = activity.getTimestamp() + CURSOR_SEPARATOR + activity.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static FeedCursor decodeCursor(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(CURSOR_SEPARATOR);
+            if (separator > 0) {
+                return new FeedCursor(LocalDateTime.parse(value.substring(0, separator)),
+                        Long.parseLong(value.substring(separator + 1)));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            // Not base64, not a timestamp or not a number, rejected below
+        }
+        throw new BadRequestException("Invalid cursor");
+    }
+
+    record FeedCursor(LocalDateTime timestamp, Long id) {
+    }
+}
@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,6 +12,9 @@ import com.avfallskompassen.dto.AdminDataDTO;
 import com.avfallskompassen.dto.CollectionFeeAdminDTO;
 import com.avfallskompassen.dto.ContainerPlanAdminDTO;
 import com.avfallskompassen.dto.LockTypeDto;
+import com.avfallskompassen.events.ContainerCatalogChangedEvent;
+import com.avfallskompassen.events.CostRatesChangedEvent;
+import com.avfallskompassen.events.PropertyStatisticsChangedEvent;
 import com.avfallskompassen.model.ContainerPlan;
 import com.avfallskompassen.repository.ContainerPlanRepository;
 import com.avfallskompassen.services.AdminDataService;
@@ -27,13 +31,16 @@ public class AdminDataServiceImpl implements AdminDataService {
     private final LockTypeService lockTypeService;
     private final CollectionFeeService collectionFeeService;
     private final ContainerPlanRepository containerPlanRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AdminDataServiceImpl(LockTypeService lockTypeService,
                                 CollectionFeeService collectionFeeService,
-                                ContainerPlanRepository containerPlanRepository) {
+                                ContainerPlanRepository containerPlanRepository,
+                                ApplicationEventPublisher eventPublisher) {
         this.lockTypeService = lockTypeService;
         this.collectionFeeService = collectionFeeService;
         this.containerPlanRepository = containerPlanRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -52,7 +59,10 @@ public class AdminDataServiceImpl implements AdminDataService {
 
     @Override
     public LockTypeDto updateLockTypeCost(Long id, BigDecimal cost) {
-        return lockTypeService.updateLockTypeCost(id, cost);
+        LockTypeDto updated = lockTypeService.updateLockTypeCost(id, cost);
+        eventPublisher.publishEvent(new CostRatesChangedEvent("lockType", id));
+        eventPublisher.publishEvent(PropertyStatisticsChangedEvent.forAllProperties());
+        return updated;
     }
 
     @Override
@@ -61,12 +71,16 @@ public class AdminDataServiceImpl implements AdminDataService {
                 .orElseThrow(() -> new RuntimeException("Container plan not found with ID: " + id));
         containerPlan.setCost(cost);
         containerPlan = containerPlanRepository.save(containerPlan);
+        eventPublisher.publishEvent(new ContainerCatalogChangedEvent(id));
+        eventPublisher.publishEvent(PropertyStatisticsChangedEvent.forAllProperties());
         return mapToContainerPlanAdminDTO(containerPlan);
     }
 
     @Override
     public CollectionFeeAdminDTO updateCollectionFeeCost(Long id, BigDecimal cost) {
         collectionFeeService.updateCollectionFeeCost(id, cost);
+        eventPublisher.publishEvent(new CostRatesChangedEvent("collectionFee", id));
+        eventPublisher.publishEvent(PropertyStatisticsChangedEvent.forAllProperties());
         // Fetch updated fee to return with municipality name
         List<CollectionFeeAdminDTO> allFees = collectionFeeService.getAllCollectionFees();
         return allFees.stream()
@@ -0,0 +1,143 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.CostBreakdownDTO;
+import com.avfallskompassen.model.ContainerPlan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The rules for the annual cost of a property, in one place so the property cost, the container list,
+ * the comparison and the cost simulation always agree.
+ * <p>
+ * The annual cost is the collection fee for the drag distance, the cost of the lock type, the annual cost
+ * of every placed container and {@code container.lock-i-lock-cost} for every container with Lock-i-Lock.
+ * Containers are summed with a {@link ContainerCost} in one pass; callers that already have the sums,
+ * e.g. from an aggregate query over many properties, pass them to
+ * {@link #breakdown(BigDecimal, BigDecimal, BigDecimal, int, int, Integer)} directly.
+ */
+@Component
+public class AnnualCostModel {
+
+    /** Raise when the rules below change, so costs stored under the old rules are calculated again. */
+    private static final int RULES_VERSION = 2;
+
+    private final BigDecimal lockILockCost;
+
+    public AnnualCostModel(@Value("${container.lock-i-lock-cost:100}") BigDecimal lockILockCost) {
+        this.lockILockCost = lockILockCost;
+    }
+
+    /**
+     * Identifies the rules and prices this model calculates with. Stored next to precomputed costs,
+     * a different value means they were calculated with another model and are out of date.
+     *
+     * @return The rules version and the Lock-i-Lock price, e.g. {@code "2;lock-i-lock=100"}
+     */
+    public String version() {
+        return RULES_VERSION + ";lock-i-lock=" + lockILockCost.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * The annual collection fee for a drag distance. The first 5 meters are free, after that the fee is
+     * charged once for every started 10 meters.
+     *
+     * @param feePerSegment The municipality's fee per started 10 meters
+     * @param distance The drag distance in meters
+     * @return The annual collection fee
+     */
+    public static BigDecimal collectionFee(BigDecimal feePerSegment, double distance) {
+        if (distance <= 5) {
+            return BigDecimal.ZERO;
+        }
+        int segments = (int) Math.ceil((distance - 5) / 10.0);
+        return feePerSegment.multiply(BigDecimal.valueOf(segments));
+    }
+
+    /**
+     * The annual Lock-i-Lock cost for a number of containers.
+     */
+    public BigDecimal lockILockCost(int lockILockCount) {
+        return lockILockCost.multiply(BigDecimal.valueOf(lockILockCount));
+    }
+
+    /**
+     * The annual cost of summed containers, Lock-i-Lock included.
+     */
+    public BigDecimal containerCostWithLockILock(ContainerCost containers) {
+        return containers.getCost().add(lockILockCost(containers.getLockILockCount()));
+    }
+
+    /**
+     * Splits the annual cost of a property into its parts.
+     *
+     * @param collectionFee The annual collection fee
+     * @param lockCost The annual cost of the lock type
+     * @param containers The containers of the property
+     * @param numberOfApartments Apartments to divide the total by, null or 0 for no cost per apartment
+     * @return The annual cost split into its parts
+     */
+    public CostBreakdownDTO breakdown(BigDecimal collectionFee, BigDecimal lockCost, ContainerCost containers,
+                                      Integer numberOfApartments) {
+        return breakdown(collectionFee, lockCost, containers.getCost(), containers.getCount(),
+                containers.getLockILockCount(), numberOfApartments);
+    }
+
+    /**
+     * Splits the annual cost of a property into its parts, from container sums calculated elsewhere.
+     *
+     * @param collectionFee The annual collection fee
+     * @param lockCost The annual cost of the lock type
+     * @param containerCost The summed annual cost of the containers, without Lock-i-Lock
+     * @param containerCount Number of containers
+     * @param lockILockCount Number of containers with Lock-i-Lock
+     * @param numberOfApartments Apartments to divide the total by, null or 0 for no cost per apartment
+     * @return The annual cost split into its parts
+     */
+    public CostBreakdownDTO breakdown(BigDecimal collectionFee, BigDecimal lockCost, BigDecimal containerCost,
+                                      int containerCount, int lockILockCount, Integer numberOfApartments) {
+        BigDecimal lockILock = lockILockCost(lockILockCount);
+        BigDecimal totalCost = collectionFee.add(lockCost).add(containerCost).add(lockILock);
+
+        BigDecimal costPerApartment = BigDecimal.ZERO;
+        if (numberOfApartments != null && numberOfApartments > 0) {
+            costPerApartment = totalCost.divide(BigDecimal.valueOf(numberOfApartments), 2, RoundingMode.HALF_UP);
+        }
+        return new CostBreakdownDTO(collectionFee, lockCost, containerCost, lockILock, totalCost,
+                costPerApartment, containerCount, lockILockCount);
+    }
+
+    /**
+     * Running sum of containers: their annual cost without Lock-i-Lock, how many they are and how many
+     * have Lock-i-Lock. Not thread safe.
+     */
+    public static final class ContainerCost {
+
+        private BigDecimal cost = BigDecimal.ZERO;
+        private int count;
+        private int lockILockCount;
+
+        public ContainerCost add(ContainerPlan plan, boolean hasLockILock) {
+            cost = cost.add(plan.getCost());
+            count++;
+            if (hasLockILock) {
+                lockILockCount++;
+            }
+            return this;
+        }
+
+        public BigDecimal getCost() {
+            return cost;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getLockILockCount() {
+            return lockILockCount;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.avfallskompassen.services.impl;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -10,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.avfallskompassen.dto.CollectionFeeAdminDTO;
 import com.avfallskompassen.dto.CollectionFeeDTO;
 import com.avfallskompassen.model.CollectionFee;
+import com.avfallskompassen.model.Property;
 import com.avfallskompassen.repository.CollectionFeeRepository;
 import com.avfallskompassen.services.CollectionFeeService;
 import com.avfallskompassen.services.PropertyService;
@@ -34,31 +41,16 @@ public class CollectionFeeServiceImpl implements CollectionFeeService {
 
     /**
      * Method that returns a DTO based on userInput distance and municipality.
-     * @param id
+     * @param id The id of the municipality
      * @param distance
      * @return CollectionFeeDTO
      * @Author Christian Storck
      */
     public CollectionFeeDTO findCollectionFeeByMunicipalityId(Long id, double distance) {
-        CollectionFee collectionFee = collectionFeeRepository.findById(id)
+        CollectionFee collectionFee = collectionFeeRepository.findByMunicipalityId(id)
                 .orElseThrow(() -> new IllegalArgumentException("Collection fee not found"));
 
-        if(distance <= 5) {
-            return new CollectionFeeDTO(
-                    collectionFee.getId(),
-                    BigDecimal.ZERO);
-        }
-
-        double distanceFee = distance -5;
-
-        int segment = (int) Math.ceil(distanceFee / 10.0);
-
-        BigDecimal totalCost = collectionFee.getCost().multiply(BigDecimal.valueOf(segment));
-
-        return new CollectionFeeDTO(
-                collectionFee.getId(),
-                totalCost
-        );
+        return calculateCollectionFee(collectionFee, distance);
     }
 
     /**
@@ -77,6 +69,48 @@ public class CollectionFeeServiceImpl implements CollectionFeeService {
         return findCollectionFeeByMunicipalityId(municipalityId, dragPathLength);
     }
 
+    /**
+     * Finds and calculates the collection fee for several properties with a single lookup of the fees.
+     * Uses the same rules as {@link #findCollectionFeeByPropertyId(Long)}.
+     * @param properties The properties to calculate the fee for, with their municipality loaded
+     * @return Map from property id to its CollectionFeeDTO
+     * @throws IllegalArgumentException if a property has no municipality or its collection fee is missing
+     */
+    public Map<Long, CollectionFeeDTO> findCollectionFeesByProperties(Collection<Property> properties) {
+        Set<Long> municipalityIds = properties.stream()
+                .map(Property::getMunicipality)
+                .filter(Objects::nonNull)
+                .map(municipality -> municipality.getId())
+                .collect(Collectors.toSet());
+
+        Map<Long, CollectionFee> feesByMunicipalityId = collectionFeeRepository.findAllByMunicipalityIdIn(municipalityIds)
+                .stream()
+                .collect(Collectors.toMap(fee -> fee.getMunicipality().getId(), Function.identity()));
+
+        Map<Long, CollectionFeeDTO> result = new HashMap<>();
+        for (Property property : properties) {
+            if (property.getMunicipality() == null) {
+                throw new IllegalArgumentException("Property " + property.getId() + " has no municipality");
+            }
+            CollectionFee collectionFee = feesByMunicipalityId.get(property.getMunicipality().getId());
+            if (collectionFee == null) {
+                throw new IllegalArgumentException("Collection fee not found");
+            }
+            result.put(property.getId(), calculateCollectionFee(collectionFee, property.getAccessPathLength()));
+        }
+        return result;
+    }
+
+    /**
+     * Applies the distance rule of the {@link AnnualCostModel} to a collection fee.
+     */
+    private CollectionFeeDTO calculateCollectionFee(CollectionFee collectionFee, double distance) {
+        return new CollectionFeeDTO(
+                collectionFee.getId(),
+                AnnualCostModel.collectionFee(collectionFee.getCost(), distance)
+        );
+    }
+
     /**
      * Updates the cost of a collection fee.
      * @param id The ID of the collection fee to update
@@ -0,0 +1,210 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.events.ContainerCatalogChangedEvent;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.MunicipalityService;
+import com.avfallskompassen.repository.ContainerPlanRepository;
+import com.avfallskompassen.services.ContainerCatalogService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keeps every container plan in an immutable snapshot, indexed by id and by municipality and
+ * service type. The snapshot is built with one fetch join query and replaced as a whole when
+ * a plan changes, so readers never see a half built catalog.
+ * <p>
+ * A lookup of a plan id that the snapshot does not know falls back to the database, e.g. for a plan that
+ * was added directly in the database, loaded with the same relations as the snapshot. Lookups by municipality and service type are always answered by the
+ * snapshot. Hits and misses are counted under {@code container.catalog.lookups}.
+ */
+@Service
+public class ContainerCatalogServiceImpl implements ContainerCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContainerCatalogServiceImpl.class);
+
+    private final ContainerPlanRepository containerPlanRepository;
+    private final TransactionTemplate loadTransaction;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter reloads;
+
+    private volatile Snapshot snapshot;
+
+    public ContainerCatalogServiceImpl(ContainerPlanRepository containerPlanRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry) {
+        this.containerPlanRepository = containerPlanRepository;
+
+        // Load in a session of its own so the cached plans are never managed by a caller's transaction
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+
+        this.hits = Counter.builder("container.catalog.lookups").tag("result", "hit")
+                .description("Container plan lookups answered by the catalog").register(meterRegistry);
+        this.misses = Counter.builder("container.catalog.lookups").tag("result", "miss")
+                .description("Container plan lookups that fell back to the database").register(meterRegistry);
+        this.reloads = Counter.builder("container.catalog.reloads")
+                .description("Number of times the container catalog was built").register(meterRegistry);
+        Gauge.builder("container.catalog.size", this, catalog -> catalog.snapshot != null ? catalog.snapshot.byId.size() : 0)
+                .description("Number of container plans in the catalog").register(meterRegistry);
+    }
+
+    @Override
+    public Optional<ContainerPlan> findContainerPlan(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        ContainerPlan plan = current().byId.get(id);
+        if (plan != null) {
+            hits.increment();
+            return Optional.of(plan);
+        }
+
+        misses.increment();
+        List<ContainerPlan> loaded = loadTransaction.execute(status ->
+                containerPlanRepository.findAllWithRelationsByIdIn(List.of(id)));
+        return loaded.stream().findFirst();
+    }
+
+    @Override
+    public Map<Long, ContainerPlan> findContainerPlansByIds(Set<Long> ids) {
+        Snapshot current = current();
+        Map<Long, ContainerPlan> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (Long id : ids) {
+            if (id == null) {
+                continue;
+            }
+            ContainerPlan plan = current.byId.get(id);
+            if (plan != null) {
+                found.put(id, plan);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        hits.increment(found.size());
+        if (!missing.isEmpty()) {
+            misses.increment(missing.size());
+            List<ContainerPlan> loaded = loadTransaction.execute(status -> containerPlanRepository.findAllWithRelationsByIdIn(missing));
+            for (ContainerPlan plan : loaded) {
+                found.put(plan.getId(), plan);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The snapshot holds every plan, so a municipality and service type it has no plans for has none
+     * in the database either and gets an empty list without a query.
+     */
+    @Override
+    public List<ContainerPlan> findContainerPlans(long municipalityId, long serviceTypeId) {
+        hits.increment();
+        return current().byMunicipalityService.getOrDefault(new ServiceKey(municipalityId, serviceTypeId), List.of());
+    }
+
+    @Override
+    public synchronized void reload() {
+        List<ContainerPlan> plans = loadTransaction.execute(status -> containerPlanRepository.findAllWithRelations());
+        snapshot = Snapshot.of(plans);
+        reloads.increment();
+        log.info("Loaded {} container plans into the catalog.", snapshot.byId.size());
+    }
+
+    /**
+     * Rebuilds the catalog once the change that caused the event has been committed.
+     * If the rebuild fails the old catalog is kept.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onCatalogChanged(ContainerCatalogChangedEvent event) {
+        try {
+            reload();
+        } catch (RuntimeException ex) {
+            log.error("Failed to reload the container catalog after plan(id={}) changed. Reason: {}",
+                    event.getContainerPlanId(), ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Builds the catalog on startup so the first planner request does not have to wait for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void warmUp() {
+        try {
+            reload();
+        } catch (RuntimeException ex) {
+            log.error("Failed to load the container catalog on startup. Reason: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private record ServiceKey(long municipalityId, long serviceTypeId) {
+    }
+
+    private static final class Snapshot {
+
+        private final Map<Long, ContainerPlan> byId;
+        private final Map<ServiceKey, List<ContainerPlan>> byMunicipalityService;
+
+        private Snapshot(Map<Long, ContainerPlan> byId, Map<ServiceKey, List<ContainerPlan>> byMunicipalityService) {
+            this.byId = byId;
+            this.byMunicipalityService = byMunicipalityService;
+        }
+
+        static Snapshot of(List<ContainerPlan> plans) {
+            Map<Long, ContainerPlan> byId = new HashMap<>();
+            Map<ServiceKey, List<ContainerPlan>> grouped = new HashMap<>();
+
+            for (ContainerPlan plan : plans) {
+                byId.put(plan.getId(), plan);
+
+                MunicipalityService service = plan.getMunicipalityService();
+                if (service != null && service.getMunicipality() != null && service.getServiceType() != null) {
+                    ServiceKey key = new ServiceKey(service.getMunicipality().getId(), service.getServiceType().getId());
+                    grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(plan);
+                }
+            }
+
+            Map<ServiceKey, List<ContainerPlan>> byMunicipalityService = new HashMap<>();
+            grouped.forEach((key, list) -> byMunicipalityService.put(key, List.copyOf(list)));
+            return new Snapshot(Map.copyOf(byId), Map.copyOf(byMunicipalityService));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.ContainerMixDTO;
+import com.avfallskompassen.dto.ContainerMixItemDTO;
+import com.avfallskompassen.dto.ServiceTypeMixDTO;
+import com.avfallskompassen.dto.request.ContainerMixRequest;
+import com.avfallskompassen.dto.request.ServiceTypeTargetRequest;
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.exception.ResourceNotFoundException;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.PropertyRepository;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.ContainerCatalogService;
+import com.avfallskompassen.services.ContainerMixService;
+import com.avfallskompassen.services.impl.ContainerMixTable.Mix;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.avfallskompassen.services.impl.ContainerMixTable.LITERS_PER_UNIT;
+import static com.avfallskompassen.services.impl.ContainerMixTable.WEEKS_PER_YEAR;
+import static com.avfallskompassen.services.impl.WasteRoomRasterizer.PIXELS_PER_METER;
+
+/**
+ * Service class for recommending the cheapest containers for a property.
+ * <p>
+ * For each service type asked for, the mixes of the municipality's container plans that hold the wanted
+ * volume are read from a {@link ContainerMixTable}, kept per municipality and service type. One mix per
+ * service type is then picked so the total annual container cost is as low as possible while the
+ * containers fit on {@code container-mix.floor-share} of the floor of the active waste room, minus its
+ * other objects. The rest of the floor is left for aisles and door swings. Floor areas are counted in
+ * steps of {@value #AREA_STEP} square meters in that choice.
+ * <p>
+ * At most {@code container-mix.max-tables} tables are kept, the least recently used is dropped first.
+ * A table built from plans the catalog no longer hands out is replaced on its next use.
+ */
+@Service
+public class ContainerMixServiceImpl implements ContainerMixService {
+
+    static final int MAX_UNITS = 10_000;
+    private static final double AREA_STEP = 0.01;
+
+    private final PropertyRepository propertyRepository;
+    private final WasteRoomRepository wasteRoomRepository;
+    private final ContainerCatalogService containerCatalogService;
+    private final double floorShare;
+    private final Map<TableKey, ContainerMixTable> tables;
+    private final Counter tableHits;
+    private final Counter tableBuilds;
+
+    public ContainerMixServiceImpl(
+            PropertyRepository propertyRepository,
+            WasteRoomRepository wasteRoomRepository,
+            ContainerCatalogService containerCatalogService,
+            MeterRegistry meterRegistry,
+            @Value("${container-mix.floor-share:0.5}") double floorShare,
+            @Value("${container-mix.max-tables:256}") int maxTables
+    ) {
+        this.propertyRepository = propertyRepository;
+        this.wasteRoomRepository = wasteRoomRepository;
+        this.containerCatalogService = containerCatalogService;
+        this.floorShare = floorShare;
+        this.tables = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TableKey, ContainerMixTable> eldest) {
+                return size() > maxTables;
+            }
+        });
+
+        this.tableHits = Counter.builder("container.mix.tables").tag("result", "hit")
+                .description("Container mix lookups answered by a kept table").register(meterRegistry);
+        this.tableBuilds = Counter.builder("container.mix.tables").tag("result", "built")
+                .description("Container mix tables built").register(meterRegistry);
+    }
+
+    /**
+     * Recommends the cheapest containers per service type for a property.
+     *
+     * @param propertyId Id of the property
+     * @param request The service types and the volume wanted for each, in liters per apartment and week
+     * @return The recommended containers with their cost and floor area
+     * @throws ResourceNotFoundException if the property does not exist
+     * @throws BadRequestException if the property has no municipality, the municipality offers no
+     * containers for a service type or the wanted volume is too large
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ContainerMixDTO recommendContainerMix(Long propertyId, ContainerMixRequest request) {
+        Property property = propertyRepository.findById(propertyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Property with ID: " + propertyId + " can't be found"));
+        Municipality municipality = property.getMunicipality();
+        if (municipality == null) {
+            throw new BadRequestException("Fastigheten saknar kommun");
+        }
+        int apartments = property.getNumberOfApartments() != null ? property.getNumberOfApartments() : 0;
+        Double availableArea = wasteRoomRepository.findByPropertyIdAndIsActiveTrue(propertyId)
+                .map(this::availableFloorArea)
+                .orElse(null);
+
+        List<ServiceTypeTargetRequest> targets = request.getTargets();
+        List<ContainerMixTable> serviceTables = new ArrayList<>(targets.size());
+        List<List<Mix>> frontiers = new ArrayList<>(targets.size());
+        List<Long> notOffered = new ArrayList<>();
+        for (ServiceTypeTargetRequest target : targets) {
+            ContainerMixTable table = table(municipality.getId(), target.getServiceTypeId());
+            int units = (int) Math.ceil(target.getLitersPerWeekPerApartment() * apartments / LITERS_PER_UNIT);
+            if (units > MAX_UNITS) {
+                throw new BadRequestException("Högst " + MAX_UNITS * LITERS_PER_UNIT + " liter per vecka kan räknas fram per tjänst");
+            }
+            if (table.isEmpty()) {
+                notOffered.add(target.getServiceTypeId());
+            }
+            serviceTables.add(table);
+            frontiers.add(table.frontier(units));
+        }
+        if (!notOffered.isEmpty()) {
+            throw new BadRequestException("Kommunen erbjuder inga kärl för tjänsterna: " + notOffered);
+        }
+
+        int[] picks = availableArea != null ? cheapestFitting(frontiers, availableArea) : null;
+        boolean fits = availableArea == null || picks != null;
+        if (picks == null) {
+            // The first mix of each frontier is the cheapest
+            picks = new int[frontiers.size()];
+        }
+
+        List<ServiceTypeMixDTO> services = new ArrayList<>(targets.size());
+        BigDecimal totalCost = BigDecimal.ZERO;
+        double totalArea = 0;
+        for (int i = 0; i < targets.size(); i++) {
+            ServiceTypeTargetRequest target = targets.get(i);
+            Mix mix = frontiers.get(i).get(picks[i]);
+            ServiceTypeMixDTO service = toServiceDTO(target, apartments, serviceTables.get(i), mix);
+            services.add(service);
+            totalCost = totalCost.add(service.getAnnualCost());
+            totalArea += service.getFloorArea();
+        }
+
+        return new ContainerMixDTO(property.getId(), apartments, availableArea, totalArea, fits, totalCost, services);
+    }
+
+    /**
+     * The table for a service type in a municipality, built again when the catalog has been reloaded.
+     */
+    private ContainerMixTable table(long municipalityId, long serviceTypeId) {
+        List<ContainerPlan> plans = containerCatalogService.findContainerPlans(municipalityId, serviceTypeId);
+        TableKey key = new TableKey(municipalityId, serviceTypeId);
+
+        ContainerMixTable table = tables.get(key);
+        if (table != null && table.isBuiltFrom(plans)) {
+            tableHits.increment();
+            return table;
+        }
+        table = new ContainerMixTable(plans);
+        tables.put(key, table);
+        tableBuilds.increment();
+        return table;
+    }
+
+    /**
+     * Picks one mix per service type with the lowest total cost whose floor areas add up to at most the
+     * available area. A multiple-choice knapsack over the area in steps of {@value #AREA_STEP} m².
+     *
+     * @return The index of the mix picked in each frontier, or null if no combination fits
+     */
+    private static int[] cheapestFitting(List<List<Mix>> frontiers, double availableArea) {
+        int capacity = (int) Math.floor(availableArea / AREA_STEP + 1e-9);
+        // Lowest cost of the service types so far using at most a steps of floor
+        long[] best = new long[capacity + 1];
+        int[][] choice = new int[frontiers.size()][capacity + 1];
+
+        for (int service = 0; service < frontiers.size(); service++) {
+            List<Mix> frontier = frontiers.get(service);
+            long[] next = new long[capacity + 1];
+            Arrays.fill(next, Long.MAX_VALUE);
+            for (int area = 0; area <= capacity; area++) {
+                for (int k = 0; k < frontier.size(); k++) {
+                    int steps = steps(frontier.get(k));
+                    if (steps > area || best[area - steps] == Long.MAX_VALUE) {
+                        continue;
+                    }
+                    long cost = best[area - steps] + frontier.get(k).cost();
+                    if (cost < next[area]) {
+                        next[area] = cost;
+                        choice[service][area] = k;
+                    }
+                }
+            }
+            best = next;
+        }
+        if (best[capacity] == Long.MAX_VALUE) {
+            return null;
+        }
+
+        int[] picks = new int[frontiers.size()];
+        int area = capacity;
+        for (int service = frontiers.size() - 1; service >= 0; service--) {
+            picks[service] = choice[service][area];
+            area -= steps(frontiers.get(service).get(picks[service]));
+        }
+        return picks;
+    }
+
+    private static int steps(Mix mix) {
+        return (int) Math.ceil(mix.area() / AREA_STEP - 1e-9);
+    }
+
+    private double availableFloorArea(WasteRoom room) {
+        double area = room.getWidth() * room.getLength() * floorShare;
+        if (room.getOtherObjects() != null) {
+            for (OtherObject object : room.getOtherObjects()) {
+                area -= object.getWidth() * object.getDepth() / (PIXELS_PER_METER * PIXELS_PER_METER);
+            }
+        }
+        return Math.max(0, area);
+    }
+
+    private static ServiceTypeMixDTO toServiceDTO(ServiceTypeTargetRequest target, int apartments,
+                                                  ContainerMixTable table, Mix mix) {
+        List<ContainerMixItemDTO> containers = new ArrayList<>();
+        String serviceTypeName = null;
+        double litersPerWeek = 0;
+        double area = 0;
+        for (Map.Entry<ContainerPlan, Integer> entry : table.containers(mix).entrySet()) {
+            ContainerPlan plan = entry.getKey();
+            int count = entry.getValue();
+            if (plan.getMunicipalityService() != null && plan.getMunicipalityService().getServiceType() != null) {
+                serviceTypeName = plan.getMunicipalityService().getServiceType().getName();
+            }
+            litersPerWeek += (double) plan.getContainerType().getSize() * plan.getEmptyingFrequencyPerYear() / WEEKS_PER_YEAR * count;
+            area += plan.getContainerType().getWidth() * plan.getContainerType().getDepth() / 1_000_000.0 * count;
+            containers.add(new ContainerMixItemDTO(plan.getId(), plan.getContainerType().getName(),
+                    plan.getContainerType().getSize(), plan.getEmptyingFrequencyPerYear(), count,
+                    plan.getCost().multiply(BigDecimal.valueOf(count))));
+        }
+
+        return new ServiceTypeMixDTO(target.getServiceTypeId(), serviceTypeName,
+                target.getLitersPerWeekPerApartment() * apartments, litersPerWeek, area, mix.annualCost(), containers);
+    }
+
+    private record TableKey(long municipalityId, long serviceTypeId) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cheapest container mixes for one service type in one municipality, for
+ * {@link ContainerMixServiceImpl}. A table is shared by every request for the municipality until the
+ * container catalog changes.
+ * <p>
+ * Capacities are counted in units of {@value #LITERS_PER_UNIT} liters per week, rounded down for a plan
+ * and up for a requirement, so a mix always holds at least what was asked for. {@link #frontier(int)}
+ * gives the mixes holding a capacity where no other mix is both cheaper and smaller on the floor. It is
+ * an unbounded covering knapsack: the frontier for capacity c is made of one container of a plan p added
+ * to a mix from the frontier for c minus the capacity of p. Every frontier computed is kept, so a request
+ * only computes the capacities no earlier request needed. A frontier is thinned to at most
+ * {@value #MAX_FRONTIER} mixes spread between the cheapest and the smallest, and capacities above
+ * {@link ContainerMixServiceImpl#MAX_UNITS} are refused, so a table never holds more than that many
+ * frontiers.
+ * <p>
+ * The plans are sorted by liters per krona when the table is built, and a plan that another plan beats
+ * on capacity, cost and floor area at once is left out of the search.
+ */
+final class ContainerMixTable {
+
+    static final int LITERS_PER_UNIT = 10;
+    static final int WEEKS_PER_YEAR = 52;
+    static final int MAX_FRONTIER = 16;
+
+    private final List<ContainerPlan> source;
+    private final List<Option> options;
+    private final List<List<Mix>> frontiers = new ArrayList<>();
+
+    ContainerMixTable(List<ContainerPlan> plans) {
+        this.source = plans;
+
+        List<Option> all = new ArrayList<>();
+        for (ContainerPlan plan : plans) {
+            ContainerType type = plan.getContainerType();
+            if (type == null || plan.getCost() == null) {
+                continue;
+            }
+            int units = (int) ((long) type.getSize() * plan.getEmptyingFrequencyPerYear() / WEEKS_PER_YEAR / LITERS_PER_UNIT);
+            if (units <= 0) {
+                continue;
+            }
+            long cost = plan.getCost().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            double area = type.getWidth() * type.getDepth() / 1_000_000.0;
+            all.add(new Option(plan, units, cost, area));
+        }
+        all.sort(Comparator.comparingDouble((Option option) -> -option.units() / (double) Math.max(1, option.cost()))
+                .thenComparingLong(option -> option.plan().getId()));
+
+        List<Option> kept = new ArrayList<>();
+        for (int i = 0; i < all.size(); i++) {
+            boolean dominated = false;
+            for (int j = 0; j < all.size() && !dominated; j++) {
+                // Of two equal plans the one sorted first is kept
+                dominated = j != i && all.get(j).beats(all.get(i)) && (j < i || !all.get(i).beats(all.get(j)));
+            }
+            if (!dominated) {
+                kept.add(all.get(i));
+            }
+        }
+        this.options = List.copyOf(kept);
+        frontiers.add(List.of(Mix.EMPTY));
+    }
+
+    /**
+     * True if the table was built from this list of plans. The catalog hands out the same list until
+     * it is reloaded, so a different list means the plans may have changed.
+     */
+    boolean isBuiltFrom(List<ContainerPlan> plans) {
+        return source == plans;
+    }
+
+    boolean isEmpty() {
+        return options.isEmpty();
+    }
+
+    /**
+     * The mixes holding at least the given capacity, cheapest first and each smaller on the floor than
+     * the one before. Empty if the table has no plans.
+     *
+     * @param units Capacity in units of {@value #LITERS_PER_UNIT} liters per week
+     * @throws IllegalArgumentException if the capacity is above {@link ContainerMixServiceImpl#MAX_UNITS}
+     */
+    synchronized List<Mix> frontier(int units) {
+        if (units > ContainerMixServiceImpl.MAX_UNITS) {
+            throw new IllegalArgumentException("Capacity " + units + " is above " + ContainerMixServiceImpl.MAX_UNITS + " units");
+        }
+        if (options.isEmpty()) {
+            return units == 0 ? frontiers.get(0) : List.of();
+        }
+        for (int capacity = frontiers.size(); capacity <= units; capacity++) {
+            List<Mix> candidates = new ArrayList<>();
+            for (int i = 0; i < options.size(); i++) {
+                Option option = options.get(i);
+                for (Mix rest : frontiers.get(Math.max(0, capacity - option.units()))) {
+                    candidates.add(new Mix(rest, i, rest.cost() + option.cost(), rest.area() + option.area()));
+                }
+            }
+            frontiers.add(prune(candidates));
+        }
+        return frontiers.get(units);
+    }
+
+    /**
+     * Number of containers per plan in a mix, in the order of the plans in the table.
+     */
+    Map<ContainerPlan, Integer> containers(Mix mix) {
+        int[] counts = new int[options.size()];
+        for (Mix current = mix; current.rest() != null; current = current.rest()) {
+            counts[current.option()]++;
+        }
+        Map<ContainerPlan, Integer> containers = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                containers.put(options.get(i).plan(), counts[i]);
+            }
+        }
+        return containers;
+    }
+
+    private static List<Mix> prune(List<Mix> candidates) {
+        candidates.sort(Comparator.comparingLong(Mix::cost).thenComparingDouble(Mix::area));
+        List<Mix> pareto = new ArrayList<>();
+        for (Mix mix : candidates) {
+            if (pareto.isEmpty() || mix.area() < pareto.get(pareto.size() - 1).area() - 1e-9) {
+                pareto.add(mix);
+            }
+        }
+        if (pareto.size() <= MAX_FRONTIER) {
+            return List.copyOf(pareto);
+        }
+
+        List<Mix> thinned = new ArrayList<>(MAX_FRONTIER);
+        for (int i = 0; i < MAX_FRONTIER; i++) {
+            thinned.add(pareto.get((int) Math.round(i * (pareto.size() - 1) / (double) (MAX_FRONTIER - 1))));
+        }
+        return List.copyOf(thinned);
+    }
+
+    /**
+     * Cost in öre, floor area in square meters.
+     */
+    private record Option(ContainerPlan plan, int units, long cost, double area) {
+
+        boolean beats(Option other) {
+            return units >= other.units && cost <= other.cost && area <= other.area;
+        }
+    }
+
+    /**
+     * A mix as the last container added to a smaller mix, so mixes share their common part.
+     * Cost in öre, floor area in square meters.
+     */
+    record Mix(Mix rest, int option, long cost, double area) {
+
+        static final Mix EMPTY = new Mix(null, -1, 0, 0);
+
+        BigDecimal annualCost() {
+            return BigDecimal.valueOf(cost, 2);
+        }
+    }
+}
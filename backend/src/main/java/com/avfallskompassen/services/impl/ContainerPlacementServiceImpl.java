@@ -0,0 +1,218 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.ContainerPlacementDTO;
+import com.avfallskompassen.dto.request.ContainerCountRequest;
+import com.avfallskompassen.dto.request.ContainerPlacementRequest;
+import com.avfallskompassen.dto.request.ContainerPositionRequest;
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.exception.InternalServerException;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.services.ContainerPlacementService;
+import com.avfallskompassen.services.ContainerService;
+import com.avfallskompassen.services.impl.ContainerPlacementSolver.Item;
+import com.avfallskompassen.services.impl.ContainerPlacementSolver.Placement;
+import com.avfallskompassen.services.impl.ContainerPlacementSolver.Result;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.avfallskompassen.services.impl.WasteRoomRasterizer.PIXELS_PER_METER;
+
+/**
+ * Service class for suggesting container layouts with {@link ContainerPlacementSolver}.
+ * <p>
+ * A search runs up to {@code wasteroom.placement.restarts} greedy passes, spread over
+ * {@code wasteroom.placement.threads} threads (0 for one per core). It stops when a pass has placed every
+ * container or after {@code wasteroom.placement.time-budget-ms}; the first pass always runs to the end
+ * so there is a layout to return. The threads are shared by all searches, a search that finds them busy
+ * runs its passes on the calling thread.
+ */
+@Service
+public class ContainerPlacementServiceImpl implements ContainerPlacementService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContainerPlacementServiceImpl.class);
+
+    static final int MAX_CONTAINERS = 100;
+
+    private final ContainerService containerService;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final int restarts;
+    private final long timeBudgetNanos;
+    private final double aisle;
+
+    public ContainerPlacementServiceImpl(
+            ContainerService containerService,
+            MeterRegistry meterRegistry,
+            @Value("${wasteroom.placement.threads:0}") int threads,
+            @Value("${wasteroom.placement.restarts:64}") int restarts,
+            @Value("${wasteroom.placement.time-budget-ms:2000}") long timeBudgetMs,
+            @Value("${wasteroom.placement.aisle-width:1.0}") double aisleWidth
+    ) {
+        this.containerService = containerService;
+        this.meterRegistry = meterRegistry;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.restarts = Math.max(1, restarts);
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeBudgetMs));
+        this.aisle = aisleWidth * PIXELS_PER_METER;
+        this.executor = new ThreadPoolExecutor(
+                this.threads,
+                this.threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.threads * 4),
+                new PlacementThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    /**
+     * Suggests where to place containers in a waste room.
+     *
+     * @param request The room, its doors and other objects and the containers to place
+     * @return The layout placing the most containers found within the time budget
+     * @throws BadRequestException if more than {@value #MAX_CONTAINERS} containers are asked for or a
+     * container plan has no container type
+     */
+    @Override
+    public ContainerPlacementDTO placeContainers(ContainerPlacementRequest request) {
+        long start = System.nanoTime();
+        List<Item> items = items(request.getContainers());
+        ContainerPlacementSolver solver = new ContainerPlacementSolver(request, items, aisle);
+
+        long deadline = start + timeBudgetNanos;
+        AtomicInteger nextRestart = new AtomicInteger();
+        AtomicInteger finishedRestarts = new AtomicInteger();
+        AtomicBoolean complete = new AtomicBoolean();
+
+        List<Callable<Result>> tasks = new ArrayList<>();
+        for (int i = 0; i < Math.min(threads, restarts); i++) {
+            tasks.add(() -> search(solver, deadline, nextRestart, finishedRestarts, complete));
+        }
+
+        Result best = null;
+        try {
+            for (Future<Result> future : executor.invokeAll(tasks)) {
+                Result result = future.get();
+                if (result != null && (best == null || result.isBetterThan(best))) {
+                    best = result;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerException("Placeringen av kärlen avbröts");
+        } catch (ExecutionException e) {
+            log.error("Container placement failed", e.getCause());
+            throw new InternalServerException("Kunde inte placera kärlen");
+        }
+
+        List<ContainerPositionRequest> containers = new ArrayList<>(best.placements().size());
+        for (Placement placement : best.placements()) {
+            Item item = placement.item();
+            containers.add(new ContainerPositionRequest(item.planId(), placement.x(), placement.y(),
+                    placement.angle(), item.hasLockILock()));
+        }
+        List<Long> unplaced = best.unplaced().stream().map(Item::planId).toList();
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("wasteroom.placement")
+                .description("Time to suggest a container layout for a waste room")
+                .tag("outcome", best.isComplete() ? "complete" : "partial")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Placed {} of {} containers in {} restarts, best from restart {}.",
+                containers.size(), items.size(), finishedRestarts.get(), best.restart());
+
+        return new ContainerPlacementDTO(containers, unplaced, finishedRestarts.get(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * Runs restarts until all are taken, the deadline has passed or some thread has placed every container.
+     */
+    private Result search(ContainerPlacementSolver solver, long deadline, AtomicInteger nextRestart,
+                          AtomicInteger finishedRestarts, AtomicBoolean complete) {
+        Result best = null;
+        int restart;
+        while ((restart = nextRestart.getAndIncrement()) < restarts) {
+            if (restart > 0 && (complete.get() || System.nanoTime() > deadline)) {
+                break;
+            }
+            Result result = solver.solve(restart, deadline);
+            if (result == null) {
+                break;
+            }
+            finishedRestarts.incrementAndGet();
+            if (result.isComplete()) {
+                complete.set(true);
+            }
+            if (best == null || result.isBetterThan(best)) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    private List<Item> items(List<ContainerCountRequest> counts) {
+        int total = 0;
+        Set<Long> planIds = new HashSet<>();
+        for (ContainerCountRequest count : counts) {
+            total += Math.max(0, count.getCount());
+            planIds.add(count.getContainerPlanId());
+        }
+        if (total == 0 || total > MAX_CONTAINERS) {
+            throw new BadRequestException("Mellan 1 och " + MAX_CONTAINERS + " kärl kan placeras åt gången");
+        }
+
+        Map<Long, ContainerPlan> plans = containerService.getContainerPlansByIds(planIds);
+        List<Item> items = new ArrayList<>(total);
+        for (ContainerCountRequest count : counts) {
+            ContainerType type = plans.get(count.getContainerPlanId()).getContainerType();
+            if (type == null) {
+                throw new BadRequestException("ContainerPlan with ID: " + count.getContainerPlanId() + " has no container type");
+            }
+            double width = type.getWidth() / 1000.0 * PIXELS_PER_METER;
+            double depth = type.getDepth() / 1000.0 * PIXELS_PER_METER;
+            for (int i = 0; i < count.getCount(); i++) {
+                items.add(new Item(items.size(), count.getContainerPlanId(), width, depth, count.getHasLockILock()));
+            }
+        }
+        return items;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class PlacementThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "container-placement-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
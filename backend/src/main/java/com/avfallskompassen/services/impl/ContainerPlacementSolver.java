@@ -0,0 +1,337 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.request.ContainerPlacementRequest;
+import com.avfallskompassen.dto.request.DoorRequest;
+import com.avfallskompassen.dto.request.OtherObjectRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static com.avfallskompassen.services.impl.WasteRoomRasterizer.PIXELS_PER_METER;
+
+/**
+ * Packs containers into a waste room for {@link ContainerPlacementServiceImpl}, one greedy pass per
+ * call to {@link #solve}.
+ * <p>
+ * Containers are placed one at a time, turned a quarter at a time. Candidate positions are the extreme
+ * points of what is already in the room: against a wall or against the side of a container, an other
+ * object, a door clearance or an access aisle. The position touching the most walls and containers wins,
+ * which fills the room from the walls inwards and keeps the middle open.
+ * <p>
+ * A container needs an access aisle in front of it, as wide as its front and {@code aisle} pixels deep,
+ * inside the room and free from containers and other objects. The front is the side facing down at
+ * angle 0. Each door needs a clearance inside the room across its opening, as deep as the door is wide
+ * for an inward door and never less than an aisle. Containers are kept out of clearances and aisles,
+ * aisles may share space with each other and with door clearances. Aisles are not checked to connect
+ * to a door.
+ * <p>
+ * Positions use the units of the planning tool, see {@link WasteRoomLayoutValidator}. Other objects are
+ * kept clear by their bounding box and inward door swing arcs lie inside their clearance, so every layout
+ * found passes the validator. Restart 0 places the containers from the largest to the smallest, later
+ * restarts shuffle that order with the restart number as seed, so a restart always gives the same layout.
+ * Instances are immutable and are shared between the threads of a search.
+ */
+final class ContainerPlacementSolver {
+
+    // Same tolerance as the validator, touching is not an overlap
+    private static final double EPSILON = 0.5;
+    private static final int[] ANGLES = {0, 90, 180, 270};
+
+    private final Rect room;
+    private final double aisle;
+    private final List<Rect> obstacles;
+    private final List<Rect> clearances;
+    private final List<Item> items;
+
+    /**
+     * @param request The room, its doors and its other objects
+     * @param items The containers to place, {@link Item#index} being the position in this list
+     * @param aisle Depth of the access aisle in front of each container, in pixels
+     */
+    ContainerPlacementSolver(ContainerPlacementRequest request, List<Item> items, double aisle) {
+        double left = request.getX();
+        double top = request.getY();
+        this.room = new Rect(left, top,
+                left + request.getWidth() * PIXELS_PER_METER, top + request.getLength() * PIXELS_PER_METER);
+        this.aisle = aisle;
+        this.items = List.copyOf(items);
+
+        List<Rect> objects = new ArrayList<>();
+        if (request.getOtherObjects() != null) {
+            for (OtherObjectRequest object : request.getOtherObjects()) {
+                objects.add(bounds(object));
+            }
+        }
+        this.obstacles = List.copyOf(objects);
+
+        List<Rect> doors = new ArrayList<>();
+        if (request.getDoors() != null) {
+            for (DoorRequest door : request.getDoors()) {
+                Rect clearance = clearance(door);
+                if (clearance != null) {
+                    doors.add(clearance);
+                }
+            }
+        }
+        this.clearances = List.copyOf(doors);
+    }
+
+    /**
+     * Runs one greedy pass.
+     *
+     * @param restart Number of the restart, 0 for the largest-first order
+     * @param deadline {@link System#nanoTime()} after which a restart other than 0 is given up
+     * @return The layout, or null if the restart was given up
+     */
+    Result solve(int restart, long deadline) {
+        SplittableRandom random = new SplittableRandom(restart);
+        List<Item> order = order(restart, random);
+        int firstAngle = restart == 0 ? 0 : random.nextInt(ANGLES.length);
+
+        List<Rect> solids = new ArrayList<>(obstacles);
+        List<Rect> blocked = new ArrayList<>(clearances);
+        List<Placement> placements = new ArrayList<>(items.size());
+        List<Item> unplaced = new ArrayList<>();
+        double totalContact = 0;
+
+        for (Item item : order) {
+            if (restart > 0 && System.nanoTime() > deadline) {
+                return null;
+            }
+
+            Candidate best = null;
+            for (int a = 0; a < ANGLES.length; a++) {
+                int angle = ANGLES[(firstAngle + a) % ANGLES.length];
+                boolean turned = angle == 90 || angle == 270;
+                double width = turned ? item.depth() : item.width();
+                double height = turned ? item.width() : item.depth();
+
+                double[] xs = coordinates(room.minX(), room.maxX(), width, solids, blocked, true);
+                double[] ys = coordinates(room.minY(), room.maxY(), height, solids, blocked, false);
+                for (double y : ys) {
+                    for (double x : xs) {
+                        Rect footprint = new Rect(x, y, x + width, y + height);
+                        if (overlapsAny(footprint, solids) || overlapsAny(footprint, blocked)) {
+                            continue;
+                        }
+                        Rect access = aisle(footprint, angle);
+                        if (!room.contains(access) || overlapsAny(access, solids)) {
+                            continue;
+                        }
+                        double contact = contact(footprint, solids);
+                        if (best == null || contact > best.contact() + EPSILON) {
+                            best = new Candidate(footprint, access, angle, contact);
+                        }
+                    }
+                }
+            }
+
+            if (best == null) {
+                unplaced.add(item);
+                continue;
+            }
+            solids.add(best.footprint());
+            blocked.add(best.access());
+            totalContact += best.contact();
+
+            // Back to the position of the container before it is turned around its center
+            Rect footprint = best.footprint();
+            double centerX = (footprint.minX() + footprint.maxX()) / 2;
+            double centerY = (footprint.minY() + footprint.maxY()) / 2;
+            placements.add(new Placement(item, centerX - item.width() / 2, centerY - item.depth() / 2, best.angle()));
+        }
+
+        placements.sort(Comparator.comparingInt(placement -> placement.item().index()));
+        unplaced.sort(Comparator.comparingInt(Item::index));
+        return new Result(restart, placements, unplaced, totalContact);
+    }
+
+    private List<Item> order(int restart, SplittableRandom random) {
+        List<Item> order = new ArrayList<>(items);
+        if (restart == 0) {
+            order.sort(Comparator.comparingDouble((Item item) -> -item.width() * item.depth())
+                    .thenComparingInt(Item::index));
+            return order;
+        }
+        // Largest first, give or take a factor of two
+        double[] keys = new double[items.size()];
+        for (Item item : items) {
+            keys[item.index()] = item.width() * item.depth() * (0.5 + random.nextDouble());
+        }
+        order.sort(Comparator.comparingDouble((Item item) -> -keys[item.index()]).thenComparingInt(Item::index));
+        return order;
+    }
+
+    /**
+     * Positions along one axis where a side of the container lines up with a wall or with the far side
+     * of something already in the room, sorted and without duplicates.
+     */
+    private static double[] coordinates(double min, double max, double size, List<Rect> solids,
+                                        List<Rect> blocked, boolean horizontal) {
+        double[] values = new double[2 + 2 * (solids.size() + blocked.size())];
+        int n = 0;
+        values[n++] = min;
+        values[n++] = max - size;
+        for (List<Rect> rects : List.of(solids, blocked)) {
+            for (Rect rect : rects) {
+                values[n++] = horizontal ? rect.maxX() : rect.maxY();
+                values[n++] = (horizontal ? rect.minX() : rect.minY()) - size;
+            }
+        }
+        Arrays.sort(values, 0, n);
+
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            double value = values[i];
+            if (value < min - EPSILON || value + size > max + EPSILON) {
+                continue;
+            }
+            value = Math.max(min, Math.min(value, max - size));
+            if (count > 0 && value - values[count - 1] < EPSILON) {
+                continue;
+            }
+            values[count++] = value;
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    private Rect aisle(Rect footprint, int angle) {
+        return switch (angle) {
+            case 90 -> new Rect(footprint.minX() - aisle, footprint.minY(), footprint.minX(), footprint.maxY());
+            case 180 -> new Rect(footprint.minX(), footprint.minY() - aisle, footprint.maxX(), footprint.minY());
+            case 270 -> new Rect(footprint.maxX(), footprint.minY(), footprint.maxX() + aisle, footprint.maxY());
+            default -> new Rect(footprint.minX(), footprint.maxY(), footprint.maxX(), footprint.maxY() + aisle);
+        };
+    }
+
+    /**
+     * Length of the sides of the footprint that touch a wall or a container or other object.
+     */
+    private double contact(Rect footprint, List<Rect> solids) {
+        double contact = 0;
+        if (near(footprint.minX(), room.minX())) contact += footprint.height();
+        if (near(footprint.maxX(), room.maxX())) contact += footprint.height();
+        if (near(footprint.minY(), room.minY())) contact += footprint.width();
+        if (near(footprint.maxY(), room.maxY())) contact += footprint.width();
+
+        for (Rect solid : solids) {
+            if (near(footprint.minX(), solid.maxX()) || near(footprint.maxX(), solid.minX())) {
+                contact += Math.max(0, Math.min(footprint.maxY(), solid.maxY()) - Math.max(footprint.minY(), solid.minY()));
+            }
+            if (near(footprint.minY(), solid.maxY()) || near(footprint.maxY(), solid.minY())) {
+                contact += Math.max(0, Math.min(footprint.maxX(), solid.maxX()) - Math.max(footprint.minX(), solid.minX()));
+            }
+        }
+        return contact;
+    }
+
+    /**
+     * The space to keep free inside the room across a door opening, or null for a door on no known wall.
+     * The opening lies on the same side of the hinge as the door zones of the planning tool.
+     */
+    private Rect clearance(DoorRequest door) {
+        double opening = door.getWidth() * PIXELS_PER_METER;
+        double depth = "outward".equalsIgnoreCase(door.getSwingDirection()) ? aisle : Math.max(opening, aisle);
+        double x = door.getX();
+        double y = door.getY();
+        String wall = door.getWall() != null ? door.getWall().toLowerCase() : "";
+
+        return switch (wall) {
+            case "top" -> new Rect(x - opening, y, x, y + depth);
+            case "bottom" -> new Rect(x, y - depth, x + opening, y);
+            case "left" -> new Rect(x, y, x + depth, y + opening);
+            case "right" -> new Rect(x - depth, y - opening, x, y);
+            default -> null;
+        };
+    }
+
+    /**
+     * Bounding box of an other object turned around its center.
+     */
+    private static Rect bounds(OtherObjectRequest object) {
+        double width = object.getWidth();
+        double depth = object.getDepth();
+        double centerX = object.getX() + width / 2;
+        double centerY = object.getY() + depth / 2;
+        double cos = Math.abs(Math.cos(Math.toRadians(object.getRotation())));
+        double sin = Math.abs(Math.sin(Math.toRadians(object.getRotation())));
+        double halfWidth = (width * cos + depth * sin) / 2;
+        double halfHeight = (width * sin + depth * cos) / 2;
+        return new Rect(centerX - halfWidth, centerY - halfHeight, centerX + halfWidth, centerY + halfHeight);
+    }
+
+    private static boolean overlapsAny(Rect rect, List<Rect> others) {
+        for (Rect other : others) {
+            if (rect.overlaps(other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean near(double value, double other) {
+        return Math.abs(value - other) <= EPSILON;
+    }
+
+    /**
+     * A container to place, sizes in pixels.
+     */
+    record Item(int index, Long planId, double width, double depth, boolean hasLockILock) {
+    }
+
+    /**
+     * A placed container, (x, y) being its top left corner before it is turned around its center.
+     */
+    record Placement(Item item, double x, double y, int angle) {
+    }
+
+    /**
+     * The layout of one restart, both lists in the order of the items.
+     */
+    record Result(int restart, List<Placement> placements, List<Item> unplaced, double contact) {
+
+        boolean isComplete() {
+            return unplaced.isEmpty();
+        }
+
+        /**
+         * More containers placed wins, then more contact, then the lower restart.
+         */
+        boolean isBetterThan(Result other) {
+            if (placements.size() != other.placements.size()) {
+                return placements.size() > other.placements.size();
+            }
+            if (Math.abs(contact - other.contact) > EPSILON) {
+                return contact > other.contact;
+            }
+            return restart < other.restart;
+        }
+    }
+
+    private record Candidate(Rect footprint, Rect access, int angle, double contact) {
+    }
+
+    private record Rect(double minX, double minY, double maxX, double maxY) {
+
+        double width() {
+            return maxX - minX;
+        }
+
+        double height() {
+            return maxY - minY;
+        }
+
+        boolean overlaps(Rect other) {
+            return minX < other.maxX - EPSILON && other.minX < maxX - EPSILON
+                    && minY < other.maxY - EPSILON && other.minY < maxY - EPSILON;
+        }
+
+        boolean contains(Rect other) {
+            return other.minX >= minX - EPSILON && other.maxX <= maxX + EPSILON
+                    && other.minY >= minY - EPSILON && other.maxY <= maxY + EPSILON;
+        }
+    }
+}
@@ -6,15 +6,19 @@ import com.avfallskompassen.dto.PropertyContainerDTO;
 import com.avfallskompassen.exception.ResourceNotFoundException;
 import com.avfallskompassen.model.ContainerPlan;
 import com.avfallskompassen.model.ContainerPosition;
-import com.avfallskompassen.repository.ContainerPlanRepository;
 import com.avfallskompassen.repository.ContainerPositionRepository;
+import com.avfallskompassen.services.ContainerCatalogService;
 import com.avfallskompassen.services.ContainerService;
+import com.avfallskompassen.services.impl.AnnualCostModel.ContainerCost;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -25,17 +29,20 @@ import java.util.stream.Collectors;
 @Transactional
 public class ContainerServiceImpl implements ContainerService {
 
-    private ContainerPlanRepository containerPlanRepository;
     private ContainerPositionRepository containerPositionRepository;
+    private ContainerCatalogService containerCatalogService;
+    private AnnualCostModel costModel;
 
-    public ContainerServiceImpl(ContainerPlanRepository containerPlanRepository,
-                                ContainerPositionRepository containerPositionRepository) {
-        this.containerPlanRepository = containerPlanRepository;
+    public ContainerServiceImpl(ContainerPositionRepository containerPositionRepository,
+                                ContainerCatalogService containerCatalogService,
+                                AnnualCostModel costModel) {
         this.containerPositionRepository = containerPositionRepository;
+        this.containerCatalogService = containerCatalogService;
+        this.costModel = costModel;
     }
 
     /**
-     * Get containers by municipality ID and service type ID.
+     * Get containers by municipality ID and service type ID. The plans are read from the container catalog.
      * @param municipalityId
      * @param serviceTypeId
      * @return List of ContainerPlan
@@ -46,9 +53,7 @@ public class ContainerServiceImpl implements ContainerService {
             throw new IllegalArgumentException("Municipality ID and Service Type ID must not be null");
         }
 
-        return containerPlanRepository.findByMunicipalityService_Municipality_IdAndMunicipalityService_ServiceType_Id(
-                        municipalityId, serviceTypeId
-                ).stream()
+        return containerCatalogService.findContainerPlans(municipalityId, serviceTypeId).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
@@ -67,47 +72,60 @@ public class ContainerServiceImpl implements ContainerService {
     }
 
     /**
-     * Gets container plan based on ID, or throw {@link ResourceNotFoundException}
+     * Gets container plan based on ID, or throw {@link ResourceNotFoundException}.
+     * The plan comes from the container catalog and is shared, so it must not be modified.
      * @param id Id to the container plan
      * @return {@link ContainerPlan} matching id
      */
     public ContainerPlan getContainerPlanById(Long id) {
-        return containerPlanRepository.findById(id)
+        return containerCatalogService.findContainerPlan(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "ContainerPlan with ID: " + id + " can't be found"
                 ));
     }
 
+    /**
+     * Gets several container plans at once, or throw one {@link ResourceNotFoundException} listing
+     * every id that does not match a plan.
+     * @param ids Ids to the container plans
+     * @return Map of {@link ContainerPlan} by id, containing every requested id
+     */
+    public Map<Long, ContainerPlan> getContainerPlansByIds(Set<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, ContainerPlan> plans = containerCatalogService.findContainerPlansByIds(ids);
+        if (plans.size() < ids.size()) {
+            String unknownIds = ids.stream()
+                    .filter(id -> id == null || !plans.containsKey(id))
+                    .sorted(Comparator.nullsLast(Comparator.naturalOrder()))
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", "));
+            throw new ResourceNotFoundException("ContainerPlans with IDs: " + unknownIds + " can't be found");
+        }
+        return plans;
+    }
+
     public List<PropertyContainerDTO> getContainersByPropertyId(Long propertyId) {
         List<ContainerPosition> positions = containerPositionRepository.findByPropertyIdAndIsActive(propertyId);
 
-        Map<ContainerPlan, Long> grouped = positions.stream()
-                .collect(Collectors.groupingBy(ContainerPosition::getContainerPlan, Collectors.counting()));
-
-        List<PropertyContainerDTO> results = grouped.entrySet().stream()
-                .map(entry -> {
-                    ContainerPlan plan = entry.getKey();
-                    long count = entry.getValue();
-
-                    // Count how many containers have the Lock-i-Lock addon
-                    long lockILockCount = positions.stream()
-                            .filter(p -> p.getContainerPlan().equals(plan) && p.getHasLockILock())
-                            .count();
-
-                    // Calculate total cost: plan cost * count + lock-i-lock cost * lockILockCount
-                    BigDecimal totalCost = plan.getCost().multiply(BigDecimal.valueOf(count))
-                            .add(BigDecimal.valueOf(100).multiply(BigDecimal.valueOf(lockILockCount)));
-
-                    return new PropertyContainerDTO(
-                            plan.getMunicipalityService().getServiceType().getName(),
-                            plan.getContainerType().getName(),
-                            plan.getContainerType().getSize(),
-                            (int) count,
-                            plan.getEmptyingFrequencyPerYear(),
-                            totalCost
-                    );
-                })
-                .toList();
+        // One pass: count the containers and Lock-i-Lock add-ons of every plan
+        Map<ContainerPlan, ContainerCost> grouped = new LinkedHashMap<>();
+        for (ContainerPosition position : positions) {
+            grouped.computeIfAbsent(position.getContainerPlan(), ignored -> new ContainerCost())
+                    .add(position.getContainerPlan(), position.getHasLockILock());
+        }
+
+        List<PropertyContainerDTO> results = new ArrayList<>(grouped.size());
+        grouped.forEach((plan, containers) -> results.add(new PropertyContainerDTO(
+                plan.getMunicipalityService().getServiceType().getName(),
+                plan.getContainerType().getName(),
+                plan.getContainerType().getSize(),
+                containers.getCount(),
+                plan.getEmptyingFrequencyPerYear(),
+                costModel.containerCostWithLockILock(containers)
+        )));
 
         return results;
     }
@@ -0,0 +1,221 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.CostBreakdownDTO;
+import com.avfallskompassen.dto.request.ContainerPositionRequest;
+import com.avfallskompassen.dto.request.CostSimulationRequest;
+import com.avfallskompassen.events.CostRatesChangedEvent;
+import com.avfallskompassen.exception.ResourceNotFoundException;
+import com.avfallskompassen.model.CollectionFee;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.LockType;
+import com.avfallskompassen.repository.CollectionFeeRepository;
+import com.avfallskompassen.repository.LockTypeRepository;
+import com.avfallskompassen.services.ContainerCatalogService;
+import com.avfallskompassen.services.CostSimulationService;
+import com.avfallskompassen.services.impl.AnnualCostModel.ContainerCost;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Calculates what a property would cost per year with a waste room that has not been saved, so the
+ * planner can show the cost while containers are dragged around.
+ * <p>
+ * Nothing is read from the database per call. Container plans come from the
+ * {@link ContainerCatalogService}, and the collection fee per municipality and the cost per lock type
+ * are kept in an immutable snapshot here, replaced as a whole when an admin changes a rate. A rate the
+ * snapshot does not know, e.g. one added directly in the database, makes it load the snapshot again.
+ * The cost itself is calculated by the {@link AnnualCostModel}, like every other annual cost.
+ */
+@Service
+public class CostSimulationServiceImpl implements CostSimulationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CostSimulationServiceImpl.class);
+
+    private final CollectionFeeRepository collectionFeeRepository;
+    private final LockTypeRepository lockTypeRepository;
+    private final ContainerCatalogService containerCatalogService;
+    private final TransactionTemplate loadTransaction;
+    private final AnnualCostModel costModel;
+    private final Timer simulationTimer;
+
+    private volatile Rates rates;
+
+    public CostSimulationServiceImpl(
+            CollectionFeeRepository collectionFeeRepository,
+            LockTypeRepository lockTypeRepository,
+            ContainerCatalogService containerCatalogService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            AnnualCostModel costModel
+    ) {
+        this.collectionFeeRepository = collectionFeeRepository;
+        this.lockTypeRepository = lockTypeRepository;
+        this.containerCatalogService = containerCatalogService;
+        this.costModel = costModel;
+
+        // Load in a session of its own so a caller's transaction never holds the rates
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+
+        this.simulationTimer = Timer.builder("property.cost.simulation")
+                .description("Time to calculate the annual cost of an unsaved waste room")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Calculates the annual cost a property would have with an unsaved waste room. Every container
+     * costs its plan's annual cost, plus the Lock-i-Lock cost if it has one.
+     *
+     * @param request The waste room and the property values the cost depends on
+     * @return The annual cost split into its parts
+     * @throws ResourceNotFoundException if the municipality has no collection fee, or the lock type
+     * or a container plan does not exist
+     */
+    @Override
+    public CostBreakdownDTO simulateAnnualCost(CostSimulationRequest request) {
+        long start = System.nanoTime();
+        try {
+            return simulate(request);
+        } finally {
+            simulationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private CostBreakdownDTO simulate(CostSimulationRequest request) {
+        BigDecimal feePerSegment = rate(current -> current.collectionFees.get(request.getMunicipalityId()));
+        if (feePerSegment == null) {
+            throw new ResourceNotFoundException("Collection fee for municipality with ID: " + request.getMunicipalityId() + " can't be found");
+        }
+        BigDecimal lockCost = rate(current -> current.lockTypes.get(request.getLockTypeId()));
+        if (lockCost == null) {
+            throw new ResourceNotFoundException("LockType with ID: " + request.getLockTypeId() + " can't be found");
+        }
+        BigDecimal collectionFee = AnnualCostModel.collectionFee(feePerSegment, request.getAccessPathLength());
+
+        ContainerCost containerCost = new ContainerCost();
+        List<ContainerPositionRequest> containers = request.getWasteRoom().getContainers();
+        if (containers != null) {
+            for (ContainerPositionRequest container : containers) {
+                ContainerPlan plan = containerCatalogService.findContainerPlan(container.getId())
+                        .orElseThrow(() -> new ResourceNotFoundException("ContainerPlan with ID: " + container.getId() + " can't be found"));
+                containerCost.add(plan, container.getHasLockILock());
+            }
+        }
+
+        return costModel.breakdown(collectionFee, lockCost, containerCost, request.getNumberOfApartments());
+    }
+
+    /**
+     * Reads a rate from the snapshot, loading the snapshot again once if the rate is missing.
+     *
+     * @return The rate, or null if it is missing from the database as well
+     */
+    private BigDecimal rate(Function<Rates, BigDecimal> lookup) {
+        BigDecimal rate = lookup.apply(current());
+        if (rate == null) {
+            reloadRates();
+            rate = lookup.apply(current());
+        }
+        return rate;
+    }
+
+    @Override
+    public synchronized void reloadRates() {
+        rates = loadTransaction.execute(status -> Rates.of(
+                collectionFeeRepository.findAllWithMunicipality(),
+                lockTypeRepository.findAll()));
+        log.info("Loaded {} collection fees and {} lock types for cost simulation.",
+                rates.collectionFees.size(), rates.lockTypes.size());
+    }
+
+    /**
+     * Loads the rates again once the change that caused the event has been committed.
+     * If loading fails the old rates are kept.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onRatesChanged(CostRatesChangedEvent event) {
+        try {
+            reloadRates();
+        } catch (RuntimeException ex) {
+            log.error("Failed to reload cost rates after {}(id={}) changed. Reason: {}",
+                    event.getRate(), event.getId(), ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Loads the rates on startup so the first planner request does not have to wait for them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void warmUp() {
+        try {
+            reloadRates();
+        } catch (RuntimeException ex) {
+            log.error("Failed to load cost rates on startup. Reason: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private Rates current() {
+        Rates current = rates;
+        if (current == null) {
+            synchronized (this) {
+                if (rates == null) {
+                    reloadRates();
+                }
+                current = rates;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Collection fee per started segment by municipality id, and annual cost by lock type id.
+     */
+    private static final class Rates {
+
+        private final Map<Long, BigDecimal> collectionFees;
+        private final Map<Long, BigDecimal> lockTypes;
+
+        private Rates(Map<Long, BigDecimal> collectionFees, Map<Long, BigDecimal> lockTypes) {
+            this.collectionFees = collectionFees;
+            this.lockTypes = lockTypes;
+        }
+
+        static Rates of(List<CollectionFee> fees, List<LockType> lockTypes) {
+            Map<Long, BigDecimal> collectionFees = new HashMap<>();
+            for (CollectionFee fee : fees) {
+                if (fee.getMunicipality() != null && fee.getCost() != null) {
+                    collectionFees.put(fee.getMunicipality().getId(), fee.getCost());
+                }
+            }
+
+            Map<Long, BigDecimal> lockCosts = new HashMap<>();
+            for (LockType lockType : lockTypes) {
+                if (lockType.getCost() != null) {
+                    lockCosts.put(lockType.getId(), lockType.getCost());
+                }
+            }
+            return new Rates(Map.copyOf(collectionFees), Map.copyOf(lockCosts));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.avfallskompassen.services.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * The difference between two waste room layouts, per kind of item: the items only in the base layout
+ * (removed), the items only in the target layout (added) and the items that are in both but at another
+ * position (moved). Applying the delta to the base layout gives the target layout back.
+ * <p>
+ * Items are compared by value, a layout is a multiset, so the delta does not depend on row ids and
+ * stays valid when the rows of the base layout are written again.
+ */
+record LayoutDelta(Changes<ContainerItem> containers, Changes<DoorItem> doors, Changes<ObjectItem> otherObjects) {
+
+    /**
+     * Computes the delta that turns {@code base} into {@code target}.
+     */
+    static LayoutDelta between(Layout base, Layout target) {
+        return new LayoutDelta(
+                diff(base.containers(), target.containers(), ContainerItem::planId),
+                diff(base.doors(), target.doors(), door -> List.of(door.width(), door.depth(), Objects.toString(door.swingDirection()))),
+                diff(base.otherObjects(), target.otherObjects(), object -> List.of(Objects.toString(object.name()), object.width(), object.depth()))
+        );
+    }
+
+    /**
+     * Applies the delta to the layout it was computed against.
+     *
+     * @throws IllegalStateException if an item the delta removes or moves is not in the layout
+     */
+    Layout applyTo(Layout base) {
+        return new Layout(
+                apply(base.containers(), containers),
+                apply(base.doors(), doors),
+                apply(base.otherObjects(), otherObjects)
+        );
+    }
+
+    /**
+     * Number of items the delta stores.
+     */
+    int size() {
+        return containers.size() + doors.size() + otherObjects.size();
+    }
+
+    /**
+     * Pairs the items of the two layouts: equal items cancel out, then an item left in the target is
+     * a move of an item left in the base with the same key (same plan, same door, same object).
+     */
+    private static <T> Changes<T> diff(List<T> base, List<T> target, Function<T, Object> key) {
+        List<T> removed = new ArrayList<>(base);
+        List<T> added = new ArrayList<>();
+        for (T item : target) {
+            if (!removed.remove(item)) {
+                added.add(item);
+            }
+        }
+
+        List<Move<T>> moved = new ArrayList<>();
+        Iterator<T> remaining = added.iterator();
+        while (remaining.hasNext()) {
+            T item = remaining.next();
+            Object itemKey = key.apply(item);
+            for (int i = 0; i < removed.size(); i++) {
+                if (Objects.equals(key.apply(removed.get(i)), itemKey)) {
+                    moved.add(new Move<>(removed.remove(i), item));
+                    remaining.remove();
+                    break;
+                }
+            }
+        }
+        return new Changes<>(removed, moved, added);
+    }
+
+    private static <T> List<T> apply(List<T> base, Changes<T> changes) {
+        List<T> items = new ArrayList<>(base);
+        for (T item : changes.removed()) {
+            if (!items.remove(item)) {
+                throw new IllegalStateException("Layout delta removes an item that is not in its base layout");
+            }
+        }
+        for (Move<T> move : changes.moved()) {
+            int index = items.indexOf(move.from());
+            if (index < 0) {
+                throw new IllegalStateException("Layout delta moves an item that is not in its base layout");
+            }
+            items.set(index, move.to());
+        }
+        items.addAll(changes.added());
+        return items;
+    }
+
+    /**
+     * The containers, doors and other objects of a waste room, by value.
+     */
+    record Layout(List<ContainerItem> containers, List<DoorItem> doors, List<ObjectItem> otherObjects) {
+
+        int size() {
+            return containers.size() + doors.size() + otherObjects.size();
+        }
+    }
+
+    record ContainerItem(Long planId, double x, double y, double angle, boolean hasLockILock) {
+    }
+
+    record DoorItem(double width, double depth, double x, double y, double angle, String wall, String swingDirection) {
+    }
+
+    record ObjectItem(String name, double width, double depth, double x, double y, int rotation) {
+    }
+
+    record Move<T>(T from, T to) {
+    }
+
+    record Changes<T>(List<T> removed, List<Move<T>> moved, List<T> added) {
+
+        int size() {
+            return removed.size() + moved.size() + added.size();
+        }
+    }
+}
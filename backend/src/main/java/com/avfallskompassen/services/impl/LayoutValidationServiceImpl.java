@@ -0,0 +1,177 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.LayoutRevalidationReportDTO;
+import com.avfallskompassen.dto.LayoutValidationResultDTO;
+import com.avfallskompassen.dto.LayoutViolationDTO;
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.LayoutValidationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for validating waste room layouts with {@link WasteRoomLayoutValidator}.
+ * <p>
+ * Saved layouts are handled according to {@code wasteroom.layout-validation.mode}: "off" skips the check,
+ * "log" saves the layout and logs the violations and "reject" refuses the save with a 400 listing them.
+ * Stored layouts can be checked with {@link #revalidateAll} before switching to "reject". It reads the
+ * rooms in id order, {@code wasteroom.layout-validation.batch-size} rooms per read-only transaction.
+ */
+@Service
+public class LayoutValidationServiceImpl implements LayoutValidationService {
+
+    private static final Logger log = LoggerFactory.getLogger(LayoutValidationServiceImpl.class);
+
+    static final int MAX_RESULTS = 1000;
+    // Number of violations named in the message of a rejected save
+    private static final int MESSAGE_VIOLATIONS = 5;
+
+    private final WasteRoomLayoutValidator validator;
+    private final WasteRoomRepository wasteRoomRepository;
+    private final WasteRoomVersionStore versionStore;
+    private final TransactionTemplate readTransaction;
+    private final Timer validationTimer;
+    private final String mode;
+    private final int batchSize;
+
+    public LayoutValidationServiceImpl(
+            WasteRoomLayoutValidator validator,
+            WasteRoomRepository wasteRoomRepository,
+            WasteRoomVersionStore versionStore,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${wasteroom.layout-validation.mode:log}") String mode,
+            @Value("${wasteroom.layout-validation.batch-size:200}") int batchSize
+    ) {
+        this.validator = validator;
+        this.wasteRoomRepository = wasteRoomRepository;
+        this.versionStore = versionStore;
+        this.mode = mode.toLowerCase();
+        this.batchSize = Math.max(1, batchSize);
+
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+
+        this.validationTimer = Timer.builder("wasteroom.layout.validation")
+                .description("Time to validate the layout of one waste room")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validates the layout of a room.
+     *
+     * @param room The room with its containers, doors and other objects loaded
+     * @return The result, listing the violations found
+     */
+    @Override
+    public LayoutValidationResultDTO validate(WasteRoom room) {
+        long start = System.nanoTime();
+        List<LayoutViolationDTO> violations = validator.validate(room);
+        validationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        return new LayoutValidationResultDTO(
+                room.getId(),
+                room.getProperty() != null ? room.getProperty().getId() : null,
+                room.getName(),
+                room.getVersionNumber(),
+                violations
+        );
+    }
+
+    /**
+     * Validates a layout that is about to be saved, according to the configured mode.
+     *
+     * @param room The room to be saved
+     * @throws BadRequestException if the layout is invalid and the mode is "reject"
+     */
+    @Override
+    public void enforce(WasteRoom room) {
+        if ("off".equals(mode)) {
+            return;
+        }
+
+        LayoutValidationResultDTO result = validate(room);
+        if (result.isValid()) {
+            return;
+        }
+
+        String summary = result.getViolations().stream()
+                .limit(MESSAGE_VIOLATIONS)
+                .map(LayoutViolationDTO::getMessage)
+                .collect(Collectors.joining("; "));
+        if ("reject".equals(mode)) {
+            throw new BadRequestException("Miljörummets layout är ogiltig: " + summary);
+        }
+        log.warn("Waste room {} on property {} saved with {} layout violations: {}",
+                result.getWasteRoomId(), result.getPropertyId(), result.getViolations().size(), summary);
+    }
+
+    /**
+     * Validates every stored waste room layout, versions stored as deltas included.
+     *
+     * @param maxResults The maximum number of invalid rooms to list in the report
+     * @return A report with the number of checked and invalid rooms
+     */
+    @Override
+    public LayoutRevalidationReportDTO revalidateAll(int maxResults) {
+        if (maxResults < 0 || maxResults > MAX_RESULTS) {
+            throw new BadRequestException("maxResults must be between 0 and " + MAX_RESULTS);
+        }
+
+        long start = System.nanoTime();
+        List<LayoutValidationResultDTO> results = new ArrayList<>();
+        long checked = 0;
+        long invalid = 0;
+        long afterId = 0;
+
+        while (true) {
+            long lastId = afterId;
+            List<LayoutValidationResultDTO> batch = readTransaction.execute(status -> validateBatch(lastId));
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+
+            for (LayoutValidationResultDTO result : batch) {
+                checked++;
+                if (!result.isValid()) {
+                    invalid++;
+                    if (results.size() < maxResults) {
+                        results.add(result);
+                    }
+                }
+            }
+            afterId = batch.get(batch.size() - 1).getWasteRoomId();
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Validated {} waste room layouts in {} ms, {} invalid.", checked, durationMs, invalid);
+        return new LayoutRevalidationReportDTO(checked, invalid, durationMs, results);
+    }
+
+    private List<LayoutValidationResultDTO> validateBatch(long afterId) {
+        List<Long> ids = wasteRoomRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<WasteRoom> rooms = versionStore.resolveAll(wasteRoomRepository.findWithContainersByIdIn(ids));
+        List<LayoutValidationResultDTO> results = new ArrayList<>(rooms.size());
+        for (WasteRoom room : rooms) {
+            results.add(validate(room));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,73 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.services.ThumbnailStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Stores thumbnails on the local file system. The files are served by the
+ * {@code /images/wasterooms/**} resource handler in {@link com.avfallskompassen.config.WebConfig}.
+ * Used for local development and tests where no Supabase bucket is available.
+ */
+@Component
+@ConditionalOnProperty(name = "thumbnail.storage", havingValue = "local")
+public class LocalThumbnailStorage implements ThumbnailStorage {
+
+    private static final String PUBLIC_PATH = "/images/wasterooms/";
+
+    private final Path directory;
+
+    public LocalThumbnailStorage(@Value("${thumbnail.local.directory:uploads/wasterooms}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    @Override
+    public String store(String fileName, byte[] content, String contentType) throws IOException {
+        Path temp = createTempFile(fileName);
+        try {
+            Files.write(temp, content);
+            return moveIntoPlace(temp, fileName);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public String store(String fileName, InputStream content, long contentLength, String contentType)
+            throws IOException {
+        Path temp = createTempFile(fileName);
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            return moveIntoPlace(temp, fileName);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void checkAvailable() throws IOException {
+        Files.createDirectories(directory);
+        if (!Files.isWritable(directory)) {
+            throw new IOException("Thumbnail directory " + directory.toAbsolutePath() + " is not writable");
+        }
+    }
+
+    // Write to a temporary file first so a reader never sees a half written image
+    private Path createTempFile(String fileName) throws IOException {
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, fileName, ".tmp");
+    }
+
+    private String moveIntoPlace(Path temp, String fileName) throws IOException {
+        Files.move(temp, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return PUBLIC_PATH + fileName;
+    }
+}
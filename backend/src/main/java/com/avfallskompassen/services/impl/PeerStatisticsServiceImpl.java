@@ -0,0 +1,369 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.GeneralPropertyCostDTO;
+import com.avfallskompassen.dto.PeerGroupStatisticsDTO;
+import com.avfallskompassen.dto.PeerServiceStatisticsDTO;
+import com.avfallskompassen.events.PropertyStatisticsChangedEvent;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.PropertyPeerStatistics;
+import com.avfallskompassen.model.PropertyServiceStatistics;
+import com.avfallskompassen.repository.PropertyPeerStatisticsRepository;
+import com.avfallskompassen.repository.PropertyRepository;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.PeerStatisticsService;
+import com.avfallskompassen.services.PropertyCostService;
+import com.avfallskompassen.services.PropertyWasteProfile;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service that stores one {@link PropertyPeerStatistics} row per property and aggregates
+ * a peer group from those rows. The rows are refreshed when a waste room or property changes
+ * (see {@link PropertyStatisticsChangedEvent}), so a comparison only has to run two aggregate
+ * queries instead of calculating the cost and containers of every similar property.
+ * Every row records the {@link AnnualCostModel#version()} its cost was calculated with, so the rows
+ * are rebuilt on startup when the cost model has changed.
+ */
+@Service
+@Transactional
+public class PeerStatisticsServiceImpl implements PeerStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(PeerStatisticsServiceImpl.class);
+
+    /** Properties with this many apartments more or less are considered similar. */
+    public static final int APARTMENT_RANGE = 5;
+
+    private final PropertyPeerStatisticsRepository statisticsRepository;
+    private final PropertyRepository propertyRepository;
+    private final WasteRoomRepository wasteRoomRepository;
+    private final PropertyCostService propertyCostService;
+    private final AnnualCostModel costModel;
+    private final TransactionTemplate refreshTransaction;
+    private final TransactionTemplate costTransaction;
+
+    // Refreshes run on one background thread, so a request never waits for them or needs a second connection
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "peer-statistics-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final Set<Long> pendingRefreshes = ConcurrentHashMap.newKeySet();
+
+    @Value("${peer-statistics.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup = true;
+
+    @Value("${peer-statistics.rebuild-chunk-size:500}")
+    private int rebuildChunkSize = 500;
+
+    public PeerStatisticsServiceImpl(PropertyPeerStatisticsRepository statisticsRepository,
+                                     PropertyRepository propertyRepository,
+                                     WasteRoomRepository wasteRoomRepository,
+                                     PropertyCostService propertyCostService,
+                                     AnnualCostModel costModel,
+                                     PlatformTransactionManager transactionManager) {
+        this.statisticsRepository = statisticsRepository;
+        this.propertyRepository = propertyRepository;
+        this.wasteRoomRepository = wasteRoomRepository;
+        this.propertyCostService = propertyCostService;
+        this.costModel = costModel;
+
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // A failing cost calculation must not mark the statistics transaction as rollback-only
+        this.costTransaction = new TransactionTemplate(transactionManager);
+        this.costTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.costTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Aggregates the stored figures of all properties similar to the given one: same property type,
+     * same municipality and a number of apartments within {@link #APARTMENT_RANGE}.
+     * The property itself is never part of its own peer group.
+     *
+     * @param property the property to find peers for
+     * @return sums, counts and extremes for the peer group, empty if the property has no municipality
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PeerGroupStatisticsDTO getPeerGroupStatistics(Property property) {
+        PeerGroupStatisticsDTO statistics = new PeerGroupStatisticsDTO();
+        if (property.getMunicipality() == null) {
+            return statistics;
+        }
+
+        Long municipalityId = property.getMunicipality().getId();
+        int minApartments = Math.max(1, property.getNumberOfApartments() - APARTMENT_RANGE);
+        int maxApartments = property.getNumberOfApartments() + APARTMENT_RANGE;
+
+        List<Object[]> rows = statisticsRepository.aggregatePeerGroup(property.getPropertyType(),
+                municipalityId, minApartments, maxApartments, property.getId());
+        if (!rows.isEmpty()) {
+            Object[] row = rows.get(0);
+            statistics.setPeerCount(toLong(row[0]));
+            statistics.setCostCount(toLong(row[1]));
+            statistics.setCostSum(row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO);
+            statistics.setMinCost((BigDecimal) row[3]);
+            statistics.setMaxCost((BigDecimal) row[4]);
+            statistics.setVolumeSum(toLong(row[5]));
+            statistics.setFrequencySum(toDouble(row[6]));
+            statistics.setFrequencyCount(toLong(row[7]));
+        }
+
+        if (statistics.getPeerCount() == 0) {
+            return statistics;
+        }
+
+        for (Object[] row : statisticsRepository.aggregatePeerGroupByService(property.getPropertyType(),
+                municipalityId, minApartments, maxApartments, property.getId())) {
+            String serviceTypeName = (String) row[0];
+            statistics.getServiceStatistics().put(serviceTypeName, new PeerServiceStatisticsDTO(
+                    serviceTypeName,
+                    toLong(row[1]),
+                    toDouble(row[2]),
+                    toDouble(row[3]),
+                    toDouble(row[4]),
+                    toDouble(row[5])));
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Recalculates the stored figures for one property, or removes them if the property no longer exists.
+     *
+     * @param propertyId id of the property to refresh
+     */
+    @Override
+    public void refreshProperty(Long propertyId) {
+        refresh(propertyId, null);
+    }
+
+    private void refresh(Long propertyId, GeneralPropertyCostDTO knownCost) {
+        Property property = propertyRepository.findById(propertyId).orElse(null);
+        if (property == null) {
+            if (statisticsRepository.existsById(propertyId)) {
+                statisticsRepository.deleteById(propertyId);
+            }
+            return;
+        }
+
+        PropertyPeerStatistics statistics = statisticsRepository.findById(propertyId)
+                .orElseGet(() -> new PropertyPeerStatistics(propertyId));
+
+        PropertyWasteProfile profile = PropertyWasteProfile.fromWasteRooms(
+                wasteRoomRepository.findByPropertyId(propertyId));
+
+        statistics.setPropertyType(property.getPropertyType());
+        statistics.setMunicipalityId(property.getMunicipality() != null ? property.getMunicipality().getId() : null);
+        statistics.setNumberOfApartments(property.getNumberOfApartments());
+        statistics.setAnnualCost(knownCost != null
+                ? knownCost.getTotalCost().setScale(2, RoundingMode.HALF_UP)
+                : calculateCost(propertyId));
+        statistics.setCostModel(costModel.version());
+        statistics.setTotalVolume(profile.getTotalVolume());
+        statistics.setAverageFrequency(profile.getAverageRoomFrequency());
+
+        statistics.getServiceStatistics().clear();
+        profile.getWasteAmountByService().forEach((serviceTypeName, wasteAmount) ->
+                statistics.getServiceStatistics().add(new PropertyServiceStatistics(
+                        statistics,
+                        serviceTypeName,
+                        wasteAmount,
+                        profile.getAverageFrequencyByService().getOrDefault(serviceTypeName, 0.0))));
+
+        statisticsRepository.save(statistics);
+    }
+
+    /**
+     * Recalculates the stored figures for every property and removes rows for deleted properties.
+     * Only the ids are loaded up front. The costs are calculated in batches of
+     * {@code peer-statistics.rebuild-chunk-size}, every property is then refreshed in its own transaction
+     * so one broken property does not stop the rebuild.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildAll() {
+        List<Long> propertyIds = propertyRepository.findAllIds();
+        Set<Long> existing = new HashSet<>(propertyIds);
+
+        refreshTransaction.executeWithoutResult(status -> statisticsRepository.findAllPropertyIds().stream()
+                .filter(id -> !existing.contains(id))
+                .forEach(statisticsRepository::deleteById));
+
+        int chunkSize = Math.max(1, rebuildChunkSize);
+        int failed = 0;
+        for (int from = 0; from < propertyIds.size(); from += chunkSize) {
+            List<Long> chunk = propertyIds.subList(from, Math.min(from + chunkSize, propertyIds.size()));
+            Map<Long, GeneralPropertyCostDTO> costs = calculateCosts(chunk);
+            for (Long propertyId : chunk) {
+                if (!refreshSafely(propertyId, costs.get(propertyId))) {
+                    failed++;
+                }
+            }
+        }
+        log.info("Rebuilt peer statistics for {} properties ({} failed).", propertyIds.size() - failed, failed);
+    }
+
+    /**
+     * Refreshes the stored figures once the change that caused the event has been committed.
+     * The refresh runs on a background thread: the committing request still holds its connection at this
+     * point, so refreshing on its thread would need a second one. A change to every property, e.g. an admin
+     * changing a price, rebuilds every property. A failure is logged and never affects the original change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onStatisticsChanged(PropertyStatisticsChangedEvent event) {
+        if (event.affectsAllProperties()) {
+            scheduleRebuild();
+        } else {
+            scheduleRefresh(event.getPropertyId());
+        }
+    }
+
+    /**
+     * Queues a refresh of one property. A property that is already waiting is not queued again,
+     * its refresh reads the latest state when it runs.
+     */
+    private void scheduleRefresh(Long propertyId) {
+        if (propertyId == null || !pendingRefreshes.add(propertyId)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                pendingRefreshes.remove(propertyId);
+                refreshSafely(propertyId, null);
+            });
+        } catch (RejectedExecutionException ex) {
+            pendingRefreshes.remove(propertyId);
+            log.warn("Peer statistics refresh for property(id={}) was rejected, the application is shutting down.",
+                    propertyId);
+        }
+    }
+
+    /**
+     * Queues a rebuild of every property. A rebuild that is still waiting covers every change made
+     * before it starts, so at most one rebuild waits behind the one that is running.
+     */
+    private void scheduleRebuild() {
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuildAll();
+                } catch (RuntimeException ex) {
+                    log.error("Failed to rebuild peer statistics. Reason: {}", ex.getMessage(), ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rebuildPending.set(false);
+            log.warn("Peer statistics rebuild was rejected, the application is shutting down.");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Fills the statistics table on startup when it is out of sync with the properties,
+     * e.g. the first time the application runs with this table, or when stored costs were
+     * calculated with another cost model, e.g. after the Lock-i-Lock price changed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildIfOutOfSync() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        try {
+            if (statisticsRepository.count() != propertyRepository.count()) {
+                rebuildAll();
+                return;
+            }
+            long outdated = statisticsRepository.countByOtherCostModel(costModel.version());
+            if (outdated > 0) {
+                log.info("{} peer statistics were calculated with another cost model than {}, rebuilding.",
+                        outdated, costModel.version());
+                rebuildAll();
+            }
+        } catch (RuntimeException ex) {
+            log.error("Failed to rebuild peer statistics on startup. Reason: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private boolean refreshSafely(Long propertyId, GeneralPropertyCostDTO knownCost) {
+        try {
+            refreshTransaction.executeWithoutResult(status -> refresh(propertyId, knownCost));
+            return true;
+        } catch (RuntimeException ex) {
+            log.error("Failed to refresh peer statistics for property(id={}). Reason: {}",
+                    propertyId, ex.getMessage(), ex);
+            return false;
+        }
+    }
+
+    /**
+     * Calculates the cost of all given properties in one batch. If the batch fails, e.g. because one
+     * property is missing its collection fee, an empty map is returned and every property falls back
+     * to its own calculation.
+     */
+    private Map<Long, GeneralPropertyCostDTO> calculateCosts(List<Long> propertyIds) {
+        try {
+            return costTransaction.execute(status -> propertyCostService.calculateAnnualCosts(propertyIds));
+        } catch (RuntimeException ex) {
+            log.warn("Batch cost calculation failed, calculating the cost per property instead. Reason: {}",
+                    ex.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private BigDecimal calculateCost(Long propertyId) {
+        try {
+            return costTransaction.execute(status -> propertyCostService.calculateAnnualCost(propertyId)
+                    .getTotalCost()
+                    .setScale(2, RoundingMode.HALF_UP));
+        } catch (RuntimeException ex) {
+            log.warn("Could not calculate annual cost for property(id={}), storing statistics without cost. Reason: {}",
+                    propertyId, ex.getMessage());
+            return null;
+        }
+    }
+
+    private long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
+    }
+}
@@ -1,19 +1,33 @@
 package com.avfallskompassen.services.impl;
 
+import com.avfallskompassen.dto.CollectionFeeDTO;
+import com.avfallskompassen.dto.CostBreakdownDTO;
 import com.avfallskompassen.dto.GeneralPropertyCostDTO;
+import com.avfallskompassen.model.ContainerPosition;
 import com.avfallskompassen.model.Property;
 import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.PropertyRepository;
 import com.avfallskompassen.repository.WasteRoomRepository;
 import com.avfallskompassen.services.CollectionFeeService;
 import com.avfallskompassen.services.PropertyCostService;
 import com.avfallskompassen.services.PropertyService;
+import com.avfallskompassen.services.impl.AnnualCostModel.ContainerCost;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -29,20 +43,26 @@ public class PropertyCostServiceImpl implements PropertyCostService {
     private final PropertyService propertyService;
     private final WasteRoomRepository wasteRoomRepository;
     private final CollectionFeeService collectionFeeService;
+    private final PropertyRepository propertyRepository;
+    private final AnnualCostModel costModel;
 
     public PropertyCostServiceImpl(
             PropertyService propertyService,
             WasteRoomRepository wasteRoomRepository,
-            CollectionFeeService collectionFeeService) {
+            CollectionFeeService collectionFeeService,
+            PropertyRepository propertyRepository,
+            AnnualCostModel costModel) {
         this.propertyService = propertyService;
         this.wasteRoomRepository = wasteRoomRepository;
         this.collectionFeeService = collectionFeeService;
+        this.propertyRepository = propertyRepository;
+        this.costModel = costModel;
     }
 
     /**
      * Calculates the total annual cost for a specific property.
-     * The total cost is composed of the collection fee, lock cost and container
-     * costs.
+     * The total cost is composed of the collection fee, lock cost, container
+     * costs and Lock-i-Lock add-ons, see {@link AnnualCostModel}.
      * Also calculates cost per apartment based on the number of apartments in the
      * property.
      *
@@ -53,30 +73,56 @@ public class PropertyCostServiceImpl implements PropertyCostService {
      *         per-apartment cost for the property
      * @throws EntityNotFoundException if no property is found with the given id
      */
+    @Timed(value = "property.cost.annual", description = "Time to calculate the annual cost of a property", histogram = true)
     public GeneralPropertyCostDTO calculateAnnualCost(Long propertyId) {
         Property property = propertyService.findById(propertyId)
                 .orElseThrow(() -> new EntityNotFoundException("Property not found"));
 
         BigDecimal collectionFee = collectionFeeService.findCollectionFeeByPropertyId(propertyId).getCost();
 
-        BigDecimal lockCost = property.getLockType().getCost();
-
         List<WasteRoom> wasteRooms = wasteRoomRepository.findByPropertyId(propertyId);
 
-        BigDecimal containerCost = wasteRooms.stream()
-                .filter(wr -> Boolean.TRUE.equals(wr.getIsActive()))
-                .flatMap(wr -> wr.getContainers().stream())
-                .map(position -> position.getContainerPlan().getCost())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        ContainerCost containers = new ContainerCost();
+        for (WasteRoom wasteRoom : wasteRooms) {
+            if (!Boolean.TRUE.equals(wasteRoom.getIsActive())) {
+                continue;
+            }
+            for (ContainerPosition position : wasteRoom.getContainers()) {
+                containers.add(position.getContainerPlan(), position.getHasLockILock());
+            }
+        }
+
+        return toCostDTO(property, costModel.breakdown(
+                collectionFee, property.getLockType().getCost(), containers, property.getNumberOfApartments()));
+    }
+
+    /**
+     * Calculates the total annual cost for several properties at once.
+     * Uses the same rules as {@link #calculateAnnualCost(Long)}, but loads the properties,
+     * collection fees and container costs with one query each instead of once per property.
+     *
+     * @param propertyIds Ids of the properties for which the annual cost should be calculated
+     * @return Map from property id to its {@link GeneralPropertyCostDTO}, in the order of the given ids
+     * @throws EntityNotFoundException if any of the properties does not exist
+     */
+    @Override
+    public Map<Long, GeneralPropertyCostDTO> calculateAnnualCosts(Collection<Long> propertyIds) {
+        if (propertyIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
 
-        BigDecimal totalCost = collectionFee.add(lockCost).add(containerCost);
+        Set<Long> ids = new LinkedHashSet<>(propertyIds);
+        Map<Long, Property> propertiesById = propertyRepository.findAllWithCostRelationsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Property::getId, Function.identity()));
 
-        BigDecimal costPerApartment = BigDecimal.ZERO;
-        if (property.getNumberOfApartments() != null && property.getNumberOfApartments() > 0) {
-            costPerApartment = totalCost.divide(
-                    BigDecimal.valueOf(property.getNumberOfApartments()), 2, RoundingMode.HALF_UP);
+        List<Long> missing = ids.stream()
+                .filter(id -> !propertiesById.containsKey(id))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new EntityNotFoundException("Property not found: " + missing);
         }
-        return new GeneralPropertyCostDTO(property.getAddress(), totalCost, costPerApartment);
+
+        return calculateCosts(ids.stream().map(propertiesById::get).toList());
     }
 
     /**
@@ -100,8 +146,46 @@ public class PropertyCostServiceImpl implements PropertyCostService {
             throw new EntityNotFoundException("No properties found for: " + username);
         }
 
-        return properties.stream()
-                .map(property -> calculateAnnualCost(property.getId()))
-                .collect(Collectors.toList());
+        return new ArrayList<>(calculateCosts(properties).values());
+    }
+
+    /**
+     * Calculates the costs of already loaded properties with one query for the collection fees
+     * and one that sums the containers in the active waste rooms of the given properties.
+     */
+    private Map<Long, GeneralPropertyCostDTO> calculateCosts(List<Property> properties) {
+        List<Long> propertyIds = properties.stream().map(Property::getId).toList();
+
+        Map<Long, CollectionFeeDTO> collectionFees = collectionFeeService.findCollectionFeesByProperties(properties);
+
+        Map<Long, Object[]> containerSums = new HashMap<>();
+        for (Object[] row : wasteRoomRepository.sumActiveContainerCostByPropertyIds(propertyIds)) {
+            containerSums.put((Long) row[0], row);
+        }
+
+        Map<Long, GeneralPropertyCostDTO> result = new LinkedHashMap<>();
+        for (Property property : properties) {
+            Object[] sums = containerSums.get(property.getId());
+            BigDecimal containerCost = sums != null && sums[1] != null ? (BigDecimal) sums[1] : BigDecimal.ZERO;
+            int containerCount = sums != null ? toInt(sums[2]) : 0;
+            int lockILockCount = sums != null ? toInt(sums[3]) : 0;
+
+            result.put(property.getId(), toCostDTO(property, costModel.breakdown(
+                    collectionFees.get(property.getId()).getCost(),
+                    property.getLockType().getCost(),
+                    containerCost,
+                    containerCount,
+                    lockILockCount,
+                    property.getNumberOfApartments())));
+        }
+        return result;
+    }
+
+    private GeneralPropertyCostDTO toCostDTO(Property property, CostBreakdownDTO cost) {
+        return new GeneralPropertyCostDTO(property.getAddress(), cost.getTotalCost(), cost.getCostPerApartment());
+    }
+
+    private static int toInt(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
     }
 }
@@ -2,19 +2,22 @@ package com.avfallskompassen.services.impl;
 
 import com.avfallskompassen.dto.*;
 import com.avfallskompassen.dto.request.PropertyRequest;
+import com.avfallskompassen.dto.request.PropertySearchCriteria;
+import com.avfallskompassen.events.PropertyStatisticsChangedEvent;
+import com.avfallskompassen.exception.BadRequestException;
 import com.avfallskompassen.model.*;
 import com.avfallskompassen.repository.MunicipalityRepository;
 import com.avfallskompassen.repository.PropertyRepository;
 import com.avfallskompassen.services.ActivityService;
 import com.avfallskompassen.services.PropertyService;
 import com.avfallskompassen.services.UserService;
+import com.avfallskompassen.services.UserStatisticsService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -27,19 +30,32 @@ import java.util.*;
 @Transactional
 public class PropertyServiceImpl implements PropertyService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final String CURSOR_PREFIX = "id:";
+
     private PropertyRepository propertyRepository;
     private com.avfallskompassen.repository.MunicipalityRepository municipalityRepository;
     private UserService userService;
     private ActivityService activityService;
+    private ApplicationEventPublisher eventPublisher;
+    private UserStatisticsService userStatisticsService;
+    private WasteRoomVersionStore versionStore;
 
     public PropertyServiceImpl(PropertyRepository propertyRepository,
                                MunicipalityRepository municipalityRepository,
                                UserService userService,
-                               ActivityService activityService) {
+                               ActivityService activityService,
+                               ApplicationEventPublisher eventPublisher,
+                               UserStatisticsService userStatisticsService,
+                               WasteRoomVersionStore versionStore) {
         this.propertyRepository = propertyRepository;
         this.municipalityRepository = municipalityRepository;
         this.userService = userService;
         this.activityService = activityService;
+        this.eventPublisher = eventPublisher;
+        this.userStatisticsService = userStatisticsService;
+        this.versionStore = versionStore;
     }
 
     /**
@@ -96,7 +112,9 @@ public class PropertyServiceImpl implements PropertyService {
             property.setMunicipality(municipality);
 
             Property savedProperty = propertyRepository.save(property);
+            userStatisticsService.adjustCounts(user.getId(), 1, 0);
             activityService.saveActivity(user, ActivityType.CREATED_PROPERTY, "Skapade en fastighet med addressen " + property.getAddress());
+            publishStatisticsChanged(savedProperty);
 
             return savedProperty;
         } catch (DataIntegrityViolationException e) {
@@ -119,10 +137,26 @@ public class PropertyServiceImpl implements PropertyService {
     public List<PropertyDTO> getPropertiesWithRoomsByUser(String username) {
         List<Property> properties = propertyRepository.findAllByUserWithRooms(username);
 
+        // Versions stored as deltas are mapped with their rebuilt layout. The rooms of a property are resolved
+        // together so the versions of one room share the layouts they are built from
         return properties.stream()
-                .map(PropertyDTO::new)
+                .map(this::toDTOWithResolvedRooms)
                 .toList();
     }
+
+    private PropertyDTO toDTOWithResolvedRooms(Property property) {
+        List<WasteRoom> rooms = property.getWasteRooms();
+        if (rooms == null || rooms.isEmpty()) {
+            return new PropertyDTO(property);
+        }
+
+        List<WasteRoom> resolved = versionStore.resolveAll(rooms);
+        Map<WasteRoom, WasteRoom> resolvedByRoom = new IdentityHashMap<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            resolvedByRoom.put(rooms.get(i), resolved.get(i));
+        }
+        return new PropertyDTO(property, room -> WasteRoomDTO.fromEntity(resolvedByRoom.get(room)));
+    }
     
     /**
      * Lightweight summary list for admin views – only basic property data,
@@ -156,25 +190,11 @@ public class PropertyServiceImpl implements PropertyService {
 
     /**
      * Collects general info about the all the users in the database.
-     * Look at {@link PropertyRepository#getUserPropertyAndWasteRoomStats} to see
-     * exactly what is being inserted into the object array that is processed.
-     * @return Raw data from DB transformed into a list of {@link UserStatsDTO}
+     * The counts are read from the counters stored per user, see {@link UserStatisticsService}.
+     * @return A list of {@link UserStatsDTO} ordered by username
      */
     public List<UserStatsDTO> getUsersInfoCount() {
-        List<Object[]> rawRows = propertyRepository.getUserPropertyAndWasteRoomStats();
-        List<UserStatsDTO> userStatsDTO = new LinkedList<>();
-
-        for (Object[] row : rawRows) {
-            Long userId = ((Number) row[0]).longValue();
-            String username = (String) row[1];
-            String role = (String) row[2];
-            LocalDateTime createdAt = LocalDateTime.ofInstant((Instant) row[3], ZoneId.systemDefault());
-            Long propertiesCount = ((Number) row[4]).longValue();
-            Long wasteRoomsCount = ((Number) row[5]).longValue();
-
-            userStatsDTO.add(new UserStatsDTO(userId, username, role, createdAt, propertiesCount, wasteRoomsCount));
-        }
-        return userStatsDTO;
+        return userStatisticsService.getAllUserStats();
     }
 
     /**
@@ -238,6 +258,56 @@ public class PropertyServiceImpl implements PropertyService {
         return propertyRepository.findAll();
     }
 
+    /**
+     * One page of properties matching the criteria. Pages are cut on the property id (keyset pagination),
+     * so a page costs the same however deep into the listing it is, and rows inserted meanwhile never
+     * shift later pages.
+     * @param criteria the filters, null fields are ignored
+     * @param after the cursor returned with the previous page, null for the first page
+     * @param limit the page size, null for {@link #DEFAULT_PAGE_SIZE}, at most {@link #MAX_PAGE_SIZE}
+     * @return the page and the cursor of the next page, if there is one
+     * @throws BadRequestException if the cursor, page size or apartment range is invalid
+     */
+    @Transactional(readOnly = true)
+    public PropertyPageDTO searchProperties(PropertySearchCriteria criteria, String after, Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (criteria.minApartments() != null && criteria.maxApartments() != null
+                && criteria.minApartments() > criteria.maxApartments()) {
+            throw new BadRequestException("minApartments can't be greater than maxApartments");
+        }
+
+        // One extra row tells whether there is a next page
+        List<PropertyListItemDTO> rows = propertyRepository.findListing(criteria, decodeCursor(after), pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new PropertyPageDTO(rows, null);
+        }
+        List<PropertyListItemDTO> page = rows.subList(0, pageSize);
+        return new PropertyPageDTO(new ArrayList<>(page), encodeCursor(page.get(pageSize - 1).getId()));
+    }
+
+    static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException ex) {
+            // Not base64 or not a number, rejected below
+        }
+        throw new BadRequestException("Invalid cursor");
+    }
+
     /**
      * Find properties by lock type.
      * @param lockTypeDto the lock type
@@ -254,7 +324,12 @@ public class PropertyServiceImpl implements PropertyService {
      */
     public boolean deleteProperty(Long id) {
         if (propertyRepository.existsById(id)) {
+            // Read the owner and room count first, the rooms are deleted along with the property
+            for (Object[] row : propertyRepository.getOwnerAndWasteRoomCount(id)) {
+                userStatisticsService.adjustCounts((Integer) row[0], -1, -((Number) row[1]).longValue());
+            }
             propertyRepository.deleteById(id);
+            eventPublisher.publishEvent(PropertyStatisticsChangedEvent.forProperty(id));
             return true;
         }
         return false;
@@ -308,9 +383,20 @@ public class PropertyServiceImpl implements PropertyService {
                 User user = userOptional.get();
                 activityService.saveActivity(user, ActivityType.CHANGED_PROPERTY, "Du ändrade fastigheten med addresesen " + property.getAddress());
             }
+            publishStatisticsChanged(updatedProperty);
             return updatedProperty;
         } catch (DataIntegrityViolationException e) {
             throw new RuntimeException("Failed to update property: " + e.getMessage());
         }
     }
+
+    /**
+     * Signals that a property has changed so its stored comparison figures are refreshed.
+     * @param property the saved property
+     */
+    private void publishStatisticsChanged(Property property) {
+        if (property != null && property.getId() != null) {
+            eventPublisher.publishEvent(PropertyStatisticsChangedEvent.forProperty(property.getId()));
+        }
+    }
 }
\ No newline at end of file
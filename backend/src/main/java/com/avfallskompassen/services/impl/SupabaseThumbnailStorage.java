@@ -0,0 +1,118 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.services.ThumbnailStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Stores thumbnails in a Supabase storage bucket. One {@link HttpClient} is shared by all uploads
+ * so connections are reused (HTTP/2 when the server supports it).
+ */
+@Component
+@ConditionalOnProperty(name = "thumbnail.storage", havingValue = "supabase", matchIfMissing = true)
+public class SupabaseThumbnailStorage implements ThumbnailStorage {
+
+    private final HttpClient httpClient;
+    private final String supabaseUrl;
+    private final String supabaseBucket;
+    private final String supabaseServiceKey;
+    private final Duration requestTimeout;
+
+    public SupabaseThumbnailStorage(
+            @Value("${supabase.url}") String supabaseUrl,
+            @Value("${supabase.bucket}") String supabaseBucket,
+            @Value("${supabase.service-key}") String supabaseServiceKey,
+            @Value("${thumbnail.upload.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${thumbnail.upload.request-timeout-ms:30000}") long requestTimeoutMs
+    ) {
+        this.supabaseUrl = supabaseUrl;
+        this.supabaseBucket = supabaseBucket;
+        this.supabaseServiceKey = supabaseServiceKey;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    @Override
+    public String store(String fileName, byte[] content, String contentType) throws IOException {
+        return upload(fileName, HttpRequest.BodyPublishers.ofByteArray(content), contentType);
+    }
+
+    /**
+     * Passes the stream on to Supabase as it is read. When the length is known it is sent as
+     * Content-Length, otherwise the body is sent chunked.
+     */
+    @Override
+    public String store(String fileName, InputStream content, long contentLength, String contentType)
+            throws IOException {
+        HttpRequest.BodyPublisher streamPublisher = HttpRequest.BodyPublishers.ofInputStream(() -> content);
+        HttpRequest.BodyPublisher body = contentLength >= 0
+                ? HttpRequest.BodyPublishers.fromPublisher(streamPublisher, contentLength)
+                : streamPublisher;
+        return upload(fileName, body, contentType);
+    }
+
+    /**
+     * Reads the bucket's metadata, which needs the same service key as an upload.
+     */
+    @Override
+    public void checkAvailable() throws IOException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(supabaseUrl + "/storage/v1/bucket/" + supabaseBucket))
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + supabaseServiceKey)
+                .GET()
+                .build();
+
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while checking the Supabase bucket", e);
+        }
+
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new IOException("Supabase bucket " + supabaseBucket + " is not available (status "
+                    + response.statusCode() + ")");
+        }
+    }
+
+    private String upload(String fileName, HttpRequest.BodyPublisher body, String contentType) throws IOException {
+        String uploadUrl = supabaseUrl + "/storage/v1/object/" + supabaseBucket + "/" + fileName;
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(uploadUrl))
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + supabaseServiceKey)
+                .header("Content-Type", contentType)
+                .PUT(body)
+                .build();
+
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while uploading thumbnail to Supabase", e);
+        }
+
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new IOException("Failed to upload image to Supabase (status " + response.statusCode() + "): "
+                    + response.body());
+        }
+
+        return supabaseUrl + "/storage/v1/object/public/" + supabaseBucket + "/" + fileName;
+    }
+}
@@ -0,0 +1,131 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.exception.ResourceNotFoundException;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.Door;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.RenderedThumbnail;
+import com.avfallskompassen.services.ThumbnailRenderService;
+import com.avfallskompassen.services.ThumbnailSize;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders waste room thumbnails on the server and keeps the latest renders in a bounded LRU cache.
+ * <p>
+ * The ETag of a thumbnail is a hash of everything the image is drawn from (room, container, door and
+ * object geometry, top view images, size and renderer version). A cached render is reused as long as
+ * the ETag of the room is unchanged, so an edited room is drawn again on the next request without any
+ * explicit invalidation.
+ */
+@Service
+public class ThumbnailRenderServiceImpl implements ThumbnailRenderService {
+
+    // Bump when the drawing changes so clients do not keep images from the old renderer
+    private static final int RENDERER_VERSION = 1;
+
+    private final WasteRoomRepository wasteRoomRepository;
+    private final WasteRoomRasterizer rasterizer;
+    private final WasteRoomVersionStore versionStore;
+    private final Map<String, RenderedThumbnail> cache;
+
+    public ThumbnailRenderServiceImpl(
+            WasteRoomRepository wasteRoomRepository,
+            WasteRoomRasterizer rasterizer,
+            WasteRoomVersionStore versionStore,
+            @Value("${thumbnail.render.cache-size:500}") int cacheSize
+    ) {
+        this.wasteRoomRepository = wasteRoomRepository;
+        this.rasterizer = rasterizer;
+        this.versionStore = versionStore;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RenderedThumbnail> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RenderedThumbnail renderThumbnail(Long wasteRoomId, ThumbnailSize size) {
+        WasteRoom stored = wasteRoomRepository.findWithContainersById(wasteRoomId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "WasteRoom with id: " + wasteRoomId + " can't be found"));
+        WasteRoom room = stored.hasLayoutDelta() ? versionStore.resolve(stored) : stored;
+
+        String cacheKey = wasteRoomId + ":" + size.name();
+        String eTag = fingerprint(room, size);
+
+        RenderedThumbnail cached = cache.get(cacheKey);
+        if (cached != null && cached.getETag().equals(eTag)) {
+            return cached;
+        }
+
+        RenderedThumbnail rendered = new RenderedThumbnail(eTag, rasterizer.render(room, size));
+        cache.put(cacheKey, rendered);
+        return rendered;
+    }
+
+    /**
+     * Builds the ETag of a thumbnail from the values the rasterizer draws. Entries are sorted so the
+     * order the relations are loaded in does not matter.
+     */
+    private String fingerprint(WasteRoom room, ThumbnailSize size) {
+        List<String> parts = new ArrayList<>();
+
+        if (room.getContainers() != null) {
+            for (ContainerPosition position : room.getContainers()) {
+                ContainerPlan plan = position.getContainerPlan();
+                ContainerType type = plan != null ? plan.getContainerType() : null;
+                parts.add("c|" + position.getId() + "|" + position.getX() + "|" + position.getY() + "|"
+                        + position.getAngle() + "|"
+                        + (type != null ? type.getWidth() + "|" + type.getDepth() : "-") + "|"
+                        + (plan != null ? plan.getImageTopViewUrl() : "-"));
+            }
+        }
+        if (room.getDoors() != null) {
+            for (Door door : room.getDoors()) {
+                parts.add("d|" + door.getId() + "|" + door.getX() + "|" + door.getY() + "|" + door.getWidth()
+                        + "|" + door.getAngle() + "|" + door.getSwingDirection());
+            }
+        }
+        if (room.getOtherObjects() != null) {
+            for (OtherObject object : room.getOtherObjects()) {
+                parts.add("o|" + object.getId() + "|" + object.getX() + "|" + object.getY() + "|"
+                        + object.getWidth() + "|" + object.getDepth() + "|" + object.getRotation());
+            }
+        }
+        Collections.sort(parts);
+
+        StringBuilder source = new StringBuilder()
+                .append(RENDERER_VERSION).append('|').append(size.name()).append('|')
+                .append(room.getX()).append('|').append(room.getY()).append('|')
+                .append(room.getWidth()).append('|').append(room.getLength());
+        for (String part : parts) {
+            source.append('\n').append(part);
+        }
+
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(source.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.ThumbnailStorage;
+import com.avfallskompassen.services.ThumbnailUploadService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uploads waste room thumbnails on a bounded pool of background threads, so a slow storage backend
+ * never keeps a request or database transaction waiting. When an upload succeeds the thumbnail url
+ * of the waste room is updated.
+ * <p>
+ * The queue is bounded. When it is full the caller waits up to {@code thumbnail.upload.offer-timeout-ms}
+ * for a free slot, after that the thumbnail is dropped and logged. The waste room itself is already saved
+ * and gets a new thumbnail the next time it is saved.
+ * <p>
+ * Thumbnails sent to the binary thumbnail endpoint are streamed to storage on the calling thread
+ * by {@link #upload}, limited to {@code thumbnail.max-bytes}.
+ * <p>
+ * As a {@link MeterBinder} it publishes upload durations ({@code thumbnail.upload}, tagged with mode and
+ * outcome), the queue size and the dropped and failed uploads once a meter registry is available.
+ */
+@Service
+public class ThumbnailUploadServiceImpl implements ThumbnailUploadService, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailUploadServiceImpl.class);
+
+    private static final String CONTENT_TYPE = "image/png";
+
+    private final ThumbnailStorage thumbnailStorage;
+    private final WasteRoomRepository wasteRoomRepository;
+    private final ThreadPoolExecutor executor;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long offerTimeoutMs;
+    private final long maxBytes;
+    private final AtomicLong droppedUploads = new AtomicLong();
+    private final AtomicLong failedUploads = new AtomicLong();
+    private volatile MeterRegistry meterRegistry;
+
+    public ThumbnailUploadServiceImpl(
+            ThumbnailStorage thumbnailStorage,
+            WasteRoomRepository wasteRoomRepository,
+            @Value("${thumbnail.upload.threads:2}") int threads,
+            @Value("${thumbnail.upload.queue-capacity:100}") int queueCapacity,
+            @Value("${thumbnail.upload.max-attempts:3}") int maxAttempts,
+            @Value("${thumbnail.upload.retry-backoff-ms:500}") long retryBackoffMs,
+            @Value("${thumbnail.upload.offer-timeout-ms:2000}") long offerTimeoutMs,
+            @Value("${thumbnail.max-bytes:5242880}") long maxBytes
+    ) {
+        this.thumbnailStorage = thumbnailStorage;
+        this.wasteRoomRepository = wasteRoomRepository;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxBytes = maxBytes;
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new UploadThreadFactory(),
+                this::waitForFreeSlot
+        );
+    }
+
+    @Override
+    public void scheduleUpload(Long wasteRoomId, byte[] imageBytes) {
+        if (wasteRoomId == null || imageBytes == null || imageBytes.length == 0) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(wasteRoomId, imageBytes);
+                }
+            });
+        } else {
+            enqueue(wasteRoomId, imageBytes);
+        }
+    }
+
+    @Override
+    public String upload(Long wasteRoomId, InputStream content, long contentLength) throws IOException {
+        if (contentLength > maxBytes) {
+            throw new BadRequestException("Miniatyrbilden får vara högst " + maxBytes + " byte");
+        }
+
+        SizeLimitedInputStream limited = new SizeLimitedInputStream(content, maxBytes);
+        String url;
+        long start = System.nanoTime();
+        try {
+            url = thumbnailStorage.store(fileName(wasteRoomId), limited, contentLength, CONTENT_TYPE);
+            recordUpload("stream", "success", start);
+        } catch (IOException ex) {
+            recordUpload("stream", "failure", start);
+            // The storage may wrap the error from the stream, so check the stream itself
+            if (limited.isLimitExceeded()) {
+                throw new BadRequestException("Miniatyrbilden får vara högst " + maxBytes + " byte");
+            }
+            throw ex;
+        }
+
+        if (wasteRoomRepository.updateThumbnailUrl(wasteRoomId, url) == 0) {
+            log.warn("Uploaded thumbnail for waste room(id={}) but the room no longer exists.", wasteRoomId);
+        }
+        return url;
+    }
+
+    /**
+     * Number of thumbnails waiting for a free upload thread.
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Number of thumbnails that were dropped because the queue stayed full.
+     */
+    public long getDroppedUploads() {
+        return droppedUploads.get();
+    }
+
+    /**
+     * Number of thumbnails that could not be uploaded after all attempts.
+     */
+    public long getFailedUploads() {
+        return failedUploads.get();
+    }
+
+    private void enqueue(Long wasteRoomId, byte[] imageBytes) {
+        try {
+            executor.execute(() -> upload(wasteRoomId, imageBytes));
+        } catch (RejectedExecutionException ex) {
+            droppedUploads.incrementAndGet();
+            log.warn("Thumbnail upload queue is full, dropping thumbnail for waste room(id={}).", wasteRoomId);
+        }
+    }
+
+    private void upload(Long wasteRoomId, byte[] imageBytes) {
+        String fileName = fileName(wasteRoomId);
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            long start = System.nanoTime();
+            try {
+                String url = thumbnailStorage.store(fileName, imageBytes, CONTENT_TYPE);
+                recordUpload("background", "success", start);
+                if (wasteRoomRepository.updateThumbnailUrl(wasteRoomId, url) == 0) {
+                    log.warn("Uploaded thumbnail for waste room(id={}) but the room no longer exists.", wasteRoomId);
+                }
+                return;
+            } catch (Exception ex) {
+                recordUpload("background", "failure", start);
+                if (attempt == maxAttempts) {
+                    failedUploads.incrementAndGet();
+                    log.error("Failed to upload thumbnail for waste room(id={}) after {} attempts. Reason: {}",
+                            wasteRoomId, attempt, ex.getMessage(), ex);
+                    return;
+                }
+
+                log.warn("Thumbnail upload for waste room(id={}) failed (attempt {} of {}), retrying. Reason: {}",
+                        wasteRoomId, attempt, maxAttempts, ex.getMessage());
+                if (!sleepBeforeRetry(attempt)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("thumbnail.upload.queue.size", this, ThumbnailUploadServiceImpl::getQueueSize)
+                .description("Thumbnails waiting for a free upload thread")
+                .register(registry);
+        FunctionCounter.builder("thumbnail.upload.dropped", this, ThumbnailUploadServiceImpl::getDroppedUploads)
+                .description("Thumbnails dropped because the upload queue stayed full")
+                .register(registry);
+        FunctionCounter.builder("thumbnail.upload.failed", this, ThumbnailUploadServiceImpl::getFailedUploads)
+                .description("Thumbnails that could not be uploaded after all attempts")
+                .register(registry);
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * Records one attempt to store a thumbnail, once a meter registry has been bound.
+     */
+    private void recordUpload(String mode, String outcome, long startNanos) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        Timer.builder("thumbnail.upload")
+                .description("Time to store a thumbnail in the storage backend")
+                .tags("mode", mode, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String fileName(Long wasteRoomId) {
+        return wasteRoomId + ".png";
+    }
+
+    private boolean sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMs * (1L << (attempt - 1)));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Rejection handler that makes the caller wait for a free slot in the queue instead of failing at once.
+     */
+    private void waitForFreeSlot(Runnable task, ThreadPoolExecutor pool) {
+        if (pool.isShutdown()) {
+            throw new RejectedExecutionException("Thumbnail upload executor is shut down");
+        }
+        try {
+            if (!pool.getQueue().offer(task, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Thumbnail upload queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the thumbnail upload queue", e);
+        }
+    }
+
+    /**
+     * Lets queued uploads finish before the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Thumbnail uploads did not finish in time, {} uploads are discarded.",
+                        executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fails the read once more than the allowed number of bytes have been read, so a client that
+     * sends no or a false Content-Length still cannot stream an unbounded body to storage.
+     */
+    private static final class SizeLimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long bytesRead;
+        private boolean limitExceeded;
+
+        private SizeLimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        // Closing is left to the owner of the underlying stream
+        @Override
+        public void close() {
+        }
+
+        private void count(int n) throws IOException {
+            bytesRead += n;
+            if (bytesRead > limit) {
+                limitExceeded = true;
+                throw new IOException("Thumbnail is larger than " + limit + " bytes");
+            }
+        }
+
+        private boolean isLimitExceeded() {
+            return limitExceeded;
+        }
+    }
+
+    private static final class UploadThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "thumbnail-upload-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -4,11 +4,15 @@ import com.avfallskompassen.dto.UserDTO;
 import com.avfallskompassen.model.ActivityType;
 import com.avfallskompassen.model.User;
 import com.avfallskompassen.repository.UserRepository;
+import com.avfallskompassen.security.UserRoleCache;
 import com.avfallskompassen.services.ActivityService;
 import com.avfallskompassen.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +37,9 @@ public class UserServiceImpl implements UserService {
 
     @Autowired
     private ActivityService activityService;
+
+    @Autowired(required = false)
+    private UserRoleCache userRoleCache;
     
     /**
      * Finds a user by their username.
@@ -117,14 +124,37 @@ public class UserServiceImpl implements UserService {
      * @return UserDTO of the updated user
      */
     @Override
+    @Transactional
     public UserDTO updateUserRole(Integer userId, String newRole) {
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
         user.setRole(newRole);
         User savedUser = userRepository.save(user);
+        invalidateCachedRoleAfterCommit(savedUser.getUsername());
         activityService.saveActivity(savedUser, ActivityType.CHANGED_ROLE, "Got new role : " + savedUser.getRole());
         return new UserDTO(savedUser);
     }
 
+    /**
+     * Drops the cached role once the new role is committed. Invalidating earlier lets a concurrent
+     * request load the old role from the database and cache it again before the change is visible.
+     */
+    private void invalidateCachedRoleAfterCommit(String username) {
+        if (userRoleCache == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userRoleCache.invalidate(username);
+                }
+            });
+        } else {
+            userRoleCache.invalidate(username);
+        }
+    }
+
     @Override
     public void changePassword(String username, String oldPassword, String newPassword) {
         User user = userRepository.findByUsername(username)
@@ -0,0 +1,114 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.UserStatsDTO;
+import com.avfallskompassen.dto.UserStatsPageDTO;
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.repository.UserRepository;
+import com.avfallskompassen.services.UserStatisticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service that maintains the property and waste room version counters stored on each user.
+ * The counters are changed with one atomic update in the same transaction as the change
+ * they count, so concurrent saves never lose an increment and a rolled back save leaves
+ * the counters untouched. {@link #recountAll()} repairs them from the source tables.
+ */
+@Service
+@Transactional
+public class UserStatisticsServiceImpl implements UserStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatisticsServiceImpl.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /** The sort keys the endpoint accepts, mapped to the user fields they sort on. */
+    private static final Map<String, String> SORT_FIELDS = Map.of(
+            "username", "username",
+            "role", "role",
+            "createdAt", "createdAt",
+            "propertiesCount", "propertyCount",
+            "wasteRoomsCount", "wasteRoomCount"
+    );
+
+    private final UserRepository userRepository;
+
+    public UserStatisticsServiceImpl(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Adds to the counters of a user.
+     * @param userId the user, nothing is changed if null
+     * @param properties the change in number of properties
+     * @param wasteRooms the change in number of waste room versions
+     */
+    public void adjustCounts(Integer userId, long properties, long wasteRooms) {
+        if (userId == null || (properties == 0 && wasteRooms == 0)) {
+            return;
+        }
+        if (userRepository.adjustCounts(userId, properties, wasteRooms) == 0) {
+            log.warn("Could not update statistics of user {}, no such user", userId);
+        }
+    }
+
+    /**
+     * One page of users and their counters.
+     * @param page the zero based page number
+     * @param size the page size, at most {@link #MAX_PAGE_SIZE}
+     * @param sort one of username, role, createdAt, propertiesCount and wasteRoomsCount, null for username
+     * @param direction asc or desc, null for asc
+     * @return the page and the total number of users
+     * @throws BadRequestException if any of the parameters is invalid
+     */
+    @Transactional(readOnly = true)
+    public UserStatsPageDTO getUserStats(int page, int size, String sort, String direction) {
+        if (page < 0) {
+            throw new BadRequestException("page can't be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        String field = SORT_FIELDS.get(sort != null ? sort : "username");
+        if (field == null) {
+            throw new BadRequestException("Can't sort on " + sort + ", use one of " + SORT_FIELDS.keySet());
+        }
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction != null ? direction : "asc")
+                .orElseThrow(() -> new BadRequestException("direction must be asc or desc"));
+
+        // The id breaks ties so users with equal counters keep their order between pages
+        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, field).and(Sort.by("id")));
+        Page<UserStatsDTO> result = userRepository.findStats(pageable);
+
+        return new UserStatsPageDTO(result.getContent(), page, size, result.getTotalElements(), result.getTotalPages());
+    }
+
+    /**
+     * All users and their counters, ordered by username.
+     */
+    @Transactional(readOnly = true)
+    public List<UserStatsDTO> getAllUserStats() {
+        return userRepository.findStats(Pageable.unpaged(Sort.by("username"))).getContent();
+    }
+
+    /**
+     * Recounts the counters of every user from the properties and waste rooms tables.
+     * @return the number of users that were recounted
+     */
+    public int recountAll() {
+        int users = userRepository.recountAll();
+        log.info("Recounted property and waste room statistics of {} users", users);
+        return users;
+    }
+}
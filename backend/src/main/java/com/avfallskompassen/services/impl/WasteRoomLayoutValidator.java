@@ -0,0 +1,378 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.LayoutViolationDTO;
+import com.avfallskompassen.dto.LayoutViolationDTO.ItemKind;
+import com.avfallskompassen.dto.LayoutViolationDTO.Type;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.Door;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.WasteRoom;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.avfallskompassen.services.impl.WasteRoomRasterizer.PIXELS_PER_METER;
+
+/**
+ * Checks the geometry of a waste room layout: containers and other objects inside the walls and not
+ * overlapping each other, nothing inside the swing arc of an inward door and every door on its wall.
+ * <p>
+ * Uses the same units as the planning tool and {@link WasteRoomRasterizer}: positions in pixels, room
+ * and door sizes in meters, container sizes in millimeters and other objects in pixels. Containers and
+ * objects are rectangles rotated around their center, a door swing arc is the quarter circle from the
+ * hinge with the door width as radius, on the same side of the hinge as the planning tool's door zones.
+ * The arc is drawn as a convex polygon, so all overlap tests are separating axis tests between convex
+ * polygons. Touching is not an overlap.
+ * <p>
+ * Candidate pairs come from a uniform grid over the bounding boxes, so a room is checked in one pass
+ * and the work grows with the number of items close to each other, not with the square of all items.
+ * A container whose plan or container type is not loaded has no size and is left out.
+ */
+@Component
+public class WasteRoomLayoutValidator {
+
+    // Tolerance in pixels, positions come from a canvas and are rounded by the client
+    private static final double EPSILON = 0.5;
+    private static final int ARC_SEGMENTS = 8;
+    private static final int MAX_CELLS = 4096;
+    private static final double MIN_CELL_SIZE = 8.0;
+
+    /**
+     * Validates the layout of a room.
+     *
+     * @param room The room with its containers, doors and other objects loaded
+     * @return The violations found, empty if the layout is valid
+     */
+    public List<LayoutViolationDTO> validate(WasteRoom room) {
+        List<LayoutViolationDTO> violations = new ArrayList<>();
+
+        double left = room.getX();
+        double top = room.getY();
+        double right = left + room.getWidth() * PIXELS_PER_METER;
+        double bottom = top + room.getLength() * PIXELS_PER_METER;
+
+        List<Shape> shapes = new ArrayList<>();
+        addContainers(room.getContainers(), shapes);
+        addOtherObjects(room.getOtherObjects(), shapes);
+
+        for (Shape shape : shapes) {
+            if (shape.minX < left - EPSILON || shape.maxX > right + EPSILON
+                    || shape.minY < top - EPSILON || shape.maxY > bottom + EPSILON) {
+                violations.add(new LayoutViolationDTO(Type.OUT_OF_BOUNDS, shape.kind, shape.index, null, null,
+                        label(shape.kind, shape.index) + " ligger utanför rummets väggar"));
+            }
+        }
+
+        List<Door> doors = room.getDoors() != null ? room.getDoors() : List.of();
+        for (int i = 0; i < doors.size(); i++) {
+            Door door = doors.get(i);
+            Shape arc = swingArc(door, i, left, top, right, bottom);
+            if (arc == null) {
+                violations.add(new LayoutViolationDTO(Type.DOOR_OFF_WALL, ItemKind.DOOR, i, null, null,
+                        label(ItemKind.DOOR, i) + " sitter inte på rummets vägg"));
+            } else if (!"outward".equalsIgnoreCase(door.getSwingDirection())) {
+                // An outward door swings outside the room, where nothing is placed
+                shapes.add(arc);
+            }
+        }
+
+        findOverlaps(shapes, violations);
+        return violations;
+    }
+
+    /**
+     * Tests every pair of shapes that share a grid cell. A pair sharing several cells is only tested
+     * in the cell holding the top left corner of the intersection of their bounding boxes.
+     */
+    private static void findOverlaps(List<Shape> shapes, List<LayoutViolationDTO> violations) {
+        int count = shapes.size();
+        if (count < 2) {
+            return;
+        }
+
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        double extentSum = 0;
+        for (Shape shape : shapes) {
+            minX = Math.min(minX, shape.minX);
+            minY = Math.min(minY, shape.minY);
+            maxX = Math.max(maxX, shape.maxX);
+            maxY = Math.max(maxY, shape.maxY);
+            extentSum += Math.max(shape.maxX - shape.minX, shape.maxY - shape.minY);
+        }
+
+        // Cells about the size of an average item, made larger if the grid would get too big
+        double cellSize = Math.max(MIN_CELL_SIZE, extentSum / count);
+        int columns = Math.max(1, (int) Math.ceil((maxX - minX) / cellSize));
+        int rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellSize));
+        while ((long) columns * rows > MAX_CELLS) {
+            cellSize *= 2;
+            columns = Math.max(1, (int) Math.ceil((maxX - minX) / cellSize));
+            rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellSize));
+        }
+        Grid grid = new Grid(minX, minY, cellSize, columns, rows);
+
+        // Shape indexes per cell, as offsets into one array
+        int[] cellStart = new int[columns * rows + 1];
+        for (Shape shape : shapes) {
+            for (int row = grid.row(shape.minY); row <= grid.row(shape.maxY); row++) {
+                for (int column = grid.column(shape.minX); column <= grid.column(shape.maxX); column++) {
+                    cellStart[row * columns + column + 1]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        int[] cellItems = new int[cellStart[columns * rows]];
+        int[] fill = cellStart.clone();
+        for (int i = 0; i < count; i++) {
+            Shape shape = shapes.get(i);
+            for (int row = grid.row(shape.minY); row <= grid.row(shape.maxY); row++) {
+                for (int column = grid.column(shape.minX); column <= grid.column(shape.maxX); column++) {
+                    cellItems[fill[row * columns + column]++] = i;
+                }
+            }
+        }
+
+        for (int cell = 0; cell < columns * rows; cell++) {
+            for (int a = cellStart[cell]; a < cellStart[cell + 1]; a++) {
+                Shape first = shapes.get(cellItems[a]);
+                for (int b = a + 1; b < cellStart[cell + 1]; b++) {
+                    Shape second = shapes.get(cellItems[b]);
+                    if (first.door && second.door) {
+                        continue;
+                    }
+                    if (!boxesOverlap(first, second)) {
+                        continue;
+                    }
+                    double referenceX = Math.max(first.minX, second.minX);
+                    double referenceY = Math.max(first.minY, second.minY);
+                    if (grid.row(referenceY) * columns + grid.column(referenceX) != cell) {
+                        continue;
+                    }
+                    if (polygonsOverlap(first, second)) {
+                        violations.add(overlap(first, second));
+                    }
+                }
+            }
+        }
+    }
+
+    private static LayoutViolationDTO overlap(Shape first, Shape second) {
+        if (first.door || second.door) {
+            Shape door = first.door ? first : second;
+            Shape item = first.door ? second : first;
+            return new LayoutViolationDTO(Type.DOOR_SWING_BLOCKED, item.kind, item.index, ItemKind.DOOR, door.index,
+                    label(item.kind, item.index) + " står i öppningsområdet för " + label(ItemKind.DOOR, door.index).toLowerCase());
+        }
+        return new LayoutViolationDTO(Type.OVERLAP, first.kind, first.index, second.kind, second.index,
+                label(first.kind, first.index) + " överlappar " + label(second.kind, second.index).toLowerCase());
+    }
+
+    private static void addContainers(List<ContainerPosition> containers, List<Shape> shapes) {
+        if (containers == null) {
+            return;
+        }
+        for (int i = 0; i < containers.size(); i++) {
+            ContainerPosition container = containers.get(i);
+            ContainerPlan plan = container.getContainerPlan();
+            ContainerType type = plan != null ? plan.getContainerType() : null;
+            if (type == null) {
+                continue;
+            }
+            double width = type.getWidth() / 1000.0 * PIXELS_PER_METER;
+            double depth = type.getDepth() / 1000.0 * PIXELS_PER_METER;
+            shapes.add(rectangle(ItemKind.CONTAINER, i, container.getX(), container.getY(), width, depth, container.getAngle()));
+        }
+    }
+
+    private static void addOtherObjects(List<OtherObject> otherObjects, List<Shape> shapes) {
+        if (otherObjects == null) {
+            return;
+        }
+        for (int i = 0; i < otherObjects.size(); i++) {
+            OtherObject object = otherObjects.get(i);
+            shapes.add(rectangle(ItemKind.OTHER_OBJECT, i, object.getX(), object.getY(),
+                    object.getWidth(), object.getDepth(), object.getRotation()));
+        }
+    }
+
+    /**
+     * A rectangle with its top left corner at (x, y) before it is rotated around its center.
+     */
+    private static Shape rectangle(ItemKind kind, int index, double x, double y, double width, double depth, double angle) {
+        double centerX = x + width / 2;
+        double centerY = y + depth / 2;
+        double cos = Math.cos(Math.toRadians(angle));
+        double sin = Math.sin(Math.toRadians(angle));
+        double[] cornerX = {-width / 2, width / 2, width / 2, -width / 2};
+        double[] cornerY = {-depth / 2, -depth / 2, depth / 2, depth / 2};
+
+        double[] xs = new double[4];
+        double[] ys = new double[4];
+        for (int i = 0; i < 4; i++) {
+            xs[i] = centerX + cornerX[i] * cos - cornerY[i] * sin;
+            ys[i] = centerY + cornerX[i] * sin + cornerY[i] * cos;
+        }
+        return new Shape(kind, index, false, xs, ys);
+    }
+
+    /**
+     * The swing arc of an inward door, or null if the door is not on its wall. The arc opens into the
+     * room on the same side of the hinge as the door zones of the planning tool.
+     */
+    private static Shape swingArc(Door door, int index, double left, double top, double right, double bottom) {
+        double radius = door.getWidth() * PIXELS_PER_METER;
+        double x = door.getX();
+        double y = door.getY();
+        String wall = door.getWall() != null ? door.getWall().toLowerCase() : "";
+
+        double directionX;
+        double directionY;
+        boolean onWall;
+        switch (wall) {
+            case "top" -> {
+                directionX = -1;
+                directionY = 1;
+                onWall = near(y, top) && x - radius >= left - EPSILON && x <= right + EPSILON;
+            }
+            case "bottom" -> {
+                directionX = 1;
+                directionY = -1;
+                onWall = near(y, bottom) && x >= left - EPSILON && x + radius <= right + EPSILON;
+            }
+            case "left" -> {
+                directionX = 1;
+                directionY = 1;
+                onWall = near(x, left) && y >= top - EPSILON && y + radius <= bottom + EPSILON;
+            }
+            case "right" -> {
+                directionX = -1;
+                directionY = -1;
+                onWall = near(x, right) && y - radius >= top - EPSILON && y <= bottom + EPSILON;
+            }
+            default -> {
+                return null;
+            }
+        }
+        if (!onWall) {
+            return null;
+        }
+
+        double[] xs = new double[ARC_SEGMENTS + 2];
+        double[] ys = new double[ARC_SEGMENTS + 2];
+        xs[0] = x;
+        ys[0] = y;
+        for (int i = 0; i <= ARC_SEGMENTS; i++) {
+            double angle = Math.PI / 2 * i / ARC_SEGMENTS;
+            xs[i + 1] = x + directionX * radius * Math.cos(angle);
+            ys[i + 1] = y + directionY * radius * Math.sin(angle);
+        }
+        return new Shape(ItemKind.DOOR, index, true, xs, ys);
+    }
+
+    private static boolean near(double value, double wall) {
+        return Math.abs(value - wall) <= EPSILON;
+    }
+
+    private static boolean boxesOverlap(Shape first, Shape second) {
+        return first.minX < second.maxX - EPSILON && second.minX < first.maxX - EPSILON
+                && first.minY < second.maxY - EPSILON && second.minY < first.maxY - EPSILON;
+    }
+
+    /**
+     * Separating axis test, the polygons overlap unless they are separated along a normal of an edge of either.
+     */
+    private static boolean polygonsOverlap(Shape first, Shape second) {
+        return !hasSeparatingAxis(first, second) && !hasSeparatingAxis(second, first);
+    }
+
+    private static boolean hasSeparatingAxis(Shape edges, Shape other) {
+        int n = edges.xs.length;
+        for (int i = 0; i < n; i++) {
+            int next = (i + 1) % n;
+            double axisX = edges.ys[next] - edges.ys[i];
+            double axisY = edges.xs[i] - edges.xs[next];
+            double length = Math.hypot(axisX, axisY);
+            if (length == 0) {
+                continue;
+            }
+            axisX /= length;
+            axisY /= length;
+
+            double minFirst = Double.MAX_VALUE, maxFirst = -Double.MAX_VALUE;
+            for (int j = 0; j < n; j++) {
+                double projection = edges.xs[j] * axisX + edges.ys[j] * axisY;
+                minFirst = Math.min(minFirst, projection);
+                maxFirst = Math.max(maxFirst, projection);
+            }
+            double minSecond = Double.MAX_VALUE, maxSecond = -Double.MAX_VALUE;
+            for (int j = 0; j < other.xs.length; j++) {
+                double projection = other.xs[j] * axisX + other.ys[j] * axisY;
+                minSecond = Math.min(minSecond, projection);
+                maxSecond = Math.max(maxSecond, projection);
+            }
+            if (maxFirst <= minSecond + EPSILON || maxSecond <= minFirst + EPSILON) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String label(ItemKind kind, int index) {
+        String name = switch (kind) {
+            case CONTAINER -> "Kärl";
+            case DOOR -> "Dörr";
+            case OTHER_OBJECT -> "Objekt";
+        };
+        return name + " " + (index + 1);
+    }
+
+    /**
+     * A convex polygon with its bounding box.
+     */
+    private static final class Shape {
+        final ItemKind kind;
+        final int index;
+        final boolean door;
+        final double[] xs;
+        final double[] ys;
+        final double minX;
+        final double minY;
+        final double maxX;
+        final double maxY;
+
+        Shape(ItemKind kind, int index, boolean door, double[] xs, double[] ys) {
+            this.kind = kind;
+            this.index = index;
+            this.door = door;
+            this.xs = xs;
+            this.ys = ys;
+            double lowX = Double.MAX_VALUE, lowY = Double.MAX_VALUE, highX = -Double.MAX_VALUE, highY = -Double.MAX_VALUE;
+            for (int i = 0; i < xs.length; i++) {
+                lowX = Math.min(lowX, xs[i]);
+                lowY = Math.min(lowY, ys[i]);
+                highX = Math.max(highX, xs[i]);
+                highY = Math.max(highY, ys[i]);
+            }
+            this.minX = lowX;
+            this.minY = lowY;
+            this.maxX = highX;
+            this.maxY = highY;
+        }
+    }
+
+    private record Grid(double originX, double originY, double cellSize, int columns, int rows) {
+
+        int column(double x) {
+            return Math.min(columns - 1, Math.max(0, (int) ((x - originX) / cellSize)));
+        }
+
+        int row(double y) {
+            return Math.min(rows - 1, Math.max(0, (int) ((y - originY) / cellSize)));
+        }
+    }
+}
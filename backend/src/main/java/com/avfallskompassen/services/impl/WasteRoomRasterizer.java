@@ -0,0 +1,255 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.Door;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.services.ThumbnailSize;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Draws the layout of a waste room with Java2D, the same way the planning tool shows it.
+ * Positions are stored in planning tool pixels, so the same scale is used here: room and door
+ * sizes are in meters, container sizes in millimeters and other objects in pixels.
+ * Containers are drawn with the top view images under {@code static/images/containers}.
+ */
+@Component
+public class WasteRoomRasterizer {
+
+    private static final Logger log = LoggerFactory.getLogger(WasteRoomRasterizer.class);
+
+    /** Pixels per meter in the planning tool (SCALE = 0.02 in the frontend). */
+    static final double PIXELS_PER_METER = 50.0;
+
+    private static final String STATIC_ROOT = "static";
+    private static final String DEFAULT_TOP_VIEW = "/images/containers/defaultTopView.png";
+    private static final double MARGIN = 10.0;
+
+    private static final Color BACKGROUND = Color.WHITE;
+    private static final Color FLOOR = new Color(0xF3, 0xF4, 0xF6);
+    private static final Color WALL = new Color(0x37, 0x41, 0x51);
+    private static final Color DOOR = new Color(0x25, 0x63, 0xEB);
+    private static final Color CONTAINER = new Color(0x9C, 0xA3, 0xAF);
+    private static final Color OTHER_OBJECT = new Color(0xD6, 0xC3, 0xA5);
+    private static final Color OUTLINE = new Color(0x4B, 0x55, 0x63);
+
+    // Top view images by url, an empty value means the image could not be found
+    private final Map<String, Optional<BufferedImage>> topViewImages = new ConcurrentHashMap<>();
+
+    /**
+     * Renders a waste room as a PNG that fits inside the box of the given size.
+     * The containers, doors and other objects of the room must be loaded.
+     *
+     * @param room The waste room to render
+     * @param size The size variant to render
+     * @return The PNG image
+     */
+    public byte[] render(WasteRoom room, ThumbnailSize size) {
+        Rectangle2D roomBounds = new Rectangle2D.Double(
+                room.getX(), room.getY(),
+                room.getWidth() * PIXELS_PER_METER, room.getLength() * PIXELS_PER_METER);
+
+        // Doors may swing outside the room, leave space for the widest door around the walls
+        double doorReach = 0;
+        for (Door door : nullSafe(room.getDoors())) {
+            doorReach = Math.max(doorReach, door.getWidth() * PIXELS_PER_METER);
+        }
+        double padding = doorReach + MARGIN;
+        double contentWidth = Math.max(1.0, roomBounds.getWidth() + 2 * padding);
+        double contentHeight = Math.max(1.0, roomBounds.getHeight() + 2 * padding);
+
+        double scale = Math.min(size.getMaxWidth() / contentWidth, size.getMaxHeight() / contentHeight);
+        int imageWidth = Math.max(1, (int) Math.round(contentWidth * scale));
+        int imageHeight = Math.max(1, (int) Math.round(contentHeight * scale));
+
+        BufferedImage image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+
+            g.setColor(BACKGROUND);
+            g.fillRect(0, 0, imageWidth, imageHeight);
+
+            g.scale(scale, scale);
+            g.translate(padding - roomBounds.getX(), padding - roomBounds.getY());
+
+            // Keep lines visible in the small variants
+            float lineWidth = (float) Math.max(2.0, 1.0 / scale);
+
+            g.setColor(FLOOR);
+            g.fill(roomBounds);
+
+            for (OtherObject object : sortedById(room.getOtherObjects(), OtherObject::getId)) {
+                drawOtherObject(g, object, lineWidth);
+            }
+            for (ContainerPosition container : sortedById(room.getContainers(), ContainerPosition::getId)) {
+                drawContainer(g, container, lineWidth);
+            }
+
+            g.setColor(WALL);
+            g.setStroke(new BasicStroke(lineWidth * 2));
+            g.draw(roomBounds);
+
+            for (Door door : sortedById(room.getDoors(), Door::getId)) {
+                drawDoor(g, door, lineWidth);
+            }
+        } finally {
+            g.dispose();
+        }
+
+        return toPng(image);
+    }
+
+    private void drawContainer(Graphics2D g, ContainerPosition position, float lineWidth) {
+        ContainerPlan plan = position.getContainerPlan();
+        ContainerType type = plan != null ? plan.getContainerType() : null;
+        if (type == null) {
+            return;
+        }
+
+        double width = type.getWidth() / 1000.0 * PIXELS_PER_METER;
+        double depth = type.getDepth() / 1000.0 * PIXELS_PER_METER;
+
+        AffineTransform saved = g.getTransform();
+        g.translate(position.getX() + width / 2, position.getY() + depth / 2);
+        g.rotate(Math.toRadians(position.getAngle()));
+        g.translate(-width / 2, -depth / 2);
+
+        Optional<BufferedImage> topView = topViewImage(plan.getImageTopViewUrl());
+        if (topView.isPresent()) {
+            BufferedImage img = topView.get();
+            AffineTransform fit = AffineTransform.getScaleInstance(width / img.getWidth(), depth / img.getHeight());
+            g.drawImage(img, fit, null);
+        } else {
+            Rectangle2D body = new Rectangle2D.Double(0, 0, width, depth);
+            g.setColor(CONTAINER);
+            g.fill(body);
+            g.setColor(OUTLINE);
+            g.setStroke(new BasicStroke(lineWidth));
+            g.draw(body);
+        }
+
+        g.setTransform(saved);
+    }
+
+    /**
+     * Draws the door leaf and its swing arc from the hinge. Outward doors open clockwise from the
+     * door angle, inward doors are mirrored, as in the planning tool.
+     */
+    private void drawDoor(Graphics2D g, Door door, float lineWidth) {
+        double radius = door.getWidth() * PIXELS_PER_METER;
+
+        AffineTransform saved = g.getTransform();
+        g.translate(door.getX(), door.getY());
+        g.rotate(Math.toRadians(door.getAngle()));
+        if ("inward".equalsIgnoreCase(door.getSwingDirection())) {
+            g.scale(-1, 1);
+        }
+
+        g.setColor(DOOR);
+        g.setStroke(new BasicStroke(lineWidth));
+        g.draw(new Arc2D.Double(-radius, -radius, 2 * radius, 2 * radius, 0, -90, Arc2D.PIE));
+        g.draw(new Line2D.Double(0, 0, radius, 0));
+
+        g.setTransform(saved);
+    }
+
+    private void drawOtherObject(Graphics2D g, OtherObject object, float lineWidth) {
+        double width = object.getWidth();
+        double depth = object.getDepth();
+
+        AffineTransform saved = g.getTransform();
+        g.translate(object.getX() + width / 2, object.getY() + depth / 2);
+        g.rotate(Math.toRadians(object.getRotation()));
+
+        Rectangle2D body = new Rectangle2D.Double(-width / 2, -depth / 2, width, depth);
+        g.setColor(OTHER_OBJECT);
+        g.fill(body);
+        g.setColor(OUTLINE);
+        g.setStroke(new BasicStroke(lineWidth));
+        g.draw(body);
+
+        g.setTransform(saved);
+    }
+
+    /**
+     * Loads the top view image of a container plan. The url may be relative ({@code /images/...}) or absolute,
+     * only the part from {@code /images/} is used to find the image among the static resources.
+     * Falls back to the default top view image.
+     */
+    private Optional<BufferedImage> topViewImage(String url) {
+        Optional<BufferedImage> image = url != null ? loadImage(url) : Optional.empty();
+        return image.isPresent() ? image : loadImage(DEFAULT_TOP_VIEW);
+    }
+
+    private Optional<BufferedImage> loadImage(String url) {
+        return topViewImages.computeIfAbsent(url, key -> {
+            int start = key.indexOf("/images/");
+            if (start < 0) {
+                return Optional.empty();
+            }
+
+            ClassPathResource resource = new ClassPathResource(STATIC_ROOT + key.substring(start));
+            if (!resource.exists()) {
+                return Optional.empty();
+            }
+
+            try (InputStream in = resource.getInputStream()) {
+                return Optional.ofNullable(ImageIO.read(in));
+            } catch (IOException e) {
+                log.warn("Could not read top view image {}: {}", key, e.getMessage());
+                return Optional.empty();
+            }
+        });
+    }
+
+    private static byte[] toPng(BufferedImage image) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode thumbnail", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static <T> List<T> nullSafe(List<T> items) {
+        return items != null ? items : List.of();
+    }
+
+    // Draw in a stable order so the same layout always gives the same image
+    private static <T> List<T> sortedById(List<T> items, Function<T, Long> id) {
+        return nullSafe(items).stream()
+                .sorted(Comparator.comparing(id, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+}
@@ -5,25 +5,36 @@ import com.avfallskompassen.dto.request.ContainerPositionRequest;
 import com.avfallskompassen.dto.request.DoorRequest;
 import com.avfallskompassen.dto.request.OtherObjectRequest;
 import com.avfallskompassen.dto.request.WasteRoomRequest;
+import com.avfallskompassen.events.PropertyStatisticsChangedEvent;
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.exception.InternalServerException;
 import com.avfallskompassen.exception.ResourceNotFoundException;
 import com.avfallskompassen.model.*;
 import com.avfallskompassen.repository.*;
 import com.avfallskompassen.services.ActivityService;
 import com.avfallskompassen.services.ContainerService;
+import com.avfallskompassen.services.LayoutValidationService;
+import com.avfallskompassen.services.ThumbnailUploadService;
 import com.avfallskompassen.services.UserService;
+import com.avfallskompassen.services.UserStatisticsService;
 import com.avfallskompassen.services.WasteRoomService;
-import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class for handling waste rooms.
@@ -37,28 +48,33 @@ public class WasteRoomServiceImpl implements WasteRoomService {
     private final PropertyRepository propertyRepository;
     private final ContainerService containerService;
     private final ActivityService activityService;
-
-    @Value("${supabase.url}")
-    private String supabaseUrl;
-
-    @Value("${supabase.bucket}")
-    private String supabaseBucket;
-
-    @Value("${supabase.service-key}")
-    private String supabaseServiceKey;
-
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThumbnailUploadService thumbnailUploadService;
+    private final UserStatisticsService userStatisticsService;
+    private final WasteRoomVersionStore versionStore;
+    private final LayoutValidationService layoutValidationService;
 
     public WasteRoomServiceImpl(
             WasteRoomRepository wasteRoomRepository,
             PropertyRepository propertyRepository,
             ContainerService containerService,
             ActivityService activityService,
-            UserService userService
+            UserService userService,
+            ApplicationEventPublisher eventPublisher,
+            ThumbnailUploadService thumbnailUploadService,
+            UserStatisticsService userStatisticsService,
+            WasteRoomVersionStore versionStore,
+            LayoutValidationService layoutValidationService
     ) {
         this.wasteRoomRepository = wasteRoomRepository;
         this.propertyRepository = propertyRepository;
         this.containerService = containerService;
         this.activityService = activityService;
+        this.eventPublisher = eventPublisher;
+        this.thumbnailUploadService = thumbnailUploadService;
+        this.userStatisticsService = userStatisticsService;
+        this.versionStore = versionStore;
+        this.layoutValidationService = layoutValidationService;
     }
 
     /**
@@ -67,6 +83,7 @@ public class WasteRoomServiceImpl implements WasteRoomService {
      * @param request The request containing the information about the waste room
      * @return A DTO containing the information about the waste room that was stored in the database
      */
+    @Timed(value = "wasteroom.save", description = "Time to save a waste room version", histogram = true)
     @Override
     @Transactional
     public WasteRoomDTO saveWasteRoom(WasteRoomRequest request) {
@@ -89,14 +106,16 @@ public class WasteRoomServiceImpl implements WasteRoomService {
         }
 
         wasteRoom.setAverageCollectionFrequency(calculateAverageCollectionFrequency(containerPositions));
+        layoutValidationService.enforce(wasteRoom);
 
         WasteRoom savedRoom = wasteRoomRepository.save(wasteRoom);
-        saveThumbnail(request.getThumbnailBase64(), savedRoom.getId(), savedRoom);
-        savedRoom = wasteRoomRepository.save(savedRoom);
+        saveThumbnail(request.getThumbnailBase64(), savedRoom.getId());
 
         User user = propertyRepository.findCreatedByUserByPropertyId(request.getPropertyId());
+        adjustWasteRoomCount(user, 1);
 
         activityService.saveActivity(user, ActivityType.CREATED_WASTEROOM, "Ett miljörum skapades på fastigheten med addressen " + savedRoom.getProperty().getAddress());
+        publishStatisticsChanged(request.getPropertyId());
 
         return WasteRoomDTO.fromEntity(savedRoom);
     }
@@ -124,10 +143,11 @@ public class WasteRoomServiceImpl implements WasteRoomService {
      * @return A list of DTO containing the information about the waste room from the database
      */
     @Override
+    @Transactional(readOnly = true)
     public List<WasteRoomDTO> getWasteRoomsByPropertyId(Long propertyId) {
-        List<WasteRoom> rooms = wasteRoomRepository.findByPropertyId(propertyId);
+        List<WasteRoom> rooms = wasteRoomRepository.findWithContainerGraphByPropertyId(propertyId);
 
-        return rooms.stream()
+        return withLayouts(rooms).stream()
                 .map(this::mapWasteRoomToDTO)
                 .toList();
     }
@@ -158,6 +178,13 @@ public class WasteRoomServiceImpl implements WasteRoomService {
     @Transactional
     public WasteRoomDTO updateWasteRoom(Long wasteRoomId, WasteRoomRequest request) {
         WasteRoom wasteRoom = findWasteRoomById(wasteRoomId);
+        Long previousPropertyId = wasteRoom.getProperty() != null ? wasteRoom.getProperty().getId() : null;
+
+        // Versions stored as deltas against this room need its current layout, the room's own delta
+        // is replaced by the layout in the request
+        versionStore.materializeDependents(wasteRoom);
+        wasteRoom.setLayoutBase(null);
+        wasteRoom.setLayoutDelta(null);
 
         wasteRoom.setLength(request.getLength());
         wasteRoom.setWidth(request.getWidth());
@@ -185,18 +212,30 @@ public class WasteRoomServiceImpl implements WasteRoomService {
         );
 
         wasteRoom.setAverageCollectionFrequency(calculateAverageCollectionFrequency(wasteRoom.getContainers()));
+        layoutValidationService.enforce(wasteRoom);
 
         WasteRoom updated = wasteRoomRepository.save(wasteRoom);
 
         //Save thumbnail
-        saveThumbnail(request.getThumbnailBase64(), wasteRoomId, updated);
-
-        updated = wasteRoomRepository.save(updated);
+        saveThumbnail(request.getThumbnailBase64(), wasteRoomId);
 
         Property propertyWithUpdatedRoom = updated.getProperty();
 
         User user = propertyRepository.findCreatedByUserByPropertyId(propertyWithUpdatedRoom.getId());
+        if (previousPropertyId != null && !previousPropertyId.equals(propertyWithUpdatedRoom.getId())) {
+            // The room moved to another property, which may belong to another user
+            User previousUser = propertyRepository.findCreatedByUserByPropertyId(previousPropertyId);
+            if (previousUser == null || user == null || !Objects.equals(previousUser.getId(), user.getId())) {
+                adjustWasteRoomCount(previousUser, -1);
+                adjustWasteRoomCount(user, 1);
+            }
+        }
         activityService.saveActivity(user, ActivityType.SAVED_WASTEROOM, "Ett miljörum i fastigheten med addressen " + propertyWithUpdatedRoom.getAddress() + " har uppdaterats");
+
+        publishStatisticsChanged(propertyWithUpdatedRoom.getId());
+        if (previousPropertyId != null && !previousPropertyId.equals(propertyWithUpdatedRoom.getId())) {
+            publishStatisticsChanged(previousPropertyId);
+        }
         return WasteRoomDTO.fromEntity(updated);
     }
 
@@ -204,10 +243,13 @@ public class WasteRoomServiceImpl implements WasteRoomService {
     @Transactional
     public void deleteWasteRoom(Long wasteRoomId) {
         WasteRoom wasteRoom = findWasteRoomById(wasteRoomId);
+        versionStore.materializeDependents(wasteRoom);
         wasteRoomRepository.delete(wasteRoom);
         Property propertyWithDeletedRoom = wasteRoom.getProperty();
         User user = propertyRepository.findCreatedByUserByPropertyId(propertyWithDeletedRoom.getId());
+        adjustWasteRoomCount(user, -1);
         activityService.saveActivity(user, ActivityType.DELETED_WASTEROOM, "Ett miljörum på fastigheten med addressen " + propertyWithDeletedRoom.getAddress() + " har tagits bort");
+        publishStatisticsChanged(propertyWithDeletedRoom.getId());
     }
 
     /**
@@ -224,11 +266,18 @@ public class WasteRoomServiceImpl implements WasteRoomService {
             return Collections.emptyList();
         }
 
+        // Resolve every plan in one call, unknown ids fail the save with one error listing all of them
+        Set<Long> planIds = new HashSet<>();
+        for (ContainerPositionRequest request : containers) {
+            planIds.add(request.getId());
+        }
+        Map<Long, ContainerPlan> plans = planIds.isEmpty() ? Map.of() : containerService.getContainerPlansByIds(planIds);
+
         List<ContainerPosition> containerPositions = new ArrayList<>();
 
         for (ContainerPositionRequest request : containers) {
             ContainerPosition container = new ContainerPosition();
-            container.setContainerPlan(containerService.getContainerPlanById(request.getId()));
+            container.setContainerPlan(plans.get(request.getId()));
             container.setX(request.getX());
             container.setY(request.getY());
             container.setAngle(request.getAngle());
@@ -322,13 +371,23 @@ public class WasteRoomServiceImpl implements WasteRoomService {
     }
 
     /**
-     * Maps a {@link WasteRoom} to a {@link WasteRoomDTO}
-     * @param entity The waste rooms to be mapped
+     * Rebuilds the layout of the rooms stored as deltas, see {@link WasteRoomVersionStore#resolveAll}.
+     */
+    private List<WasteRoom> withLayouts(List<WasteRoom> rooms) {
+        return rooms.stream().anyMatch(WasteRoom::hasLayoutDelta) ? versionStore.resolveAll(rooms) : rooms;
+    }
+
+    /**
+     * Maps a {@link WasteRoom} to a {@link WasteRoomDTO}. Containers, doors and other objects are mapped
+     * from the relations of the entity, so lists of rooms should be loaded with their relations fetched.
+     * @param wasteRoom The waste rooms to be mapped
      * @return DTO containing info from waste room
      */
-    private WasteRoomDTO mapWasteRoomToDTO(WasteRoom entity) {
-        List<ContainerPositionDTO> containers =
-                containerService.getContainersByWasteRoomId(entity.getId());
+    private WasteRoomDTO mapWasteRoomToDTO(WasteRoom wasteRoom) {
+        WasteRoom entity = wasteRoom.hasLayoutDelta() ? versionStore.resolve(wasteRoom) : wasteRoom;
+        List<ContainerPositionDTO> containers = entity.getContainers() != null
+                ? entity.getContainers().stream().map(ContainerPositionDTO::fromEntity).toList()
+                : new ArrayList<>();
 
         List<DoorDTO> doors = entity.getDoors() != null
                 ? entity.getDoors().stream().map(DoorDTO::fromEntity).toList()
@@ -344,13 +403,9 @@ public class WasteRoomServiceImpl implements WasteRoomService {
                 entity.getWidth(),
                 entity.getX(),
                 entity.getY(),
-                containerService.getContainersByWasteRoomId(entity.getId()),
-                entity.getDoors() != null
-                        ? entity.getDoors().stream().map(DoorDTO::fromEntity).toList()
-                        : new ArrayList<>(),
-                entity.getOtherObjects() != null
-                        ? entity.getOtherObjects().stream().map(OtherObjectDTO::fromEntity).toList()
-                        : new ArrayList<>(),
+                containers,
+                doors,
+                otherObjects,
                 entity.getId(),
                 entity.getName(),
                 entity.getVersionNumber(),
@@ -367,64 +422,35 @@ public class WasteRoomServiceImpl implements WasteRoomService {
         return dto;
     }
 
-    private void saveThumbnail(String base64, Long roomId, WasteRoom room) {
+    /**
+     * Decodes a base64 encoded thumbnail and hands it to the {@link ThumbnailUploadService}.
+     * The upload runs in the background once the waste room has been committed, the thumbnail url
+     * of the waste room is set when it is done.
+     * Kept for clients that still send the thumbnail in the JSON body, new clients should use
+     * {@link #uploadThumbnail} instead.
+     *
+     * @param base64 The thumbnail as base64, optionally as a data url
+     * @param roomId The id of the waste room the thumbnail belongs to
+     */
+    private void saveThumbnail(String base64, Long roomId) {
         if (base64 == null || base64.isEmpty()) {
             return;
         }
 
+        byte[] decodedBytes;
         try {
-            String clean = base64.replaceAll("\\s", "");
-            String[] parts = clean.split(",");
-            String imageBase64 = parts.length > 1 ? parts[1] : parts[0];
-            byte[] decodedBytes = java.util.Base64.getDecoder().decode(imageBase64);
-
-            // Save to folder
-           /* File folder = new File("uploads/wasterooms/");
-            if (!folder.exists()) {
-                folder.mkdirs();
-            }
-
-            File file = new File(folder, roomId + ".png");
-
-            try (FileOutputStream fos = new FileOutputStream(file)) {
-                fos.write(decodedBytes);
-            }
-
-            room.setThumbnailUrl("/images/wasterooms/" + roomId + ".png");*/
-            saveThumbnailToSupabase(decodedBytes, roomId, room);
+            // Skip the data url prefix and let the MIME decoder ignore line breaks, instead of
+            // building cleaned copies of the whole string first
+            int dataStart = base64.indexOf(',') + 1;
+            decodedBytes = Base64.getMimeDecoder().decode(base64.substring(dataStart));
         }
         catch (Exception e) {
             throw new RuntimeException("Failed to save thumbnail", e);
         }
-    }
 
-    private void saveThumbnailToSupabase(byte[] imageBytes, Long roomId, WasteRoom room) {
-        try {
-            String filePath = roomId + ".png";
-            String uploadUrl = supabaseUrl + "/storage/v1/object/" + supabaseBucket + "/" + filePath;
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(uploadUrl))
-                    .header("Authorization", "Bearer " + supabaseServiceKey)
-                    .header("Content-Type", "image/png")
-                    .PUT(HttpRequest.BodyPublishers.ofByteArray(imageBytes))
-                    .build();
-
-            HttpClient client = HttpClient.newHttpClient();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() >= 200 && response.statusCode() < 300) {
-                String publicUrl = supabaseUrl + "/storage/v1/object/public/" + supabaseBucket + "/" + filePath;
-                room.setThumbnailUrl(publicUrl);
-            } else {
-                throw new RuntimeException("Failed to upload image to Supabase: " + response.body());
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error uploading thumbnail to Supabase", e);
-        }
+        thumbnailUploadService.scheduleUpload(roomId, decodedBytes);
     }
 
-
     /**
      * Saves an admin version of a waste room. Creates a new waste room entry with version info.
      * If versionToReplace is specified, marks that version as inactive.
@@ -469,6 +495,7 @@ public class WasteRoomServiceImpl implements WasteRoomService {
         newVersion.setOtherObjects(otherObjectPositions);
         newVersion.setContainers(containerPositions);
         newVersion.setDoors(doorPositions);
+        layoutValidationService.enforce(newVersion);
         
         // Handle version replacement or max versions
         if (request.getVersionToReplace() != null) {
@@ -492,12 +519,18 @@ public class WasteRoomServiceImpl implements WasteRoomService {
         newVersion.setIsActive(true);
         WasteRoom savedRoom = wasteRoomRepository.save(newVersion);
 
-        saveThumbnail(request.getThumbnailBase64(), savedRoom.getId(), savedRoom);
-        savedRoom = wasteRoomRepository.save(savedRoom);
+        // The version before the new one only keeps what differs from it (wasteroom.versioning.mode=delta)
+        if (!existingVersions.isEmpty()) {
+            versionStore.encode(existingVersions.get(existingVersions.size() - 1), savedRoom, existingVersions);
+        }
+
+        saveThumbnail(request.getThumbnailBase64(), savedRoom.getId());
 
         User ownerOfProperty = propertyRepository.findCreatedByUserByPropertyId(propertyId);
+        adjustWasteRoomCount(ownerOfProperty, 1);
         activityService.saveActivity(ownerOfProperty, ActivityType.ADMIN_SAVED_VERSION_OF_WASTE_ROOM, "En admin har skapat en egen version av ett miljö rum i fastigheten " + property.getAddress());
-        
+        publishStatisticsChanged(propertyId);
+
         return mapWasteRoomToDTO(savedRoom);
     }
 
@@ -509,17 +542,17 @@ public class WasteRoomServiceImpl implements WasteRoomService {
      * @return A list of DTOs containing all versions
      */
     @Override
+    @Transactional(readOnly = true)
     public List<WasteRoomDTO> getAllVersionsByPropertyAndName(Long propertyId, String roomName) {
-        List<WasteRoom> versions = wasteRoomRepository
-                .findByPropertyIdAndNameOrderByVersionNumberAsc(propertyId, roomName);
-        
-        return versions.stream()
+        List<WasteRoom> versions = wasteRoomRepository.findVersionsWithContainerGraph(propertyId, roomName);
+
+        return withLayouts(versions).stream()
                 .map(this::mapWasteRoomToDTO)
                 .toList();
     }
 
     private Double calculateAverageCollectionFrequency(List<ContainerPosition> containers) {
-        if (containers == null || containers.isEmpty()) {
+        if (containers == null) {
             return 0.0;
         }
         // Only consider containers that have a non-null ContainerPlan to avoid NPEs in tests
@@ -536,7 +569,59 @@ public class WasteRoomServiceImpl implements WasteRoomService {
     @Transactional
     public void setWasteRoomActive(Long wasteRoomId, boolean isActive) {
         WasteRoom wasteRoom = findWasteRoomById(wasteRoomId);
+        if (isActive) {
+            // An active room is always stored in full
+            versionStore.materialize(wasteRoom);
+        }
         wasteRoom.setIsActive(isActive);
         wasteRoomRepository.save(wasteRoom);
+
+        if (wasteRoom.getProperty() != null) {
+            publishStatisticsChanged(wasteRoom.getProperty().getId());
+        }
+    }
+
+    /**
+     * Streams a PNG thumbnail straight to storage and sets it as the thumbnail of the waste room.
+     * Runs without a transaction so no database connection is held while the image is uploaded.
+     *
+     * @param wasteRoomId The id of the waste room
+     * @param content The PNG image
+     * @param contentLength The size of the image in bytes, or -1 if unknown
+     * @param contentType The content type sent by the client
+     * @return A DTO containing the new thumbnail url
+     */
+    @Override
+    public WasteRoomImgDTO uploadThumbnail(Long wasteRoomId, InputStream content, long contentLength, String contentType) {
+        if (!wasteRoomRepository.existsById(wasteRoomId)) {
+            throw new ResourceNotFoundException("WasteRoom with id: " + wasteRoomId + " can't be found");
+        }
+        if (contentType == null || !MediaType.IMAGE_PNG.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            throw new BadRequestException("Miniatyrbilden måste vara en PNG-bild");
+        }
+
+        try {
+            return new WasteRoomImgDTO(thumbnailUploadService.upload(wasteRoomId, content, contentLength));
+        } catch (IOException e) {
+            throw new InternalServerException("Failed to save thumbnail for waste room with id: " + wasteRoomId);
+        }
+    }
+
+    /**
+     * Signals that the containers of a property have changed so the stored comparison figures are refreshed.
+     *
+     * @param propertyId The id of the property whose waste rooms changed
+     */
+    private void publishStatisticsChanged(Long propertyId) {
+        eventPublisher.publishEvent(PropertyStatisticsChangedEvent.forProperty(propertyId));
+    }
+
+    /**
+     * Updates the waste room version counter of the user owning a property.
+     */
+    private void adjustWasteRoomCount(User owner, long wasteRooms) {
+        if (owner != null) {
+            userStatisticsService.adjustCounts(owner.getId(), 0, wasteRooms);
+        }
     }
 }
\ No newline at end of file
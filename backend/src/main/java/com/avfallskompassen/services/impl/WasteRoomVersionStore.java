@@ -0,0 +1,304 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.Door;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.ContainerCatalogService;
+import com.avfallskompassen.services.impl.LayoutDelta.ContainerItem;
+import com.avfallskompassen.services.impl.LayoutDelta.DoorItem;
+import com.avfallskompassen.services.impl.LayoutDelta.Layout;
+import com.avfallskompassen.services.impl.LayoutDelta.ObjectItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Stores older versions of a waste room as deltas instead of full copies of their containers, doors
+ * and other objects.
+ * <p>
+ * With {@code wasteroom.versioning.mode=delta}, saving a new admin version replaces the rows of the
+ * version before it with the delta from the new version to it, so a version only stores what differs
+ * from the next one. The active version is always stored in full, so costs, comparisons and container
+ * queries read rows as before. Every {@code wasteroom.versioning.snapshot-interval}th version is kept in
+ * full as well, which bounds the number of deltas applied to read a version to {@code snapshot-interval - 1}.
+ * A delta that is not smaller than the version itself is not stored.
+ * <p>
+ * Versions stored as deltas are read through {@link #resolve} and written back as rows with
+ * {@link #materialize} before they are changed, activated or lose the version they are based on.
+ */
+@Component
+public class WasteRoomVersionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(WasteRoomVersionStore.class);
+
+    // Own mapper so the stored format does not follow the JSON settings of the web layer
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final WasteRoomRepository wasteRoomRepository;
+    private final ContainerCatalogService containerCatalogService;
+    private final boolean deltaMode;
+    private final int snapshotInterval;
+
+    public WasteRoomVersionStore(
+            WasteRoomRepository wasteRoomRepository,
+            ContainerCatalogService containerCatalogService,
+            @Value("${wasteroom.versioning.mode:full}") String mode,
+            @Value("${wasteroom.versioning.snapshot-interval:10}") int snapshotInterval
+    ) {
+        this.wasteRoomRepository = wasteRoomRepository;
+        this.containerCatalogService = containerCatalogService;
+        this.deltaMode = "delta".equalsIgnoreCase(mode);
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+    }
+
+    /**
+     * Stores a version as the delta from its successor, unless it has to stay in full.
+     *
+     * @param version The version to encode, stored in full
+     * @param successor The version that replaces it, stored in full
+     * @param versions All versions of the room, used to find how many deltas already depend on {@code version}
+     * @return true if the version is now stored as a delta
+     */
+    public boolean encode(WasteRoom version, WasteRoom successor, List<WasteRoom> versions) {
+        if (!deltaMode || version.hasLayoutDelta() || successor.hasLayoutDelta()) {
+            return false;
+        }
+        // Periodic snapshot, keeps the chain of deltas below this version short
+        if (dependentDepth(version, versions) + 1 >= snapshotInterval) {
+            return false;
+        }
+
+        Layout target = layoutOf(version);
+        LayoutDelta delta = LayoutDelta.between(layoutOf(successor), target);
+        if (delta.size() >= target.size()) {
+            return false;
+        }
+
+        version.setLayoutBase(successor);
+        version.setLayoutDelta(write(delta));
+        // Orphan removal deletes the rows
+        version.getContainers().clear();
+        version.getDoors().clear();
+        version.getOtherObjects().clear();
+
+        log.debug("Stored version {} of waste room {} as a delta of {} items against version {}.",
+                version.getVersionNumber(), version.getName(), delta.size(), successor.getVersionNumber());
+        return true;
+    }
+
+    /**
+     * Gives a room with its containers, doors and other objects loaded. A room stored in full is returned
+     * as is, for a room stored as a delta a detached copy with the rebuilt layout is returned. The copy
+     * must only be read, never saved.
+     */
+    public WasteRoom resolve(WasteRoom room) {
+        if (!room.hasLayoutDelta()) {
+            return room;
+        }
+        return resolveAll(List.of(room)).get(0);
+    }
+
+    /**
+     * Same as {@link #resolve} for several rooms. Layouts shared between the rooms, typically the versions
+     * of one room, are rebuilt once.
+     */
+    public List<WasteRoom> resolveAll(List<WasteRoom> rooms) {
+        Map<Long, Layout> layouts = new HashMap<>();
+        List<Layout> resolved = new ArrayList<>(rooms.size());
+        Set<Long> planIds = new HashSet<>();
+        for (WasteRoom room : rooms) {
+            Layout layout = room.hasLayoutDelta() ? layoutOf(room, layouts) : null;
+            resolved.add(layout);
+            if (layout != null) {
+                layout.containers().forEach(container -> planIds.add(container.planId()));
+            }
+        }
+        Map<Long, ContainerPlan> plans = planIds.isEmpty() ? Map.of() : containerCatalogService.findContainerPlansByIds(planIds);
+
+        List<WasteRoom> result = new ArrayList<>(rooms.size());
+        for (int i = 0; i < rooms.size(); i++) {
+            WasteRoom room = rooms.get(i);
+            Layout layout = resolved.get(i);
+            result.add(layout != null ? detachedCopy(room, layout, plans) : room);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the layout of a room stored as a delta back as rows. Does nothing for a room stored in full.
+     */
+    public void materialize(WasteRoom room) {
+        if (!room.hasLayoutDelta()) {
+            return;
+        }
+        WasteRoom resolved = resolve(room);
+
+        resolved.getContainers().forEach(container -> container.setWasteRoom(room));
+        resolved.getDoors().forEach(door -> door.setWasteRoom(room));
+        resolved.getOtherObjects().forEach(object -> object.setWasteRoom(room));
+        room.getContainers().addAll(resolved.getContainers());
+        room.getDoors().addAll(resolved.getDoors());
+        room.getOtherObjects().addAll(resolved.getOtherObjects());
+
+        room.setLayoutBase(null);
+        room.setLayoutDelta(null);
+    }
+
+    /**
+     * Writes back as rows every version stored as a delta against the given room. Must be called before
+     * the layout of the room is changed or the room is deleted.
+     */
+    public void materializeDependents(WasteRoom base) {
+        if (base.getId() == null) {
+            return;
+        }
+        for (WasteRoom dependent : wasteRoomRepository.findByLayoutBaseId(base.getId())) {
+            materialize(dependent);
+        }
+    }
+
+    private Layout layoutOf(WasteRoom room, Map<Long, Layout> layouts) {
+        if (!room.hasLayoutDelta()) {
+            return layoutOf(room);
+        }
+        Layout cached = layouts.get(room.getId());
+        if (cached != null) {
+            return cached;
+        }
+        WasteRoom base = room.getLayoutBase();
+        if (base == null) {
+            throw new IllegalStateException("Waste room " + room.getId() + " has a layout delta but no base");
+        }
+        Layout layout = read(room.getLayoutDelta()).applyTo(layoutOf(base, layouts));
+        layouts.put(room.getId(), layout);
+        return layout;
+    }
+
+    /**
+     * The layout of a room stored in full, read from its rows.
+     */
+    private static Layout layoutOf(WasteRoom room) {
+        List<ContainerItem> containers = new ArrayList<>();
+        if (room.getContainers() != null) {
+            for (ContainerPosition container : room.getContainers()) {
+                ContainerPlan plan = container.getContainerPlan();
+                containers.add(new ContainerItem(plan != null ? plan.getId() : null,
+                        container.getX(), container.getY(), container.getAngle(), container.getHasLockILock()));
+            }
+        }
+        List<DoorItem> doors = new ArrayList<>();
+        if (room.getDoors() != null) {
+            for (Door door : room.getDoors()) {
+                doors.add(new DoorItem(door.getWidth(), door.getDepth(), door.getX(), door.getY(), door.getAngle(),
+                        door.getWall(), door.getSwingDirection()));
+            }
+        }
+        List<ObjectItem> otherObjects = new ArrayList<>();
+        if (room.getOtherObjects() != null) {
+            for (OtherObject object : room.getOtherObjects()) {
+                otherObjects.add(new ObjectItem(object.getName(), object.getWidth(), object.getDepth(),
+                        object.getX(), object.getY(), object.getRotation()));
+            }
+        }
+        return new Layout(containers, doors, otherObjects);
+    }
+
+    private static WasteRoom detachedCopy(WasteRoom room, Layout layout, Map<Long, ContainerPlan> plans) {
+        WasteRoom copy = new WasteRoom();
+        copy.setId(room.getId());
+        copy.setName(room.getName());
+        copy.setLength(room.getLength());
+        copy.setWidth(room.getWidth());
+        copy.setX(room.getX());
+        copy.setY(room.getY());
+        copy.setProperty(room.getProperty());
+        copy.setCreatedAt(room.getCreatedAt());
+        copy.setUpdatedAt(room.getUpdatedAt());
+        copy.setVersionNumber(room.getVersionNumber());
+        copy.setCreatedBy(room.getCreatedBy());
+        copy.setAdminUsername(room.getAdminUsername());
+        copy.setVersionName(room.getVersionName());
+        copy.setIsActive(room.getIsActive());
+        copy.setThumbnailUrl(room.getThumbnailUrl());
+        copy.setAverageCollectionFrequency(room.getAverageCollectionFrequency());
+
+        List<ContainerPosition> containers = new ArrayList<>();
+        for (ContainerItem item : layout.containers()) {
+            ContainerPlan plan = plans.get(item.planId());
+            if (plan == null) {
+                log.warn("Container plan {} of waste room {} no longer exists, the container is left out.",
+                        item.planId(), room.getId());
+                continue;
+            }
+            ContainerPosition container = new ContainerPosition();
+            container.setContainerPlan(plan);
+            container.setX(item.x());
+            container.setY(item.y());
+            container.setAngle(item.angle());
+            container.setHasLockILock(item.hasLockILock());
+            container.setWasteRoom(copy);
+            containers.add(container);
+        }
+
+        List<Door> doors = new ArrayList<>();
+        for (DoorItem item : layout.doors()) {
+            doors.add(new Door(null, item.width(), item.depth(), item.x(), item.y(), item.angle(),
+                    item.wall(), item.swingDirection(), copy));
+        }
+
+        List<OtherObject> otherObjects = new ArrayList<>();
+        for (ObjectItem item : layout.otherObjects()) {
+            otherObjects.add(new OtherObject(null, item.name(), item.width(), item.depth(), item.x(), item.y(),
+                    item.rotation(), copy));
+        }
+
+        copy.setContainers(containers);
+        copy.setDoors(doors);
+        copy.setOtherObjects(otherObjects);
+        return copy;
+    }
+
+    /**
+     * Length of the longest chain of versions stored as deltas that ends in the given version.
+     */
+    private static int dependentDepth(WasteRoom room, List<WasteRoom> versions) {
+        int depth = 0;
+        for (WasteRoom version : versions) {
+            WasteRoom base = version.getLayoutBase();
+            if (version != room && base != null && Objects.equals(base.getId(), room.getId())) {
+                depth = Math.max(depth, 1 + dependentDepth(version, versions));
+            }
+        }
+        return depth;
+    }
+
+    private static String write(LayoutDelta delta) {
+        try {
+            return MAPPER.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write layout delta", e);
+        }
+    }
+
+    private static LayoutDelta read(String json) {
+        try {
+            return MAPPER.readValue(json, LayoutDelta.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read layout delta", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+-- Precomputed comparison figures per property, aggregated per peer group by PropertyComparisonService
+CREATE TABLE property_peer_statistics (
+    property_id BIGINT PRIMARY KEY,
+    property_type VARCHAR(255) NOT NULL,
+    municipality_id BIGINT,
+    number_of_apartments INT NOT NULL,
+    annual_cost NUMERIC(12, 2),
+    total_volume INT NOT NULL DEFAULT 0,
+    average_frequency DOUBLE PRECISION NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Create index on the peer group columns so a whole group is aggregated with one range scan
+CREATE INDEX idx_peer_statistics_group ON property_peer_statistics(property_type, municipality_id, number_of_apartments);
+
+-- Waste amount and collection frequency per service type for each property
+CREATE TABLE property_service_statistics (
+    id BIGSERIAL PRIMARY KEY,
+    property_id BIGINT NOT NULL REFERENCES property_peer_statistics(property_id) ON DELETE CASCADE,
+    service_type_name VARCHAR(255) NOT NULL,
+    waste_amount DOUBLE PRECISION NOT NULL DEFAULT 0,
+    average_frequency DOUBLE PRECISION NOT NULL DEFAULT 0
+);
+
+CREATE INDEX idx_service_statistics_property ON property_service_statistics(property_id);
@@ -0,0 +1,9 @@
+-- Indexes for the keyset-paginated property listing: each filter column paired with id,
+-- so a page is one index range scan starting right after the cursor
+CREATE INDEX IF NOT EXISTS idx_properties_municipality_id ON properties(municipality_id, id);
+CREATE INDEX IF NOT EXISTS idx_properties_type_id ON properties(property_type, id);
+CREATE INDEX IF NOT EXISTS idx_properties_created_by_id ON properties(created_by_user_id, id);
+
+-- Trigram index so the case insensitive address search (lower(address) LIKE '%...%') can use an index
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_properties_address_trgm ON properties USING gin (lower(address) gin_trgm_ops);
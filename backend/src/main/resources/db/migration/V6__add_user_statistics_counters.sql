@@ -0,0 +1,14 @@
+-- Property and waste room version counters per user, kept up to date by UserStatisticsService
+ALTER TABLE users ADD COLUMN IF NOT EXISTS property_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS waste_room_count BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill the counters from the existing properties and waste rooms
+UPDATE users u SET
+    property_count = (SELECT COUNT(*) FROM properties p WHERE p.created_by_user_id = u.id),
+    waste_room_count = (SELECT COUNT(*) FROM waste_room wr
+                        JOIN properties p ON p.id = wr.property_id
+                        WHERE p.created_by_user_id = u.id);
+
+-- Indexes for sorting the admin user view on the counters, id breaks ties
+CREATE INDEX IF NOT EXISTS idx_users_property_count ON users(property_count, id);
+CREATE INDEX IF NOT EXISTS idx_users_waste_room_count ON users(waste_room_count, id);
@@ -0,0 +1,18 @@
+-- Index for the activity feed, a page is one backward range scan from the cursor
+CREATE INDEX IF NOT EXISTS idx_activities_user_timestamp ON activities(user_id, timestamp, id);
+
+-- Index for the retention job, which selects activities older than the cutoff
+CREATE INDEX IF NOT EXISTS idx_activities_timestamp ON activities(timestamp);
+
+-- Activities moved out of the activities table by ActivityRetentionJob. No foreign key so archived
+-- rows never block deleting a user, and a BRIN index since rows are appended in time order
+CREATE TABLE IF NOT EXISTS activities_archive (
+    id BIGINT PRIMARY KEY,
+    user_id INT,
+    action VARCHAR(255) NOT NULL,
+    details VARCHAR(255) NOT NULL,
+    timestamp TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_activities_archive_timestamp ON activities_archive USING brin (timestamp);
@@ -0,0 +1,8 @@
+-- Older waste room versions can store their layout as a delta against a newer version instead of rows,
+-- see WasteRoomVersionStore. The base is set to null if it is deleted together with its property
+ALTER TABLE waste_room
+ADD COLUMN IF NOT EXISTS layout_base_id BIGINT REFERENCES waste_room(id) ON DELETE SET NULL,
+ADD COLUMN IF NOT EXISTS layout_delta TEXT;
+
+-- Partial index, only versions stored as deltas are looked up by their base
+CREATE INDEX IF NOT EXISTS idx_waste_room_layout_base ON waste_room(layout_base_id) WHERE layout_base_id IS NOT NULL;
@@ -0,0 +1,4 @@
+-- The cost model each stored annual cost was calculated with, see AnnualCostModel.version().
+-- Existing rows get null and are rebuilt on the next startup
+ALTER TABLE property_peer_statistics
+ADD COLUMN IF NOT EXISTS cost_model VARCHAR(64);
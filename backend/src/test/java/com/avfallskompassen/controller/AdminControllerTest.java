@@ -1,6 +1,8 @@
 package com.avfallskompassen.controller;
 
+import com.avfallskompassen.dto.LayoutRevalidationReportDTO;
 import com.avfallskompassen.dto.UserDTO;
+import com.avfallskompassen.services.LayoutValidationService;
 import com.avfallskompassen.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,6 +28,9 @@ public class AdminControllerTest {
     @Mock
     private UserService userService;
     
+    @Mock
+    private LayoutValidationService layoutValidationService;
+    
     @InjectMocks
     private AdminController adminController;
     
@@ -219,4 +224,22 @@ public class AdminControllerTest {
         assertSame(users, response.getBody(), "Controller should return the exact list from service");
         verify(userService, times(1)).findAllUsers();
     }
+    
+    /**
+     * Test that layout revalidation returns the report from the service.
+     */
+    @Test
+    void testRevalidateLayouts_ReturnsReport() {
+        // Arrange
+        LayoutRevalidationReportDTO report = new LayoutRevalidationReportDTO(12, 0, 5, List.of());
+        when(layoutValidationService.revalidateAll(100)).thenReturn(report);
+        
+        // Act
+        ResponseEntity<LayoutRevalidationReportDTO> response = adminController.revalidateLayouts(100);
+        
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(report, response.getBody());
+        verify(layoutValidationService, times(1)).revalidateAll(100);
+    }
 }
@@ -1,8 +1,13 @@
 package com.avfallskompassen.controller;
 
 import com.avfallskompassen.dto.CollectionFeeDTO;
+import com.avfallskompassen.dto.ContainerMixDTO;
+import com.avfallskompassen.dto.ContainerMixItemDTO;
 import com.avfallskompassen.dto.PropertyContainerDTO;
+import com.avfallskompassen.dto.ServiceTypeMixDTO;
+import com.avfallskompassen.dto.request.ContainerMixRequest;
 import com.avfallskompassen.services.CollectionFeeService;
+import com.avfallskompassen.services.ContainerMixService;
 import com.avfallskompassen.services.ContainerService;
 import com.avfallskompassen.services.PropertyContainerService;
 import org.junit.jupiter.api.DisplayName;
@@ -18,9 +23,11 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -40,6 +47,9 @@ public class ContainerPlanControllerTest {
     @MockBean
     private ContainerService containerService;
 
+    @MockBean
+    private ContainerMixService containerMixService;
+
     @Test
     @DisplayName("GET /api/containerplan/collectionFeeInput/{municipalityId} returns cost successfully")
     void testGetCollectionFeeByMunicipalityId_success() throws Exception {
@@ -148,4 +158,35 @@ public class ContainerPlanControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(status().reason("Fastighetskärl hittades ej"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST /api/containerPlan/{propertyId}/recommendation returns the recommended containers")
+    void testRecommendContainerMix_success() throws Exception {
+        ContainerMixItemDTO item = new ContainerMixItemDTO(7L, "660L kärl", 660, 52, 1, BigDecimal.valueOf(2000));
+        ServiceTypeMixDTO service = new ServiceTypeMixDTO(2L, "Restavfall", 600, 660, 1.0, BigDecimal.valueOf(2000), List.of(item));
+        ContainerMixDTO mix = new ContainerMixDTO(100L, 20, null, 1.0, true, BigDecimal.valueOf(2000), List.of(service));
+
+        Mockito.when(containerMixService.recommendContainerMix(Mockito.eq(100L), any(ContainerMixRequest.class)))
+                .thenReturn(mix);
+
+        mockMvc.perform(post("/api/containerPlan/{propertyId}/recommendation", 100L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"targets\": [ { \"serviceTypeId\": 2, \"litersPerWeekPerApartment\": 30 } ] }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.annualCost").value(2000))
+                .andExpect(jsonPath("$.fitsFloorArea").value(true))
+                .andExpect(jsonPath("$.services[0].containers[0].containerPlanId").value(7))
+                .andExpect(jsonPath("$.services[0].containers[0].count").value(1));
+    }
+
+    @Test
+    @DisplayName("POST /api/containerPlan/{propertyId}/recommendation returns 400 without targets")
+    void testRecommendContainerMix_noTargets() throws Exception {
+        mockMvc.perform(post("/api/containerPlan/{propertyId}/recommendation", 100L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"targets\": [] }"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(containerMixService);
+    }
+}
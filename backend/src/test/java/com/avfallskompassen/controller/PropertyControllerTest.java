@@ -3,6 +3,7 @@ package com.avfallskompassen.controller;
 import com.avfallskompassen.dto.LockTypeDto;
 import com.avfallskompassen.dto.PropertySimpleDTO;
 import com.avfallskompassen.dto.UserStatsDTO;
+import com.avfallskompassen.dto.UserStatsPageDTO;
 import com.avfallskompassen.dto.request.PropertyRequest;
 import com.avfallskompassen.dto.response.PropertyResponse;
 import com.avfallskompassen.dto.PropertyDTO;
@@ -40,6 +41,9 @@ public class PropertyControllerTest {
     @Mock
     private com.avfallskompassen.services.LockTypeService lockTypeService;
 
+    @Mock
+    private com.avfallskompassen.services.UserStatisticsService userStatisticsService;
+
     @InjectMocks
     private PropertyController controller;
 
@@ -345,6 +349,17 @@ public class PropertyControllerTest {
         assertEquals(mockUserStats, response.getBody());
     }
 
+    @Test
+    void getUserStatsPage_ReturnsPageFromStatisticsService() {
+        UserStatsPageDTO page = new UserStatsPageDTO(List.of(new UserStatsDTO()), 1, 20, 21, 2);
+        Mockito.when(userStatisticsService.getUserStats(1, 20, "propertiesCount", "desc")).thenReturn(page);
+
+        ResponseEntity<UserStatsPageDTO> response = controller.getUserStatsPage(1, 20, "propertiesCount", "desc");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(page, response.getBody());
+    }
+
     @Test
     void getMyPropertiesWithWasteRooms_ReturnOK() {
         String username = "Anton";
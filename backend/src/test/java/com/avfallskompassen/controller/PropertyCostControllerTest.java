@@ -1,6 +1,9 @@
 package com.avfallskompassen.controller;
 
+import com.avfallskompassen.dto.CostBreakdownDTO;
 import com.avfallskompassen.dto.GeneralPropertyCostDTO;
+import com.avfallskompassen.dto.request.CostSimulationRequest;
+import com.avfallskompassen.services.CostSimulationService;
 import com.avfallskompassen.services.PropertyCostService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,6 +28,9 @@ class PropertyCostControllerTest {
     @Mock
     private PropertyCostService propertyCostService;
 
+    @Mock
+    private CostSimulationService costSimulationService;
+
     @InjectMocks
     private PropertyCostController propertyCostController;
 
@@ -134,4 +140,19 @@ class PropertyCostControllerTest {
         assertThat(((Map<?, ?>) response.getBody()).get("error"))
                 .isEqualTo("An unexpected error occured");
     }
+
+    @Test
+    void simulateAnnualCost_ShouldReturnBreakdown() {
+        CostSimulationRequest request = new CostSimulationRequest(1L, 2L, 12.0, 4, null);
+        CostBreakdownDTO breakdown = new CostBreakdownDTO(BigDecimal.valueOf(50), BigDecimal.valueOf(300),
+                BigDecimal.valueOf(2000), BigDecimal.valueOf(100), BigDecimal.valueOf(2450),
+                BigDecimal.valueOf(612.50), 2, 1);
+        when(costSimulationService.simulateAnnualCost(request)).thenReturn(breakdown);
+
+        ResponseEntity<CostBreakdownDTO> response = propertyCostController.simulateAnnualCost(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isSameAs(breakdown);
+        verify(costSimulationService, times(1)).simulateAnnualCost(request);
+    }
 }
@@ -1,6 +1,7 @@
 package com.avfallskompassen.controller;
 
 import com.avfallskompassen.dto.ActivityDTO;
+import com.avfallskompassen.dto.ActivityPageDTO;
 import com.avfallskompassen.model.User;
 import com.avfallskompassen.services.ActivityService;
 import com.avfallskompassen.services.UserService;
@@ -159,6 +160,29 @@ class UserControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)));
     }
 
+    @Test
+    void getUsersActivityFeed_ShouldReturnPageAndCursor() throws Exception {
+        String username = "john";
+
+        User user = new User();
+        user.setUsername(username);
+
+        ActivityPageDTO page = new ActivityPageDTO(List.of(new ActivityDTO("details", "2026-01-01T12:00")), "next");
+
+        when(userService.findByUsername(username)).thenReturn(Optional.of(user));
+        when(activityService.getActivityFeed(user, "cursor", 1)).thenReturn(page);
+
+        mockMvc.perform(get("/api/user/activities/feed")
+                        .header("X-Username", username)
+                        .param("after", "cursor")
+                        .param("limit", "1")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
     @Test
     void getUsersLatestActivities_ShouldReturn404_WhenUserNotFound() throws Exception {
         when(userService.findByUsername("missing")).thenReturn(Optional.empty());
@@ -1,21 +1,30 @@
 package com.avfallskompassen.controller;
 
+import com.avfallskompassen.dto.ContainerPlacementDTO;
 import com.avfallskompassen.dto.ContainerPositionDTO;
 import com.avfallskompassen.dto.DoorDTO;
 import com.avfallskompassen.dto.OtherObjectDTO;
 import com.avfallskompassen.dto.WasteRoomDTO;
 import com.avfallskompassen.dto.WasteRoomImgDTO;
+import com.avfallskompassen.dto.request.ContainerPlacementRequest;
+import com.avfallskompassen.dto.request.ContainerPositionRequest;
 import com.avfallskompassen.dto.request.WasteRoomRequest;
 import com.avfallskompassen.exception.BadRequestException;
 import com.avfallskompassen.exception.InternalServerException;
 import com.avfallskompassen.exception.ResourceNotFoundException;
+import com.avfallskompassen.services.ContainerPlacementService;
+import com.avfallskompassen.services.RenderedThumbnail;
+import com.avfallskompassen.services.ThumbnailRenderService;
+import com.avfallskompassen.services.ThumbnailSize;
 import com.avfallskompassen.services.WasteRoomService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
@@ -23,8 +32,12 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -41,6 +54,12 @@ class WasteRoomControllerTest {
     @MockBean
     private WasteRoomService wasteRoomService;
 
+    @MockBean
+    private ThumbnailRenderService thumbnailRenderService;
+
+    @MockBean
+    private ContainerPlacementService containerPlacementService;
+
     @Test
     void createWasteRoom_ReturnOK() throws Exception{
         List<ContainerPositionDTO> containers = List.of(
@@ -327,4 +346,119 @@ class WasteRoomControllerTest {
         mockMvc.perform(get("/api/properties/{propertyId}/active/wasteroom", "abc"))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void uploadThumbnail_PngBody_ReturnsOK() throws Exception {
+        when(wasteRoomService.uploadThumbnail(eq(5L), any(), eq(3L), eq(MediaType.IMAGE_PNG_VALUE)))
+                .thenReturn(new WasteRoomImgDTO("/images/wasterooms/5.png"));
+
+        mockMvc.perform(put("/api/wasterooms/{id}/thumbnail", 5L)
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content(new byte[]{1, 2, 3}))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.thumbnailUrl").value("/images/wasterooms/5.png"));
+    }
+
+    @Test
+    void uploadThumbnail_MultipartFile_ReturnsOK() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "5.png", MediaType.IMAGE_PNG_VALUE, new byte[]{1, 2, 3});
+        when(wasteRoomService.uploadThumbnail(eq(5L), any(), eq(3L), eq(MediaType.IMAGE_PNG_VALUE)))
+                .thenReturn(new WasteRoomImgDTO("/images/wasterooms/5.png"));
+
+        mockMvc.perform(multipart(HttpMethod.PUT, "/api/wasterooms/{id}/thumbnail", 5L).file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.thumbnailUrl").value("/images/wasterooms/5.png"));
+    }
+
+    @Test
+    void uploadThumbnail_NotFound_Returns404() throws Exception {
+        when(wasteRoomService.uploadThumbnail(eq(99L), any(), anyLong(), any()))
+                .thenThrow(new ResourceNotFoundException("WasteRoom with id: 99 can't be found"));
+
+        mockMvc.perform(put("/api/wasterooms/{id}/thumbnail", 99L)
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content(new byte[]{1}))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void uploadThumbnail_UnsupportedContentType_Returns415() throws Exception {
+        mockMvc.perform(put("/api/wasterooms/{id}/thumbnail", 5L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(wasteRoomService);
+    }
+
+    @Test
+    void getRenderedThumbnail_ReturnsPngWithETag() throws Exception {
+        when(thumbnailRenderService.renderThumbnail(5L, ThumbnailSize.ICON))
+                .thenReturn(new RenderedThumbnail("abc123", new byte[]{1, 2, 3}));
+
+        mockMvc.perform(get("/api/wasterooms/{id}/thumbnail", 5L).param("size", "icon"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc123\""))
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void getRenderedThumbnail_MatchingETag_Returns304() throws Exception {
+        when(thumbnailRenderService.renderThumbnail(5L, ThumbnailSize.CARD))
+                .thenReturn(new RenderedThumbnail("abc123", new byte[]{1, 2, 3}));
+
+        mockMvc.perform(get("/api/wasterooms/{id}/thumbnail", 5L).header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getRenderedThumbnail_UnknownSize_Returns400() throws Exception {
+        mockMvc.perform(get("/api/wasterooms/{id}/thumbnail", 5L).param("size", "huge"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(thumbnailRenderService);
+    }
+
+    @Test
+    void placeContainers_ReturnsSuggestedLayout() throws Exception {
+        ContainerPlacementDTO placement = new ContainerPlacementDTO(
+                List.of(new ContainerPositionRequest(3L, 0, 0, 0, false)), List.of(3L), 12, 40);
+        when(containerPlacementService.placeContainers(any(ContainerPlacementRequest.class))).thenReturn(placement);
+
+        mockMvc.perform(post("/api/wasterooms/placement")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {
+                              "length": 3.0,
+                              "width": 4.0,
+                              "x": 0.0,
+                              "y": 0.0,
+                              "doors": [
+                                { "width": 1.0, "x": 150.0, "y": 0.0, "angle": 0.0, "wall": "top", "swingDirection": "inward" }
+                              ],
+                              "containers": [
+                                { "containerPlanId": 3, "count": 2 }
+                              ]
+                            }
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.containers[0].id").value(3))
+                .andExpect(jsonPath("$.placedCount").value(1))
+                .andExpect(jsonPath("$.complete").value(false))
+                .andExpect(jsonPath("$.unplacedContainerPlanIds[0]").value(3));
+    }
+
+    @Test
+    void placeContainers_NoContainers_Returns400() throws Exception {
+        mockMvc.perform(post("/api/wasterooms/placement")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            { "length": 3.0, "width": 4.0, "x": 0.0, "y": 0.0, "doors": [], "containers": [] }
+                        """))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(containerPlacementService);
+    }
+}
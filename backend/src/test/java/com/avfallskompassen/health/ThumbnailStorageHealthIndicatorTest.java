@@ -0,0 +1,84 @@
+package com.avfallskompassen.health;
+
+import com.avfallskompassen.services.ThumbnailStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ThumbnailStorageHealthIndicator}
+ */
+class ThumbnailStorageHealthIndicatorTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Test
+    void health_StorageAvailable_IsUp() {
+        ThumbnailStorageHealthIndicator indicator = createIndicator(new CountingStorage(false));
+
+        Health health = indicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("CountingStorage", health.getDetails().get("storage"));
+    }
+
+    @Test
+    void health_StorageUnavailable_IsDownWithReason() {
+        ThumbnailStorageHealthIndicator indicator = createIndicator(new CountingStorage(true));
+
+        Health health = indicator.health();
+
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals("Bucket missing", health.getDetails().get("error"));
+    }
+
+    @Test
+    void health_ReusesResultUntilCacheExpires() {
+        CountingStorage storage = new CountingStorage(false);
+        ThumbnailStorageHealthIndicator indicator = createIndicator(storage);
+
+        indicator.health();
+        indicator.health();
+        assertEquals(1, storage.checks.get());
+
+        indicator.setClock(Clock.fixed(NOW.plusSeconds(31), ZoneOffset.UTC));
+        indicator.health();
+        assertEquals(2, storage.checks.get());
+    }
+
+    private static ThumbnailStorageHealthIndicator createIndicator(ThumbnailStorage storage) {
+        ThumbnailStorageHealthIndicator indicator = new ThumbnailStorageHealthIndicator(storage, 30000);
+        indicator.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+        return indicator;
+    }
+
+    private static final class CountingStorage implements ThumbnailStorage {
+        private final boolean failing;
+        private final AtomicInteger checks = new AtomicInteger();
+
+        private CountingStorage(boolean failing) {
+            this.failing = failing;
+        }
+
+        @Override
+        public String store(String fileName, byte[] content, String contentType) {
+            return fileName;
+        }
+
+        @Override
+        public void checkAvailable() throws IOException {
+            checks.incrementAndGet();
+            if (failing) {
+                throw new IOException("Bucket missing");
+            }
+        }
+    }
+}
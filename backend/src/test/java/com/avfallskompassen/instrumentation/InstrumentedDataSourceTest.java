@@ -0,0 +1,102 @@
+package com.avfallskompassen.instrumentation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link InstrumentedDataSource} and {@link QueryInstrumentationFilter}
+ */
+class InstrumentedDataSourceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InstrumentedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:instrumented;DB_CLOSE_DELAY=-1");
+        dataSource = new InstrumentedDataSource(h2, new SlowQueryLog(0, meterRegistry));
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists item");
+            statement.execute("create table item (id int primary key, name varchar(20))");
+            statement.execute("insert into item values (1, 'a'), (2, 'b'), (3, 'c')");
+        }
+    }
+
+    @Test
+    void countsStatementsAndRowsOnTheCurrentThread() throws SQLException {
+        QueryStats.Snapshot start = QueryStats.current().snapshot();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select name from item where id > ?")) {
+            statement.setInt(1, 1);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    assertNotNull(rows.getString(1));
+                }
+            }
+            statement.setInt(1, 2);
+            statement.executeQuery().close();
+        }
+
+        QueryStats.Snapshot used = QueryStats.current().since(start);
+        assertEquals(2, used.statements());
+        assertEquals(2, used.rows());
+        assertTrue(used.nanos() > 0);
+    }
+
+    @Test
+    void connectionProxy_UnwrapsToThePool() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.isWrapperFor(JdbcConnection.class));
+        }
+    }
+
+    @Test
+    void filter_RecordsMetricsAndSetsHeaders() throws Exception {
+        QueryInstrumentationFilter filter = new QueryInstrumentationFilter(meterRegistry, true, 3);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/properties/1/comparison");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/properties/{propertyId}/comparison");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                try (Connection connection = dataSource.getConnection()) {
+                    for (int id = 1; id <= 3; id++) {
+                        try (PreparedStatement statement = connection.prepareStatement("select name from item where id = " + id)) {
+                            statement.executeQuery().close();
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        assertEquals("3", response.getHeader(QueryInstrumentationFilter.STATEMENTS_HEADER));
+        assertNotNull(response.getHeader(QueryInstrumentationFilter.TIME_HEADER));
+        assertEquals(3.0, meterRegistry.get("http.server.requests.db.statements")
+                .tag("uri", "/api/properties/{propertyId}/comparison").summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get("db.statements.repeated").counter().count());
+    }
+}
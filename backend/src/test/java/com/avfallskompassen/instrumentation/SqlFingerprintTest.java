@@ -0,0 +1,32 @@
+package com.avfallskompassen.instrumentation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link SqlFingerprint}
+ */
+class SqlFingerprintTest {
+
+    @Test
+    void of_ReplacesLiteralsAndNormalizesWhitespace() {
+        assertEquals("select * from property p where p.id = ? and p.address = ?",
+                SqlFingerprint.of("SELECT *\n  FROM property p\n WHERE p.id = 42 AND p.address = 'Storgatan 1'"));
+    }
+
+    @Test
+    void of_KeepsAliasesWithDigits() {
+        assertEquals("select p1_0.id from property p1_0 where p1_0.id=?",
+                SqlFingerprint.of("select p1_0.id from property p1_0 where p1_0.id=?"));
+    }
+
+    @Test
+    void of_CollapsesInListsOfAnyLength() {
+        String two = SqlFingerprint.of("select * from waste_room where property_id in (?, ?)");
+        String five = SqlFingerprint.of("select * from waste_room where property_id in (?,?,?,?,?)");
+
+        assertEquals("select * from waste_room where property_id in (?...)", two);
+        assertEquals(two, five);
+    }
+}
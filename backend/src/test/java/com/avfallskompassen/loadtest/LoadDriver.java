@@ -0,0 +1,157 @@
+package com.avfallskompassen.loadtest;
+
+import com.avfallskompassen.instrumentation.QueryInstrumentationFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Drives a scripted scenario over real HTTP against the running application. Every virtual user runs
+ * on its own thread and repeats the scenario steps in order; latency, status and the
+ * {@link QueryInstrumentationFilter#STATEMENTS_HEADER statement count} of every response are recorded per step.
+ */
+public class LoadDriver {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDriver.class);
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final List<Step> steps;
+
+    public LoadDriver(URI baseUri, List<Step> steps) {
+        this.baseUri = baseUri;
+        this.steps = List.copyOf(steps);
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * Runs the warmup iterations without recording, then the measured iterations.
+     *
+     * @param users            one virtual user per thread
+     * @param warmupIterations iterations per user that are not recorded
+     * @param iterations       measured iterations per user
+     * @return the report of the measured iterations
+     */
+    public LoadReport run(List<VirtualUser> users, int warmupIterations, int iterations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(users.size());
+        try {
+            runIterations(executor, users, warmupIterations, null);
+
+            Map<String, LoadReport.Recorder> recorders = new LinkedHashMap<>();
+            steps.forEach(step -> recorders.put(step.name(), new LoadReport.Recorder()));
+            long start = System.nanoTime();
+            runIterations(executor, users, iterations, recorders);
+            return LoadReport.of(recorders, System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runIterations(ExecutorService executor, List<VirtualUser> users, int iterations,
+                               Map<String, LoadReport.Recorder> recorders) throws Exception {
+        List<Future<?>> running = new ArrayList<>();
+        for (VirtualUser user : users) {
+            running.add(executor.submit(() -> {
+                for (int iteration = 0; iteration < iterations; iteration++) {
+                    for (Step step : steps) {
+                        if (iteration % step.everyNthIteration() == 0) {
+                            execute(step, user, recorders != null ? recorders.get(step.name()) : null);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+    }
+
+    private void execute(Step step, VirtualUser user, LoadReport.Recorder recorder) throws InterruptedException {
+        Call call = step.call().apply(user);
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(call.path()))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + user.token())
+                .header("X-Username", user.username());
+        if (call.jsonBody() != null) {
+            request.header("Content-Type", "application/json")
+                    .method(call.method(), HttpRequest.BodyPublishers.ofString(call.jsonBody()));
+        } else {
+            request.method(call.method(), HttpRequest.BodyPublishers.noBody());
+        }
+
+        long start = System.nanoTime();
+        int status;
+        int queries;
+        try {
+            HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            status = response.statusCode();
+            queries = response.headers().firstValue(QueryInstrumentationFilter.STATEMENTS_HEADER).map(Integer::parseInt).orElse(-1);
+        } catch (IOException e) {
+            log.warn("{} {} failed: {}", call.method(), call.path(), e.getMessage());
+            status = -1;
+            queries = -1;
+        }
+        long latency = System.nanoTime() - start;
+
+        boolean error = status < 200 || status >= 300;
+        if (error) {
+            log.debug("{} {} returned {}", call.method(), call.path(), status);
+        }
+        if (recorder != null) {
+            recorder.record(latency, queries, error);
+        }
+    }
+
+    /**
+     * One step of the scenario.
+     *
+     * @param name              name in the report
+     * @param everyNthIteration run the step only in every n:th iteration, 1 for every iteration
+     * @param call              builds the request for a virtual user
+     */
+    public record Step(String name, int everyNthIteration, Function<VirtualUser, Call> call) {
+    }
+
+    /**
+     * A request relative to the base URI, with an optional JSON body.
+     */
+    public record Call(String method, String path, String jsonBody) {
+
+        public static Call get(String path) {
+            return new Call("GET", path, null);
+        }
+
+        public static Call post(String path, String jsonBody) {
+            return new Call("POST", path, jsonBody);
+        }
+    }
+
+    /**
+     * A logged in user with the properties it owns. The random source is per user, so the
+     * choices of one user do not depend on how the threads are scheduled.
+     */
+    public record VirtualUser(String username, String token, List<Long> propertyIds, Random random) {
+
+        public Long anyPropertyId() {
+            return propertyIds.get(random.nextInt(propertyIds.size()));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.avfallskompassen.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latency percentiles, queries per request and throughput of one load run, per scenario step and in total.
+ */
+public class LoadReport {
+
+    private final Map<String, StepStats> steps;
+    private final long wallTimeNanos;
+
+    LoadReport(Map<String, StepStats> steps, long wallTimeNanos) {
+        this.steps = steps;
+        this.wallTimeNanos = wallTimeNanos;
+    }
+
+    public Map<String, StepStats> getSteps() {
+        return steps;
+    }
+
+    public double getWallTimeSeconds() {
+        return wallTimeNanos / 1e9;
+    }
+
+    public long getTotalRequests() {
+        return steps.values().stream().mapToLong(StepStats::requests).sum();
+    }
+
+    public long getTotalErrors() {
+        return steps.values().stream().mapToLong(StepStats::errors).sum();
+    }
+
+    public double getThroughputPerSecond() {
+        return wallTimeNanos > 0 ? getTotalRequests() / getWallTimeSeconds() : 0;
+    }
+
+    /**
+     * Formats the report as a table, one row per step.
+     */
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-28s %8s %7s %9s %9s %9s %9s %8s %8s%n",
+                "step", "requests", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms", "q/req", "q max"));
+        steps.forEach((name, s) -> out.append(String.format("%-28s %8d %7d %9.2f %9.2f %9.2f %9.2f %8.1f %8d%n",
+                name, s.requests(), s.errors(), s.p50Ms(), s.p95Ms(), s.p99Ms(), s.maxMs(),
+                s.meanQueries(), s.maxQueries())));
+        out.append(String.format("%d requests in %.1f s, %.1f requests/s, %d errors%n",
+                getTotalRequests(), getWallTimeSeconds(), getThroughputPerSecond(), getTotalErrors()));
+        return out.toString();
+    }
+
+    public void writeJson(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("wallTimeSeconds", getWallTimeSeconds());
+        json.put("totalRequests", getTotalRequests());
+        json.put("totalErrors", getTotalErrors());
+        json.put("throughputPerSecond", getThroughputPerSecond());
+        json.put("steps", steps);
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), json);
+    }
+
+    /**
+     * Summary of one scenario step.
+     */
+    public record StepStats(long requests, long errors, double p50Ms, double p95Ms, double p99Ms, double maxMs,
+                            double meanQueries, int maxQueries) {
+    }
+
+    /**
+     * Collects the samples of one step from all virtual users.
+     */
+    static class Recorder {
+
+        private final List<Long> latencies = new ArrayList<>();
+        private final List<Integer> queryCounts = new ArrayList<>();
+        private long errors;
+
+        synchronized void record(long latencyNanos, int queries, boolean error) {
+            latencies.add(latencyNanos);
+            if (queries >= 0) {
+                queryCounts.add(queries);
+            }
+            if (error) {
+                errors++;
+            }
+        }
+
+        synchronized StepStats summarize() {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new StepStats(sorted.length, errors,
+                    percentileMs(sorted, 50), percentileMs(sorted, 95), percentileMs(sorted, 99),
+                    sorted.length > 0 ? sorted[sorted.length - 1] / 1e6 : 0,
+                    queryCounts.stream().mapToInt(Integer::intValue).average().orElse(0),
+                    queryCounts.stream().mapToInt(Integer::intValue).max().orElse(0));
+        }
+
+        /**
+         * Nearest-rank percentile of sorted latencies, in milliseconds.
+         */
+        static double percentileMs(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)] / 1e6;
+        }
+    }
+
+    static LoadReport of(Map<String, Recorder> recorders, long wallTimeNanos) {
+        Map<String, StepStats> steps = new LinkedHashMap<>();
+        recorders.forEach((name, recorder) -> steps.put(name, recorder.summarize()));
+        return new LoadReport(steps, wallTimeNanos);
+    }
+}
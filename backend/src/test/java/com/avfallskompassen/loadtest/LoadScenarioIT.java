@@ -0,0 +1,134 @@
+package com.avfallskompassen.loadtest;
+
+import com.avfallskompassen.dto.request.ContainerPositionRequest;
+import com.avfallskompassen.dto.request.DoorRequest;
+import com.avfallskompassen.dto.request.OtherObjectRequest;
+import com.avfallskompassen.dto.request.WasteRoomRequest;
+import com.avfallskompassen.security.JwtUtil;
+import com.avfallskompassen.services.ContainerCatalogService;
+import com.avfallskompassen.services.PeerStatisticsService;
+import com.avfallskompassen.services.UserStatisticsService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load scenario against the property, waste room and comparison endpoints on a seeded database.
+ * Only runs when asked for, e.g.
+ * {@code ./mvnw verify -Dloadtest=true -Dit.test=LoadScenarioIT -Dloadtest.properties-per-type=1000}.
+ * Runs on H2 by default; point {@code spring.datasource.*} at a Postgres database to measure against it.
+ * The report is logged and written to {@code target/load-test/report.json}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "instrumentation.sql.response-headers=true")
+@ActiveProfiles("test")
+@Import(LoadTestDataGenerator.class)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class LoadScenarioIT {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadScenarioIT.class);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoadTestDataGenerator generator;
+
+    @Autowired
+    private PeerStatisticsService peerStatisticsService;
+
+    @Autowired
+    private ContainerCatalogService containerCatalogService;
+
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void propertyScenario() throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        LoadTestDataset dataset = generator.generate(config);
+        peerStatisticsService.rebuildAll();
+        containerCatalogService.reload();
+        // The generator writes through the repositories, so the per user counters are recounted afterwards
+        userStatisticsService.recountAll();
+
+        LoadDriver driver = new LoadDriver(URI.create("http://localhost:" + port), List.of(
+                new LoadDriver.Step("my properties", 1, user -> LoadDriver.Call.get("/api/properties/my-properties")),
+                new LoadDriver.Step("property", 1, user -> LoadDriver.Call.get("/api/properties/" + user.anyPropertyId())),
+                new LoadDriver.Step("waste rooms", 1,
+                        user -> LoadDriver.Call.get("/api/properties/" + user.anyPropertyId() + "/wasterooms")),
+                new LoadDriver.Step("comparison", 1,
+                        user -> LoadDriver.Call.get("/api/properties/" + user.anyPropertyId() + "/comparison")),
+                new LoadDriver.Step("save waste room", 5,
+                        user -> LoadDriver.Call.post("/api/wasterooms", wasteRoomJson(user, dataset, config)))));
+
+        LoadReport report = driver.run(virtualUsers(dataset, config), config.warmupIterations(), config.iterationsPerUser());
+
+        log.info("Load test with {} properties, {} users, concurrency {}:\n{}",
+                config.totalProperties(), config.users(), config.concurrency(), report.format());
+        report.writeJson(Path.of("target", "load-test", "report.json"));
+
+        assertThat(report.getTotalErrors()).isZero();
+        Long maxP95 = Long.getLong("loadtest.max-p95-ms");
+        if (maxP95 != null) {
+            report.getSteps().forEach((name, stats) ->
+                    assertThat(stats.p95Ms()).as("p95 of %s", name).isLessThanOrEqualTo(maxP95));
+        }
+    }
+
+    private List<LoadDriver.VirtualUser> virtualUsers(LoadTestDataset dataset, LoadTestConfig config) {
+        List<LoadTestDataset.SeededUser> owners = dataset.users().stream()
+                .filter(user -> !user.propertyIds().isEmpty())
+                .toList();
+        List<LoadDriver.VirtualUser> users = new ArrayList<>();
+        for (int i = 0; i < config.concurrency(); i++) {
+            LoadTestDataset.SeededUser owner = owners.get(i % owners.size());
+            users.add(new LoadDriver.VirtualUser(owner.username(), jwtUtil.generateToken(owner.username(), owner.role()),
+                    owner.propertyIds(), new Random(config.seed() + i)));
+        }
+        return users;
+    }
+
+    private String wasteRoomJson(LoadDriver.VirtualUser user, LoadTestDataset dataset, LoadTestConfig config) {
+        Long propertyId = user.anyPropertyId();
+        List<Long> plans = dataset.planIdsByMunicipality().get(dataset.municipalityByProperty().get(propertyId));
+
+        List<ContainerPositionRequest> containers = new ArrayList<>();
+        for (int c = 0; c < config.containersPerRoom(); c++) {
+            containers.add(new ContainerPositionRequest(plans.get(user.random().nextInt(plans.size())),
+                    user.random().nextInt(400), user.random().nextInt(400), 0, false));
+        }
+        WasteRoomRequest request = new WasteRoomRequest(6, 8, 100, 100,
+                List.of(new DoorRequest(1.2, 0, 0, 0, "top", "outward")),
+                containers,
+                List.of(new OtherObjectRequest("Skåp", 60, 40, 10, 10, 0)),
+                propertyId, "Miljörum");
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
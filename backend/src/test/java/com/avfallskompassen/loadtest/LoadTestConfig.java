@@ -0,0 +1,54 @@
+package com.avfallskompassen.loadtest;
+
+import com.avfallskompassen.model.PropertyType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Size of the synthetic dataset and shape of the load scenario. Every value can be overridden with a
+ * system property, e.g. {@code -Dloadtest.properties-per-type=2000 -Dloadtest.concurrency=16}.
+ *
+ * @param seed                     seed for all random choices, so a run can be repeated exactly
+ * @param municipalities           number of municipalities, each with its own container plans and collection fee
+ * @param users                    number of users, properties are spread evenly over them
+ * @param propertiesPerType        number of properties to create per {@link PropertyType}
+ * @param wasteRoomVersions        saved versions per property, the last one is active
+ * @param containersPerRoom        container positions per waste room version
+ * @param concurrency              number of virtual users running the scenario at the same time
+ * @param iterationsPerUser        scenario iterations per virtual user
+ * @param warmupIterations         iterations per virtual user before measuring starts
+ */
+public record LoadTestConfig(long seed,
+                             int municipalities,
+                             int users,
+                             Map<PropertyType, Integer> propertiesPerType,
+                             int wasteRoomVersions,
+                             int containersPerRoom,
+                             int concurrency,
+                             int iterationsPerUser,
+                             int warmupIterations) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        Map<PropertyType, Integer> perType = new EnumMap<>(PropertyType.class);
+        int defaultPerType = Integer.getInteger("loadtest.properties-per-type", 100);
+        for (PropertyType type : PropertyType.values()) {
+            perType.put(type, Integer.getInteger("loadtest.properties." + type.name().toLowerCase(), defaultPerType));
+        }
+
+        return new LoadTestConfig(
+                Long.getLong("loadtest.seed", 42L),
+                Integer.getInteger("loadtest.municipalities", 3),
+                Integer.getInteger("loadtest.users", 50),
+                Map.copyOf(perType),
+                Integer.getInteger("loadtest.waste-room-versions", 3),
+                Integer.getInteger("loadtest.containers-per-room", 10),
+                Integer.getInteger("loadtest.concurrency", 8),
+                Integer.getInteger("loadtest.iterations", 50),
+                Integer.getInteger("loadtest.warmup-iterations", 5));
+    }
+
+    public int totalProperties() {
+        return propertiesPerType.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
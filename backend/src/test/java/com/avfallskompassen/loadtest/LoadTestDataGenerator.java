@@ -0,0 +1,266 @@
+package com.avfallskompassen.loadtest;
+
+import com.avfallskompassen.model.CollectionFee;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.Door;
+import com.avfallskompassen.model.LockType;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.MunicipalityService;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.PropertyType;
+import com.avfallskompassen.model.ServiceType;
+import com.avfallskompassen.model.User;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.CollectionFeeRepository;
+import com.avfallskompassen.repository.ContainerPlanRepository;
+import com.avfallskompassen.repository.ContainerTypeRepository;
+import com.avfallskompassen.repository.LockTypeRepository;
+import com.avfallskompassen.repository.MunicipalityRepository;
+import com.avfallskompassen.repository.MunicipalityServiceRepository;
+import com.avfallskompassen.repository.PropertyRepository;
+import com.avfallskompassen.repository.ServiceTypeRepository;
+import com.avfallskompassen.repository.UserRepository;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeds the database with a synthetic dataset through the regular repositories: municipalities with
+ * container plans and collection fees, users, properties of every {@link PropertyType} and a number of
+ * saved waste room versions per property. Properties are written in chunks, each in its own transaction,
+ * so large datasets do not build up one huge persistence context. Not a component, the load test
+ * imports it explicitly so other Spring Boot tests do not pick it up.
+ */
+public class LoadTestDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestDataGenerator.class);
+
+    private static final int CHUNK_SIZE = 100;
+    private static final String[] SERVICE_TYPES = {"Restavfall", "Matavfall", "Pappersförpackningar", "Plastförpackningar", "Glas", "Metall"};
+    private static final int[] CONTAINER_SIZES = {140, 190, 240, 370, 660};
+    private static final int[] FREQUENCIES = {13, 26, 52};
+    private static final String[] WALLS = {"top", "bottom", "left", "right"};
+
+    private final MunicipalityRepository municipalityRepository;
+    private final UserRepository userRepository;
+    private final LockTypeRepository lockTypeRepository;
+    private final ServiceTypeRepository serviceTypeRepository;
+    private final ContainerTypeRepository containerTypeRepository;
+    private final MunicipalityServiceRepository municipalityServiceRepository;
+    private final ContainerPlanRepository containerPlanRepository;
+    private final CollectionFeeRepository collectionFeeRepository;
+    private final PropertyRepository propertyRepository;
+    private final WasteRoomRepository wasteRoomRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public LoadTestDataGenerator(MunicipalityRepository municipalityRepository,
+                                 UserRepository userRepository,
+                                 LockTypeRepository lockTypeRepository,
+                                 ServiceTypeRepository serviceTypeRepository,
+                                 ContainerTypeRepository containerTypeRepository,
+                                 MunicipalityServiceRepository municipalityServiceRepository,
+                                 ContainerPlanRepository containerPlanRepository,
+                                 CollectionFeeRepository collectionFeeRepository,
+                                 PropertyRepository propertyRepository,
+                                 WasteRoomRepository wasteRoomRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.municipalityRepository = municipalityRepository;
+        this.userRepository = userRepository;
+        this.lockTypeRepository = lockTypeRepository;
+        this.serviceTypeRepository = serviceTypeRepository;
+        this.containerTypeRepository = containerTypeRepository;
+        this.municipalityServiceRepository = municipalityServiceRepository;
+        this.containerPlanRepository = containerPlanRepository;
+        this.collectionFeeRepository = collectionFeeRepository;
+        this.propertyRepository = propertyRepository;
+        this.wasteRoomRepository = wasteRoomRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Writes a dataset of the size described by the config.
+     *
+     * @param config sizes and seed of the dataset
+     * @return the seeded users, their properties and the container plans per municipality
+     */
+    public LoadTestDataset generate(LoadTestConfig config) {
+        long start = System.nanoTime();
+        Random random = new Random(config.seed());
+
+        Reference reference = transactionTemplate.execute(status -> seedReferenceData(config, random));
+        List<User> users = transactionTemplate.execute(status -> seedUsers(config));
+
+        Map<String, List<Long>> propertyIdsByUser = new HashMap<>();
+        List<Long> allPropertyIds = new ArrayList<>();
+        Map<Long, Long> municipalityByProperty = new HashMap<>();
+        int index = 0;
+        for (PropertyType type : PropertyType.values()) {
+            int remaining = config.propertiesPerType().getOrDefault(type, 0);
+            while (remaining > 0) {
+                int chunk = Math.min(CHUNK_SIZE, remaining);
+                int first = index;
+                List<Property> saved = transactionTemplate.execute(status ->
+                        seedProperties(config, random, reference, users, type, first, chunk));
+                for (Property property : saved) {
+                    propertyIdsByUser.computeIfAbsent(property.getCreatedBy().getUsername(), u -> new ArrayList<>())
+                            .add(property.getId());
+                    allPropertyIds.add(property.getId());
+                    municipalityByProperty.put(property.getId(), property.getMunicipality().getId());
+                }
+                index += chunk;
+                remaining -= chunk;
+            }
+        }
+
+        List<LoadTestDataset.SeededUser> seededUsers = users.stream()
+                .map(user -> new LoadTestDataset.SeededUser(user.getUsername(), user.getRole(),
+                        List.copyOf(propertyIdsByUser.getOrDefault(user.getUsername(), List.of()))))
+                .toList();
+
+        log.info("Seeded {} properties for {} users in {} municipalities in {} ms", allPropertyIds.size(), users.size(),
+                config.municipalities(), (System.nanoTime() - start) / 1_000_000);
+        return new LoadTestDataset(seededUsers, List.copyOf(allPropertyIds), Map.copyOf(municipalityByProperty),
+                reference.planIdsByMunicipality());
+    }
+
+    private Reference seedReferenceData(LoadTestConfig config, Random random) {
+        LockType lockType = lockTypeRepository.save(new LockType("Lasttestlås", new BigDecimal("450.00")));
+
+        List<ServiceType> serviceTypes = new ArrayList<>();
+        for (String name : SERVICE_TYPES) {
+            serviceTypes.add(serviceTypeRepository.save(new ServiceType(name)));
+        }
+        List<ContainerType> containerTypes = new ArrayList<>();
+        for (int size : CONTAINER_SIZES) {
+            containerTypes.add(containerTypeRepository.save(
+                    new ContainerType(size + "L Kärl", size, 500 + size, 600 + size, 1000)));
+        }
+
+        List<Municipality> municipalities = new ArrayList<>();
+        Map<Long, List<ContainerPlan>> plansByMunicipality = new HashMap<>();
+        for (int m = 0; m < config.municipalities(); m++) {
+            Municipality municipality = municipalityRepository.save(new Municipality("Lasttestkommun " + m));
+            municipalities.add(municipality);
+
+            CollectionFee fee = new CollectionFee();
+            fee.setMunicipality(municipality);
+            fee.setCost(BigDecimal.valueOf(800 + random.nextInt(800)).setScale(2));
+            collectionFeeRepository.save(fee);
+
+            List<ContainerPlan> plans = new ArrayList<>();
+            for (ServiceType serviceType : serviceTypes) {
+                MunicipalityService service = municipalityServiceRepository.save(
+                        new MunicipalityService(municipality, serviceType));
+                for (ContainerType containerType : containerTypes) {
+                    plans.add(containerPlanRepository.save(new ContainerPlan(service, containerType,
+                            FREQUENCIES[random.nextInt(FREQUENCIES.length)],
+                            BigDecimal.valueOf(200 + random.nextInt(2000)).setScale(2),
+                            "/images/containers/topview.png", "/images/containers/frontview.png")));
+                }
+            }
+            plansByMunicipality.put(municipality.getId(), plans);
+        }
+        return new Reference(lockType, municipalities, plansByMunicipality);
+    }
+
+    private List<User> seedUsers(LoadTestConfig config) {
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < config.users(); u++) {
+            users.add(new User("lasttest" + u, "not-used", "USER"));
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private List<Property> seedProperties(LoadTestConfig config, Random random, Reference reference, List<User> users,
+                                          PropertyType type, int first, int count) {
+        List<Property> properties = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            Municipality municipality = reference.municipalities().get(i % reference.municipalities().size());
+            Property property = new Property("Lasttestgatan " + i, 5 + random.nextInt(40), reference.lockType(), type,
+                    1.0 + random.nextInt(30), users.get(i % users.size()));
+            property.setMunicipality(municipality);
+            properties.add(property);
+        }
+        List<Property> saved = propertyRepository.saveAll(properties);
+
+        List<WasteRoom> rooms = new ArrayList<>();
+        for (Property property : saved) {
+            List<ContainerPlan> plans = reference.plansByMunicipality().get(property.getMunicipality().getId());
+            for (int version = 1; version <= config.wasteRoomVersions(); version++) {
+                rooms.add(wasteRoom(random, property, version, version == config.wasteRoomVersions(),
+                        config.containersPerRoom(), plans));
+            }
+        }
+        wasteRoomRepository.saveAll(rooms);
+        return saved;
+    }
+
+    private static WasteRoom wasteRoom(Random random, Property property, int version, boolean active,
+                                       int containers, List<ContainerPlan> plans) {
+        WasteRoom room = new WasteRoom();
+        room.setName("Miljörum");
+        room.setProperty(property);
+        room.setLength(3 + random.nextInt(6));
+        room.setWidth(3 + random.nextInt(9));
+        room.setX(100);
+        room.setY(100);
+        room.setVersionNumber(version);
+        room.setVersionName("Version " + version);
+        room.setIsActive(active);
+
+        List<ContainerPosition> positions = new ArrayList<>(containers);
+        double frequencySum = 0;
+        for (int c = 0; c < containers; c++) {
+            ContainerPlan plan = plans.get(random.nextInt(plans.size()));
+            ContainerPosition position = new ContainerPosition();
+            position.setContainerPlan(plan);
+            position.setX(random.nextInt(400));
+            position.setY(random.nextInt(400));
+            position.setAngle(random.nextBoolean() ? 0 : 90);
+            position.setHasLockILock(random.nextInt(4) == 0);
+            position.setWasteRoom(room);
+            positions.add(position);
+            frequencySum += plan.getEmptyingFrequencyPerYear();
+        }
+        room.setContainers(positions);
+        room.setAverageCollectionFrequency(containers > 0 ? frequencySum / containers : 0.0);
+
+        Door door = new Door();
+        door.setWidth(1.2);
+        door.setWall(WALLS[random.nextInt(WALLS.length)]);
+        door.setSwingDirection(random.nextBoolean() ? "inward" : "outward");
+        door.setWasteRoom(room);
+        room.setDoors(new ArrayList<>(List.of(door)));
+
+        OtherObject object = new OtherObject();
+        object.setName("Skåp");
+        object.setWidth(60);
+        object.setDepth(40);
+        object.setWasteRoom(room);
+        room.setOtherObjects(new ArrayList<>(List.of(object)));
+        return room;
+    }
+
+    private record Reference(LockType lockType, List<Municipality> municipalities,
+                             Map<Long, List<ContainerPlan>> plansByMunicipality) {
+
+        Map<Long, List<Long>> planIdsByMunicipality() {
+            Map<Long, List<Long>> ids = new HashMap<>();
+            plansByMunicipality.forEach((municipalityId, plans) ->
+                    ids.put(municipalityId, plans.stream().map(ContainerPlan::getId).toList()));
+            return Map.copyOf(ids);
+        }
+    }
+}
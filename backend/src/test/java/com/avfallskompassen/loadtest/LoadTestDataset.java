@@ -0,0 +1,21 @@
+package com.avfallskompassen.loadtest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What {@link LoadTestDataGenerator} wrote, so the load scenario knows which ids to request.
+ *
+ * @param users                 the seeded users and the properties each of them owns
+ * @param propertyIds           ids of all seeded properties
+ * @param municipalityByProperty municipality id per property id
+ * @param planIdsByMunicipality container plan ids per municipality id
+ */
+public record LoadTestDataset(List<SeededUser> users,
+                              List<Long> propertyIds,
+                              Map<Long, Long> municipalityByProperty,
+                              Map<Long, List<Long>> planIdsByMunicipality) {
+
+    public record SeededUser(String username, String role, List<Long> propertyIds) {
+    }
+}
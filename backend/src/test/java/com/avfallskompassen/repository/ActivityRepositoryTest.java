@@ -0,0 +1,90 @@
+package com.avfallskompassen.repository;
+
+import com.avfallskompassen.model.Activity;
+import com.avfallskompassen.model.ActivityType;
+import com.avfallskompassen.model.ArchivedActivity;
+import com.avfallskompassen.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false",
+    "spring.liquibase.enabled=false",
+    "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = Replace.ANY)
+public class ActivityRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private ArchivedActivityRepository archivedActivityRepository;
+
+    private Activity createActivity(User user, String details, LocalDateTime timestamp) {
+        Activity activity = em.persistAndFlush(new Activity(user, ActivityType.LOGIN, details));
+        // The timestamp is set on insert and not updatable through the entity, so move it with SQL
+        em.getEntityManager()
+                .createNativeQuery("UPDATE activities SET timestamp = ?1 WHERE id = ?2")
+                .setParameter(1, timestamp)
+                .setParameter(2, activity.getId())
+                .executeUpdate();
+        em.clear();
+        return em.find(Activity.class, activity.getId());
+    }
+
+    @Test
+    void findFeedAfter_pagesNewestFirstWithIdAsTieBreaker() {
+        User user = em.persistFlushFind(new User("feedUser", "pwd"));
+        User other = em.persistFlushFind(new User("otherFeedUser", "pwd"));
+        Activity newest = createActivity(user, "newest", NOW);
+        Activity sameTimeLow = createActivity(user, "same time, lower id", NOW.minusMinutes(1));
+        Activity sameTimeHigh = createActivity(user, "same time, higher id", NOW.minusMinutes(1));
+        Activity oldest = createActivity(user, "oldest", NOW.minusMinutes(2));
+        createActivity(other, "someone else", NOW);
+
+        List<Activity> first = activityRepository.findFeed(user, PageRequest.of(0, 2));
+        assertEquals(List.of(newest.getId(), sameTimeHigh.getId()), first.stream().map(Activity::getId).toList());
+
+        Activity last = first.get(1);
+        List<Activity> second = activityRepository.findFeedAfter(user, last.getTimestamp(), last.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(sameTimeLow.getId(), oldest.getId()), second.stream().map(Activity::getId).toList());
+    }
+
+    @Test
+    void copyFromActivities_andDeleteByIdIn_moveActivitiesToArchive() {
+        User user = em.persistFlushFind(new User("archiveUser", "pwd"));
+        Activity old = createActivity(user, "old", NOW.minusYears(2));
+        Activity recent = createActivity(user, "recent", NOW);
+
+        List<Long> ids = activityRepository.findIdsOlderThan(NOW.minusYears(1), PageRequest.of(0, 10));
+        assertEquals(List.of(old.getId()), ids);
+
+        assertEquals(1, archivedActivityRepository.copyFromActivities(ids, NOW));
+        assertEquals(1, activityRepository.deleteByIdIn(ids));
+        em.clear();
+
+        ArchivedActivity archived = archivedActivityRepository.findById(old.getId()).orElseThrow();
+        assertEquals(user.getId(), archived.getUserId());
+        assertEquals("old", archived.getDetails());
+        assertEquals(NOW.minusYears(2), archived.getTimestamp());
+        assertEquals(NOW, archived.getArchivedAt());
+        assertEquals(List.of(recent.getId()), activityRepository.findAll().stream().map(Activity::getId).toList());
+    }
+}
@@ -1,5 +1,7 @@
 package com.avfallskompassen.repository;
 
+import com.avfallskompassen.dto.PropertyListItemDTO;
+import com.avfallskompassen.dto.request.PropertySearchCriteria;
 import com.avfallskompassen.model.LockType;
 import com.avfallskompassen.model.Municipality;
 import com.avfallskompassen.model.Property;
@@ -11,8 +13,10 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -155,4 +159,122 @@ public class PropertyRepositoryTest {
         assertFalse(results.stream().anyMatch(pp -> pp.getId().equals(diffType.getId())));
         assertFalse(results.stream().anyMatch(pp -> pp.getId().equals(outsideRange.getId())));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findIdsDueForNotification_skipsPropertiesNotifiedSinceLastChange() {
+        LockType lock = createLock("L-N");
+        Municipality mun = createMunicipality("MunN");
+        User u = createUser("notifyUser");
+
+        Property neverNotified = createProperty("Due1", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+        Property notifiedBeforeChange = createProperty("Due2", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+        Property notifiedAfterChange = createProperty("NotDue", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+
+        LocalDateTime lastChange = notifiedBeforeChange.getUpdatedAt();
+        propertyRepository.markNotified(List.of(notifiedBeforeChange.getId()), lastChange.minusDays(1));
+        propertyRepository.markNotified(List.of(notifiedAfterChange.getId()), lastChange.plusDays(1));
+        em.clear();
+
+        LocalDateTime threshold = LocalDateTime.now().plusDays(1);
+
+        assertEquals(List.of(neverNotified.getId(), notifiedBeforeChange.getId()),
+                propertyRepository.findIdsDueForNotification(threshold));
+        assertTrue(propertyRepository.findIdsDueForNotification(LocalDateTime.now().minusYears(1)).isEmpty());
+    }
+
+    @Test
+    void findIdsDueForNotificationAfter_returnsNextPageAfterId() {
+        LockType lock = createLock("L-K");
+        Municipality mun = createMunicipality("MunK");
+        User u = createUser("keysetUser");
+
+        Property first = createProperty("K1", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+        Property second = createProperty("K2", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+        Property third = createProperty("K3", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+        LocalDateTime threshold = LocalDateTime.now().plusDays(1);
+
+        List<Long> page = propertyRepository.findIdsDueForNotificationAfter(threshold, first.getId(), PageRequest.of(0, 1));
+
+        assertEquals(List.of(second.getId()), page);
+        assertEquals(List.of(third.getId()),
+                propertyRepository.findIdsDueForNotificationAfter(threshold, second.getId(), PageRequest.of(0, 1)));
+    }
+
+    @Test
+    void markNotified_updatesAllIdsInOneStatementAndIsIdempotent() {
+        LockType lock = createLock("L-M");
+        Municipality mun = createMunicipality("MunM");
+        User u = createUser("markUser");
+
+        Property a = createProperty("M1", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+        Property b = createProperty("M2", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+        LocalDateTime now = LocalDateTime.now().plusMinutes(1);
+
+        assertEquals(2, propertyRepository.markNotified(List.of(a.getId(), b.getId()), now));
+        assertEquals(0, propertyRepository.markNotified(List.of(a.getId(), b.getId()), now.plusMinutes(1)));
+        em.clear();
+
+        assertNotNull(em.find(Property.class, a.getId()).getLastNotifiedAt());
+        assertNotNull(em.find(Property.class, b.getId()).getLastNotifiedAt());
+    }
+
+    @Test
+    void findListing_appliesOnlyTheGivenFilters() {
+        LockType lock = createLock("L-S");
+        Municipality north = createMunicipality("North");
+        Municipality south = createMunicipality("South");
+        User alice = createUser("listAlice");
+        User bob = createUser("listBob");
+
+        Property a = createProperty("Storgatan 1", 20, lock, PropertyType.FLERBOSTADSHUS, north, alice, 1.0);
+        createProperty("Storgatan 2", 2, lock, PropertyType.SMAHUS, north, alice, 1.0);
+        createProperty("Lillgatan 3", 30, lock, PropertyType.FLERBOSTADSHUS, south, bob, 1.0);
+
+        List<PropertyListItemDTO> result = propertyRepository.findListing(
+                new PropertySearchCriteria(north.getId(), PropertyType.FLERBOSTADSHUS, 10, null, "STORGATAN", "listAlice"),
+                null, 10);
+
+        assertEquals(1, result.size());
+        PropertyListItemDTO item = result.get(0);
+        assertEquals(a.getId(), item.getId());
+        assertEquals("North", item.getMunicipalityName());
+        assertEquals("L-S", item.getLockName());
+        assertEquals("listAlice", item.getCreatedByUsername());
+
+        assertEquals(3, propertyRepository.findListing(
+                new PropertySearchCriteria(null, null, null, null, null, null), null, 10).size());
+    }
+
+    @Test
+    void findListing_pagesAfterTheGivenIdInIdOrder() {
+        LockType lock = createLock("L-P");
+        Municipality mun = createMunicipality("MunP");
+        User u = createUser("pageUser");
+
+        Property first = createProperty("P1", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+        Property second = createProperty("P2", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+        Property third = createProperty("P3", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+        PropertySearchCriteria criteria = new PropertySearchCriteria(mun.getId(), null, null, null, null, null);
+
+        List<PropertyListItemDTO> page = propertyRepository.findListing(criteria, null, 2);
+        assertEquals(List.of(first.getId(), second.getId()), page.stream().map(PropertyListItemDTO::getId).toList());
+
+        page = propertyRepository.findListing(criteria, second.getId(), 2);
+        assertEquals(List.of(third.getId()), page.stream().map(PropertyListItemDTO::getId).toList());
+    }
+
+    @Test
+    void findListing_treatsLikeWildcardsInQueryLiterally() {
+        LockType lock = createLock("L-W");
+        Municipality mun = createMunicipality("MunW");
+        User u = createUser("wildUser");
+
+        Property percent = createProperty("100% gatan", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+        createProperty("100 gatan", 4, lock, PropertyType.SMAHUS, mun, u, 1.0);
+
+        List<PropertyListItemDTO> result = propertyRepository.findListing(
+                new PropertySearchCriteria(null, null, null, null, "0%", null), null, 10);
+
+        assertEquals(List.of(percent.getId()), result.stream().map(PropertyListItemDTO::getId).toList());
+    }
+}
@@ -0,0 +1,113 @@
+package com.avfallskompassen.repository;
+
+import com.avfallskompassen.dto.UserStatsDTO;
+import com.avfallskompassen.model.LockType;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.PropertyType;
+import com.avfallskompassen.model.User;
+import com.avfallskompassen.model.WasteRoom;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false",
+    "spring.liquibase.enabled=false",
+    "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = Replace.ANY)
+public class UserRepositoryTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Property createProperty(String address, User user) {
+        LockType lock = new LockType();
+        lock.setName("Lock " + address);
+        lock.setCost(new BigDecimal("10.00"));
+        em.persist(lock);
+        return em.persistFlushFind(new Property(address, 4, lock, PropertyType.SMAHUS, 1.0, user));
+    }
+
+    private void createWasteRoom(Property property) {
+        WasteRoom room = new WasteRoom();
+        room.setProperty(property);
+        room.setWidth(4);
+        room.setLength(3);
+        em.persistAndFlush(room);
+    }
+
+    @Test
+    void newUser_startsWithZeroCounters() {
+        User user = em.persistFlushFind(new User("fresh", "pwd"));
+
+        assertEquals(0, user.getPropertyCount());
+        assertEquals(0, user.getWasteRoomCount());
+    }
+
+    @Test
+    void adjustCounts_addsToStoredCounters() {
+        User user = em.persistFlushFind(new User("counted", "pwd"));
+
+        assertEquals(1, userRepository.adjustCounts(user.getId(), 2, 5));
+        assertEquals(1, userRepository.adjustCounts(user.getId(), -1, -2));
+        em.clear();
+
+        User reloaded = em.find(User.class, user.getId());
+        assertEquals(1, reloaded.getPropertyCount());
+        assertEquals(3, reloaded.getWasteRoomCount());
+    }
+
+    @Test
+    void recountAll_countsPropertiesAndWasteRoomsPerUser() {
+        User alice = em.persistFlushFind(new User("recountAlice", "pwd"));
+        User bob = em.persistFlushFind(new User("recountBob", "pwd"));
+        Property first = createProperty("R1", alice);
+        createProperty("R2", alice);
+        createWasteRoom(first);
+        createWasteRoom(first);
+        userRepository.adjustCounts(bob.getId(), 7, 7);
+
+        userRepository.recountAll();
+        em.clear();
+
+        assertEquals(2, em.find(User.class, alice.getId()).getPropertyCount());
+        assertEquals(2, em.find(User.class, alice.getId()).getWasteRoomCount());
+        assertEquals(0, em.find(User.class, bob.getId()).getPropertyCount());
+        assertEquals(0, em.find(User.class, bob.getId()).getWasteRoomCount());
+    }
+
+    @Test
+    void findStats_returnsSortedPageOfCounters() {
+        User a = em.persistFlushFind(new User("statsA", "pwd"));
+        User b = em.persistFlushFind(new User("statsB", "pwd"));
+        User c = em.persistFlushFind(new User("statsC", "pwd"));
+        userRepository.adjustCounts(a.getId(), 1, 0);
+        userRepository.adjustCounts(b.getId(), 3, 6);
+        userRepository.adjustCounts(c.getId(), 2, 1);
+        em.clear();
+
+        Page<UserStatsDTO> page = userRepository.findStats(
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "propertyCount").and(Sort.by("id"))));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("statsB", "statsC"), page.getContent().stream().map(UserStatsDTO::getUsername).toList());
+        assertEquals(6L, page.getContent().get(0).getWasteRoomsCount());
+        assertNotNull(page.getContent().get(0).getCreatedAt());
+    }
+}
@@ -0,0 +1,161 @@
+package com.avfallskompassen.repository;
+
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.Door;
+import com.avfallskompassen.model.LockType;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.MunicipalityService;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.PropertyType;
+import com.avfallskompassen.model.ServiceType;
+import com.avfallskompassen.model.User;
+import com.avfallskompassen.model.WasteRoom;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.flyway.enabled=false",
+    "spring.liquibase.enabled=false",
+    "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = Replace.ANY)
+public class WasteRoomRepositoryTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private WasteRoomRepository wasteRoomRepository;
+
+    private Property property;
+    private ContainerPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        LockType lock = new LockType();
+        lock.setName("Lås");
+        lock.setCost(new BigDecimal("10.00"));
+        em.persist(lock);
+
+        Municipality municipality = new Municipality();
+        municipality.setName("Kommun");
+        em.persist(municipality);
+
+        User user = em.persist(new User("roomowner", "pwd"));
+
+        property = new Property("Rumsgatan 1", 10, lock, PropertyType.FLERBOSTADSHUS, 1.0, user);
+        property.setMunicipality(municipality);
+        em.persist(property);
+
+        ServiceType serviceType = em.persist(new ServiceType("Restavfall"));
+        MunicipalityService municipalityService = em.persist(new MunicipalityService(municipality, serviceType));
+        ContainerType containerType = em.persist(new ContainerType("Kärl 190L", 190, 600, 800, 1000));
+        plan = em.persist(new ContainerPlan(municipalityService, containerType, 26, new BigDecimal("500.00"), null, null));
+        em.flush();
+    }
+
+    @Test
+    void findWithContainerGraphByPropertyId_QueryCountDoesNotGrowWithRooms() {
+        createRooms("Rum", 2);
+        long fewRooms = countStatementsWhileLoading();
+
+        createRooms("Rum", 10);
+        long manyRooms = countStatementsWhileLoading();
+
+        assertEquals(fewRooms, manyRooms);
+    }
+
+    @Test
+    void findVersionsWithContainerGraph_ReturnsVersionsInOrder() {
+        createRooms("Rum A", 3);
+        createRooms("Rum B", 1);
+        em.flush();
+        em.clear();
+
+        List<WasteRoom> versions = wasteRoomRepository.findVersionsWithContainerGraph(property.getId(), "Rum A");
+
+        assertEquals(3, versions.size());
+        assertEquals(List.of(1, 2, 3), versions.stream().map(WasteRoom::getVersionNumber).toList());
+        assertEquals(2, versions.get(0).getContainers().size());
+    }
+
+    /**
+     * Loads all rooms of the property and touches every relation that is mapped to a DTO,
+     * returning the number of statements that were executed.
+     */
+    private long countStatementsWhileLoading() {
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<WasteRoom> rooms = wasteRoomRepository.findWithContainerGraphByPropertyId(property.getId());
+        for (WasteRoom room : rooms) {
+            assertEquals(2, room.getContainers().size());
+            for (ContainerPosition position : room.getContainers()) {
+                assertEquals("Restavfall", position.getContainerPlan().getMunicipalityService().getServiceType().getName());
+                assertEquals(190, position.getContainerPlan().getContainerType().getSize());
+            }
+            assertEquals(1, room.getDoors().size());
+            assertEquals(1, room.getOtherObjects().size());
+        }
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createRooms(String name, int count) {
+        for (int version = 1; version <= count; version++) {
+            WasteRoom room = new WasteRoom();
+            room.setName(name);
+            room.setVersionNumber(version);
+            room.setProperty(property);
+            room.setLength(4);
+            room.setWidth(3);
+
+            List<ContainerPosition> containers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                ContainerPosition position = new ContainerPosition();
+                position.setContainerPlan(plan);
+                position.setX(i * 40);
+                position.setWasteRoom(room);
+                containers.add(position);
+            }
+            room.setContainers(containers);
+
+            Door door = new Door();
+            door.setWidth(1.0);
+            door.setWall("top");
+            door.setSwingDirection("outward");
+            door.setWasteRoom(room);
+            room.setDoors(new ArrayList<>(List.of(door)));
+
+            OtherObject object = new OtherObject();
+            object.setName("Skåp");
+            object.setWidth(30);
+            object.setDepth(30);
+            object.setWasteRoom(room);
+            room.setOtherObjects(new ArrayList<>(List.of(object)));
+
+            em.persist(room);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.avfallskompassen.scheduling;
+
+import com.avfallskompassen.repository.ActivityRepository;
+import com.avfallskompassen.repository.ArchivedActivityRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ActivityRetentionJob}
+ */
+@ExtendWith(MockitoExtension.class)
+class ActivityRetentionJobTest {
+
+    @Mock
+    private ActivityRepository activityRepository;
+
+    @Mock
+    private ArchivedActivityRepository archivedActivityRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ActivityRetentionJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new ActivityRetentionJob(activityRepository, archivedActivityRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(job, "retentionDays", 365);
+        ReflectionTestUtils.setField(job, "chunkSize", 2);
+    }
+
+    @Test
+    void archiveOldActivities_MovesChunksUntilNoneAreLeft() {
+        when(activityRepository.findIdsOlderThan(any(), any()))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(archivedActivityRepository.copyFromActivities(anyList(), any()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        when(activityRepository.deleteByIdIn(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        job.archiveOldActivities();
+
+        verify(archivedActivityRepository).copyFromActivities(eq(List.of(1L, 2L)), any());
+        verify(activityRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(activityRepository).deleteByIdIn(List.of(3L));
+        assertEquals(3.0, meterRegistry.get("activity.retention.archived").counter().count());
+        assertEquals(1, meterRegistry.get("activity.retention.run").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void archiveOldActivities_CopyAndDeleteMismatch_StopsTheRun() {
+        when(activityRepository.findIdsOlderThan(any(), any())).thenReturn(List.of(1L, 2L));
+        when(archivedActivityRepository.copyFromActivities(anyList(), any())).thenReturn(1);
+        when(activityRepository.deleteByIdIn(anyList())).thenReturn(2);
+
+        job.archiveOldActivities();
+
+        verify(activityRepository, times(1)).findIdsOlderThan(any(), any());
+        verify(transactionManager).rollback(any());
+        assertEquals(0.0, meterRegistry.get("activity.retention.archived").counter().count());
+        assertEquals(1, meterRegistry.get("activity.retention.run").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void archiveOldActivities_Disabled_DoesNothing() {
+        ReflectionTestUtils.setField(job, "retentionDays", 0);
+
+        job.archiveOldActivities();
+
+        verifyNoInteractions(activityRepository, archivedActivityRepository);
+    }
+}
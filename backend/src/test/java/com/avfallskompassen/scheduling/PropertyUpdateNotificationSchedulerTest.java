@@ -0,0 +1,99 @@
+package com.avfallskompassen.scheduling;
+
+import com.avfallskompassen.repository.PropertyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link PropertyUpdateNotificationScheduler}
+ */
+@ExtendWith(MockitoExtension.class)
+class PropertyUpdateNotificationSchedulerTest {
+
+    @Mock
+    private PropertyRepository propertyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PropertyUpdateNotificationScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new PropertyUpdateNotificationScheduler(propertyRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(scheduler, "thresholdSeconds", 31536000L);
+        ReflectionTestUtils.setField(scheduler, "chunkSize", 2);
+    }
+
+    @Test
+    void runDailyNotificationCheck_MarksDueIdsInChunks() {
+        when(propertyRepository.findIdsDueForNotification(any())).thenReturn(List.of(1L, 2L, 3L, 4L, 5L));
+        when(propertyRepository.markNotified(anyList(), any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        scheduler.runDailyNotificationCheck();
+
+        verify(propertyRepository).markNotified(eq(List.of(1L, 2L)), any());
+        verify(propertyRepository).markNotified(eq(List.of(3L, 4L)), any());
+        verify(propertyRepository).markNotified(eq(List.of(5L)), any());
+        verify(propertyRepository, never()).findAll();
+        assertEquals(5.0, meterRegistry.get("notification.properties.marked").counter().count());
+        assertEquals(1, meterRegistry.get("notification.run").tag("mode", "set").timer().count());
+    }
+
+    @Test
+    void runDailyNotificationCheck_FailingChunkDoesNotStopOthers() {
+        when(propertyRepository.findIdsDueForNotification(any())).thenReturn(List.of(1L, 2L, 3L));
+        when(propertyRepository.markNotified(eq(List.of(1L, 2L)), any())).thenThrow(new RuntimeException("Deadlock"));
+        when(propertyRepository.markNotified(eq(List.of(3L)), any())).thenReturn(1);
+
+        scheduler.runDailyNotificationCheck();
+
+        assertEquals(1.0, meterRegistry.get("notification.properties.marked").counter().count());
+        assertEquals(2.0, meterRegistry.get("notification.properties.failed").counter().count());
+    }
+
+    @Test
+    void runDailyNotificationCheck_KeysetModePagesOnId() {
+        ReflectionTestUtils.setField(scheduler, "mode", "keyset");
+        when(propertyRepository.findIdsDueForNotificationAfter(any(), eq(0L), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(3L, 7L));
+        when(propertyRepository.findIdsDueForNotificationAfter(any(), eq(7L), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(9L));
+        when(propertyRepository.markNotified(anyList(), any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        scheduler.runDailyNotificationCheck();
+
+        verify(propertyRepository).markNotified(eq(List.of(3L, 7L)), any());
+        verify(propertyRepository).markNotified(eq(List.of(9L)), any());
+        verify(propertyRepository, never()).findIdsDueForNotification(any());
+        assertEquals(3.0, meterRegistry.get("notification.properties.marked").counter().count());
+        assertEquals(1, meterRegistry.get("notification.run").tag("mode", "keyset").timer().count());
+    }
+
+    @Test
+    void runDailyNotificationCheck_NothingDue_DoesNotUpdate() {
+        when(propertyRepository.findIdsDueForNotification(any())).thenReturn(List.of());
+
+        scheduler.runDailyNotificationCheck();
+
+        verify(propertyRepository, never()).markNotified(anyList(), any());
+        assertEquals(0.0, meterRegistry.get("notification.properties.marked").counter().count());
+    }
+}
@@ -0,0 +1,79 @@
+package com.avfallskompassen.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link JwtAuthFilter}
+ */
+@ExtendWith(MockitoExtension.class)
+class JwtAuthFilterTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private UserRoleCache userRoleCache;
+
+    @InjectMocks
+    private JwtAuthFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        // The filter skips requests that are already authenticated, so start from an empty context
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_DemotedAdmin_GetsStoredRoleInsteadOfTokenRole() throws Exception {
+        when(jwtUtil.verifyToken("token")).thenReturn(Optional.of(new JwtPrincipal("alice", "ADMIN", null)));
+        when(userRoleCache.findRole("alice")).thenReturn(Optional.of("user"));
+
+        filter.doFilter(request("token"), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        List<String> authorities = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        assertEquals(List.of("ROLE_USER"), authorities);
+    }
+
+    @Test
+    void doFilter_RemovedUser_IsNotAuthenticated() throws Exception {
+        when(jwtUtil.verifyToken("token")).thenReturn(Optional.of(new JwtPrincipal("ghost", "USER", null)));
+        when(userRoleCache.findRole("ghost")).thenReturn(Optional.empty());
+
+        filter.doFilter(request("token"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
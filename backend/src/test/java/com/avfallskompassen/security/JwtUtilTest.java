@@ -0,0 +1,84 @@
+package com.avfallskompassen.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link JwtUtil}
+ */
+class JwtUtilTest {
+
+    private static final String SECRET = "TestSecretThatIsLongEnoughForHmacSha256!";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = createJwtUtil(SECRET);
+    }
+
+    @Test
+    void verifyToken_ReturnsUsernameAndRoleFromOneParse() {
+        String token = jwtUtil.generateToken("alice", "ADMIN");
+
+        JwtPrincipal principal = jwtUtil.verifyToken(token).orElseThrow();
+
+        assertEquals("alice", principal.getUsername());
+        assertEquals("ADMIN", principal.getRole());
+        assertNotNull(principal.getExpiresAt());
+        assertTrue(jwtUtil.validateToken(token));
+        assertEquals("alice", jwtUtil.getUsernameFromToken(token));
+        assertEquals("ADMIN", jwtUtil.getRoleFromToken(token));
+    }
+
+    @Test
+    void verifyToken_CachesVerifiedTokens() {
+        String token = jwtUtil.generateToken("alice", "USER");
+
+        JwtPrincipal first = jwtUtil.verifyToken(token).orElseThrow();
+        JwtPrincipal second = jwtUtil.verifyToken(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void verifyToken_TokenSignedWithOtherSecret_IsRejected() {
+        String token = createJwtUtil("AnotherSecretThatIsAlsoLongEnoughForHmac!").generateToken("mallory", "ADMIN");
+
+        assertTrue(jwtUtil.verifyToken(token).isEmpty());
+        assertFalse(jwtUtil.validateToken(token));
+        assertNull(jwtUtil.getUsernameFromToken(token));
+    }
+
+    @Test
+    void verifyToken_MalformedToken_IsRejected() {
+        assertTrue(jwtUtil.verifyToken("not-a-token").isEmpty());
+        assertTrue(jwtUtil.verifyToken(null).isEmpty());
+    }
+
+    @Test
+    void verifyToken_CachedTokenPastExpiry_IsRejected() {
+        String token = jwtUtil.generateToken("alice", "USER");
+        assertTrue(jwtUtil.verifyToken(token).isPresent());
+
+        jwtUtil.setClock(Clock.fixed(Instant.now().plus(Duration.ofDays(2)), ZoneOffset.UTC));
+
+        assertTrue(jwtUtil.verifyToken(token).isEmpty());
+    }
+
+    private static JwtUtil createJwtUtil(String secret) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", secret);
+        ReflectionTestUtils.setField(util, "expirationMs", 86400000L);
+        util.init();
+        return util;
+    }
+}
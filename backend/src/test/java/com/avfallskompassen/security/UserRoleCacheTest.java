@@ -0,0 +1,80 @@
+package com.avfallskompassen.security;
+
+import com.avfallskompassen.model.User;
+import com.avfallskompassen.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link UserRoleCache}
+ */
+@ExtendWith(MockitoExtension.class)
+class UserRoleCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserRoleCache cache;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserRoleCache(userRepository, 30000, 100);
+        now = Instant.parse("2026-01-01T12:00:00Z");
+        cache.setClock(Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void findRole_LooksUpUserOnceWithinTtl() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(new User("alice", "pw", "USER")));
+
+        assertEquals(Optional.of("USER"), cache.findRole("alice"));
+        assertEquals(Optional.of("USER"), cache.findRole("alice"));
+
+        verify(userRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void findRole_MissingUser_IsCachedAsMissing() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertTrue(cache.findRole("ghost").isEmpty());
+        assertTrue(cache.findRole("ghost").isEmpty());
+
+        verify(userRepository, times(1)).findByUsername("ghost");
+    }
+
+    @Test
+    void findRole_AfterTtl_LooksUpAgain() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(new User("alice", "pw", "USER")));
+        cache.findRole("alice");
+
+        cache.setClock(Clock.fixed(now.plusSeconds(31), ZoneOffset.UTC));
+        cache.findRole("alice");
+
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void invalidate_ReloadsChangedRole() {
+        when(userRepository.findByUsername("alice"))
+                .thenReturn(Optional.of(new User("alice", "pw", "USER")))
+                .thenReturn(Optional.of(new User("alice", "pw", "ADMIN")));
+        cache.findRole("alice");
+
+        cache.invalidate("alice");
+
+        assertEquals(Optional.of("ADMIN"), cache.findRole("alice"));
+    }
+}
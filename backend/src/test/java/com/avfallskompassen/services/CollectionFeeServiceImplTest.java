@@ -13,10 +13,17 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class CollectionFeeServiceImplTest {
@@ -50,7 +57,7 @@ public class CollectionFeeServiceImplTest {
         collectionFee.setCost(BigDecimal.valueOf(100));
 
         when(propertyService.findById(10L)).thenReturn(Optional.of(property));
-        when(collectionFeeRepository.findById(1L)).thenReturn(Optional.of(collectionFee));
+        when(collectionFeeRepository.findByMunicipalityId(1L)).thenReturn(Optional.of(collectionFee));
 
         CollectionFeeDTO dto = collectionFeeService.findCollectionFeeByPropertyId(10L);
 
@@ -72,7 +79,7 @@ public class CollectionFeeServiceImplTest {
         collectionFee.setCost(BigDecimal.valueOf(100));
 
         when(propertyService.findById(10L)).thenReturn(Optional.of(property));
-        when(collectionFeeRepository.findById(1L)).thenReturn(Optional.of(collectionFee));
+        when(collectionFeeRepository.findByMunicipalityId(1L)).thenReturn(Optional.of(collectionFee));
 
         CollectionFeeDTO dto = collectionFeeService.findCollectionFeeByPropertyId(10L);
 
@@ -101,7 +108,7 @@ public class CollectionFeeServiceImplTest {
         property.setAccessPathLength(10.0);
 
         when(propertyService.findById(10L)).thenReturn(Optional.of(property));
-        when(collectionFeeRepository.findById(1L)).thenReturn(Optional.empty());
+        when(collectionFeeRepository.findByMunicipalityId(1L)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(IllegalArgumentException.class, () ->
                 collectionFeeService.findCollectionFeeByPropertyId(10L)
@@ -109,4 +116,81 @@ public class CollectionFeeServiceImplTest {
 
         assertEquals("Collection fee not found", exception.getMessage());
     }
+
+    @Test
+    void testFindCollectionFeesByProperties_appliesDistanceRulePerProperty() {
+        Municipality municipality = new Municipality();
+        municipality.setId(1L);
+
+        Property near = new Property();
+        near.setId(10L);
+        near.setMunicipality(municipality);
+        near.setAccessPathLength(4.0);
+
+        Property far = new Property();
+        far.setId(11L);
+        far.setMunicipality(municipality);
+        far.setAccessPathLength(25.0);
+
+        CollectionFee collectionFee = new CollectionFee();
+        collectionFee.setId(1L);
+        collectionFee.setMunicipality(municipality);
+        collectionFee.setCost(BigDecimal.valueOf(100));
+
+        when(collectionFeeRepository.findAllByMunicipalityIdIn(Set.of(1L))).thenReturn(List.of(collectionFee));
+
+        Map<Long, CollectionFeeDTO> result = collectionFeeService.findCollectionFeesByProperties(List.of(near, far));
+
+        assertEquals(BigDecimal.ZERO, result.get(10L).getCost());
+        assertEquals(BigDecimal.valueOf(200), result.get(11L).getCost());
+        verify(collectionFeeRepository, times(1)).findAllByMunicipalityIdIn(any());
+        verify(propertyService, never()).findById(any());
+    }
+
+    @Test
+    void testFindCollectionFeesByProperties_collectionFeeNotFound() {
+        Municipality municipality = new Municipality();
+        municipality.setId(1L);
+
+        Property property = new Property();
+        property.setId(10L);
+        property.setMunicipality(municipality);
+        property.setAccessPathLength(10.0);
+
+        when(collectionFeeRepository.findAllByMunicipalityIdIn(Set.of(1L))).thenReturn(List.of());
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () ->
+                collectionFeeService.findCollectionFeesByProperties(List.of(property))
+        );
+
+        assertEquals("Collection fee not found", exception.getMessage());
+    }
+
+    @Test
+    void testFindCollectionFee_feeIdDiffersFromMunicipalityId_singleAndBatchAgree() {
+        Municipality municipality = new Municipality();
+        municipality.setId(3L);
+
+        Property property = new Property();
+        property.setId(10L);
+        property.setMunicipality(municipality);
+        property.setAccessPathLength(25.0);
+
+        CollectionFee collectionFee = new CollectionFee();
+        collectionFee.setId(7L);
+        collectionFee.setMunicipality(municipality);
+        collectionFee.setCost(BigDecimal.valueOf(100));
+
+        when(propertyService.findById(10L)).thenReturn(Optional.of(property));
+        when(collectionFeeRepository.findByMunicipalityId(3L)).thenReturn(Optional.of(collectionFee));
+        when(collectionFeeRepository.findAllByMunicipalityIdIn(Set.of(3L))).thenReturn(List.of(collectionFee));
+
+        CollectionFeeDTO single = collectionFeeService.findCollectionFeeByPropertyId(10L);
+        CollectionFeeDTO batch = collectionFeeService.findCollectionFeesByProperties(List.of(property)).get(10L);
+
+        assertEquals(BigDecimal.valueOf(200), single.getCost());
+        assertEquals(single.getCost(), batch.getCost());
+        assertEquals(7L, batch.getId());
+        verify(collectionFeeRepository, never()).findById(any());
+    }
 }
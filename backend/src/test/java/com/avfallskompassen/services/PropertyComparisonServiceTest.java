@@ -4,6 +4,8 @@ import com.avfallskompassen.dto.CollectionFrequencyComparisonDTO;
 import com.avfallskompassen.dto.ContainerSizeComparisonDTO;
 import com.avfallskompassen.dto.CostComparisonDTO;
 import com.avfallskompassen.dto.GeneralPropertyCostDTO;
+import com.avfallskompassen.dto.PeerGroupStatisticsDTO;
+import com.avfallskompassen.dto.PeerServiceStatisticsDTO;
 import com.avfallskompassen.dto.PropertyComparisonDTO;
 import com.avfallskompassen.dto.WasteAmountComparisonDTO;
 import com.avfallskompassen.model.ContainerPlan;
@@ -25,15 +27,12 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyCollection;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 class PropertyComparisonServiceTest {
@@ -51,6 +50,9 @@ class PropertyComparisonServiceTest {
 	@Mock
 	private WasteRoomRepository wasteRoomRepository;
 
+	@Mock
+	private PeerStatisticsService peerStatisticsService;
+
 	@InjectMocks
 	private PropertyComparisonService propertyComparisonService;
 
@@ -215,16 +217,14 @@ class PropertyComparisonServiceTest {
 	@Test
 	void getPropertyComparison_ShouldAggregateAcrossMultipleSimilarProperties() {
 		when(propertyRepository.findById(PROPERTY_ID)).thenReturn(Optional.of(property));
-		when(propertyRepository.findSimilarProperties(any(), any(), anyInt(), anyInt(), eq(PROPERTY_ID)))
-			.thenReturn(List.of(similarProperty, secondSimilarProperty));
 
 		when(propertyCostService.calculateAnnualCost(PROPERTY_ID)).thenReturn(propertyCostDto);
 		when(propertyCostService.calculateAnnualCost(SIMILAR_ID)).thenReturn(similarCostDto);
 		when(propertyCostService.calculateAnnualCost(SECOND_SIMILAR_ID)).thenReturn(secondSimilarCostDto);
 
 		when(wasteRoomRepository.findByPropertyId(PROPERTY_ID)).thenReturn(List.of(propertyWasteRoom));
-		when(wasteRoomRepository.findByPropertyIdIn(anyCollection()))
-			.thenReturn(List.of(similarWasteRoom, secondSimilarWasteRoom));
+		when(peerStatisticsService.getPeerGroupStatistics(property)).thenReturn(peerStatistics(
+			List.of(similarWasteRoom, secondSimilarWasteRoom), List.of(similarCostDto, secondSimilarCostDto)));
 
 		PropertyComparisonDTO result = propertyComparisonService.getPropertyComparison(PROPERTY_ID);
 
@@ -262,30 +262,70 @@ class PropertyComparisonServiceTest {
 	private void mockSingleSimilarScenario() {
 		when(propertyRepository.findById(PROPERTY_ID)).thenReturn(Optional.of(property));
 		
-		when(propertyRepository.findSimilarProperties(
-			any(PropertyType.class), any(Municipality.class), anyInt(), anyInt(), eq(PROPERTY_ID)
-		)).thenReturn(List.of(similarProperty));
 
 		when(wasteRoomRepository.findByPropertyId(PROPERTY_ID)).thenReturn(List.of(propertyWasteRoom));
-		when(wasteRoomRepository.findByPropertyIdIn(anyCollection())).thenReturn(List.of(similarWasteRoom));
 
 		when(propertyCostService.calculateAnnualCost(PROPERTY_ID)).thenReturn(propertyCostDto);
 		when(propertyCostService.calculateAnnualCost(SIMILAR_ID)).thenReturn(similarCostDto);
+
+		when(peerStatisticsService.getPeerGroupStatistics(property))
+			.thenReturn(peerStatistics(List.of(similarWasteRoom), List.of(similarCostDto)));
 	}
 
 	private void mockMultipleSimilarScenario() {
 		when(propertyRepository.findById(PROPERTY_ID)).thenReturn(Optional.of(property));
 
-		when(propertyRepository.findSimilarProperties(
-			any(PropertyType.class), any(Municipality.class), anyInt(), anyInt(), eq(PROPERTY_ID)
-		)).thenReturn(List.of(similarProperty, secondSimilarProperty));
 
 		when(wasteRoomRepository.findByPropertyId(PROPERTY_ID)).thenReturn(List.of(propertyWasteRoom));
-		when(wasteRoomRepository.findByPropertyIdIn(anyCollection())).thenReturn(List.of(similarWasteRoom, secondSimilarWasteRoom));
 
 		when(propertyCostService.calculateAnnualCost(PROPERTY_ID)).thenReturn(propertyCostDto);
 		when(propertyCostService.calculateAnnualCost(SIMILAR_ID)).thenReturn(similarCostDto);
 		when(propertyCostService.calculateAnnualCost(SECOND_SIMILAR_ID)).thenReturn(secondSimilarCostDto);
+
+		when(peerStatisticsService.getPeerGroupStatistics(property)).thenReturn(peerStatistics(
+			List.of(similarWasteRoom, secondSimilarWasteRoom), List.of(similarCostDto, secondSimilarCostDto)));
+	}
+
+	/**
+	 * Builds the aggregated peer figures the same way the stored statistics would, one room per peer.
+	 */
+	private PeerGroupStatisticsDTO peerStatistics(List<WasteRoom> peerRooms, List<GeneralPropertyCostDTO> peerCosts) {
+		PeerGroupStatisticsDTO statistics = new PeerGroupStatisticsDTO();
+		statistics.setPeerCount(peerRooms.size());
+
+		for (GeneralPropertyCostDTO cost : peerCosts) {
+			BigDecimal total = cost.getTotalCost().setScale(2, RoundingMode.HALF_UP);
+			statistics.setCostCount(statistics.getCostCount() + 1);
+			statistics.setCostSum(statistics.getCostSum().add(total));
+			statistics.setMinCost(statistics.getMinCost() == null ? total : statistics.getMinCost().min(total));
+			statistics.setMaxCost(statistics.getMaxCost() == null ? total : statistics.getMaxCost().max(total));
+		}
+
+		for (WasteRoom room : peerRooms) {
+			PropertyWasteProfile profile = PropertyWasteProfile.fromWasteRooms(List.of(room));
+			statistics.setVolumeSum(statistics.getVolumeSum() + profile.getTotalVolume());
+			if (profile.getAverageRoomFrequency() > 0) {
+				statistics.setFrequencySum(statistics.getFrequencySum() + profile.getAverageRoomFrequency());
+				statistics.setFrequencyCount(statistics.getFrequencyCount() + 1);
+			}
+
+			profile.getWasteAmountByService().forEach((service, amount) -> {
+				double frequency = profile.getAverageFrequencyByService().get(service);
+				PeerServiceStatisticsDTO existing = statistics.getServiceStatistics().get(service);
+				if (existing == null) {
+					statistics.getServiceStatistics().put(service,
+						new PeerServiceStatisticsDTO(service, 1, amount, amount, amount, frequency));
+				} else {
+					existing.setPeerCount(existing.getPeerCount() + 1);
+					existing.setWasteAmountSum(existing.getWasteAmountSum() + amount);
+					existing.setMinWasteAmount(Math.min(existing.getMinWasteAmount(), amount));
+					existing.setMaxWasteAmount(Math.max(existing.getMaxWasteAmount(), amount));
+					existing.setFrequencySum(existing.getFrequencySum() + frequency);
+				}
+			});
+		}
+
+		return statistics;
 	}
 
 	private Property createProperty(Long id, String address, int apartments, Municipality municipality) {
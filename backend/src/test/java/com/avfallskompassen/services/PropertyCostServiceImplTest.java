@@ -8,7 +8,9 @@ import com.avfallskompassen.model.ContainerPosition;
 import com.avfallskompassen.model.LockType;
 import com.avfallskompassen.model.Property;
 import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.PropertyRepository;
 import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.impl.AnnualCostModel;
 import com.avfallskompassen.services.impl.PropertyCostServiceImpl;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,13 +18,16 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 public class PropertyCostServiceImplTest {
@@ -39,6 +44,12 @@ public class PropertyCostServiceImplTest {
     @Mock
     private CollectionFeeService collectionFeeService;
 
+    @Mock
+    private PropertyRepository propertyRepository;
+
+    @Spy
+    private AnnualCostModel costModel = new AnnualCostModel(BigDecimal.valueOf(100));
+
     @InjectMocks
     private PropertyCostServiceImpl propertyCostService;
 
@@ -154,49 +165,16 @@ public class PropertyCostServiceImplTest {
         when(propertyService.getPropertiesByUser(username))
                 .thenReturn(List.of(property1, property2));
 
-        when(propertyService.findById(1L)).thenReturn(Optional.of(property1));
-        when(propertyService.findById(2L)).thenReturn(Optional.of(property2));
-        
-        when(collectionFeeService.findCollectionFeeByPropertyId(anyLong()))
-                .thenAnswer(invocation -> {
-                    Long id = invocation.getArgument(0);
-                    return new CollectionFeeDTO(id, BigDecimal.valueOf(1000 + id));
-                });
-
-        LockTypeDto lockTypeDto = new LockTypeDto();
-        lockTypeDto.setId(1L);
-        lockTypeDto.setCost(BigDecimal.valueOf(200));
-        lockTypeDto.setName("Standardlås");
-        when(lockTypeService.findLockTypeById(anyLong())).thenReturn(lockTypeDto);
-
-        ContainerPlan plan = new ContainerPlan();
-        plan.setCost(BigDecimal.valueOf(100));
-
-        // Create WasteRooms instead of PropertyContainers
-        WasteRoom wr1 = new WasteRoom();
-        wr1.setProperty(property1);
-        wr1.setIsActive(true);
-        wr1.setContainers(new ArrayList<>());
-        for (int i = 0; i < 2; i++) {
-            ContainerPosition p = new ContainerPosition();
-            p.setContainerPlan(plan);
-            p.setWasteRoom(wr1);
-            wr1.getContainers().add(p);
-        }
-
-        WasteRoom wr2 = new WasteRoom();
-        wr2.setProperty(property2);
-        wr2.setIsActive(true);
-        wr2.setContainers(new ArrayList<>());
-        for (int i = 0; i < 2; i++) {
-            ContainerPosition p = new ContainerPosition();
-            p.setContainerPlan(plan);
-            p.setWasteRoom(wr2);
-            wr2.getContainers().add(p);
-        }
+        when(collectionFeeService.findCollectionFeesByProperties(List.of(property1, property2)))
+                .thenReturn(Map.of(
+                        1L, new CollectionFeeDTO(1L, BigDecimal.valueOf(1001)),
+                        2L, new CollectionFeeDTO(2L, BigDecimal.valueOf(1002))));
 
-        when(wasteRoomRepository.findByPropertyId(eq(1L))).thenReturn(List.of(wr1));
-        when(wasteRoomRepository.findByPropertyId(eq(2L))).thenReturn(List.of(wr2));
+        // Two containers costing 100 each in the active rooms of both properties
+        when(wasteRoomRepository.sumActiveContainerCostByPropertyIds(List.of(1L, 2L)))
+                .thenReturn(List.of(
+                        new Object[]{1L, BigDecimal.valueOf(200), 2L, 0L},
+                        new Object[]{2L, BigDecimal.valueOf(200), 2L, 0L}));
 
         List<GeneralPropertyCostDTO> result = propertyCostService.calculateAllCostsForUser(username);
         
@@ -211,9 +189,113 @@ public class PropertyCostServiceImplTest {
         assertEquals("Lundväg 2", second.getAddress());
         assertTrue(second.getTotalCost().compareTo(first.getTotalCost()) > 0);
         
+        assertEquals(BigDecimal.valueOf(1401), first.getTotalCost());
+        assertEquals(BigDecimal.valueOf(1402), second.getTotalCost());
+
         verify(propertyService).getPropertiesByUser(username);
-        verify(collectionFeeService, times(2)).findCollectionFeeByPropertyId(anyLong());
-        verify(wasteRoomRepository, times(2)).findByPropertyId(anyLong());
+        verify(collectionFeeService, times(1)).findCollectionFeesByProperties(anyCollection());
+        verify(wasteRoomRepository, times(1)).sumActiveContainerCostByPropertyIds(anyCollection());
+        verify(collectionFeeService, never()).findCollectionFeeByPropertyId(anyLong());
+        verify(wasteRoomRepository, never()).findByPropertyId(anyLong());
+    }
+
+    @Test
+    void calculateAnnualCosts_ShouldCalculateAllPropertiesInOneBatch() {
+        Property property1 = createProperty(1L, "Lundväg 1", 5);
+        Property property2 = createProperty(2L, "Lundväg 2", 10);
+
+        when(propertyRepository.findAllWithCostRelationsByIdIn(anyCollection()))
+                .thenReturn(List.of(property2, property1));
+        when(collectionFeeService.findCollectionFeesByProperties(List.of(property1, property2)))
+                .thenReturn(Map.of(
+                        1L, new CollectionFeeDTO(1L, BigDecimal.valueOf(1000)),
+                        2L, new CollectionFeeDTO(2L, BigDecimal.ZERO)));
+        // Property 2 has no containers in any active room and is missing from the aggregate
+        List<Object[]> containerCosts = new ArrayList<>();
+        containerCosts.add(new Object[]{1L, BigDecimal.valueOf(300), 3L, 0L});
+        when(wasteRoomRepository.sumActiveContainerCostByPropertyIds(List.of(1L, 2L))).thenReturn(containerCosts);
+
+        Map<Long, GeneralPropertyCostDTO> result = propertyCostService.calculateAnnualCosts(List.of(1L, 2L));
+
+        assertEquals(List.of(1L, 2L), new ArrayList<>(result.keySet()));
+        assertEquals(BigDecimal.valueOf(1500), result.get(1L).getTotalCost());
+        assertEquals(new BigDecimal("300.00"), result.get(1L).getCostPerApartment());
+        assertEquals(BigDecimal.valueOf(200), result.get(2L).getTotalCost());
+        assertEquals(new BigDecimal("20.00"), result.get(2L).getCostPerApartment());
+    }
+
+    @Test
+    void calculateAnnualCosts_ShouldThrowIfAnyPropertyIsMissing() {
+        Property property1 = createProperty(1L, "Lundväg 1", 5);
+        when(propertyRepository.findAllWithCostRelationsByIdIn(anyCollection())).thenReturn(List.of(property1));
+
+        EntityNotFoundException ex = assertThrows(EntityNotFoundException.class,
+                () -> propertyCostService.calculateAnnualCosts(List.of(1L, 99L)));
+        assertTrue(ex.getMessage().contains("99"));
+    }
+
+    @Test
+    void calculateAnnualCosts_ShouldReturnEmptyMapForNoIds() {
+        assertTrue(propertyCostService.calculateAnnualCosts(List.of()).isEmpty());
+        verifyNoInteractions(propertyRepository, collectionFeeService, wasteRoomRepository);
+    }
+
+    @Test
+    void calculateAnnualCost_ShouldIncludeLockILock() {
+        Property property = createProperty(1L, "Lundväg 1", 4);
+        when(propertyService.findById(1L)).thenReturn(Optional.of(property));
+        when(collectionFeeService.findCollectionFeeByPropertyId(1L)).thenReturn(new CollectionFeeDTO(1L, BigDecimal.valueOf(500)));
+
+        ContainerPlan plan = new ContainerPlan();
+        plan.setCost(BigDecimal.valueOf(300));
+        WasteRoom activeRoom = new WasteRoom();
+        activeRoom.setIsActive(true);
+        activeRoom.setContainers(new ArrayList<>());
+        for (boolean hasLockILock : new boolean[]{true, false, true}) {
+            ContainerPosition position = new ContainerPosition();
+            position.setContainerPlan(plan);
+            position.setHasLockILock(hasLockILock);
+            activeRoom.getContainers().add(position);
+        }
+        WasteRoom oldVersion = new WasteRoom();
+        oldVersion.setIsActive(false);
+        oldVersion.setContainers(List.of(activeRoom.getContainers().get(0)));
+        when(wasteRoomRepository.findByPropertyId(1L)).thenReturn(List.of(activeRoom, oldVersion));
+
+        GeneralPropertyCostDTO result = propertyCostService.calculateAnnualCost(1L);
+
+        // 500 collection fee + 200 lock + 3 * 300 containers + 2 * 100 Lock-i-Lock
+        assertEquals(BigDecimal.valueOf(1800), result.getTotalCost());
+        assertEquals(new BigDecimal("450.00"), result.getCostPerApartment());
+    }
+
+    @Test
+    void calculateAnnualCosts_ShouldAgreeWithSinglePropertyOnLockILock() {
+        Property property = createProperty(1L, "Lundväg 1", 4);
+        when(propertyRepository.findAllWithCostRelationsByIdIn(anyCollection())).thenReturn(List.of(property));
+        when(collectionFeeService.findCollectionFeesByProperties(List.of(property)))
+                .thenReturn(Map.of(1L, new CollectionFeeDTO(1L, BigDecimal.valueOf(500))));
+        List<Object[]> containerSums = new ArrayList<>();
+        containerSums.add(new Object[]{1L, BigDecimal.valueOf(900), 3L, 2L});
+        when(wasteRoomRepository.sumActiveContainerCostByPropertyIds(List.of(1L))).thenReturn(containerSums);
+
+        Map<Long, GeneralPropertyCostDTO> result = propertyCostService.calculateAnnualCosts(List.of(1L));
+
+        assertEquals(BigDecimal.valueOf(1800), result.get(1L).getTotalCost());
+    }
+
+    private Property createProperty(Long id, String address, int apartments) {
+        LockType lockType = new LockType();
+        lockType.setId(1);
+        lockType.setName("Standardlås");
+        lockType.setCost(BigDecimal.valueOf(200));
+
+        Property property = new Property();
+        property.setId(id);
+        property.setAddress(address);
+        property.setNumberOfApartments(apartments);
+        property.setLockType(lockType);
+        return property;
     }
 
     @Test
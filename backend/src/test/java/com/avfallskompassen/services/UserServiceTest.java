@@ -2,6 +2,7 @@ package com.avfallskompassen.services;
 
 import com.avfallskompassen.model.User;
 import com.avfallskompassen.repository.UserRepository;
+import com.avfallskompassen.security.UserRoleCache;
 import com.avfallskompassen.services.impl.UserServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +10,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 
@@ -28,6 +31,9 @@ class UserServiceTest {
     @Mock
     private ActivityService activityService;
 
+    @Mock
+    private UserRoleCache userRoleCache;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -103,4 +109,35 @@ class UserServiceTest {
         assertEquals("ADMIN", created.getRole());
         verify(userRepository, times(1)).save(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateUserRole_invalidatesCachedRole() {
+        User user = new User("dave", "enc", "USER");
+        when(userRepository.findById(4)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        userService.updateUserRole(4, "ADMIN");
+
+        verify(userRoleCache).invalidate("dave");
+    }
+
+    @Test
+    void updateUserRole_inTransaction_invalidatesCachedRoleAfterCommit() {
+        User user = new User("erin", "enc", "USER");
+        when(userRepository.findById(5)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.updateUserRole(5, "ADMIN");
+
+            verify(userRoleCache, never()).invalidate(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(userRoleCache).invalidate("erin");
+    }
+}
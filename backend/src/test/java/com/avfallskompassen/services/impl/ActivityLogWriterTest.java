@@ -0,0 +1,137 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.model.ActivityType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ActivityLogWriter}
+ */
+class ActivityLogWriterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Integer> writtenUserIds = Collections.synchronizedList(new ArrayList<>());
+    private ActivityLogWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void submit_WritesQueuedActivitiesInBatches() {
+        recordBatches();
+        writer = new ActivityLogWriter(jdbcTemplate, 100, 10, 50, 5000);
+
+        for (int i = 0; i < 25; i++) {
+            writer.submit(i, ActivityType.LOGIN, "details " + i, NOW);
+        }
+        writer.shutdown();
+
+        assertEquals(25, writtenUserIds.size());
+        assertEquals(25, writer.getWrittenActivities());
+        verify(jdbcTemplate, atLeast(3)).batchUpdate(eq(ActivityLogWriter.INSERT_SQL), anyCollection(), anyInt(), any());
+    }
+
+    @Test
+    void submit_InTransaction_WaitsForCommit() {
+        recordBatches();
+        writer = new ActivityLogWriter(jdbcTemplate, 100, 10, 50, 5000);
+        TransactionSynchronizationManager.initSynchronization();
+
+        writer.submit(1, ActivityType.CREATED_PROPERTY, "details", NOW);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(1, synchronizations.size());
+        assertEquals(0, writer.getQueueSize());
+        verifyNoInteractions(jdbcTemplate);
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        writer.shutdown();
+
+        assertEquals(List.of(1), writtenUserIds);
+    }
+
+    @Test
+    void submit_FullQueue_DropsAndCountsActivity() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        writer = new ActivityLogWriter(jdbcTemplate, 1, 10, 50, 5000);
+
+        writer.submit(1, ActivityType.LOGIN, "taken by the worker", NOW);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        writer.submit(2, ActivityType.LOGIN, "queued", NOW);
+        writer.submit(3, ActivityType.LOGIN, "dropped", NOW);
+
+        assertEquals(1, writer.getQueueSize());
+        assertEquals(1, writer.getDroppedActivities());
+        release.countDown();
+    }
+
+    @Test
+    void write_FailingBatch_IsCountedAsFailed() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new IllegalStateException("database down"));
+        writer = new ActivityLogWriter(jdbcTemplate, 100, 10, 50, 5000);
+
+        writer.submit(1, ActivityType.LOGIN, "details", NOW);
+        writer.submit(2, ActivityType.LOGIN, "details", NOW);
+        writer.shutdown();
+
+        assertEquals(2, writer.getFailedActivities());
+        assertEquals(0, writer.getWrittenActivities());
+    }
+
+    @Test
+    void bindTo_RegistersQueueAndDropMeters() {
+        writer = new ActivityLogWriter(jdbcTemplate, 100, 10, 50, 5000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        writer.bindTo(registry);
+
+        assertNotNull(registry.find("activity.log.queue.size").gauge());
+        assertNotNull(registry.find("activity.log.dropped").functionCounter());
+        assertNotNull(registry.find("activity.log.failed").functionCounter());
+        assertNotNull(registry.find("activity.log.flush").timer());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recordBatches() {
+        doAnswer(invocation -> {
+            Collection<ActivityLogWriter.PendingActivity> batch = invocation.getArgument(1);
+            batch.forEach(activity -> writtenUserIds.add(activity.userId()));
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+}
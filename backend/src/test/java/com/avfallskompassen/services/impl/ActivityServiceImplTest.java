@@ -1,6 +1,8 @@
 package com.avfallskompassen.services.impl;
 
 import com.avfallskompassen.dto.ActivityDTO;
+import com.avfallskompassen.dto.ActivityPageDTO;
+import com.avfallskompassen.exception.BadRequestException;
 import com.avfallskompassen.exception.InternalServerException;
 import com.avfallskompassen.model.Activity;
 import com.avfallskompassen.model.ActivityType;
@@ -159,6 +161,52 @@ class ActivityServiceImplTest {
         assertNull(result.get(0).getTimeStamp()); 
     }
 
+    @Test
+    void getActivityFeed_ShouldFetchOneExtraRow_AndReturnCursorOfLastItem() {
+        LocalDateTime time = LocalDateTime.of(2026, 1, 1, 12, 0);
+        Activity a1 = activity(3L, time);
+        Activity a2 = activity(2L, time.minusMinutes(1));
+        Activity a3 = activity(1L, time.minusMinutes(2));
+
+        when(activityRepository.findFeed(eq(user), any(Pageable.class))).thenReturn(List.of(a1, a2, a3));
+
+        ActivityPageDTO page = activityService.getActivityFeed(user, null, 2);
+
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(activityRepository).findFeed(eq(user), pageableCaptor.capture());
+        assertEquals(3, pageableCaptor.getValue().getPageSize());
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+
+        ActivityServiceImpl.FeedCursor cursor = ActivityServiceImpl.decodeCursor(page.getNextCursor());
+        assertEquals(a2.getTimestamp(), cursor.timestamp());
+        assertEquals(2L, cursor.id());
+    }
+
+    @Test
+    void getActivityFeed_WithCursor_ShouldContinueAfterIt() {
+        LocalDateTime time = LocalDateTime.of(2026, 1, 1, 12, 0);
+        String cursor = ActivityServiceImpl.encodeCursor(activity(2L, time));
+
+        when(activityRepository.findFeedAfter(eq(user), eq(time), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(activity(1L, time.minusMinutes(1))));
+
+        ActivityPageDTO page = activityService.getActivityFeed(user, cursor, null);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getActivityFeed_ShouldRejectInvalidCursorAndLimit() {
+        assertThrows(BadRequestException.class, () -> activityService.getActivityFeed(user, "garbage", 10));
+        assertThrows(BadRequestException.class, () -> activityService.getActivityFeed(user, null, 0));
+        assertThrows(BadRequestException.class,
+                () -> activityService.getActivityFeed(user, null, ActivityServiceImpl.MAX_FEED_SIZE + 1));
+        verifyNoInteractions(activityRepository);
+    }
+
     @Test
     void saveActivity_ShouldCallRepositorySaveWithCorrectEntity() {
         ArgumentCaptor<Activity> captor = ArgumentCaptor.forClass(Activity.class);
@@ -175,6 +223,18 @@ class ActivityServiceImplTest {
         verify(activityRepository, times(1)).save(any(Activity.class));
     }
 
+    @Test
+    void saveActivity_WithLogWriter_ShouldSubmitInsteadOfSaving() {
+        ActivityLogWriter writer = mock(ActivityLogWriter.class);
+        ActivityServiceImpl asyncService = new ActivityServiceImpl(activityRepository, writer);
+        user.setId(4);
+
+        asyncService.saveActivity(user, ActivityType.LOGIN, "test details");
+
+        verify(writer).submit(eq(4), eq(ActivityType.LOGIN), eq("test details"), any(LocalDateTime.class));
+        verify(activityRepository, never()).save(any(Activity.class));
+    }
+
     @Test
     void saveActivity_ShouldThrowException_WhenUserIsNull() {
         assertThrows(InternalServerException.class,
@@ -192,4 +252,11 @@ class ActivityServiceImplTest {
         assertThrows(InternalServerException.class,
                 () -> activityService.saveActivity(user, ActivityType.LOGIN, null));
     }
-}
\ No newline at end of file
+
+    private Activity activity(Long id, LocalDateTime timestamp) {
+        Activity activity = new Activity(user, ActivityType.LOGIN, "details " + id);
+        activity.setId(id);
+        activity.setTimestamp(timestamp);
+        return activity;
+    }
+}
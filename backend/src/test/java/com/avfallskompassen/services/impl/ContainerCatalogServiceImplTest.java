@@ -0,0 +1,162 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.events.ContainerCatalogChangedEvent;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.MunicipalityService;
+import com.avfallskompassen.model.ServiceType;
+import com.avfallskompassen.repository.ContainerPlanRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ContainerCatalogServiceImpl}
+ */
+@ExtendWith(MockitoExtension.class)
+class ContainerCatalogServiceImplTest {
+
+    @Mock
+    private ContainerPlanRepository containerPlanRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ContainerCatalogServiceImpl catalog;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        catalog = new ContainerCatalogServiceImpl(containerPlanRepository, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void findContainerPlan_LoadsCatalogOnceAndCountsHits() {
+        ContainerPlan plan = plan(1L, 10L, 20L, "500");
+        when(containerPlanRepository.findAllWithRelations()).thenReturn(List.of(plan));
+
+        assertSame(plan, catalog.findContainerPlan(1L).orElseThrow());
+        assertSame(plan, catalog.findContainerPlan(1L).orElseThrow());
+
+        verify(containerPlanRepository, times(1)).findAllWithRelations();
+        verify(containerPlanRepository, never()).findById(anyLong());
+        assertEquals(2.0, lookups("hit"));
+        assertEquals(1.0, meterRegistry.get("container.catalog.size").gauge().value());
+    }
+
+    @Test
+    void findContainerPlan_UnknownId_FallsBackToDatabaseAndCountsMiss() {
+        when(containerPlanRepository.findAllWithRelations()).thenReturn(List.of(plan(1L, 10L, 20L, "500")));
+        when(containerPlanRepository.findAllWithRelationsByIdIn(List.of(2L))).thenReturn(List.of());
+
+        assertTrue(catalog.findContainerPlan(2L).isEmpty());
+
+        assertEquals(1.0, lookups("miss"));
+        verify(containerPlanRepository, never()).findById(any());
+    }
+
+    @Test
+    void findContainerPlansByIds_LoadsMissingPlansInOneQuery() {
+        ContainerPlan cached = plan(1L, 10L, 20L, "500");
+        ContainerPlan added = plan(5L, 10L, 20L, "800");
+        when(containerPlanRepository.findAllWithRelations()).thenReturn(List.of(cached));
+        when(containerPlanRepository.findAllWithRelationsByIdIn(List.of(5L))).thenReturn(List.of(added));
+
+        Map<Long, ContainerPlan> plans = catalog.findContainerPlansByIds(Set.of(1L, 5L));
+
+        assertEquals(Map.of(1L, cached, 5L, added), plans);
+        verify(containerPlanRepository, times(1)).findAllWithRelationsByIdIn(any());
+        verify(containerPlanRepository, never()).findAllById(any());
+        assertEquals(1.0, lookups("hit"));
+        assertEquals(1.0, lookups("miss"));
+    }
+
+    @Test
+    void findContainerPlans_GroupsPlansByMunicipalityAndServiceType() {
+        ContainerPlan first = plan(1L, 10L, 20L, "500");
+        ContainerPlan second = plan(2L, 10L, 20L, "700");
+        ContainerPlan otherService = plan(3L, 10L, 21L, "300");
+        when(containerPlanRepository.findAllWithRelations()).thenReturn(List.of(first, second, otherService));
+
+        List<ContainerPlan> plans = catalog.findContainerPlans(10L, 20L);
+
+        assertEquals(List.of(first, second), plans);
+        assertThrows(UnsupportedOperationException.class, () -> plans.add(otherService));
+        assertEquals(List.of(otherService), catalog.findContainerPlans(10L, 21L));
+        verify(containerPlanRepository, never())
+                .findByMunicipalityService_Municipality_IdAndMunicipalityService_ServiceType_Id(anyLong(), anyLong());
+    }
+
+    @Test
+    void findContainerPlans_UnknownService_ReturnsEmptyListWithoutQuery() {
+        when(containerPlanRepository.findAllWithRelations()).thenReturn(List.of());
+
+        assertTrue(catalog.findContainerPlans(10L, 20L).isEmpty());
+        assertTrue(catalog.findContainerPlans(10L, 20L).isEmpty());
+        assertEquals(0.0, lookups("miss"));
+        verify(containerPlanRepository, times(1)).findAllWithRelations();
+        verify(containerPlanRepository, never())
+                .findByMunicipalityService_Municipality_IdAndMunicipalityService_ServiceType_Id(anyLong(), anyLong());
+    }
+
+    @Test
+    void onCatalogChanged_SwapsInNewPrices() {
+        ContainerPlan before = plan(1L, 10L, 20L, "500");
+        ContainerPlan after = plan(1L, 10L, 20L, "650");
+        when(containerPlanRepository.findAllWithRelations()).thenReturn(List.of(before), List.of(after));
+        catalog.warmUp();
+
+        catalog.onCatalogChanged(new ContainerCatalogChangedEvent(1L));
+
+        assertEquals(new BigDecimal("650"), catalog.findContainerPlan(1L).orElseThrow().getCost());
+        assertEquals(2.0, meterRegistry.get("container.catalog.reloads").counter().count());
+    }
+
+    @Test
+    void onCatalogChanged_FailedReload_KeepsOldCatalog() {
+        ContainerPlan plan = plan(1L, 10L, 20L, "500");
+        when(containerPlanRepository.findAllWithRelations())
+                .thenReturn(List.of(plan))
+                .thenThrow(new RuntimeException("Database unavailable"));
+        catalog.warmUp();
+
+        catalog.onCatalogChanged(new ContainerCatalogChangedEvent(1L));
+
+        assertSame(plan, catalog.findContainerPlan(1L).orElseThrow());
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("container.catalog.lookups").tag("result", result).counter().count();
+    }
+
+    private static ContainerPlan plan(long id, long municipalityId, long serviceTypeId, String cost) {
+        Municipality municipality = new Municipality();
+        municipality.setId(municipalityId);
+        ServiceType serviceType = new ServiceType();
+        serviceType.setId(serviceTypeId);
+        MunicipalityService service = new MunicipalityService();
+        service.setMunicipality(municipality);
+        service.setServiceType(serviceType);
+
+        ContainerPlan plan = new ContainerPlan();
+        plan.setId(id);
+        plan.setMunicipalityService(service);
+        plan.setCost(new BigDecimal(cost));
+        return plan;
+    }
+}
@@ -0,0 +1,217 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.ContainerMixDTO;
+import com.avfallskompassen.dto.ContainerMixItemDTO;
+import com.avfallskompassen.dto.ServiceTypeMixDTO;
+import com.avfallskompassen.dto.request.ContainerMixRequest;
+import com.avfallskompassen.dto.request.ServiceTypeTargetRequest;
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.exception.ResourceNotFoundException;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.MunicipalityService;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.ServiceType;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.PropertyRepository;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.ContainerCatalogService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ContainerMixServiceImpl}
+ */
+@ExtendWith(MockitoExtension.class)
+class ContainerMixServiceImplTest {
+
+    private static final long MUNICIPALITY_ID = 1L;
+    private static final long RESTAVFALL_ID = 2L;
+    private static final long MATAVFALL_ID = 3L;
+
+    @Mock
+    private PropertyRepository propertyRepository;
+
+    @Mock
+    private WasteRoomRepository wasteRoomRepository;
+
+    @Mock
+    private ContainerCatalogService containerCatalogService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ContainerMixServiceImpl service;
+    private Property property;
+    private List<ContainerPlan> plans;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ContainerMixServiceImpl(propertyRepository, wasteRoomRepository, containerCatalogService,
+                meterRegistry, 0.125, 256);
+
+        Municipality municipality = new Municipality("Testkommun");
+        municipality.setId(MUNICIPALITY_ID);
+        property = new Property();
+        property.setId(10L);
+        property.setMunicipality(municipality);
+        property.setNumberOfApartments(20);
+
+        ServiceType restavfall = new ServiceType("Restavfall");
+        restavfall.setId(RESTAVFALL_ID);
+        MunicipalityService municipalityService = new MunicipalityService();
+        municipalityService.setMunicipality(municipality);
+        municipalityService.setServiceType(restavfall);
+        plans = List.of(
+                plan(1L, municipalityService, 660, 1000, 52, "2000"),
+                plan(2L, municipalityService, 370, 600, 52, "1500"),
+                plan(3L, municipalityService, 190, 400, 26, "600"));
+    }
+
+    @Test
+    void recommendContainerMix_NoActiveRoom_ReturnsCheapestMix() {
+        when(propertyRepository.findById(10L)).thenReturn(Optional.of(property));
+        when(wasteRoomRepository.findByPropertyIdAndIsActiveTrue(10L)).thenReturn(Optional.empty());
+        when(containerCatalogService.findContainerPlans(MUNICIPALITY_ID, RESTAVFALL_ID)).thenReturn(plans);
+
+        ContainerMixDTO mix = service.recommendContainerMix(10L, request(30));
+
+        assertNull(mix.getAvailableFloorArea());
+        assertTrue(mix.isFitsFloorArea());
+        assertEquals(0, new BigDecimal("2000").compareTo(mix.getAnnualCost()));
+        ServiceTypeMixDTO restavfall = mix.getServices().get(0);
+        assertEquals("Restavfall", restavfall.getServiceTypeName());
+        assertEquals(600, restavfall.getRequiredLitersPerWeek(), 1e-9);
+        assertEquals(660, restavfall.getLitersPerWeek(), 1e-9);
+        ContainerMixItemDTO container = restavfall.getContainers().get(0);
+        assertEquals(1L, container.getContainerPlanId());
+        assertEquals(1, container.getCount());
+    }
+
+    @Test
+    void recommendContainerMix_SmallRoom_PicksCheapestMixThatFits() {
+        when(propertyRepository.findById(10L)).thenReturn(Optional.of(property));
+        when(wasteRoomRepository.findByPropertyIdAndIsActiveTrue(10L)).thenReturn(Optional.of(room(2.5, 2.5)));
+        when(containerCatalogService.findContainerPlans(MUNICIPALITY_ID, RESTAVFALL_ID)).thenReturn(plans);
+
+        ContainerMixDTO mix = service.recommendContainerMix(10L, request(30));
+
+        assertEquals(0.78125, mix.getAvailableFloorArea(), 1e-9);
+        assertTrue(mix.isFitsFloorArea());
+        assertEquals(0, new BigDecimal("3000").compareTo(mix.getAnnualCost()));
+        assertEquals(0.72, mix.getFloorArea(), 1e-9);
+        ContainerMixItemDTO container = mix.getServices().get(0).getContainers().get(0);
+        assertEquals(2L, container.getContainerPlanId());
+        assertEquals(2, container.getCount());
+    }
+
+    @Test
+    void recommendContainerMix_NothingFits_ReturnsCheapestMixMarkedAsNotFitting() {
+        when(propertyRepository.findById(10L)).thenReturn(Optional.of(property));
+        when(wasteRoomRepository.findByPropertyIdAndIsActiveTrue(10L)).thenReturn(Optional.of(room(1.0, 1.0)));
+        when(containerCatalogService.findContainerPlans(MUNICIPALITY_ID, RESTAVFALL_ID)).thenReturn(plans);
+
+        ContainerMixDTO mix = service.recommendContainerMix(10L, request(30));
+
+        assertFalse(mix.isFitsFloorArea());
+        assertEquals(0, new BigDecimal("2000").compareTo(mix.getAnnualCost()));
+    }
+
+    @Test
+    void recommendContainerMix_SameCatalog_ReusesTable() {
+        when(propertyRepository.findById(10L)).thenReturn(Optional.of(property));
+        when(wasteRoomRepository.findByPropertyIdAndIsActiveTrue(10L)).thenReturn(Optional.empty());
+        when(containerCatalogService.findContainerPlans(MUNICIPALITY_ID, RESTAVFALL_ID)).thenReturn(plans);
+
+        service.recommendContainerMix(10L, request(30));
+        service.recommendContainerMix(10L, request(60));
+
+        assertEquals(1.0, meterRegistry.get("container.mix.tables").tag("result", "built").counter().count());
+        assertEquals(1.0, meterRegistry.get("container.mix.tables").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void recommendContainerMix_TooManyTables_DropsLeastRecentlyUsed() {
+        service = new ContainerMixServiceImpl(propertyRepository, wasteRoomRepository, containerCatalogService,
+                meterRegistry, 0.125, 1);
+        when(propertyRepository.findById(10L)).thenReturn(Optional.of(property));
+        when(wasteRoomRepository.findByPropertyIdAndIsActiveTrue(10L)).thenReturn(Optional.empty());
+        when(containerCatalogService.findContainerPlans(MUNICIPALITY_ID, RESTAVFALL_ID)).thenReturn(plans);
+        when(containerCatalogService.findContainerPlans(MUNICIPALITY_ID, MATAVFALL_ID)).thenReturn(plans);
+
+        service.recommendContainerMix(10L, request(RESTAVFALL_ID, 30));
+        service.recommendContainerMix(10L, request(MATAVFALL_ID, 30));
+        service.recommendContainerMix(10L, request(RESTAVFALL_ID, 30));
+
+        assertEquals(3.0, meterRegistry.get("container.mix.tables").tag("result", "built").counter().count());
+        assertEquals(0.0, meterRegistry.get("container.mix.tables").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void recommendContainerMix_CatalogReloaded_BuildsTableAgain() {
+        when(propertyRepository.findById(10L)).thenReturn(Optional.of(property));
+        when(wasteRoomRepository.findByPropertyIdAndIsActiveTrue(10L)).thenReturn(Optional.empty());
+        when(containerCatalogService.findContainerPlans(MUNICIPALITY_ID, RESTAVFALL_ID))
+                .thenReturn(plans, new ArrayList<>(plans));
+
+        service.recommendContainerMix(10L, request(30));
+        service.recommendContainerMix(10L, request(30));
+
+        assertEquals(2.0, meterRegistry.get("container.mix.tables").tag("result", "built").counter().count());
+    }
+
+    @Test
+    void recommendContainerMix_ServiceNotOffered_ThrowsBadRequest() {
+        when(propertyRepository.findById(10L)).thenReturn(Optional.of(property));
+        when(wasteRoomRepository.findByPropertyIdAndIsActiveTrue(10L)).thenReturn(Optional.empty());
+        when(containerCatalogService.findContainerPlans(MUNICIPALITY_ID, RESTAVFALL_ID)).thenReturn(List.of());
+
+        assertThrows(BadRequestException.class, () -> service.recommendContainerMix(10L, request(30)));
+    }
+
+    @Test
+    void recommendContainerMix_UnknownProperty_ThrowsNotFound() {
+        when(propertyRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.recommendContainerMix(99L, request(30)));
+        verifyNoInteractions(containerCatalogService);
+    }
+
+    private static ContainerMixRequest request(double litersPerWeekPerApartment) {
+        return request(RESTAVFALL_ID, litersPerWeekPerApartment);
+    }
+
+    private static ContainerMixRequest request(long serviceTypeId, double litersPerWeekPerApartment) {
+        ContainerMixRequest request = new ContainerMixRequest();
+        request.setTargets(List.of(new ServiceTypeTargetRequest(serviceTypeId, litersPerWeekPerApartment)));
+        return request;
+    }
+
+    private static WasteRoom room(double width, double length) {
+        WasteRoom room = new WasteRoom();
+        room.setWidth(width);
+        room.setLength(length);
+        room.setOtherObjects(List.of());
+        return room;
+    }
+
+    private static ContainerPlan plan(long id, MunicipalityService municipalityService, int size, double sideMm,
+                                      int frequency, String cost) {
+        ContainerType type = new ContainerType(size + "L kärl", size, sideMm, sideMm, 1000);
+        ContainerPlan plan = new ContainerPlan(municipalityService, type, frequency, new BigDecimal(cost), null, null);
+        plan.setId(id);
+        return plan;
+    }
+}
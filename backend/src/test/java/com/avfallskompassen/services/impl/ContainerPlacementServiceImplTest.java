@@ -0,0 +1,158 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.ContainerPlacementDTO;
+import com.avfallskompassen.dto.request.ContainerCountRequest;
+import com.avfallskompassen.dto.request.ContainerPlacementRequest;
+import com.avfallskompassen.dto.request.ContainerPositionRequest;
+import com.avfallskompassen.dto.request.DoorRequest;
+import com.avfallskompassen.dto.request.OtherObjectRequest;
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.Door;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.services.ContainerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ContainerPlacementServiceImpl}
+ */
+@ExtendWith(MockitoExtension.class)
+class ContainerPlacementServiceImplTest {
+
+    @Mock
+    private ContainerService containerService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ContainerPlacementServiceImpl placementService;
+    private ContainerPlan restavfall;
+    private ContainerPlan matavfall;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        placementService = new ContainerPlacementServiceImpl(containerService, meterRegistry, 2, 16, 2000, 1.0);
+
+        restavfall = plan(1L, 770, 1200);
+        matavfall = plan(2L, 600, 800);
+    }
+
+    @AfterEach
+    void tearDown() {
+        placementService.shutdown();
+    }
+
+    @Test
+    void placeContainers_RoomWithRoom_PlacesEveryContainerWithoutViolations() {
+        when(containerService.getContainerPlansByIds(Set.of(1L, 2L))).thenReturn(Map.of(1L, restavfall, 2L, matavfall));
+        List<DoorRequest> doors = List.of(new DoorRequest(1.0, 150, 0, 0, "top", "inward"));
+        List<OtherObjectRequest> otherObjects = List.of(new OtherObjectRequest("Skåp", 40, 30, 0, 120, 0));
+        ContainerPlacementRequest request = new ContainerPlacementRequest(3, 4, 0, 0, doors, otherObjects, List.of(
+                new ContainerCountRequest(1L, 2, true),
+                new ContainerCountRequest(2L, 3, false)));
+
+        ContainerPlacementDTO placement = placementService.placeContainers(request);
+
+        assertTrue(placement.isComplete());
+        assertEquals(5, placement.getPlacedCount());
+        assertEquals(List.of(1L, 1L, 2L, 2L, 2L), placement.getContainers().stream().map(ContainerPositionRequest::getId).toList());
+        assertTrue(placement.getContainers().get(0).getHasLockILock());
+        assertTrue(new WasteRoomLayoutValidator().validate(room(request, placement)).isEmpty());
+        assertEquals(1, meterRegistry.get("wasteroom.placement").tag("outcome", "complete").timer().count());
+    }
+
+    @Test
+    void placeContainers_RoomTooSmall_ReturnsContainersThatFit() {
+        when(containerService.getContainerPlansByIds(Set.of(1L))).thenReturn(Map.of(1L, restavfall));
+        ContainerPlacementRequest request = new ContainerPlacementRequest(2.5, 2.5, 0, 0,
+                List.of(new DoorRequest(1.0, 0, 50, 0, "left", "outward")), List.of(),
+                List.of(new ContainerCountRequest(1L, 10, false)));
+
+        ContainerPlacementDTO placement = placementService.placeContainers(request);
+
+        assertFalse(placement.isComplete());
+        assertTrue(placement.getPlacedCount() > 0);
+        assertEquals(10, placement.getRequestedCount());
+        assertEquals(10 - placement.getPlacedCount(), placement.getUnplacedContainerPlanIds().size());
+        assertTrue(new WasteRoomLayoutValidator().validate(room(request, placement)).isEmpty());
+    }
+
+    @Test
+    void placeContainers_TooManyContainers_Throws() {
+        ContainerPlacementRequest request = new ContainerPlacementRequest(9, 12, 0, 0, List.of(), List.of(),
+                List.of(new ContainerCountRequest(1L, ContainerPlacementServiceImpl.MAX_CONTAINERS, false),
+                        new ContainerCountRequest(2L, 1, false)));
+
+        assertThrows(BadRequestException.class, () -> placementService.placeContainers(request));
+        verifyNoInteractions(containerService);
+    }
+
+    @Test
+    void placeContainers_PlanWithoutContainerType_Throws() {
+        ContainerPlan unknownSize = new ContainerPlan();
+        unknownSize.setId(3L);
+        when(containerService.getContainerPlansByIds(Set.of(3L))).thenReturn(Map.of(3L, unknownSize));
+        ContainerPlacementRequest request = new ContainerPlacementRequest(3, 4, 0, 0, List.of(), List.of(),
+                List.of(new ContainerCountRequest(3L, 1, false)));
+
+        assertThrows(BadRequestException.class, () -> placementService.placeContainers(request));
+    }
+
+    private static ContainerPlan plan(Long id, double width, double depth) {
+        ContainerType type = new ContainerType();
+        type.setWidth(width);
+        type.setDepth(depth);
+        ContainerPlan plan = new ContainerPlan();
+        plan.setId(id);
+        plan.setContainerType(type);
+        return plan;
+    }
+
+    private WasteRoom room(ContainerPlacementRequest request, ContainerPlacementDTO placement) {
+        WasteRoom room = new WasteRoom();
+        room.setX(request.getX());
+        room.setY(request.getY());
+        room.setWidth(request.getWidth());
+        room.setLength(request.getLength());
+
+        List<ContainerPosition> containers = new ArrayList<>();
+        for (ContainerPositionRequest suggested : placement.getContainers()) {
+            ContainerPosition container = new ContainerPosition();
+            container.setContainerPlan(suggested.getId() == 1L ? restavfall : matavfall);
+            container.setX(suggested.getX());
+            container.setY(suggested.getY());
+            container.setAngle(suggested.getAngle());
+            containers.add(container);
+        }
+        List<Door> doors = new ArrayList<>();
+        for (DoorRequest door : request.getDoors()) {
+            doors.add(new Door(null, door.getWidth(), 0.1, door.getX(), door.getY(), door.getAngle(),
+                    door.getWall(), door.getSwingDirection(), room));
+        }
+        List<OtherObject> otherObjects = new ArrayList<>();
+        for (OtherObjectRequest object : request.getOtherObjects()) {
+            otherObjects.add(new OtherObject(null, object.getName(), object.getWidth(), object.getDepth(),
+                    object.getX(), object.getY(), object.getRotation(), room));
+        }
+        room.setContainers(containers);
+        room.setDoors(doors);
+        room.setOtherObjects(otherObjects);
+        return room;
+    }
+}
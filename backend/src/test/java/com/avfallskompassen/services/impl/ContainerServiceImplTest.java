@@ -2,17 +2,22 @@ package com.avfallskompassen.services.impl;
 
 import com.avfallskompassen.dto.ContainerDTO;
 import com.avfallskompassen.dto.PropertyContainerDTO;
+import com.avfallskompassen.exception.ResourceNotFoundException;
 import com.avfallskompassen.model.*;
-import com.avfallskompassen.repository.ContainerPlanRepository;
 import com.avfallskompassen.repository.ContainerPositionRepository;
+import com.avfallskompassen.services.ContainerCatalogService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,7 +29,7 @@ import static org.mockito.Mockito.*;
 public class ContainerServiceImplTest {
 
     @Mock
-    private ContainerPlanRepository repository;
+    private ContainerCatalogService containerCatalogService;
 
     @InjectMocks
     private ContainerServiceImpl service;
@@ -32,6 +37,9 @@ public class ContainerServiceImplTest {
     @Mock
     private ContainerPositionRepository containerPositionRepository;
 
+    @Spy
+    private AnnualCostModel costModel = new AnnualCostModel(BigDecimal.valueOf(100));
+
     /**
      * Test getContainersByMunicipalityAndService method to ensure it returns a list of ContainerPlan
      * when valid municipalityId and serviceTypeId are provided.
@@ -52,14 +60,12 @@ public class ContainerServiceImplTest {
         plan.setImageTopViewUrl(null);
         plan.setMunicipalityService(municipalityService);
 
-        when(repository.findByMunicipalityService_Municipality_IdAndMunicipalityService_ServiceType_Id(1L,2L))
-                .thenReturn(List.of(plan));
+        when(containerCatalogService.findContainerPlans(1L, 2L)).thenReturn(List.of(plan));
 
         List<ContainerDTO> result = service.getContainersByMunicipalityAndService(1L, 2L);
 
         assertEquals(1, result.size());
-        verify(repository, times(1))
-                .findByMunicipalityService_Municipality_IdAndMunicipalityService_ServiceType_Id(1L, 2L);
+        verify(containerCatalogService, times(1)).findContainerPlans(1L, 2L);
     }
 
     /**
@@ -68,8 +74,7 @@ public class ContainerServiceImplTest {
      */
     @Test
     void testGetContainersByMunicipalityAndService_ReturnsEmptyListForNoResult() {
-        when(repository.findByMunicipalityService_Municipality_IdAndMunicipalityService_ServiceType_Id(99L, 99L))
-                .thenReturn(List.of());
+        when(containerCatalogService.findContainerPlans(99L, 99L)).thenReturn(List.of());
 
         List<ContainerDTO> result = service.getContainersByMunicipalityAndService(99L, 99L);
 
@@ -87,6 +92,56 @@ public class ContainerServiceImplTest {
         );
     }
 
+    @Test
+    void testGetContainerPlanById_ReturnsPlanFromCatalog() {
+        ContainerPlan plan = new ContainerPlan();
+        plan.setId(5L);
+        when(containerCatalogService.findContainerPlan(5L)).thenReturn(Optional.of(plan));
+
+        assertSame(plan, service.getContainerPlanById(5L));
+    }
+
+    @Test
+    void testGetContainerPlanById_UnknownId_ThrowsResourceNotFound() {
+        when(containerCatalogService.findContainerPlan(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.getContainerPlanById(99L));
+    }
+
+    @Test
+    void testGetContainerPlansByIds_ReturnsAllPlans() {
+        ContainerPlan first = new ContainerPlan();
+        first.setId(1L);
+        ContainerPlan second = new ContainerPlan();
+        second.setId(2L);
+        when(containerCatalogService.findContainerPlansByIds(Set.of(1L, 2L)))
+                .thenReturn(Map.of(1L, first, 2L, second));
+
+        Map<Long, ContainerPlan> result = service.getContainerPlansByIds(Set.of(1L, 2L));
+
+        assertSame(first, result.get(1L));
+        assertSame(second, result.get(2L));
+    }
+
+    @Test
+    void testGetContainerPlansByIds_UnknownIds_ThrowsOneErrorListingAll() {
+        ContainerPlan known = new ContainerPlan();
+        known.setId(1L);
+        when(containerCatalogService.findContainerPlansByIds(Set.of(1L, 9L, 4L)))
+                .thenReturn(Map.of(1L, known));
+
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> service.getContainerPlansByIds(Set.of(1L, 9L, 4L)));
+
+        assertEquals("ContainerPlans with IDs: 4, 9 can't be found", ex.getMessage());
+    }
+
+    @Test
+    void testGetContainerPlansByIds_EmptySet_DoesNotUseCatalog() {
+        assertTrue(service.getContainerPlansByIds(Set.of()).isEmpty());
+        verifyNoInteractions(containerCatalogService);
+    }
+
     @Test
     void testGetContainersByPropertyId_ReturnsCorrectlyMappedList() {
 
@@ -141,4 +196,40 @@ public class ContainerServiceImplTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void testGetContainersByPropertyId_AddsLockILockPerContainer() {
+        ServiceType serviceType = new ServiceType();
+        serviceType.setName("Restavfall");
+
+        MunicipalityService municipalityService = new MunicipalityService();
+        municipalityService.setServiceType(serviceType);
+
+        ContainerType type = new ContainerType();
+        type.setName("370L Kärl");
+        type.setSize(370);
+
+        ContainerPlan plan = new ContainerPlan();
+        plan.setId(2L);
+        plan.setContainerType(type);
+        plan.setMunicipalityService(municipalityService);
+        plan.setEmptyingFrequencyPerYear(26);
+        plan.setCost(BigDecimal.valueOf(400));
+
+        ContainerPosition locked = new ContainerPosition();
+        locked.setContainerPlan(plan);
+        locked.setHasLockILock(true);
+
+        ContainerPosition open = new ContainerPosition();
+        open.setContainerPlan(plan);
+
+        when(containerPositionRepository.findByPropertyIdAndIsActive(10L))
+                .thenReturn(List.of(locked, open, locked));
+
+        List<PropertyContainerDTO> result = service.getContainersByPropertyId(10L);
+
+        assertEquals(1, result.size());
+        assertEquals(3, result.get(0).getQuantity());
+        assertEquals(BigDecimal.valueOf(1400), result.get(0).getCost());
+    }
 }
@@ -0,0 +1,155 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.CostBreakdownDTO;
+import com.avfallskompassen.dto.request.ContainerPositionRequest;
+import com.avfallskompassen.dto.request.CostSimulationRequest;
+import com.avfallskompassen.dto.request.WasteRoomRequest;
+import com.avfallskompassen.events.CostRatesChangedEvent;
+import com.avfallskompassen.exception.ResourceNotFoundException;
+import com.avfallskompassen.model.CollectionFee;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.LockType;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.repository.CollectionFeeRepository;
+import com.avfallskompassen.repository.LockTypeRepository;
+import com.avfallskompassen.services.ContainerCatalogService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link CostSimulationServiceImpl}
+ */
+@ExtendWith(MockitoExtension.class)
+class CostSimulationServiceImplTest {
+
+    @Mock
+    private CollectionFeeRepository collectionFeeRepository;
+
+    @Mock
+    private LockTypeRepository lockTypeRepository;
+
+    @Mock
+    private ContainerCatalogService containerCatalogService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CostSimulationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new CostSimulationServiceImpl(collectionFeeRepository, lockTypeRepository, containerCatalogService,
+                transactionManager, meterRegistry, new AnnualCostModel(BigDecimal.valueOf(100)));
+    }
+
+    @Test
+    void simulateAnnualCost_SplitsCostIntoItsParts() {
+        givenRates(BigDecimal.valueOf(250));
+        when(containerCatalogService.findContainerPlan(7L)).thenReturn(Optional.of(plan(7L, "1200")));
+        when(containerCatalogService.findContainerPlan(8L)).thenReturn(Optional.of(plan(8L, "800")));
+
+        CostBreakdownDTO cost = service.simulateAnnualCost(request(26.0, 4,
+                container(7L, true), container(7L, false), container(8L, true)));
+
+        // 26 m drag distance is 21 m beyond the free 5 m, three started segments of 10 m
+        assertEquals(0, BigDecimal.valueOf(750).compareTo(cost.getCollectionFee()));
+        assertEquals(0, BigDecimal.valueOf(300).compareTo(cost.getLockCost()));
+        assertEquals(0, BigDecimal.valueOf(3200).compareTo(cost.getContainerCost()));
+        assertEquals(0, BigDecimal.valueOf(200).compareTo(cost.getLockILockCost()));
+        assertEquals(0, BigDecimal.valueOf(4450).compareTo(cost.getTotalCost()));
+        assertEquals(new BigDecimal("1112.50"), cost.getCostPerApartment());
+        assertEquals(3, cost.getContainerCount());
+        assertEquals(2, cost.getLockILockCount());
+        assertEquals(1, meterRegistry.get("property.cost.simulation").timer().count());
+    }
+
+    @Test
+    void simulateAnnualCost_LoadsRatesOnceForRepeatedCalls() {
+        givenRates(BigDecimal.valueOf(250));
+
+        service.simulateAnnualCost(request(3.0, 0));
+        CostBreakdownDTO cost = service.simulateAnnualCost(request(3.0, 0));
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(cost.getCollectionFee()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(cost.getCostPerApartment()));
+        verify(collectionFeeRepository, times(1)).findAllWithMunicipality();
+        verify(lockTypeRepository, times(1)).findAll();
+    }
+
+    @Test
+    void simulateAnnualCost_RatesChanged_UsesNewRates() {
+        givenRates(BigDecimal.valueOf(250));
+        service.simulateAnnualCost(request(10.0, 0));
+
+        givenRates(BigDecimal.valueOf(400));
+        service.onRatesChanged(new CostRatesChangedEvent("collectionFee", 1L));
+        CostBreakdownDTO cost = service.simulateAnnualCost(request(10.0, 0));
+
+        assertEquals(0, BigDecimal.valueOf(400).compareTo(cost.getCollectionFee()));
+    }
+
+    @Test
+    void simulateAnnualCost_UnknownContainerPlan_ThrowsNotFound() {
+        givenRates(BigDecimal.valueOf(250));
+        when(containerCatalogService.findContainerPlan(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.simulateAnnualCost(request(10.0, 0, container(99L, false))));
+    }
+
+    @Test
+    void simulateAnnualCost_UnknownLockType_ReloadsOnceAndThrowsNotFound() {
+        givenRates(BigDecimal.valueOf(250));
+        CostSimulationRequest request = request(10.0, 0);
+        request.setLockTypeId(5L);
+
+        assertThrows(ResourceNotFoundException.class, () -> service.simulateAnnualCost(request));
+        verify(lockTypeRepository, times(2)).findAll();
+    }
+
+    private void givenRates(BigDecimal feePerSegment) {
+        Municipality municipality = new Municipality("Testkommun");
+        municipality.setId(1L);
+        // The fee has an id of its own, the simulation finds it through its municipality like the saved cost
+        CollectionFee fee = new CollectionFee();
+        fee.setId(9L);
+        fee.setMunicipality(municipality);
+        fee.setCost(feePerSegment);
+        LockType lockType = new LockType("Nyckel", BigDecimal.valueOf(300));
+        lockType.setId(2L);
+
+        when(collectionFeeRepository.findAllWithMunicipality()).thenReturn(List.of(fee));
+        when(lockTypeRepository.findAll()).thenReturn(List.of(lockType));
+    }
+
+    private static CostSimulationRequest request(double accessPathLength, int apartments,
+                                                 ContainerPositionRequest... containers) {
+        WasteRoomRequest room = new WasteRoomRequest(3.0, 4.0, 0, 0, List.of(), List.of(containers), List.of(), 10L, "Rum");
+        return new CostSimulationRequest(1L, 2L, accessPathLength, apartments, room);
+    }
+
+    private static ContainerPositionRequest container(long planId, boolean hasLockILock) {
+        return new ContainerPositionRequest(planId, 0, 0, 0, hasLockILock);
+    }
+
+    private static ContainerPlan plan(long id, String cost) {
+        ContainerPlan plan = new ContainerPlan();
+        plan.setId(id);
+        plan.setCost(new BigDecimal(cost));
+        return plan;
+    }
+}
@@ -0,0 +1,127 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.LayoutRevalidationReportDTO;
+import com.avfallskompassen.dto.LayoutViolationDTO;
+import com.avfallskompassen.dto.LayoutViolationDTO.ItemKind;
+import com.avfallskompassen.dto.LayoutViolationDTO.Type;
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link LayoutValidationServiceImpl}
+ */
+@ExtendWith(MockitoExtension.class)
+class LayoutValidationServiceImplTest {
+
+    @Mock
+    private WasteRoomLayoutValidator validator;
+
+    @Mock
+    private WasteRoomRepository wasteRoomRepository;
+
+    @Mock
+    private WasteRoomVersionStore versionStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void enforce_RejectMode_ThrowsWithViolations() {
+        LayoutValidationServiceImpl service = service("reject");
+        WasteRoom room = room(1L);
+        when(validator.validate(room)).thenReturn(List.of(outOfBounds()));
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> service.enforce(room));
+
+        assertTrue(exception.getMessage().contains("Kärl 1 ligger utanför rummets väggar"));
+        assertEquals(1, meterRegistry.get("wasteroom.layout.validation").timer().count());
+    }
+
+    @Test
+    void enforce_LogMode_DoesNotThrow() {
+        LayoutValidationServiceImpl service = service("log");
+        WasteRoom room = room(1L);
+        when(validator.validate(room)).thenReturn(List.of(outOfBounds()));
+
+        assertDoesNotThrow(() -> service.enforce(room));
+    }
+
+    @Test
+    void enforce_OffMode_SkipsValidation() {
+        LayoutValidationServiceImpl service = service("off");
+
+        service.enforce(room(1L));
+
+        verifyNoInteractions(validator);
+    }
+
+    @Test
+    void revalidateAll_ReadsBatchesUntilNoRoomsAreLeft() {
+        LayoutValidationServiceImpl service = service("log");
+        WasteRoom first = room(1L);
+        WasteRoom second = room(2L);
+        WasteRoom third = room(3L);
+        when(wasteRoomRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(wasteRoomRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(3L));
+        when(wasteRoomRepository.findIdsAfter(eq(3L), any(Pageable.class))).thenReturn(List.of());
+        when(wasteRoomRepository.findWithContainersByIdIn(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(wasteRoomRepository.findWithContainersByIdIn(List.of(3L))).thenReturn(List.of(third));
+        when(versionStore.resolveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(validator.validate(any(WasteRoom.class))).thenReturn(List.of());
+        when(validator.validate(second)).thenReturn(List.of(outOfBounds()));
+
+        LayoutRevalidationReportDTO report = service.revalidateAll(10);
+
+        assertEquals(3, report.getCheckedRooms());
+        assertEquals(1, report.getInvalidRooms());
+        assertEquals(1, report.getResults().size());
+        assertEquals(2L, report.getResults().get(0).getWasteRoomId());
+        assertFalse(report.getResults().get(0).isValid());
+        verify(wasteRoomRepository, times(3)).findIdsAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void revalidateAll_MaxResultsOutOfRange_Throws() {
+        LayoutValidationServiceImpl service = service("log");
+
+        assertThrows(BadRequestException.class, () -> service.revalidateAll(-1));
+        assertThrows(BadRequestException.class, () -> service.revalidateAll(LayoutValidationServiceImpl.MAX_RESULTS + 1));
+        verifyNoInteractions(wasteRoomRepository);
+    }
+
+    private LayoutValidationServiceImpl service(String mode) {
+        return new LayoutValidationServiceImpl(validator, wasteRoomRepository, versionStore,
+                transactionManager, meterRegistry, mode, 2);
+    }
+
+    private static WasteRoom room(Long id) {
+        WasteRoom room = new WasteRoom();
+        room.setId(id);
+        room.setName("Rum " + id);
+        return room;
+    }
+
+    private static LayoutViolationDTO outOfBounds() {
+        return new LayoutViolationDTO(Type.OUT_OF_BOUNDS, ItemKind.CONTAINER, 0, null, null,
+                "Kärl 1 ligger utanför rummets väggar");
+    }
+}
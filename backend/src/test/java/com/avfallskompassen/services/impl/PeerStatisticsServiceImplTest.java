@@ -0,0 +1,311 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.GeneralPropertyCostDTO;
+import com.avfallskompassen.dto.PeerGroupStatisticsDTO;
+import com.avfallskompassen.dto.PeerServiceStatisticsDTO;
+import com.avfallskompassen.events.PropertyStatisticsChangedEvent;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.Municipality;
+import com.avfallskompassen.model.MunicipalityService;
+import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.PropertyPeerStatistics;
+import com.avfallskompassen.model.PropertyServiceStatistics;
+import com.avfallskompassen.model.PropertyType;
+import com.avfallskompassen.model.ServiceType;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.PropertyPeerStatisticsRepository;
+import com.avfallskompassen.repository.PropertyRepository;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.PropertyCostService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link PeerStatisticsServiceImpl}
+ */
+@ExtendWith(MockitoExtension.class)
+class PeerStatisticsServiceImplTest {
+
+    @Mock
+    private PropertyPeerStatisticsRepository statisticsRepository;
+
+    @Mock
+    private PropertyRepository propertyRepository;
+
+    @Mock
+    private WasteRoomRepository wasteRoomRepository;
+
+    @Mock
+    private PropertyCostService propertyCostService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private AnnualCostModel costModel = new AnnualCostModel(BigDecimal.valueOf(100));
+
+    @InjectMocks
+    private PeerStatisticsServiceImpl peerStatisticsService;
+
+    private Property property;
+
+    @BeforeEach
+    void setUp() {
+        Municipality municipality = new Municipality();
+        municipality.setId(10L);
+
+        property = new Property();
+        property.setId(1L);
+        property.setAddress("Centralgatan 1");
+        property.setNumberOfApartments(10);
+        property.setMunicipality(municipality);
+        property.setPropertyType(PropertyType.FLERBOSTADSHUS);
+    }
+
+    @Test
+    void refreshProperty_StoresFiguresFromActiveRooms() {
+        WasteRoom activeRoom = createRoom(true, 9.0);
+        addContainer(activeRoom, "Restavfall", 100, 10);
+        addContainer(activeRoom, "Restavfall", 100, 6);
+        addContainer(activeRoom, "Matavfall", 50, 12);
+
+        WasteRoom inactiveRoom = createRoom(false, 52.0);
+        addContainer(inactiveRoom, "Restavfall", 660, 52);
+
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        when(statisticsRepository.findById(1L)).thenReturn(Optional.empty());
+        when(wasteRoomRepository.findByPropertyId(1L)).thenReturn(List.of(activeRoom, inactiveRoom));
+        when(propertyCostService.calculateAnnualCost(1L))
+                .thenReturn(new GeneralPropertyCostDTO("Centralgatan 1", new BigDecimal("1234.567"), BigDecimal.ZERO));
+
+        peerStatisticsService.refreshProperty(1L);
+
+        ArgumentCaptor<PropertyPeerStatistics> captor = ArgumentCaptor.forClass(PropertyPeerStatistics.class);
+        verify(statisticsRepository).save(captor.capture());
+        PropertyPeerStatistics saved = captor.getValue();
+
+        assertEquals(1L, saved.getPropertyId());
+        assertEquals(10L, saved.getMunicipalityId());
+        assertEquals(10, saved.getNumberOfApartments());
+        assertEquals(new BigDecimal("1234.57"), saved.getAnnualCost());
+        assertEquals("2;lock-i-lock=100", saved.getCostModel());
+        assertEquals(250, saved.getTotalVolume());
+        assertEquals(9.0, saved.getAverageFrequency(), 0.001);
+        assertEquals(2, saved.getServiceStatistics().size());
+
+        PropertyServiceStatistics rest = findService(saved, "Restavfall");
+        assertEquals(1600.0, rest.getWasteAmount(), 0.001);
+        assertEquals(8.0, rest.getAverageFrequency(), 0.001);
+
+        PropertyServiceStatistics mat = findService(saved, "Matavfall");
+        assertEquals(600.0, mat.getWasteAmount(), 0.001);
+        assertEquals(12.0, mat.getAverageFrequency(), 0.001);
+    }
+
+    @Test
+    void refreshProperty_StoresNullCostWhenCostCannotBeCalculated() {
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        when(statisticsRepository.findById(1L)).thenReturn(Optional.empty());
+        when(wasteRoomRepository.findByPropertyId(1L)).thenReturn(List.of());
+        when(propertyCostService.calculateAnnualCost(1L)).thenThrow(new EntityNotFoundException("Property not found"));
+
+        peerStatisticsService.refreshProperty(1L);
+
+        ArgumentCaptor<PropertyPeerStatistics> captor = ArgumentCaptor.forClass(PropertyPeerStatistics.class);
+        verify(statisticsRepository).save(captor.capture());
+        assertNull(captor.getValue().getAnnualCost());
+        assertEquals(0, captor.getValue().getTotalVolume());
+    }
+
+    @Test
+    void refreshProperty_DeletesStatisticsForRemovedProperty() {
+        when(propertyRepository.findById(1L)).thenReturn(Optional.empty());
+        when(statisticsRepository.existsById(1L)).thenReturn(true);
+
+        peerStatisticsService.refreshProperty(1L);
+
+        verify(statisticsRepository).deleteById(1L);
+        verify(statisticsRepository, never()).save(any());
+    }
+
+    @Test
+    void getPeerGroupStatistics_MapsAggregatedRows() {
+        List<Object[]> groupRows = new ArrayList<>();
+        groupRows.add(new Object[]{2L, 2L, new BigDecimal("3300.00"), new BigDecimal("1500.00"),
+                new BigDecimal("1800.00"), 215L, 14.0, 2L});
+        List<Object[]> serviceRows = new ArrayList<>();
+        serviceRows.add(new Object[]{"Restavfall", 2L, 1540.0, 540.0, 1000.0, 14.0});
+
+        when(statisticsRepository.aggregatePeerGroup(PropertyType.FLERBOSTADSHUS, 10L, 5, 15, 1L))
+                .thenReturn(groupRows);
+        when(statisticsRepository.aggregatePeerGroupByService(PropertyType.FLERBOSTADSHUS, 10L, 5, 15, 1L))
+                .thenReturn(serviceRows);
+
+        PeerGroupStatisticsDTO result = peerStatisticsService.getPeerGroupStatistics(property);
+
+        assertEquals(2, result.getPeerCount());
+        assertEquals(2, result.getCostCount());
+        assertEquals(new BigDecimal("3300.00"), result.getCostSum());
+        assertEquals(new BigDecimal("1500.00"), result.getMinCost());
+        assertEquals(new BigDecimal("1800.00"), result.getMaxCost());
+        assertEquals(215, result.getVolumeSum());
+        assertEquals(14.0, result.getFrequencySum(), 0.001);
+        assertEquals(2, result.getFrequencyCount());
+
+        PeerServiceStatisticsDTO rest = result.getServiceStatistics().get("Restavfall");
+        assertNotNull(rest);
+        assertEquals(2, rest.getPeerCount());
+        assertEquals(1540.0, rest.getWasteAmountSum(), 0.001);
+        assertEquals(540.0, rest.getMinWasteAmount(), 0.001);
+        assertEquals(1000.0, rest.getMaxWasteAmount(), 0.001);
+    }
+
+    @Test
+    void getPeerGroupStatistics_ApartmentRangeNeverGoesBelowOne() {
+        property.setNumberOfApartments(3);
+        List<Object[]> emptyGroup = new ArrayList<>();
+        emptyGroup.add(new Object[]{0L, 0L, null, null, null, null, null, null});
+        when(statisticsRepository.aggregatePeerGroup(PropertyType.FLERBOSTADSHUS, 10L, 1, 8, 1L))
+                .thenReturn(emptyGroup);
+
+        PeerGroupStatisticsDTO result = peerStatisticsService.getPeerGroupStatistics(property);
+
+        assertEquals(0, result.getPeerCount());
+        assertEquals(BigDecimal.ZERO, result.getCostSum());
+        assertTrue(result.getServiceStatistics().isEmpty());
+        verify(statisticsRepository, never()).aggregatePeerGroupByService(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getPeerGroupStatistics_WithoutMunicipality_ReturnsEmptyGroup() {
+        property.setMunicipality(null);
+
+        PeerGroupStatisticsDTO result = peerStatisticsService.getPeerGroupStatistics(property);
+
+        assertEquals(0, result.getPeerCount());
+        verifyNoInteractions(statisticsRepository);
+    }
+
+    @Test
+    void onStatisticsChanged_RefreshesSinglePropertyInBackground() {
+        Thread caller = Thread.currentThread();
+        List<Thread> refreshThreads = new CopyOnWriteArrayList<>();
+        when(propertyRepository.findById(1L)).thenAnswer(invocation -> {
+            refreshThreads.add(Thread.currentThread());
+            return Optional.empty();
+        });
+
+        peerStatisticsService.onStatisticsChanged(PropertyStatisticsChangedEvent.forProperty(1L));
+
+        verify(propertyRepository, timeout(1000)).findById(eq(1L));
+        assertNotSame(caller, refreshThreads.get(0));
+        verify(propertyRepository, never()).findAllIds();
+    }
+
+    @Test
+    void rebuildAll_LoadsIdsOnlyAndCalculatesCostsInChunks() {
+        ReflectionTestUtils.setField(peerStatisticsService, "rebuildChunkSize", 2);
+        when(propertyRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(statisticsRepository.findAllPropertyIds()).thenReturn(List.of(1L, 4L));
+        when(propertyCostService.calculateAnnualCosts(any())).thenReturn(Map.of());
+
+        peerStatisticsService.rebuildAll();
+
+        verify(statisticsRepository).deleteById(4L);
+        verify(propertyCostService).calculateAnnualCosts(List.of(1L, 2L));
+        verify(propertyCostService).calculateAnnualCosts(List.of(3L));
+        verify(propertyRepository, never()).findAll();
+        verify(statisticsRepository, never()).findAll();
+    }
+
+    @Test
+    void onStatisticsChanged_AllProperties_RebuildsInBackground() {
+        when(propertyRepository.findAllIds()).thenReturn(List.of());
+
+        peerStatisticsService.onStatisticsChanged(PropertyStatisticsChangedEvent.forAllProperties());
+
+        verify(propertyRepository, timeout(1000)).findAllIds();
+    }
+
+    @Test
+    void rebuildIfOutOfSync_CostModelChanged_RebuildsAllRows() {
+        when(statisticsRepository.count()).thenReturn(1L);
+        when(propertyRepository.count()).thenReturn(1L);
+        when(statisticsRepository.countByOtherCostModel("2;lock-i-lock=100")).thenReturn(1L);
+
+        peerStatisticsService.rebuildIfOutOfSync();
+
+        verify(propertyRepository).findAllIds();
+    }
+
+    @Test
+    void rebuildIfOutOfSync_InSync_DoesNotRebuild() {
+        when(statisticsRepository.count()).thenReturn(1L);
+        when(propertyRepository.count()).thenReturn(1L);
+        when(statisticsRepository.countByOtherCostModel("2;lock-i-lock=100")).thenReturn(0L);
+
+        peerStatisticsService.rebuildIfOutOfSync();
+
+        verify(propertyRepository, never()).findAllIds();
+    }
+
+    private WasteRoom createRoom(boolean active, Double averageFrequency) {
+        WasteRoom room = new WasteRoom();
+        room.setProperty(property);
+        room.setIsActive(active);
+        room.setAverageCollectionFrequency(averageFrequency);
+        room.setContainers(new ArrayList<>());
+        return room;
+    }
+
+    private void addContainer(WasteRoom room, String serviceName, int size, int frequency) {
+        ServiceType serviceType = new ServiceType();
+        serviceType.setName(serviceName);
+
+        MunicipalityService municipalityService = new MunicipalityService();
+        municipalityService.setServiceType(serviceType);
+
+        ContainerType containerType = new ContainerType();
+        containerType.setSize(size);
+
+        ContainerPlan plan = new ContainerPlan();
+        plan.setMunicipalityService(municipalityService);
+        plan.setContainerType(containerType);
+        plan.setEmptyingFrequencyPerYear(frequency);
+
+        ContainerPosition position = new ContainerPosition();
+        position.setContainerPlan(plan);
+        position.setWasteRoom(room);
+        room.getContainers().add(position);
+    }
+
+    private PropertyServiceStatistics findService(PropertyPeerStatistics statistics, String serviceName) {
+        return statistics.getServiceStatistics().stream()
+                .filter(service -> serviceName.equals(service.getServiceTypeName()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Missing service statistics for " + serviceName));
+    }
+}
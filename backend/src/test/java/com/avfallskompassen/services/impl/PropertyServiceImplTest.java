@@ -1,13 +1,20 @@
 package com.avfallskompassen.services.impl;
 
 import com.avfallskompassen.dto.LockTypeDto;
+import com.avfallskompassen.dto.PropertyDTO;
+import com.avfallskompassen.dto.PropertyListItemDTO;
+import com.avfallskompassen.dto.PropertyPageDTO;
 import com.avfallskompassen.dto.PropertySimpleDTO;
 import com.avfallskompassen.dto.request.PropertyRequest;
+import com.avfallskompassen.dto.request.PropertySearchCriteria;
+import com.avfallskompassen.events.PropertyStatisticsChangedEvent;
+import com.avfallskompassen.exception.BadRequestException;
 import com.avfallskompassen.model.*;
 import com.avfallskompassen.repository.MunicipalityRepository;
 import com.avfallskompassen.repository.PropertyRepository;
 import com.avfallskompassen.services.ActivityService;
 import com.avfallskompassen.services.UserService;
+import com.avfallskompassen.services.UserStatisticsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,9 +22,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +48,15 @@ public class PropertyServiceImplTest {
     @Mock
     private ActivityService activityService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserStatisticsService userStatisticsService;
+
+    @Mock
+    private WasteRoomVersionStore versionStore;
+
     @InjectMocks
     private PropertyServiceImpl service;
 
@@ -89,6 +107,7 @@ public class PropertyServiceImplTest {
         assertEquals(lockTypeDto.getCost(), toSave.getLockType().getCost());
 
         assertSame(m, toSave.getMunicipality());
+        verify(userStatisticsService).adjustCounts(1, 1, 0);
     }
 
     @Test
@@ -165,11 +184,23 @@ public class PropertyServiceImplTest {
         boolean r = service.deleteProperty(7L);
         assertTrue(r);
         verify(propertyRepository).deleteById(7L);
+        verify(eventPublisher).publishEvent(any(PropertyStatisticsChangedEvent.class));
 
         when(propertyRepository.existsById(8L)).thenReturn(false);
         assertFalse(service.deleteProperty(8L));
     }
 
+    @Test
+    void deleteProperty_decrementsOwnerCountersByPropertyAndItsRooms() {
+        when(propertyRepository.existsById(7L)).thenReturn(true);
+        when(propertyRepository.getOwnerAndWasteRoomCount(7L)).thenReturn(List.<Object[]>of(new Object[]{1, 3L}));
+
+        assertTrue(service.deleteProperty(7L));
+
+        verify(userStatisticsService).adjustCounts(1, -1, -3);
+        verify(propertyRepository).deleteById(7L);
+    }
+
     @Test
     void updateProperty_notFound_throws() {
         when(propertyRepository.findById(100L)).thenReturn(Optional.empty());
@@ -323,4 +354,83 @@ public class PropertyServiceImplTest {
         assertTrue(result.isEmpty());
         verify(propertyRepository).findByCreatedByUsername(null);
     }
+
+    @Test
+    void searchProperties_fetchesOneExtraRowAndReturnsCursorOfLastItem() {
+        PropertySearchCriteria criteria = new PropertySearchCriteria(null, null, null, null, null, "tester");
+        when(propertyRepository.findListing(criteria, null, 3)).thenReturn(listItems(1L, 2L, 3L));
+
+        PropertyPageDTO page = service.searchProperties(criteria, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(2L, PropertyServiceImpl.decodeCursor(page.getNextCursor()));
+    }
+
+    @Test
+    void searchProperties_lastPage_hasNoCursor() {
+        PropertySearchCriteria criteria = new PropertySearchCriteria(null, null, null, null, null, null);
+        String cursor = PropertyServiceImpl.encodeCursor(2L);
+        when(propertyRepository.findListing(criteria, 2L, PropertyServiceImpl.DEFAULT_PAGE_SIZE + 1))
+                .thenReturn(listItems(3L));
+
+        PropertyPageDTO page = service.searchProperties(criteria, cursor, null);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void searchProperties_invalidInput_throwsBadRequest() {
+        PropertySearchCriteria criteria = new PropertySearchCriteria(null, null, null, null, null, null);
+
+        assertThrows(BadRequestException.class, () -> service.searchProperties(criteria, "not a cursor", 10));
+        assertThrows(BadRequestException.class, () -> service.searchProperties(criteria, null, 0));
+        assertThrows(BadRequestException.class,
+                () -> service.searchProperties(criteria, null, PropertyServiceImpl.MAX_PAGE_SIZE + 1));
+        assertThrows(BadRequestException.class, () -> service.searchProperties(
+                new PropertySearchCriteria(null, null, 10, 5, null, null), null, 10));
+        verifyNoInteractions(propertyRepository);
+    }
+
+    @Test
+    void getPropertiesWithRoomsByUser_resolvesRoomsOfPropertyTogether() {
+        Property property = new Property();
+        property.setId(5L);
+        WasteRoom active = room(property, 11L, 2);
+        WasteRoom older = room(property, 10L, 1);
+        property.setWasteRooms(List.of(active, older));
+
+        WasteRoom rebuilt = room(property, 10L, 1);
+        rebuilt.setLength(7.0);
+
+        when(propertyRepository.findAllByUserWithRooms("tester")).thenReturn(List.of(property));
+        when(versionStore.resolveAll(List.of(active, older))).thenReturn(List.of(active, rebuilt));
+
+        List<PropertyDTO> result = service.getPropertiesWithRoomsByUser("tester");
+
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).getWasteRooms().size());
+        assertEquals(7.0, result.get(0).getWasteRooms().get(1).getLength(), 0.001);
+        verify(versionStore, times(1)).resolveAll(any());
+        verify(versionStore, never()).resolve(any());
+    }
+
+    private static WasteRoom room(Property property, Long id, int versionNumber) {
+        WasteRoom room = new WasteRoom();
+        room.setId(id);
+        room.setProperty(property);
+        room.setVersionNumber(versionNumber);
+        return room;
+    }
+
+    private static List<PropertyListItemDTO> listItems(Long... ids) {
+        List<PropertyListItemDTO> items = new ArrayList<>();
+        for (Long id : ids) {
+            items.add(new PropertyListItemDTO(id, "Gata " + id, 4, PropertyType.SMAHUS, 1.0,
+                    null, null, null, null, null, "tester"));
+        }
+        return items;
+    }
 }
@@ -0,0 +1,178 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.exception.ResourceNotFoundException;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.Door;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.RenderedThumbnail;
+import com.avfallskompassen.services.ThumbnailSize;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ThumbnailRenderServiceImpl}
+ */
+@ExtendWith(MockitoExtension.class)
+class ThumbnailRenderServiceImplTest {
+
+    @Mock
+    private WasteRoomRepository wasteRoomRepository;
+
+    @Mock
+    private WasteRoomVersionStore versionStore;
+
+    private WasteRoomRasterizer rasterizer;
+    private ThumbnailRenderServiceImpl thumbnailRenderService;
+    private WasteRoom room;
+
+    @BeforeEach
+    void setUp() {
+        rasterizer = spy(new WasteRoomRasterizer());
+        thumbnailRenderService = new ThumbnailRenderServiceImpl(wasteRoomRepository, rasterizer, versionStore, 10);
+
+        room = new WasteRoom();
+        room.setId(1L);
+        room.setX(100);
+        room.setY(100);
+        room.setWidth(4);
+        room.setLength(3);
+
+        ContainerType type = new ContainerType();
+        type.setWidth(600);
+        type.setDepth(800);
+        ContainerPlan plan = new ContainerPlan();
+        plan.setContainerType(type);
+        plan.setImageTopViewUrl("/images/containers/topviewcontainer/restavfall/Restavfall_190L_topView.png");
+        ContainerPosition container = new ContainerPosition();
+        container.setId(1L);
+        container.setX(120);
+        container.setY(120);
+        container.setAngle(90);
+        container.setContainerPlan(plan);
+        room.setContainers(new ArrayList<>(List.of(container)));
+
+        Door door = new Door();
+        door.setId(1L);
+        door.setX(150);
+        door.setY(100);
+        door.setWidth(1.0);
+        door.setAngle(0);
+        door.setWall("top");
+        door.setSwingDirection("outward");
+        room.setDoors(new ArrayList<>(List.of(door)));
+
+        OtherObject object = new OtherObject();
+        object.setId(1L);
+        object.setName("Skåp");
+        object.setX(200);
+        object.setY(200);
+        object.setWidth(30);
+        object.setDepth(30);
+        object.setRotation(0);
+        room.setOtherObjects(new ArrayList<>(List.of(object)));
+    }
+
+    @Test
+    void renderThumbnail_FitsInsideEachSizeVariant() throws IOException {
+        when(wasteRoomRepository.findWithContainersById(1L)).thenReturn(Optional.of(room));
+
+        for (ThumbnailSize size : ThumbnailSize.values()) {
+            RenderedThumbnail thumbnail = thumbnailRenderService.renderThumbnail(1L, size);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail.getPng()));
+
+            assertNotNull(image);
+            assertTrue(image.getWidth() <= size.getMaxWidth());
+            assertTrue(image.getHeight() <= size.getMaxHeight());
+            assertTrue(image.getWidth() == size.getMaxWidth() || image.getHeight() == size.getMaxHeight());
+        }
+    }
+
+    @Test
+    void renderThumbnail_IconIsSmallerThanFullSize() {
+        when(wasteRoomRepository.findWithContainersById(1L)).thenReturn(Optional.of(room));
+
+        RenderedThumbnail icon = thumbnailRenderService.renderThumbnail(1L, ThumbnailSize.ICON);
+        RenderedThumbnail full = thumbnailRenderService.renderThumbnail(1L, ThumbnailSize.FULL);
+
+        assertTrue(icon.getPng().length < full.getPng().length);
+        assertNotEquals(icon.getETag(), full.getETag());
+    }
+
+    @Test
+    void renderThumbnail_UnchangedRoom_UsesCachedRender() {
+        when(wasteRoomRepository.findWithContainersById(1L)).thenReturn(Optional.of(room));
+
+        RenderedThumbnail first = thumbnailRenderService.renderThumbnail(1L, ThumbnailSize.CARD);
+        RenderedThumbnail second = thumbnailRenderService.renderThumbnail(1L, ThumbnailSize.CARD);
+
+        assertSame(first, second);
+        verify(rasterizer, times(1)).render(room, ThumbnailSize.CARD);
+    }
+
+    @Test
+    void renderThumbnail_ChangedLayout_RendersAgainWithNewETag() {
+        when(wasteRoomRepository.findWithContainersById(1L)).thenReturn(Optional.of(room));
+
+        RenderedThumbnail before = thumbnailRenderService.renderThumbnail(1L, ThumbnailSize.CARD);
+        room.getContainers().get(0).setX(180);
+        RenderedThumbnail after = thumbnailRenderService.renderThumbnail(1L, ThumbnailSize.CARD);
+
+        assertNotEquals(before.getETag(), after.getETag());
+        verify(rasterizer, times(2)).render(room, ThumbnailSize.CARD);
+    }
+
+    @Test
+    void renderThumbnail_SameLayoutInOtherOrder_GivesSameETag() {
+        ContainerPosition second = new ContainerPosition();
+        second.setId(2L);
+        second.setX(200);
+        second.setY(120);
+        second.setContainerPlan(room.getContainers().get(0).getContainerPlan());
+        room.getContainers().add(second);
+        when(wasteRoomRepository.findWithContainersById(1L)).thenReturn(Optional.of(room));
+
+        String eTag = thumbnailRenderService.renderThumbnail(1L, ThumbnailSize.ICON).getETag();
+        Collections.reverse(room.getContainers());
+
+        assertEquals(eTag, thumbnailRenderService.renderThumbnail(1L, ThumbnailSize.ICON).getETag());
+    }
+
+    @Test
+    void renderThumbnail_WithoutTopViewImage_StillRenders() throws IOException {
+        room.getContainers().get(0).getContainerPlan().setImageTopViewUrl(null);
+        room.setDoors(null);
+        when(wasteRoomRepository.findWithContainersById(1L)).thenReturn(Optional.of(room));
+
+        RenderedThumbnail thumbnail = thumbnailRenderService.renderThumbnail(1L, ThumbnailSize.ICON);
+
+        assertNotNull(ImageIO.read(new ByteArrayInputStream(thumbnail.getPng())));
+    }
+
+    @Test
+    void renderThumbnail_WrongWasteRoomId_ThrowsResourceNotFound() {
+        when(wasteRoomRepository.findWithContainersById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> thumbnailRenderService.renderThumbnail(99L, ThumbnailSize.CARD));
+        verifyNoInteractions(rasterizer);
+    }
+}
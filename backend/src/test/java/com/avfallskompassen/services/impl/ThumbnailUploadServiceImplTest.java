@@ -0,0 +1,183 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.ThumbnailStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ThumbnailUploadServiceImpl}
+ */
+@ExtendWith(MockitoExtension.class)
+class ThumbnailUploadServiceImplTest {
+
+    @Mock
+    private WasteRoomRepository wasteRoomRepository;
+
+    @TempDir
+    Path uploadDirectory;
+
+    @Test
+    void scheduleUpload_StoresImageAndUpdatesThumbnailUrl() throws IOException {
+        ThumbnailUploadServiceImpl service = createService(new LocalThumbnailStorage(uploadDirectory.toString()), 3);
+        when(wasteRoomRepository.updateThumbnailUrl(7L, "/images/wasterooms/7.png")).thenReturn(1);
+
+        service.scheduleUpload(7L, new byte[]{1, 2, 3});
+        service.shutdown();
+
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(uploadDirectory.resolve("7.png")));
+        verify(wasteRoomRepository).updateThumbnailUrl(7L, "/images/wasterooms/7.png");
+        assertEquals(0, service.getFailedUploads());
+    }
+
+    @Test
+    void bindTo_RecordsUploadDurationsAndQueueMetrics() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ThumbnailUploadServiceImpl service = createService(new LocalThumbnailStorage(uploadDirectory.toString()), 3);
+        service.bindTo(meterRegistry);
+        when(wasteRoomRepository.updateThumbnailUrl(anyLong(), anyString())).thenReturn(1);
+
+        service.scheduleUpload(7L, new byte[]{1, 2, 3});
+        service.upload(8L, new ByteArrayInputStream(new byte[]{4, 5}), 2);
+        service.shutdown();
+
+        assertEquals(1, meterRegistry.get("thumbnail.upload").tags("mode", "background", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("thumbnail.upload").tags("mode", "stream", "outcome", "success").timer().count());
+        assertEquals(0.0, meterRegistry.get("thumbnail.upload.queue.size").gauge().value());
+        assertEquals(0.0, meterRegistry.get("thumbnail.upload.dropped").functionCounter().count());
+    }
+
+    @Test
+    void scheduleUpload_RetriesFailedUploads() {
+        AtomicInteger attempts = new AtomicInteger();
+        ThumbnailStorage flakyStorage = (fileName, content, contentType) -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IOException("Storage unavailable");
+            }
+            return "https://storage/" + fileName;
+        };
+        ThumbnailUploadServiceImpl service = createService(flakyStorage, 3);
+        when(wasteRoomRepository.updateThumbnailUrl(7L, "https://storage/7.png")).thenReturn(1);
+
+        service.scheduleUpload(7L, new byte[]{1});
+        service.shutdown();
+
+        assertEquals(3, attempts.get());
+        verify(wasteRoomRepository).updateThumbnailUrl(7L, "https://storage/7.png");
+    }
+
+    @Test
+    void scheduleUpload_GivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        ThumbnailStorage brokenStorage = (fileName, content, contentType) -> {
+            attempts.incrementAndGet();
+            throw new IOException("Storage unavailable");
+        };
+        ThumbnailUploadServiceImpl service = createService(brokenStorage, 2);
+
+        service.scheduleUpload(7L, new byte[]{1});
+        service.shutdown();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, service.getFailedUploads());
+        verify(wasteRoomRepository, never()).updateThumbnailUrl(anyLong(), anyString());
+    }
+
+    @Test
+    void scheduleUpload_DropsThumbnailWhenQueueStaysFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        ThumbnailStorage blockingStorage = (fileName, content, contentType) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "/images/wasterooms/" + fileName;
+        };
+        // One thread, room for one queued upload and no waiting for a free slot
+        ThumbnailUploadServiceImpl service = new ThumbnailUploadServiceImpl(
+                blockingStorage, wasteRoomRepository, 1, 1, 1, 0, 0, 1024);
+
+        service.scheduleUpload(1L, new byte[]{1});
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        service.scheduleUpload(2L, new byte[]{1});
+        service.scheduleUpload(3L, new byte[]{1});
+
+        assertEquals(1, service.getDroppedUploads());
+        assertEquals(1, service.getQueueSize());
+
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void scheduleUpload_IgnoresEmptyImages() {
+        ThumbnailUploadServiceImpl service = createService(new LocalThumbnailStorage(uploadDirectory.toString()), 1);
+
+        service.scheduleUpload(7L, new byte[0]);
+        service.scheduleUpload(null, new byte[]{1});
+        service.shutdown();
+
+        verifyNoInteractions(wasteRoomRepository);
+    }
+
+    @Test
+    void upload_StreamsImageToStorageAndUpdatesThumbnailUrl() throws IOException {
+        ThumbnailUploadServiceImpl service = createService(new LocalThumbnailStorage(uploadDirectory.toString()), 1);
+        when(wasteRoomRepository.updateThumbnailUrl(7L, "/images/wasterooms/7.png")).thenReturn(1);
+
+        String url = service.upload(7L, new ByteArrayInputStream(new byte[]{4, 5, 6}), 3);
+        service.shutdown();
+
+        assertEquals("/images/wasterooms/7.png", url);
+        assertArrayEquals(new byte[]{4, 5, 6}, Files.readAllBytes(uploadDirectory.resolve("7.png")));
+    }
+
+    @Test
+    void upload_TooLargeContentLength_ThrowsBadRequest() {
+        ThumbnailUploadServiceImpl service = createService(new LocalThumbnailStorage(uploadDirectory.toString()), 1);
+
+        assertThrows(BadRequestException.class,
+                () -> service.upload(7L, new ByteArrayInputStream(new byte[0]), 2048));
+        service.shutdown();
+
+        assertFalse(Files.exists(uploadDirectory.resolve("7.png")));
+        verifyNoInteractions(wasteRoomRepository);
+    }
+
+    @Test
+    void upload_StreamLongerThanLimitWithoutLength_ThrowsBadRequest() {
+        ThumbnailUploadServiceImpl service = createService(new LocalThumbnailStorage(uploadDirectory.toString()), 1);
+
+        assertThrows(BadRequestException.class,
+                () -> service.upload(7L, new ByteArrayInputStream(new byte[2048]), -1));
+        service.shutdown();
+
+        assertFalse(Files.exists(uploadDirectory.resolve("7.png")));
+        verifyNoInteractions(wasteRoomRepository);
+    }
+
+    private ThumbnailUploadServiceImpl createService(ThumbnailStorage storage, int maxAttempts) {
+        return new ThumbnailUploadServiceImpl(storage, wasteRoomRepository, 1, 10, maxAttempts, 1, 100, 1024);
+    }
+}
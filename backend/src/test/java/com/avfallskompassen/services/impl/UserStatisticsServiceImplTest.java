@@ -0,0 +1,82 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.UserStatsDTO;
+import com.avfallskompassen.dto.UserStatsPageDTO;
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link UserStatisticsServiceImpl}
+ */
+@ExtendWith(MockitoExtension.class)
+class UserStatisticsServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserStatisticsServiceImpl service;
+
+    @Test
+    void adjustCounts_UpdatesCountersOfUser() {
+        when(userRepository.adjustCounts(3, 1, -2)).thenReturn(1);
+
+        service.adjustCounts(3, 1, -2);
+
+        verify(userRepository).adjustCounts(3, 1, -2);
+    }
+
+    @Test
+    void adjustCounts_NoUserOrNoChange_DoesNothing() {
+        service.adjustCounts(null, 1, 0);
+        service.adjustCounts(3, 0, 0);
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUserStats_SortsOnCounterFieldWithIdAsTieBreaker() {
+        UserStatsDTO row = new UserStatsDTO(1L, "alice", "USER", null, 4L, 9L);
+        when(userRepository.findStats(any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(row), invocation.getArgument(0), 41));
+
+        UserStatsPageDTO page = service.getUserStats(2, 20, "wasteRoomsCount", "desc");
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(userRepository).findStats(pageable.capture());
+        assertEquals(2, pageable.getValue().getPageNumber());
+        assertEquals(20, pageable.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.DESC, "wasteRoomCount").and(Sort.by("id")), pageable.getValue().getSort());
+
+        assertEquals(List.of(row), page.getItems());
+        assertEquals(41, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+    }
+
+    @Test
+    void getUserStats_InvalidParameters_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> service.getUserStats(-1, 20, null, null));
+        assertThrows(BadRequestException.class, () -> service.getUserStats(0, 0, null, null));
+        assertThrows(BadRequestException.class,
+                () -> service.getUserStats(0, UserStatisticsServiceImpl.MAX_PAGE_SIZE + 1, null, null));
+        assertThrows(BadRequestException.class, () -> service.getUserStats(0, 20, "password", null));
+        assertThrows(BadRequestException.class, () -> service.getUserStats(0, 20, null, "sideways"));
+
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,201 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.dto.LayoutViolationDTO;
+import com.avfallskompassen.dto.LayoutViolationDTO.ItemKind;
+import com.avfallskompassen.dto.LayoutViolationDTO.Type;
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.Door;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.WasteRoom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link WasteRoomLayoutValidator}
+ */
+class WasteRoomLayoutValidatorTest {
+
+    private WasteRoomLayoutValidator validator;
+    private ContainerPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        validator = new WasteRoomLayoutValidator();
+
+        // 600 x 800 mm, 30 x 40 pixels in the planning tool
+        ContainerType type = new ContainerType();
+        type.setWidth(600);
+        type.setDepth(800);
+        plan = new ContainerPlan();
+        plan.setContainerType(type);
+    }
+
+    @Test
+    void validate_ValidLayout_ReturnsNoViolations() {
+        // 4 x 3 meters, 200 x 150 pixels
+        WasteRoom room = room(4, 3);
+        addContainer(room, 10, 10, 0);
+        addContainer(room, 60, 10, 0);
+        addDoor(room, "top", 150, 0, "inward");
+        addObject(room, 10, 100, 40, 30);
+
+        assertTrue(validator.validate(room).isEmpty());
+    }
+
+    @Test
+    void validate_ContainerOutsideWalls_ReturnsOutOfBounds() {
+        WasteRoom room = room(4, 3);
+        addContainer(room, 10, 10, 0);
+        addContainer(room, 180, 10, 0);
+
+        List<LayoutViolationDTO> violations = validator.validate(room);
+
+        assertEquals(1, violations.size());
+        assertEquals(Type.OUT_OF_BOUNDS, violations.get(0).getType());
+        assertEquals(ItemKind.CONTAINER, violations.get(0).getFirstKind());
+        assertEquals(1, violations.get(0).getFirstIndex());
+    }
+
+    @Test
+    void validate_RotatedContainer_UsesRotatedFootprint() {
+        WasteRoom room = room(4, 3);
+        addContainer(room, 50, 50, 0);
+        addContainer(room, 82, 50, 0);
+        assertTrue(validator.validate(room).isEmpty());
+
+        // Turned a quarter, the container is 40 pixels wide and reaches into the first one
+        room.getContainers().get(1).setAngle(90);
+
+        List<LayoutViolationDTO> violations = validator.validate(room);
+
+        assertEquals(1, violations.size());
+        assertEquals(Type.OVERLAP, violations.get(0).getType());
+        assertEquals(ItemKind.CONTAINER, violations.get(0).getSecondKind());
+    }
+
+    @Test
+    void validate_BoundingBoxesOverlapButRectanglesDoNot_ReturnsNoViolations() {
+        WasteRoom room = room(4, 4);
+        addContainer(room, 50, 50, 0);
+        // Turned 45 degrees with its center at (100, 110), diagonal to the corner of the first container
+        addContainer(room, 85, 90, 45);
+
+        assertTrue(validator.validate(room).isEmpty());
+    }
+
+    @Test
+    void validate_ContainerInSwingArcOfInwardDoor_ReturnsDoorSwingBlocked() {
+        WasteRoom room = room(4, 3);
+        addDoor(room, "top", 150, 0, "inward");
+        addContainer(room, 110, 5, 0);
+
+        List<LayoutViolationDTO> violations = validator.validate(room);
+
+        assertEquals(1, violations.size());
+        assertEquals(Type.DOOR_SWING_BLOCKED, violations.get(0).getType());
+        assertEquals(ItemKind.CONTAINER, violations.get(0).getFirstKind());
+        assertEquals(ItemKind.DOOR, violations.get(0).getSecondKind());
+        assertEquals(0, violations.get(0).getSecondIndex());
+    }
+
+    @Test
+    void validate_ContainerOnlyInCornerOutsideSwingArc_ReturnsNoViolations() {
+        WasteRoom room = room(4, 3);
+        addDoor(room, "top", 150, 0, "inward");
+        // Inside the square around the arc, but its nearest corner is 54 pixels from the hinge
+        addContainer(room, 95, 48, 0);
+
+        assertTrue(validator.validate(room).isEmpty());
+    }
+
+    @Test
+    void validate_OutwardDoor_DoesNotBlockTheRoom() {
+        WasteRoom room = room(4, 3);
+        addDoor(room, "top", 150, 0, "outward");
+        addContainer(room, 110, 5, 0);
+
+        assertTrue(validator.validate(room).isEmpty());
+    }
+
+    @Test
+    void validate_DoorNotOnItsWall_ReturnsDoorOffWall() {
+        WasteRoom room = room(4, 3);
+        addDoor(room, "top", 150, 20, "inward");
+
+        List<LayoutViolationDTO> violations = validator.validate(room);
+
+        assertEquals(1, violations.size());
+        assertEquals(Type.DOOR_OFF_WALL, violations.get(0).getType());
+        assertEquals(ItemKind.DOOR, violations.get(0).getFirstKind());
+    }
+
+    @Test
+    void validate_HundredsOfContainers_ReportsEachOverlapOnce() {
+        // 20 x 20 meters, 1000 x 1000 pixels
+        WasteRoom room = room(20, 20);
+        for (int row = 0; row < 20; row++) {
+            for (int column = 0; column < 20; column++) {
+                addContainer(room, 10 + column * 45, 10 + row * 45, 0);
+            }
+        }
+        assertTrue(validator.validate(room).isEmpty());
+
+        // Overlaps the first container and touches the one below it
+        addContainer(room, 15, 15, 0);
+
+        List<LayoutViolationDTO> violations = validator.validate(room);
+
+        assertEquals(1, violations.size());
+        assertEquals(Type.OVERLAP, violations.get(0).getType());
+    }
+
+    @Test
+    void validate_ContainerWithoutType_IsLeftOut() {
+        WasteRoom room = room(4, 3);
+        addContainer(room, 10, 10, 0);
+        ContainerPosition unknown = new ContainerPosition();
+        unknown.setContainerPlan(new ContainerPlan());
+        unknown.setX(10);
+        unknown.setY(10);
+        room.getContainers().add(unknown);
+
+        assertTrue(validator.validate(room).isEmpty());
+    }
+
+    private static WasteRoom room(double width, double length) {
+        WasteRoom room = new WasteRoom();
+        room.setX(0);
+        room.setY(0);
+        room.setWidth(width);
+        room.setLength(length);
+        room.setContainers(new ArrayList<>());
+        room.setDoors(new ArrayList<>());
+        room.setOtherObjects(new ArrayList<>());
+        return room;
+    }
+
+    private void addContainer(WasteRoom room, double x, double y, double angle) {
+        ContainerPosition container = new ContainerPosition();
+        container.setContainerPlan(plan);
+        container.setX(x);
+        container.setY(y);
+        container.setAngle(angle);
+        container.setWasteRoom(room);
+        room.getContainers().add(container);
+    }
+
+    private static void addDoor(WasteRoom room, String wall, double x, double y, String swingDirection) {
+        room.getDoors().add(new Door(null, 1.0, 0.1, x, y, 0, wall, swingDirection, room));
+    }
+
+    private static void addObject(WasteRoom room, double x, double y, double width, double depth) {
+        room.getOtherObjects().add(new OtherObject(null, "Skåp", width, depth, x, y, 0, room));
+    }
+}
@@ -1,30 +1,50 @@
 package com.avfallskompassen.services.impl;
 
+import com.avfallskompassen.dto.ContainerPositionDTO;
 import com.avfallskompassen.dto.WasteRoomDTO;
 import com.avfallskompassen.dto.WasteRoomImgDTO;
 import com.avfallskompassen.dto.request.ContainerPositionRequest;
 import com.avfallskompassen.dto.request.WasteRoomRequest;
+import com.avfallskompassen.events.PropertyStatisticsChangedEvent;
+import com.avfallskompassen.exception.BadRequestException;
+import com.avfallskompassen.exception.InternalServerException;
 import com.avfallskompassen.exception.ResourceNotFoundException;
+import com.avfallskompassen.model.ContainerPlan;
 import com.avfallskompassen.model.ContainerPosition;
 import com.avfallskompassen.model.ContainerType;
+import com.avfallskompassen.model.MunicipalityService;
 import com.avfallskompassen.model.Property;
+import com.avfallskompassen.model.ServiceType;
+import com.avfallskompassen.model.User;
 import com.avfallskompassen.model.WasteRoom;
 import com.avfallskompassen.repository.PropertyRepository;
 import com.avfallskompassen.repository.WasteRoomRepository;
 import com.avfallskompassen.services.ActivityService;
 import com.avfallskompassen.services.ContainerService;
+import com.avfallskompassen.services.LayoutValidationService;
+import com.avfallskompassen.services.ThumbnailUploadService;
+import com.avfallskompassen.services.UserStatisticsService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -45,6 +65,21 @@ class WasteRoomServiceImplTest {
     @Mock
     private ActivityService activityService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ThumbnailUploadService thumbnailUploadService;
+
+    @Mock
+    private UserStatisticsService userStatisticsService;
+
+    @Mock
+    private WasteRoomVersionStore versionStore;
+
+    @Mock
+    private LayoutValidationService layoutValidationService;
+
     @InjectMocks
     private WasteRoomServiceImpl wasteRoomService;
 
@@ -80,7 +115,88 @@ class WasteRoomServiceImplTest {
         assertEquals(List.of(), result.getDoors());
         assertEquals(List.of(), result.getOtherObjects());
 
-        verify(wasteRoomRepository, times(2)).save(any(WasteRoom.class));
+        verify(wasteRoomRepository, times(1)).save(any(WasteRoom.class));
+    }
+
+    @Test
+    void saveWasteRoom_ManyContainers_ResolvesPlansInOneCall() {
+        List<ContainerPositionRequest> containers = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            containers.add(new ContainerPositionRequest(i % 2 == 0 ? 1L : 2L, i * 10, 0, 0, false));
+        }
+        WasteRoomRequest request = new WasteRoomRequest(10, 5, 12, 2, List.of(), containers, List.of(), 1L, "Name");
+
+        Property property = new Property();
+        property.setId(1L);
+        ContainerPlan first = new ContainerPlan();
+        first.setId(1L);
+        first.setEmptyingFrequencyPerYear(26);
+        ContainerPlan second = new ContainerPlan();
+        second.setId(2L);
+        second.setEmptyingFrequencyPerYear(52);
+
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        when(containerService.getContainerPlansByIds(Set.of(1L, 2L))).thenReturn(Map.of(1L, first, 2L, second));
+        when(wasteRoomRepository.save(any(WasteRoom.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        wasteRoomService.saveWasteRoom(request);
+
+        verify(containerService, times(1)).getContainerPlansByIds(Set.of(1L, 2L));
+        verify(containerService, never()).getContainerPlanById(any());
+        verify(wasteRoomRepository).save(argThat(room -> room.getContainers().size() == 40
+                && room.getContainers().get(0).getContainerPlan() == first
+                && room.getContainers().get(1).getContainerPlan() == second));
+    }
+
+    @Test
+    void saveWasteRoom_UnknownContainerPlans_ThrowsWithoutSaving() {
+        List<ContainerPositionRequest> containers = List.of(
+                new ContainerPositionRequest(7L, 0, 0, 0, false),
+                new ContainerPositionRequest(8L, 0, 0, 0, false));
+        WasteRoomRequest request = new WasteRoomRequest(10, 5, 12, 2, List.of(), containers, List.of(), 1L, "Name");
+
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(new Property()));
+        when(containerService.getContainerPlansByIds(Set.of(7L, 8L)))
+                .thenThrow(new ResourceNotFoundException("ContainerPlans with IDs: 7, 8 can't be found"));
+
+        assertThrows(ResourceNotFoundException.class, () -> wasteRoomService.saveWasteRoom(request));
+        verify(wasteRoomRepository, never()).save(any(WasteRoom.class));
+    }
+
+    @Test
+    void saveWasteRoom_InvalidLayoutRejected_ThrowsWithoutSaving() {
+        WasteRoomRequest request = new WasteRoomRequest(10, 5, 12, 2, List.of(), List.of(), List.of(), 1L, "Name");
+
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(new Property()));
+        doThrow(new BadRequestException("Miljörummets layout är ogiltig: Kärl 1 ligger utanför rummets väggar"))
+                .when(layoutValidationService).enforce(any(WasteRoom.class));
+
+        assertThrows(BadRequestException.class, () -> wasteRoomService.saveWasteRoom(request));
+        verify(wasteRoomRepository, never()).save(any(WasteRoom.class));
+    }
+
+    @Test
+    void saveWasteRoom_WithThumbnail_SchedulesUploadInsteadOfUploadingInline() {
+        WasteRoomRequest request = new WasteRoomRequest(10, 5, 12, 2, List.of(), List.of(), List.of(), 1L, "Name");
+        request.setThumbnailBase64("data:image/png;base64,AQID");
+
+        Property property = new Property();
+        property.setId(1L);
+
+        WasteRoom savedWasteRoom = new WasteRoom();
+        savedWasteRoom.setId(5L);
+        savedWasteRoom.setProperty(property);
+        savedWasteRoom.setContainers(List.of());
+        savedWasteRoom.setDoors(List.of());
+        savedWasteRoom.setOtherObjects(List.of());
+
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        when(wasteRoomRepository.save(any(WasteRoom.class))).thenReturn(savedWasteRoom);
+
+        wasteRoomService.saveWasteRoom(request);
+
+        verify(thumbnailUploadService).scheduleUpload(5L, new byte[]{1, 2, 3});
+        verify(wasteRoomRepository, times(1)).save(any(WasteRoom.class));
     }
 
     @Test
@@ -115,7 +231,7 @@ class WasteRoomServiceImplTest {
         assertNull(result.getDoors());
         assertNull(result.getOtherObjects());
 
-        verify(wasteRoomRepository, times(2)).save(any(WasteRoom.class));
+        verify(wasteRoomRepository, times(1)).save(any(WasteRoom.class));
     }
 
     @Test
@@ -205,7 +321,7 @@ class WasteRoomServiceImplTest {
 
         List<WasteRoom> wasteRooms = List.of(savedWasteRoom1, savedWasteRoom2);
 
-        when(wasteRoomRepository.findByPropertyId(1L)).thenReturn(wasteRooms);
+        when(wasteRoomRepository.findWithContainerGraphByPropertyId(1L)).thenReturn(wasteRooms);
 
         List<WasteRoomDTO> result = wasteRoomService.getWasteRoomsByPropertyId(1L);
 
@@ -214,19 +330,19 @@ class WasteRoomServiceImplTest {
         assertEquals(1L, result.get(0).getPropertyId());
         assertEquals(1L, result.get(1).getPropertyId());
 
-        verify(wasteRoomRepository, times(1)).findByPropertyId(1L);
+        verify(wasteRoomRepository, times(1)).findWithContainerGraphByPropertyId(1L);
     }
 
     @Test
     void getWasteRoomsByPropertyId_ValidRequest_ReturnEmptyList() {
         Long id = 10L;
 
-        when(wasteRoomRepository.findByPropertyId(id)).thenReturn(List.of());
+        when(wasteRoomRepository.findWithContainerGraphByPropertyId(id)).thenReturn(List.of());
 
         List<WasteRoomDTO> result = wasteRoomService.getWasteRoomsByPropertyId(id);
 
         assertEquals(0,result.size());
-        verify(wasteRoomRepository, times(1)).findByPropertyId(id);
+        verify(wasteRoomRepository, times(1)).findWithContainerGraphByPropertyId(id);
     }
 
     @Test
@@ -271,7 +387,7 @@ class WasteRoomServiceImplTest {
         assertEquals(1.0, result.getX());
         assertEquals(2.0, result.getY());
 
-        verify(wasteRoomRepository, times(2)).save(any(WasteRoom.class));
+        verify(wasteRoomRepository, times(1)).save(any(WasteRoom.class));
     }
 
     @Test
@@ -324,7 +440,7 @@ class WasteRoomServiceImplTest {
         assertEquals(0, result.getDoors().size());
         assertEquals(0, result.getOtherObjects().size());
 
-        verify(wasteRoomRepository, times(2)).save(any(WasteRoom.class));
+        verify(wasteRoomRepository, times(1)).save(any(WasteRoom.class));
     }
 
     @Test
@@ -365,6 +481,25 @@ class WasteRoomServiceImplTest {
 
         verify(wasteRoomRepository, times(1)).findById(wasteRoomId);
         verify(wasteRoomRepository, times(1)).delete(existingRoom);
+        verify(eventPublisher).publishEvent(any(PropertyStatisticsChangedEvent.class));
+    }
+
+    @Test
+    void deleteWasteRoom_DecrementsWasteRoomCountOfOwner() {
+        Property property = new Property();
+        property.setId(10L);
+        WasteRoom existingRoom = new WasteRoom();
+        existingRoom.setId(1L);
+        existingRoom.setProperty(property);
+        User owner = new User("owner", "pw");
+        owner.setId(5);
+
+        when(wasteRoomRepository.findById(1L)).thenReturn(Optional.of(existingRoom));
+        when(propertyRepository.findCreatedByUserByPropertyId(10L)).thenReturn(owner);
+
+        wasteRoomService.deleteWasteRoom(1L);
+
+        verify(userStatisticsService).adjustCounts(5, 0, -1);
     }
 
     @Test
@@ -433,4 +568,189 @@ class WasteRoomServiceImplTest {
         verify(wasteRoomRepository, times(1))
                 .findByPropertyIdAndIsActiveTrue(propertyId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void uploadThumbnail_ValidRequest_ReturnsThumbnailUrl() throws IOException {
+        InputStream content = new ByteArrayInputStream(new byte[]{1, 2, 3});
+        when(wasteRoomRepository.existsById(5L)).thenReturn(true);
+        when(thumbnailUploadService.upload(5L, content, 3)).thenReturn("/images/wasterooms/5.png");
+
+        WasteRoomImgDTO result = wasteRoomService.uploadThumbnail(5L, content, 3, "image/png");
+
+        assertEquals("/images/wasterooms/5.png", result.getThumbnailUrl());
+        verify(wasteRoomRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadThumbnail_WrongWasteRoomId_ThrowsResourceNotFound() {
+        when(wasteRoomRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () ->
+                wasteRoomService.uploadThumbnail(99L, new ByteArrayInputStream(new byte[1]), 1, "image/png"));
+
+        verifyNoInteractions(thumbnailUploadService);
+    }
+
+    @Test
+    void uploadThumbnail_NotPng_ThrowsBadRequest() {
+        when(wasteRoomRepository.existsById(5L)).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () ->
+                wasteRoomService.uploadThumbnail(5L, new ByteArrayInputStream(new byte[1]), 1, "image/jpeg"));
+
+        verifyNoInteractions(thumbnailUploadService);
+    }
+
+    @Test
+    void uploadThumbnail_StorageFailure_ThrowsInternalServerException() throws IOException {
+        InputStream content = new ByteArrayInputStream(new byte[1]);
+        when(wasteRoomRepository.existsById(5L)).thenReturn(true);
+        when(thumbnailUploadService.upload(5L, content, 1)).thenThrow(new IOException("Storage unavailable"));
+
+        assertThrows(InternalServerException.class, () ->
+                wasteRoomService.uploadThumbnail(5L, content, 1, "image/png"));
+    }
+
+    @Test
+    void getWasteRoomsByPropertyId_MapsContainersFromLoadedRooms() {
+        Property property = new Property();
+        property.setId(1L);
+
+        ContainerType containerType = new ContainerType("Kärl 190L", 190, 600, 800, 1000);
+        MunicipalityService municipalityService = new MunicipalityService();
+        municipalityService.setServiceType(new ServiceType("Restavfall"));
+        ContainerPlan plan = new ContainerPlan(municipalityService, containerType, 26, new BigDecimal("500.00"), "/top.png", "/front.png");
+        plan.setId(3L);
+
+        WasteRoom room = new WasteRoom();
+        room.setId(7L);
+        room.setProperty(property);
+        room.setDoors(List.of());
+        room.setOtherObjects(List.of());
+
+        ContainerPosition position = new ContainerPosition();
+        position.setId(11L);
+        position.setX(4);
+        position.setY(5);
+        position.setHasLockILock(true);
+        position.setContainerPlan(plan);
+        position.setWasteRoom(room);
+        room.setContainers(List.of(position));
+
+        when(wasteRoomRepository.findWithContainerGraphByPropertyId(1L)).thenReturn(List.of(room));
+
+        List<WasteRoomDTO> result = wasteRoomService.getWasteRoomsByPropertyId(1L);
+
+        assertEquals(1, result.get(0).getContainers().size());
+        ContainerPositionDTO container = result.get(0).getContainers().get(0);
+        assertEquals(11L, container.getId());
+        assertEquals(3L, container.getContainerPlanId());
+        assertEquals(7L, container.getWasteRoomId());
+        assertTrue(container.getHasLockILock());
+        assertEquals("Restavfall", container.getContainerDTO().getName());
+        assertEquals(190, container.getContainerDTO().getSize());
+        verifyNoInteractions(containerService);
+    }
+
+    @Test
+    void getAllVersionsByPropertyAndName_LoadsVersionsInOneCall() {
+        Property property = new Property();
+        property.setId(1L);
+
+        WasteRoom first = new WasteRoom();
+        first.setId(1L);
+        first.setProperty(property);
+        first.setVersionNumber(1);
+
+        WasteRoom second = new WasteRoom();
+        second.setId(2L);
+        second.setProperty(property);
+        second.setVersionNumber(2);
+
+        when(wasteRoomRepository.findVersionsWithContainerGraph(1L, "Rum A")).thenReturn(List.of(first, second));
+
+        List<WasteRoomDTO> result = wasteRoomService.getAllVersionsByPropertyAndName(1L, "Rum A");
+
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getVersionNumber());
+        assertEquals(2, result.get(1).getVersionNumber());
+        verify(wasteRoomRepository, never()).findByPropertyIdAndNameOrderByVersionNumberAsc(any(), any());
+        verifyNoInteractions(containerService);
+    }
+
+    @Test
+    void saveAdminVersion_StoresPreviousVersionAgainstNewVersion() {
+        Property property = new Property();
+        property.setId(1L);
+        property.setAddress("Testgatan 1");
+
+        WasteRoom first = new WasteRoom();
+        first.setId(1L);
+        first.setVersionNumber(1);
+        WasteRoom second = new WasteRoom();
+        second.setId(2L);
+        second.setVersionNumber(2);
+        List<WasteRoom> existing = List.of(first, second);
+
+        WasteRoomRequest request = new WasteRoomRequest(10, 5, 12, 2, List.of(), List.of(), List.of(), 1L, "Rum A");
+
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        when(wasteRoomRepository.findByPropertyIdAndNameOrderByVersionNumberAsc(1L, "Rum A")).thenReturn(existing);
+        when(wasteRoomRepository.save(any(WasteRoom.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        WasteRoomDTO result = wasteRoomService.saveAdminVersion(1L, "Rum A", request);
+
+        assertEquals(3, result.getVersionNumber());
+        verify(versionStore).encode(eq(second), argThat(saved -> saved.getVersionNumber() == 3), eq(existing));
+        verify(versionStore, never()).encode(eq(first), any(), any());
+    }
+
+    @Test
+    void getAllVersionsByPropertyAndName_DeltaVersion_MapsRebuiltLayout() {
+        Property property = new Property();
+        property.setId(1L);
+
+        WasteRoom stored = new WasteRoom();
+        stored.setId(1L);
+        stored.setProperty(property);
+        stored.setVersionNumber(1);
+        stored.setLayoutDelta("{}");
+
+        ContainerType containerType = new ContainerType("Kärl 190L", 190, 600, 800, 1000);
+        MunicipalityService municipalityService = new MunicipalityService();
+        municipalityService.setServiceType(new ServiceType("Restavfall"));
+        ContainerPlan plan = new ContainerPlan(municipalityService, containerType, 26, new BigDecimal("500.00"), "/top.png", "/front.png");
+        plan.setId(3L);
+
+        WasteRoom resolved = new WasteRoom();
+        resolved.setId(1L);
+        resolved.setProperty(property);
+        resolved.setVersionNumber(1);
+        ContainerPosition position = new ContainerPosition();
+        position.setContainerPlan(plan);
+        position.setWasteRoom(resolved);
+        resolved.setContainers(List.of(position));
+        resolved.setDoors(List.of());
+        resolved.setOtherObjects(List.of());
+
+        when(wasteRoomRepository.findVersionsWithContainerGraph(1L, "Rum A")).thenReturn(List.of(stored));
+        when(versionStore.resolveAll(List.of(stored))).thenReturn(List.of(resolved));
+
+        List<WasteRoomDTO> result = wasteRoomService.getAllVersionsByPropertyAndName(1L, "Rum A");
+
+        assertEquals(1, result.get(0).getContainers().size());
+        assertEquals(3L, result.get(0).getContainers().get(0).getContainerPlanId());
+    }
+
+    @Test
+    void setWasteRoomActive_Activate_WritesLayoutBackAsRows() {
+        WasteRoom room = new WasteRoom();
+        room.setId(4L);
+        when(wasteRoomRepository.findById(4L)).thenReturn(Optional.of(room));
+
+        wasteRoomService.setWasteRoomActive(4L, true);
+
+        verify(versionStore).materialize(room);
+        assertTrue(room.getIsActive());
+    }
+}
@@ -0,0 +1,226 @@
+package com.avfallskompassen.services.impl;
+
+import com.avfallskompassen.model.ContainerPlan;
+import com.avfallskompassen.model.ContainerPosition;
+import com.avfallskompassen.model.Door;
+import com.avfallskompassen.model.OtherObject;
+import com.avfallskompassen.model.WasteRoom;
+import com.avfallskompassen.repository.WasteRoomRepository;
+import com.avfallskompassen.services.ContainerCatalogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link WasteRoomVersionStore}
+ */
+@ExtendWith(MockitoExtension.class)
+class WasteRoomVersionStoreTest {
+
+    @Mock
+    private WasteRoomRepository wasteRoomRepository;
+
+    @Mock
+    private ContainerCatalogService containerCatalogService;
+
+    private WasteRoomVersionStore versionStore;
+    private ContainerPlan restavfall;
+    private ContainerPlan matavfall;
+
+    @BeforeEach
+    void setUp() {
+        versionStore = new WasteRoomVersionStore(wasteRoomRepository, containerCatalogService, "delta", 10);
+
+        restavfall = new ContainerPlan();
+        restavfall.setId(1L);
+        matavfall = new ContainerPlan();
+        matavfall.setId(2L);
+    }
+
+    @Test
+    void encode_StoresOnlyTheDifferenceAndResolvesTheSameLayout() {
+        WasteRoom previous = room(1L, 1);
+        addContainer(previous, restavfall, 0, 0);
+        addContainer(previous, restavfall, 100, 0);
+        addContainer(previous, matavfall, 200, 0);
+        addDoor(previous, 50, 0);
+        addObject(previous, "Skåp", 0, 300);
+
+        WasteRoom next = room(2L, 2);
+        addContainer(next, restavfall, 0, 0);
+        addContainer(next, restavfall, 100, 0);
+        addContainer(next, matavfall, 250, 40);
+        addContainer(next, matavfall, 300, 0);
+        addDoor(next, 50, 0);
+        addObject(next, "Skåp", 0, 300);
+
+        assertTrue(versionStore.encode(previous, next, List.of(previous, next)));
+
+        assertTrue(previous.hasLayoutDelta());
+        assertSame(next, previous.getLayoutBase());
+        assertTrue(previous.getContainers().isEmpty());
+        assertTrue(previous.getDoors().isEmpty());
+        assertTrue(previous.getOtherObjects().isEmpty());
+
+        when(containerCatalogService.findContainerPlansByIds(anySet()))
+                .thenReturn(Map.of(1L, restavfall, 2L, matavfall));
+
+        WasteRoom resolved = versionStore.resolve(previous);
+
+        assertNotSame(previous, resolved);
+        assertEquals(1L, resolved.getId());
+        assertEquals(List.of("1@0.0,0.0", "1@100.0,0.0", "2@200.0,0.0"), containers(resolved));
+        assertEquals(1, resolved.getDoors().size());
+        assertEquals(50, resolved.getDoors().get(0).getX());
+        assertEquals("Skåp", resolved.getOtherObjects().get(0).getName());
+        assertEquals(300, resolved.getOtherObjects().get(0).getY());
+    }
+
+    @Test
+    void encode_DeltaNotSmallerThanVersion_KeepsVersionInFull() {
+        WasteRoom previous = room(1L, 1);
+        addContainer(previous, restavfall, 0, 0);
+
+        WasteRoom next = room(2L, 2);
+        addContainer(next, matavfall, 0, 0);
+
+        assertFalse(versionStore.encode(previous, next, List.of(previous, next)));
+
+        assertFalse(previous.hasLayoutDelta());
+        assertEquals(1, previous.getContainers().size());
+    }
+
+    @Test
+    void encode_ChainReachesSnapshotInterval_KeepsVersionInFull() {
+        versionStore = new WasteRoomVersionStore(wasteRoomRepository, containerCatalogService, "delta", 3);
+
+        List<WasteRoom> versions = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            WasteRoom version = room((long) i, i);
+            addContainer(version, restavfall, 0, 0);
+            addContainer(version, restavfall, 100, 0);
+            addContainer(version, matavfall, i * 10, 0);
+            versions.add(version);
+        }
+
+        assertTrue(versionStore.encode(versions.get(0), versions.get(1), versions));
+        assertTrue(versionStore.encode(versions.get(1), versions.get(2), versions));
+        // Version 3 would make the chain from version 1 three deltas long
+        assertFalse(versionStore.encode(versions.get(2), versions.get(3), versions));
+        assertFalse(versions.get(2).hasLayoutDelta());
+    }
+
+    @Test
+    void encode_FullMode_DoesNothing() {
+        versionStore = new WasteRoomVersionStore(wasteRoomRepository, containerCatalogService, "full", 10);
+
+        WasteRoom previous = room(1L, 1);
+        addContainer(previous, restavfall, 0, 0);
+        addContainer(previous, restavfall, 100, 0);
+        WasteRoom next = room(2L, 2);
+        addContainer(next, restavfall, 0, 0);
+        addContainer(next, restavfall, 100, 0);
+
+        assertFalse(versionStore.encode(previous, next, List.of(previous, next)));
+        assertEquals(2, previous.getContainers().size());
+    }
+
+    @Test
+    void resolveAll_ChainOfDeltas_RebuildsEachVersion() {
+        WasteRoom first = room(1L, 1);
+        addContainer(first, restavfall, 0, 0);
+        addContainer(first, restavfall, 100, 0);
+        addContainer(first, matavfall, 10, 0);
+        WasteRoom second = room(2L, 2);
+        addContainer(second, restavfall, 0, 0);
+        addContainer(second, restavfall, 100, 0);
+        addContainer(second, matavfall, 20, 0);
+        WasteRoom third = room(3L, 3);
+        addContainer(third, restavfall, 0, 0);
+        addContainer(third, restavfall, 100, 0);
+        addContainer(third, matavfall, 30, 0);
+        List<WasteRoom> versions = List.of(first, second, third);
+
+        assertTrue(versionStore.encode(first, second, versions));
+        assertTrue(versionStore.encode(second, third, versions));
+        when(containerCatalogService.findContainerPlansByIds(anySet()))
+                .thenReturn(Map.of(1L, restavfall, 2L, matavfall));
+
+        List<WasteRoom> resolved = versionStore.resolveAll(versions);
+
+        assertEquals(List.of("1@0.0,0.0", "1@100.0,0.0", "2@10.0,0.0"), containers(resolved.get(0)));
+        assertEquals(List.of("1@0.0,0.0", "1@100.0,0.0", "2@20.0,0.0"), containers(resolved.get(1)));
+        assertSame(third, resolved.get(2));
+        verify(containerCatalogService, times(1)).findContainerPlansByIds(anySet());
+    }
+
+    @Test
+    void materializeDependents_WritesDeltaVersionsBackAsRows() {
+        WasteRoom previous = room(1L, 1);
+        addContainer(previous, restavfall, 0, 0);
+        addContainer(previous, restavfall, 100, 0);
+        addDoor(previous, 50, 0);
+        WasteRoom next = room(2L, 2);
+        addContainer(next, restavfall, 0, 0);
+        addContainer(next, restavfall, 150, 0);
+        addDoor(next, 50, 0);
+
+        assertTrue(versionStore.encode(previous, next, List.of(previous, next)));
+        when(wasteRoomRepository.findByLayoutBaseId(2L)).thenReturn(List.of(previous));
+        when(containerCatalogService.findContainerPlansByIds(anySet())).thenReturn(Map.of(1L, restavfall));
+
+        versionStore.materializeDependents(next);
+
+        assertFalse(previous.hasLayoutDelta());
+        assertNull(previous.getLayoutBase());
+        assertEquals(List.of("1@0.0,0.0", "1@100.0,0.0"), containers(previous));
+        assertSame(previous, previous.getContainers().get(0).getWasteRoom());
+        assertEquals(1, previous.getDoors().size());
+        assertSame(previous, previous.getDoors().get(0).getWasteRoom());
+    }
+
+    private static WasteRoom room(Long id, int versionNumber) {
+        WasteRoom room = new WasteRoom();
+        room.setId(id);
+        room.setName("Rum A");
+        room.setVersionNumber(versionNumber);
+        room.setContainers(new ArrayList<>());
+        room.setDoors(new ArrayList<>());
+        room.setOtherObjects(new ArrayList<>());
+        return room;
+    }
+
+    private static void addContainer(WasteRoom room, ContainerPlan plan, double x, double y) {
+        ContainerPosition container = new ContainerPosition();
+        container.setContainerPlan(plan);
+        container.setX(x);
+        container.setY(y);
+        container.setWasteRoom(room);
+        room.getContainers().add(container);
+    }
+
+    private static void addDoor(WasteRoom room, double x, double y) {
+        room.getDoors().add(new Door(null, 1.2, 0.1, x, y, 0, "top", "outward", room));
+    }
+
+    private static void addObject(WasteRoom room, String name, double x, double y) {
+        room.getOtherObjects().add(new OtherObject(null, name, 60, 40, x, y, 0, room));
+    }
+
+    private static List<String> containers(WasteRoom room) {
+        return room.getContainers().stream()
+                .map(c -> c.getContainerPlan().getId() + "@" + c.getX() + "," + c.getY())
+                .sorted()
+                .toList();
+    }
+}